@@ -0,0 +1,52 @@
+package benchmark.data;
+
+import java.util.Random;
+
+public class BenchmarkTexts {
+
+    private static final String PASSAGE = "بِسْمِ اللَّهِ الرَّحْمَٰنِ الرَّحِيمِ الرَّحْمَٰنُ عَلَّمَ الْقُرْآنَ خَلَقَ الْإِنسَانَ عَلَّمَهُ الْبَيَانَ "
+            + "الشَّمْسُ وَالْقَمَرُ بِحُسْبَانٍ وَالنَّجْمُ وَالشَّجَرُ يَسْجُدَانِ وَالسَّمَاءَ رَفَعَهَا وَوَضَعَ الْمِيزَانَ "
+            + "أَلَّا تَطْغَوْا فِي الْمِيزَانِ وَأَقِيمُوا الْوَزْنَ بِالْقِسْطِ وَلَا تُخْسِرُوا الْمِيزَانَ "
+            + "وَالْأَرْضَ وَضَعَهَا لِلْأَنَامِ فِيهَا فَاكِهَةٌ وَالنَّخْلُ ذَاتُ الْأَكْمَامِ وَالْحَبُّ ذُو الْعَصْفِ وَالرَّيْحَانُ "
+            + "فَبِأَيِّ آلَاءِ رَبِّكُمَا تُكَذِّبَانِ. ";
+
+    // Builds an Arabic document of roughly the requested length by repeating a fixed passage
+    public static String arabic(int length) {
+        StringBuilder text = new StringBuilder(length + PASSAGE.length());
+        while (text.length() < length) {
+            text.append(PASSAGE);
+        }
+        return text.toString();
+    }
+
+    // Like arabic(), but each word is written the way mixed sources spell it: with or without
+    // vowels, with or without hamza on alef, teh marbuta as heh, alef maksura as yeh, or stretched
+    // by a tatweel. The same seed always gives the same text.
+    public static String varied(int length) {
+        Random random = new Random(length);
+        String[] words = PASSAGE.trim().split(" ");
+        StringBuilder text = new StringBuilder(length + PASSAGE.length());
+        while (text.length() < length) {
+            for (String word : words) {
+                text.append(respell(word, random)).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String respell(String word, Random random) {
+        if (random.nextBoolean()) {
+            word = word.replaceAll("[\u064B-\u0652]", "");
+        }
+        if (random.nextBoolean()) {
+            word = word.replace('أ', 'ا').replace('إ', 'ا').replace('آ', 'ا');
+        }
+        if (random.nextBoolean()) {
+            word = word.replace('ة', 'ه').replace('ى', 'ي');
+        }
+        if (random.nextInt(4) == 0 && word.length() > 2) {
+            word = word.substring(0, 2) + 'ـ' + word.substring(2);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark.data;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.ContentCodec;
+
+// CPU cost of compressing page text at rest, per page size. The size ratios are in Benchmark/README.md.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCompressionBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int chars;
+
+    private String text;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.arabic(chars);
+        compressed = ContentCodec.compress(text);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return ContentCodec.compress(text);
+    }
+
+    @Benchmark
+    public String decompress() throws SQLException {
+        return ContentCodec.decompress(compressed);
+    }
+}
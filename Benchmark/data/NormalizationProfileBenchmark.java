@@ -0,0 +1,60 @@
+package benchmark.data;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.PKLCalculator;
+import dal.PMICalculator;
+import dal.TextNormalizer;
+import dal.TokenizedText;
+
+// Tokenizes a document and computes its PMI and PKL scores under each normalization profile.
+// The orthographic profile folds spelling variants, so the frequency tables get fewer keys.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NormalizationProfileBenchmark {
+
+    @Param({ "BASIC", "ORTHOGRAPHIC" })
+    public TextNormalizer.Profile profile;
+
+    @Param({ "100000" })
+    public int chars;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.varied(chars);
+    }
+
+    @Benchmark
+    public int tokenize() {
+        return TokenizedText.of(text, profile).vocabularySize();
+    }
+
+    @Benchmark
+    public Map<String, Double> pmi() {
+        return new PMICalculator(TokenizedText.of(text, profile)).calculatePMIForAllBigrams();
+    }
+
+    @Benchmark
+    public Map<String, Double> pkl() {
+        return new PKLCalculator(TokenizedText.of(text, profile)).calculatePKLForAllWords();
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark.data;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.PMICalculator;
+import dal.TokenizedText;
+
+// Compares PMI scoring with bigrams counted by vocabulary id against the previous string-keyed
+// counting, on an already tokenized page and document. Run with -prof gc for allocation per op.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PMIBenchmark {
+
+    @Param({ "2000", "100000" })
+    public int chars;
+
+    private TokenizedText text;
+
+    @Setup
+    public void setUp() {
+        text = TokenizedText.of(BenchmarkTexts.varied(chars));
+    }
+
+    @Benchmark
+    public Map<String, Double> previous() {
+        String[] words = text.words();
+        Map<String, Integer> bigramFreq = new HashMap<>();
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
+        }
+        Map<String, Double> pmiScores = new LinkedHashMap<>();
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            double probWord1 = (double) text.count(text.idOf(words[i])) / words.length;
+            double probWord2 = (double) text.count(text.idOf(words[i + 1])) / words.length;
+            double probBigram = (double) bigramFreq.getOrDefault(words[i] + " " + words[i + 1], 0) / words.length;
+            pmiScores.put(bigram, Math.log(probBigram / (probWord1 * probWord2)) / Math.log(2));
+        }
+        return pmiScores;
+    }
+
+    @Benchmark
+    public Map<String, Double> pmi() {
+        return new PMICalculator(text).calculatePMIForAllBigrams();
+    }
+}
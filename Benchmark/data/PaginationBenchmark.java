@@ -0,0 +1,82 @@
+package benchmark.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.PaginationDAO;
+import dto.Pages;
+
+// Compares the single-pass paginator with the previous character-by-character implementation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int chars;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.arabic(chars);
+    }
+
+    @Benchmark
+    public List<Pages> previous() {
+        return previousPaginate(text);
+    }
+
+    @Benchmark
+    public List<Pages> hardCut() {
+        return PaginationDAO.paginate(text, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.NONE);
+    }
+
+    @Benchmark
+    public List<Pages> wordBoundary() {
+        return PaginationDAO.paginate(text, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.WORD);
+    }
+
+    @Benchmark
+    public List<Pages> sentenceBoundary() {
+        return PaginationDAO.paginate(text, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.SENTENCE);
+    }
+
+    @Benchmark
+    public List<Pages> words() {
+        return PaginationDAO.paginate(text, 20, PaginationDAO.Unit.WORDS, PaginationDAO.Boundary.WORD);
+    }
+
+    // PaginationDAO.paginate before the single-pass rewrite
+    private static List<Pages> previousPaginate(String fileContent) {
+        int pageSize = 100;
+        int pageNumber = 1;
+        String pageContent = "";
+        List<Pages> pages = new ArrayList<Pages>();
+        for (int i = 0; i < fileContent.length(); i++) {
+            pageContent += fileContent.charAt(i);
+            if (pageContent.length() == pageSize || i == fileContent.length() - 1) {
+                pages.add(new Pages(0, 0, pageNumber, pageContent));
+                pageNumber++;
+                pageContent = "";
+            }
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.TFIDFCalculator;
+
+// Top-10 similar documents from a TF-IDF index of synthetic documents. Each document has 200
+// words drawn from a 50,000-word vocabulary with a skewed distribution, so a few words occur
+// in most documents and most words in few, as in natural text.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SimilarFilesBenchmark {
+
+    private static final int VOCABULARY = 50000;
+    private static final int WORDS_PER_DOCUMENT = 200;
+    private static final String LETTERS = "ابتثجحخدذرزسشصضطظعغفقكلمنهوي";
+
+    @Param({ "10000", "100000" })
+    public int documents;
+
+    private TFIDFCalculator index;
+    private Random random;
+    private String[] vocabulary;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(5); length > 0; length--) {
+                word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+            vocabulary[i] = word.toString();
+        }
+        index = new TFIDFCalculator();
+        for (int id = 1; id <= documents; id++) {
+            index.addDocument(id, document());
+        }
+        index.findSimilar(1, 10);
+    }
+
+    private Map<String, Integer> document() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+            int word = (int) Math.pow(VOCABULARY, random.nextDouble()) - 1;
+            counts.merge(vocabulary[word], 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public Map<Integer, Double> findSimilar() {
+        query = query % documents + 1;
+        return index.findSimilar(query, 10);
+    }
+
+    // A save replaces one document, after which the first query recomputes the vector lengths
+    @Benchmark
+    public Map<Integer, Double> updateThenFindSimilar() {
+        query = query % documents + 1;
+        index.updateDocument(query, document());
+        return index.findSimilar(query, 10);
+    }
+}
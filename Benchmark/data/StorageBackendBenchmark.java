@@ -0,0 +1,91 @@
+package benchmark.data;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.AbstractDAOEditorFactory;
+import dal.IEditorDBDAO;
+import dto.Documents;
+
+// Storage throughput of whichever backend db.type selects; run once per backend (see Benchmark/README.md).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StorageBackendBenchmark {
+
+    private static final String PREFIX = "storage-benchmark-";
+
+    private IEditorDBDAO dao;
+    private String pageContent;
+    private String fileName;
+    private int fileId;
+
+    @Setup
+    public void setUp() {
+        dao = AbstractDAOEditorFactory.getInstance().createEditorDAO();
+        pageContent = BenchmarkTexts.arabic(100);
+        fileName = PREFIX + System.nanoTime() + ".txt";
+        dao.createFileInDB(fileName, BenchmarkTexts.arabic(2000));
+        for (Documents doc : dao.getFilesFromDB()) {
+            if (doc.getName().equals(fileName)) {
+                fileId = doc.getId();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteFiles(PREFIX);
+    }
+
+    // The file each createFile call made; deleted after the call so every call sees the same corpus
+    @State(Scope.Thread)
+    public static class CreatedFile {
+        private String name;
+
+        @TearDown(Level.Invocation)
+        public void tearDown(StorageBackendBenchmark benchmark) {
+            benchmark.deleteFiles(name);
+        }
+    }
+
+    @Benchmark
+    public boolean createFile(CreatedFile created) {
+        created.name = PREFIX + System.nanoTime() + ".txt";
+        return dao.createFileInDB(created.name, pageContent);
+    }
+
+    @Benchmark
+    public boolean updatePage() {
+        return dao.updateFileInDB(fileId, fileName, 1, pageContent);
+    }
+
+    @Benchmark
+    public List<Documents> readAllFiles() {
+        return dao.getFilesFromDB();
+    }
+
+    private void deleteFiles(String namePrefix) {
+        for (Documents doc : dao.getFilesFromDB()) {
+            if (doc.getName().startsWith(namePrefix)) {
+                dao.deleteFileInDB(doc.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark.data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.TextNormalizer;
+
+// Compares the table-driven normalizer with the previous three-pass PreProcessText pipeline,
+// each followed by what the calculators do next: splitting into words.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final Set<Character> DIACRITICS = new HashSet<>(
+            Arrays.asList('َ', 'ً', 'ُ', 'ٌ', 'ِ', 'ٍ', 'ْ', 'ّ'));
+
+    @Param({ "100", "100000" })
+    public int chars;
+
+    private String text;
+    private final TextNormalizer.Tokens tokens = new TextNormalizer.Tokens();
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.arabic(chars);
+    }
+
+    @Benchmark
+    public String[] previous() {
+        return previousPreprocess(text).split("\\s+");
+    }
+
+    @Benchmark
+    public String[] normalizeAndSplit() {
+        return TextNormalizer.normalize(text).split("\\s+");
+    }
+
+    @Benchmark
+    public int tokenize() {
+        return TextNormalizer.tokenize(text, tokens).count();
+    }
+
+    private static String previousPreprocess(String text) {
+        StringBuilder result = new StringBuilder();
+        for (char ch : text.toCharArray()) {
+            if (!DIACRITICS.contains(ch)) {
+                result.append(ch);
+            }
+        }
+        return result.toString().replaceAll("[^\\p{IsArabic}\\s]", "").toLowerCase();
+    }
+}
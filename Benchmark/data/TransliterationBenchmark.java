@@ -0,0 +1,100 @@
+package benchmark.data;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dal.Transliteration;
+
+// Compares the table-driven transliteration with the previous map lookup, split and
+// capitalization, and streams a document into a writer that discards it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransliterationBenchmark {
+
+    private static final String ARABIC = "اآبتثجحخدذرزسشصضطظعغفقكلمنهويءَُِ";
+    private static final String[] ROMAN = { "a", "aa", "b", "t", "th", "j", "H", "kh", "d", "dh", "r", "z", "s", "sh",
+            "S", "D", "T", "DH", "3", "gh", "f", "q", "k", "l", "m", "n", "h", "w", "y", "'", "a", "u", "i" };
+
+    @Param({ "100", "100000" })
+    public int chars;
+
+    private String text;
+    private final Map<Character, String> map = new HashMap<>();
+    private final Writer discard = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.arabic(chars);
+        for (int i = 0; i < ARABIC.length(); i++) {
+            map.put(ARABIC.charAt(i), ROMAN[i]);
+        }
+    }
+
+    @Benchmark
+    public String previous() {
+        StringBuilder romanText = new StringBuilder();
+        boolean lastCharWasSpace = false;
+        for (char ch : text.toCharArray()) {
+            if (ch == ' ') {
+                if (!lastCharWasSpace) {
+                    romanText.append(" ");
+                    lastCharWasSpace = true;
+                }
+                continue;
+            }
+            if (map.containsKey(ch)) {
+                romanText.append(map.get(ch));
+                lastCharWasSpace = false;
+            }
+        }
+        StringBuilder formattedText = new StringBuilder();
+        for (String word : romanText.toString().split(" ")) {
+            if (!word.isEmpty()) {
+                formattedText.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1)).append(" ");
+            }
+        }
+        return formattedText.toString().trim();
+    }
+
+    @Benchmark
+    public String transliterate() {
+        return Transliteration.transliterate(text);
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        Transliteration.transliterate(new StringReader(text), discard);
+    }
+}
@@ -0,0 +1,91 @@
+package testing.business;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import bll.PieceTable;
+
+import java.util.Random;
+
+public class PieceTableTest {
+
+    private static int countWords(String text) {
+        return text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+    }
+
+    @Test
+    void testRandomEditsMatchStringBuilder() {
+        Random random = new Random(42);
+        String[] fragments = { "كلمة", " ", "\n", "عربية ", "ab", "  x", "." };
+        PieceTable table = new PieceTable("النص الأصلي\nسطر ثان");
+        StringBuilder expected = new StringBuilder("النص الأصلي\nسطر ثان");
+
+        for (int i = 0; i < 2000; i++) {
+            if (expected.length() > 0 && random.nextInt(3) == 0) {
+                int offset = random.nextInt(expected.length());
+                int count = random.nextInt(Math.min(8, expected.length() - offset) + 1);
+                table.delete(offset, count);
+                expected.delete(offset, offset + count);
+            } else {
+                int offset = random.nextInt(expected.length() + 1);
+                String fragment = fragments[random.nextInt(fragments.length)];
+                table.insert(offset, fragment);
+                expected.insert(offset, fragment);
+            }
+        }
+
+        String text = expected.toString();
+        assertEquals(text, table.toString(), "Text should match after random edits");
+        assertEquals(countWords(text), table.getWordCount(), "Word count should be maintained incrementally");
+        assertEquals(text.replaceAll("\\s", "").length(), table.getWordCharacterCount(),
+                "Word characters should be maintained incrementally");
+        assertEquals(text.length() - text.replace("\n", "").length(), table.getNewlineCount(),
+                "Newline count should be maintained incrementally");
+    }
+
+    @Test
+    void testSnapshotIsUnaffectedByLaterEdits() {
+        PieceTable table = new PieceTable("first second");
+        table.insert(5, " inserted");
+        PieceTable.Snapshot snapshot = table.snapshot();
+
+        table.delete(0, 6);
+        table.insert(0, "changed ");
+        for (int i = 0; i < 100; i++) {
+            table.insert(table.length(), "grow ");
+        }
+
+        assertEquals("first inserted second", snapshot.toString(), "Snapshot should keep the old text");
+        assertEquals(3, snapshot.getWordCount(), "Snapshot should keep the old word count");
+        assertEquals("inserted", snapshot.subSequence(6, 14), "Snapshot should support ranges");
+    }
+
+    @Test
+    void testLineIndex() {
+        PieceTable table = new PieceTable("one\ntwo\nthree");
+        table.insert(4, "inserted\n");
+
+        assertEquals(0, table.getLineStartOffset(0), "First line should start at 0");
+        assertEquals(4, table.getLineStartOffset(1), "Inserted line should start after the first break");
+        assertEquals(13, table.getLineStartOffset(2), "Following line should start after the inserted break");
+        assertEquals(2, table.getLineOfOffset(14), "Offset inside 'two' should be on line 2");
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getLineStartOffset(4));
+    }
+
+    @Test
+    void testWordBoundaries() {
+        PieceTable table = new PieceTable("alpha beta gamma");
+
+        assertEquals(6, table.getWordStart(8), "Word start should be found from inside the word");
+        assertEquals(10, table.getWordEnd(8), "Word end should be found from inside the word");
+    }
+
+    @Test
+    void testInvalidRangesAreRejected() {
+        PieceTable table = new PieceTable("text");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.insert(5, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.delete(2, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.charAt(4));
+    }
+}
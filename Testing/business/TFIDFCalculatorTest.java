@@ -5,6 +5,11 @@ import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
 import dal.TFIDFCalculator;
+import dal.TokenizedText;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class TFIDFCalculatorTest {
 
@@ -123,4 +128,48 @@ public class TFIDFCalculatorTest {
         assertTrue(Double.isFinite(score),
                   "Document with unique words should produce valid score");
     }
+
+    @Test
+    void testIndexUpdatesMatchRebuiltCorpus() {
+        calculator.addDocument(1, "كتب الولد الدرس");
+        calculator.addDocument(2, "قرأ الولد الكتاب");
+        calculator.addDocument(3, "كتب المعلم الدرس");
+        calculator.updateDocument(2, TokenizedText.of("قرأ البنت القصة"));
+        assertTrue(calculator.removeDocument(3));
+        assertFalse(calculator.removeDocument(3), "A removed document should be gone");
+
+        TFIDFCalculator rebuilt = new TFIDFCalculator();
+        rebuilt.addDocumentToCorpus("كتب الولد الدرس");
+        rebuilt.addDocumentToCorpus("قرأ البنت القصة");
+
+        String query = "كتب الولد القصة الشمس";
+        assertEquals(2, calculator.size());
+        assertEquals(rebuilt.calculateDocumentTfIdf(query), calculator.calculateDocumentTfIdf(query), 1e-12,
+                "An updated index should score like one built from the current documents");
+        assertNotEquals(0.0, calculator.calculateDocumentTfIdf(query));
+
+        TFIDFCalculator others = new TFIDFCalculator();
+        others.addDocumentToCorpus("قرأ البنت القصة");
+        assertEquals(others.calculateDocumentTfIdf(query),
+                calculator.calculateDocumentTfIdf(TokenizedText.of(query), 1), 1e-12,
+                "Excluding a document should score against the others only");
+    }
+
+    @Test
+    void testFindSimilarRanksByCosine() {
+        calculator.addDocument(1, "الشمس تشرق في الصباح");
+        calculator.addDocument(2, "الشمس تشرق في المساء");
+        calculator.addDocument(3, "القمر يظهر ليلا");
+        calculator.addDocument(4, "الشمس");
+
+        Map<Integer, Double> similar = calculator.findSimilar(1, 10);
+        assertEquals(List.of(2, 4), new ArrayList<>(similar.keySet()),
+                "Only documents sharing weighted terms should match, the closest first");
+        assertTrue(similar.get(2) > similar.get(4) && similar.get(2) <= 1.0);
+        assertEquals(1, calculator.findSimilar(1, 1).size(), "The limit should cap the results");
+
+        calculator.removeDocument(2);
+        assertEquals(List.of(4), new ArrayList<>(calculator.findSimilar(1, 10).keySet()),
+                "Removed documents should no longer match");
+    }
 }
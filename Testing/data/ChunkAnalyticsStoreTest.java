@@ -0,0 +1,61 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.ChunkAnalyticsStore;
+import dal.TextNormalizer;
+import dto.PageAnalytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ChunkAnalyticsStoreTest {
+
+    private static final String PAGE = "ذهبَ الطالبُ إلى المدرسة صباحا";
+
+    private static class MapTier implements ChunkAnalyticsStore.Tier {
+        final Map<String, PageAnalytics> stored = new HashMap<>();
+        final List<String> loads = new ArrayList<>();
+
+        @Override
+        public PageAnalytics load(String chunkHash) {
+            loads.add(chunkHash);
+            return stored.get(chunkHash);
+        }
+
+        @Override
+        public void store(String chunkHash, PageAnalytics analytics) {
+            stored.put(chunkHash, analytics);
+        }
+    }
+
+    @Test
+    void testProfilesDoNotShareResults() {
+        MapTier tier = new MapTier();
+        ChunkAnalyticsStore store = new ChunkAnalyticsStore(10, tier);
+
+        store.analyze(PAGE, TextNormalizer.Profile.BASIC, null);
+        store.analyze(PAGE, TextNormalizer.Profile.ORTHOGRAPHIC, null);
+
+        assertEquals(2, tier.stored.size(), "Each profile should be analyzed and stored separately");
+        assertEquals(2, store.size());
+        assertNotEquals(tier.loads.get(0), tier.loads.get(1), "Keys should differ by profile");
+        assertEquals(32, tier.loads.get(0).length(), "Keys should still fit the chunkHash column");
+    }
+
+    @Test
+    void testResultsAreReadOnly() {
+        ChunkAnalyticsStore store = new ChunkAnalyticsStore(10, null);
+        PageAnalytics first = store.analyze(PAGE, TextNormalizer.Profile.BASIC, null);
+        PageAnalytics second = store.analyze(PAGE, TextNormalizer.Profile.BASIC, null);
+
+        assertSame(first, second, "Repeated text should reuse the cached result");
+        assertThrows(UnsupportedOperationException.class, () -> first.getLemmas().clear());
+        assertThrows(UnsupportedOperationException.class, () -> first.getPmiScores().put("x", 1.0));
+        String word = first.getPosTags().keySet().iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> first.getPosTags().get(word).add("x"));
+    }
+}
@@ -0,0 +1,64 @@
+package testing.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.ContentCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+public class ContentCodecTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("db.compression");
+        System.clearProperty("db.compression.minChars");
+    }
+
+    @Test
+    void testRoundTripArabicText() throws SQLException {
+        String text = "بسم الله الرحمن الرحيم ".repeat(200);
+        byte[] compressed = ContentCodec.compress(text);
+
+        assertTrue(compressed.length < text.getBytes(StandardCharsets.UTF_8).length,
+                "Repetitive Arabic text should shrink");
+        assertEquals(text, ContentCodec.decompress(compressed), "Decompressed text should match the original");
+    }
+
+    @Test
+    void testRoundTripEmptyText() throws SQLException {
+        assertEquals("", ContentCodec.decompress(ContentCodec.compress("")), "Empty text should round trip");
+    }
+
+    @Test
+    void testCompressionIsOptIn() {
+        String text = "a".repeat(1000);
+        assertEquals(ContentCodec.PLAIN, ContentCodec.codecFor(text), "Compression should be off by default");
+
+        System.setProperty("db.compression", "deflate");
+        System.setProperty("db.compression.minChars", "500");
+        assertEquals(ContentCodec.DEFLATE, ContentCodec.codecFor(text), "Long text should be compressed when enabled");
+        assertEquals(ContentCodec.PLAIN, ContentCodec.codecFor("a".repeat(100)),
+                "Short text should stay plain below the threshold");
+    }
+
+    @Test
+    void testDefaultThresholdCompressesFullPages() {
+        System.setProperty("db.compression", "deflate");
+        assertEquals(ContentCodec.DEFLATE, ContentCodec.codecFor("ب".repeat(100)),
+                "A full page of the default size should be compressed");
+        assertEquals(ContentCodec.PLAIN, ContentCodec.codecFor("بسم الله"), "A few words should stay plain");
+    }
+
+    @Test
+    void testCorruptContentIsRejected() {
+        byte[] compressed = ContentCodec.compress("some text that will be damaged ".repeat(20));
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+        assertThrows(SQLException.class, () -> ContentCodec.decompress(truncated),
+                "Truncated content should raise an error instead of returning partial text");
+    }
+}
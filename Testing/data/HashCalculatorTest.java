@@ -184,4 +184,39 @@ public class HashCalculatorTest {
         assertEquals(hash2, hash3, "All hashes should be equal");
         assertEquals(hash3, hash4, "All hashes should be equal");
     }
+
+    @Test
+    void testStreamingMatchesWholeText() throws Exception {
+        String text = "بِسْمِ اللَّهِ \uD83D\uDE00 mixed text \uD800 lone surrogate ".repeat(500);
+        HashCalculator.Hasher hasher = HashCalculator.newHasher("MD5");
+        for (int i = 0; i < text.length(); i += 7) {
+            hasher.update(text.substring(i, Math.min(text.length(), i + 7)));
+        }
+
+        java.security.MessageDigest md5 = java.security.MessageDigest.getInstance("MD5");
+        String expected = HashCalculator.toHex(md5.digest(text.getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+        assertEquals(expected, hasher.hexDigest(), "Chunked hashing should match hashing the UTF-8 bytes at once");
+    }
+
+    @Test
+    void testMurmur3KnownValue() throws Exception {
+        assertEquals("6C1B07BC7BBC4BE347939AC4A93C437A",
+                HashCalculator.newHasher(HashCalculator.MURMUR3_128)
+                        .update("The quick brown fox jumps over the lazy dog").hexDigest(),
+                "MurmurHash3 x64 128 should match the reference value");
+        assertEquals("00000000000000000000000000000000",
+                HashCalculator.newHasher(HashCalculator.MURMUR3_128).hexDigest(), "Empty input should hash to zero");
+    }
+
+    @Test
+    void testMurmur3StreamingMatchesWholeText() throws Exception {
+        String text = "a longer text that spans several sixteen byte blocks ".repeat(20);
+        HashCalculator.Hasher chunked = HashCalculator.newHasher(HashCalculator.MURMUR3_128);
+        for (int i = 0; i < text.length(); i += 5) {
+            chunked.update(text.substring(i, Math.min(text.length(), i + 5)));
+        }
+
+        assertEquals(HashCalculator.newHasher(HashCalculator.MURMUR3_128).update(text).hexDigest(),
+                chunked.hexDigest(), "Block boundaries should not change the hash");
+    }
 }
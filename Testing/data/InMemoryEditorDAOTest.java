@@ -0,0 +1,106 @@
+package testing.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.InMemoryEditorDAO;
+import dto.DedupeReport;
+import dto.Documents;
+import dto.Pages;
+
+import java.util.List;
+
+public class InMemoryEditorDAOTest {
+
+    private InMemoryEditorDAO dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = new InMemoryEditorDAO();
+    }
+
+    @Test
+    void testCreateFileIsPaginated() {
+        assertTrue(dao.createFileInDB("first.txt", "a".repeat(250)), "File should be created");
+
+        List<Documents> files = dao.getFilesFromDB();
+        assertEquals(1, files.size(), "One file should be stored");
+        assertEquals("first.txt", files.get(0).getName(), "File name should be kept");
+        assertEquals(3, files.get(0).getPages().size(), "Content should be split into pages");
+        assertNotNull(files.get(0).getHash(), "File hash should be stored");
+    }
+
+    @Test
+    void testUpdateFile() {
+        dao.createFileInDB("first.txt", "old content");
+        int fileId = dao.getFilesFromDB().get(0).getId();
+
+        assertTrue(dao.updateFileInDB(fileId, "renamed.txt", 1, "new content"), "Existing page should be updated");
+        Documents file = dao.getFilesFromDB().get(0);
+        assertEquals("renamed.txt", file.getName(), "File should be renamed");
+        assertEquals("new content", file.getPages().get(0).getPageContent(), "Page content should be replaced");
+    }
+
+    @Test
+    void testUpdateMissingPageFails() {
+        dao.createFileInDB("first.txt", "content");
+        int fileId = dao.getFilesFromDB().get(0).getId();
+
+        assertFalse(dao.updateFileInDB(fileId, "first.txt", 5, "content"), "Unknown page should not be updated");
+        assertFalse(dao.updateFileInDB(fileId + 1, "first.txt", 1, "content"), "Unknown file should not be updated");
+    }
+
+    @Test
+    void testDeleteFile() {
+        dao.createFileInDB("first.txt", "one");
+        dao.createFileInDB("second.txt", "two");
+        int fileId = dao.getFilesFromDB().get(0).getId();
+
+        assertTrue(dao.deleteFileInDB(fileId), "Existing file should be deleted");
+        assertFalse(dao.deleteFileInDB(fileId), "Deleting twice should fail");
+        assertEquals(1, dao.getFilesFromDB().size(), "Only the second file should remain");
+    }
+
+    @Test
+    void testReturnedFilesAreCopies() {
+        dao.createFileInDB("first.txt", "content");
+        Pages page = dao.getFilesFromDB().get(0).getPages().get(0);
+        page.setPageContent("changed outside the DAO");
+
+        assertEquals("content", dao.getFilesFromDB().get(0).getPages().get(0).getPageContent(),
+                "Stored page should not change through a returned copy");
+    }
+
+    @Test
+    void testTransliterateStoresResult() {
+        dao.createFileInDB("first.txt", "content");
+        int pageId = dao.getFilesFromDB().get(0).getPages().get(0).getPageId();
+
+        String result = dao.transliterateInDB(pageId, "كتب");
+        assertNotNull(result, "Transliteration should return text");
+        assertEquals(result, dao.getTransliteratedPage(pageId).getTransliteratedText(),
+                "Transliteration should be stored for the page");
+    }
+
+    @Test
+    void testPageAnalyticsAreStored() {
+        dao.createFileInDB("first.txt", "content");
+        int pageId = dao.getFilesFromDB().get(0).getPages().get(0).getPageId();
+
+        assertNotNull(dao.getPageAnalyticsFromDB(pageId), "Analytics should be stored for every page");
+        assertNull(dao.getPageAnalyticsFromDB(pageId + 1), "Unknown page should have no analytics");
+    }
+
+    @Test
+    void testRepeatedTextReusesAnalytics() {
+        String passage = "قال الراوي حدثنا الشيخ عن أبيه عن جده أنه قال ";
+        dao.createFileInDB("first.txt", passage.repeat(7) + "خاتمة الكتاب الأول");
+        dao.createFileInDB("second.txt", passage.repeat(7) + "خاتمة الكتاب الثاني");
+
+        DedupeReport report = dao.getLastDedupeReport();
+        assertEquals("second.txt", report.getFileName(), "Report should describe the latest import");
+        assertEquals(report.getChunks() - 1, report.getReusedChunks(), "Only the differing last page should be analyzed");
+        assertTrue(report.getRatio() > 0.8, "Most characters should reuse stored analytics");
+    }
+}
@@ -0,0 +1,133 @@
+package testing.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.InternTable;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class InternTableTest {
+
+    private Map<String, Integer> table;
+    private int queries;
+    private InternTable vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        table = new HashMap<>();
+        queries = 0;
+        vocabulary = new InternTable("vocabulary", "wordId", "word", 100);
+    }
+
+    @Test
+    void testSameWordGetsSameId() throws Exception {
+        Connection conn = fakeConnection();
+        int first = vocabulary.idOf(conn, "كتب");
+        int second = vocabulary.idOf(conn, "كتب");
+
+        assertEquals(first, second, "Interning the same word twice should return the same id");
+        assertNotEquals(first, (int) vocabulary.idOf(conn, "قرأ"), "Different words should get different ids");
+        assertEquals(2, table.size(), "Each word should be inserted once");
+    }
+
+    @Test
+    void testCachedWordSkipsDatabase() throws Exception {
+        Connection conn = fakeConnection();
+        vocabulary.idOf(conn, "كتب");
+        int queriesAfterFirst = queries;
+        vocabulary.idOf(conn, "كتب");
+
+        assertEquals(queriesAfterFirst, queries, "Cached word should not query the database");
+    }
+
+    @Test
+    void testExistingWordIsLoaded() throws Exception {
+        table.put("كتب", 42);
+        assertEquals(42, (int) vocabulary.idOf(fakeConnection(), "كتب"), "Existing id should be reused");
+    }
+
+    @Test
+    void testRollbackEvictsNewIds() throws Exception {
+        Connection conn = fakeConnection();
+        vocabulary.idOf(conn, "كتب");
+        vocabulary.rollback();
+        table.clear();
+
+        vocabulary.idOf(conn, "كتب");
+        assertEquals(1, table.size(), "Word from a rolled back transaction should be inserted again");
+    }
+
+    @Test
+    void testNullValueHasNoId() throws Exception {
+        assertNull(vocabulary.idOf(fakeConnection(), null), "Null values should map to NULL ids");
+    }
+
+    @Test
+    void testOverLongValuesAreShortenedNotRejected() throws Exception {
+        Connection conn = fakeConnection();
+        String longWord = "ك".repeat(InternTable.MAX_LENGTH + 10);
+        String otherLongWord = "ك".repeat(InternTable.MAX_LENGTH + 11);
+        int id = vocabulary.idOf(conn, longWord);
+
+        assertNotEquals(id, (int) vocabulary.idOf(conn, otherLongWord), "Values sharing a prefix should stay distinct");
+        for (String stored : table.keySet()) {
+            assertTrue(stored.length() <= InternTable.MAX_LENGTH, "Stored values should fit the column");
+        }
+        assertEquals(InternTable.storedForm(longWord), InternTable.storedForm(longWord));
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? statement((String) args[0])
+                        : null);
+    }
+
+    private PreparedStatement statement(String sql) {
+        String[] value = new String[1];
+        Integer[] generated = new Integer[1];
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "setString":
+                        value[0] = (String) args[1];
+                        return null;
+                    case "executeQuery":
+                        queries++;
+                        return resultSet(table.get(value[0]));
+                    case "executeUpdate":
+                        queries++;
+                        generated[0] = table.size() + 1;
+                        table.put(value[0], generated[0]);
+                        return 1;
+                    case "getGeneratedKeys":
+                        return resultSet(generated[0]);
+                    default:
+                        return null;
+                    }
+                });
+    }
+
+    private ResultSet resultSet(Integer id) {
+        boolean[] consumed = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "next":
+                        boolean hasRow = id != null && !consumed[0];
+                        consumed[0] = true;
+                        return hasRow;
+                    case "getInt":
+                        return id;
+                    default:
+                        return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,279 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.InMemoryEditorDAO;
+import dal.JournaledEditorDAO;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class JournaledEditorDAOTest {
+
+    @TempDir
+    Path directory;
+
+    private static class CountingDAO extends InMemoryEditorDAO {
+        int updates;
+
+        @Override
+        public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
+            updates++;
+            return super.updateFileInDB(id, fileName, pageNumber, content);
+        }
+
+        @Override
+        public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+            updates++;
+            return super.autoSaveFileInDB(id, fileName, pageNumber, content);
+        }
+    }
+
+    private JournaledEditorDAO open(CountingDAO delegate) {
+        return new JournaledEditorDAO(delegate, directory.resolve("journal.log"), 0, 0, 1024 * 1024);
+    }
+
+    @Test
+    void testSaveIsVisibleBeforeFlush() {
+        CountingDAO delegate = new CountingDAO();
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+
+        assertTrue(journal.autoSaveFileInDB(1, "file.txt", 1, "new content"), "Autosave should be acknowledged");
+        assertEquals(0, delegate.updates, "Save should not reach the database before a flush");
+        assertEquals("new content", journal.getFilesFromDB().get(0).getPages().get(0).getPageContent(),
+                "Reads should include unflushed saves");
+        journal.close();
+    }
+
+    @Test
+    void testRepeatedSavesAreCoalesced() throws IOException {
+        CountingDAO delegate = new CountingDAO();
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+
+        journal.autoSaveFileInDB(1, "file.txt", 1, "first edit");
+        journal.autoSaveFileInDB(1, "file.txt", 1, "second edit");
+        journal.flush();
+
+        assertEquals(1, delegate.updates, "Two saves of the same page should be written once");
+        assertEquals("second edit", delegate.getFilesFromDB().get(0).getPages().get(0).getPageContent(),
+                "Latest save should win");
+        assertEquals(0, journal.getPendingCount(), "Nothing should stay pending");
+        assertEquals(0, Files.size(directory.resolve("journal.log")), "Flushed journal should be emptied");
+        journal.close();
+    }
+
+    @Test
+    void testUnflushedSavesAreReplayed() {
+        CountingDAO crashed = new CountingDAO();
+        crashed.createFileInDB("file.txt", "old content");
+        open(crashed).autoSaveFileInDB(1, "file.txt", 1, "saved before crash");
+
+        CountingDAO restarted = new CountingDAO();
+        restarted.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(restarted);
+        assertEquals(1, journal.getPendingCount(), "Unflushed save should be recovered");
+        journal.close();
+        assertEquals("saved before crash", restarted.getFilesFromDB().get(0).getPages().get(0).getPageContent(),
+                "Recovered save should be written to the database");
+    }
+
+    @Test
+    void testTornRecordIsDiscarded() throws IOException {
+        CountingDAO delegate = new CountingDAO();
+        delegate.createFileInDB("file.txt", "old content");
+        open(delegate).autoSaveFileInDB(1, "file.txt", 1, "complete save");
+        Files.write(directory.resolve("journal.log"), new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+
+        JournaledEditorDAO journal = open(new CountingDAO());
+        assertEquals(1, journal.getPendingCount(), "Only the complete record should be recovered");
+        journal.close();
+    }
+
+    @Test
+    void testSaveOfMissingPageIsDroppedAndReported() {
+        CountingDAO delegate = new CountingDAO();
+        JournaledEditorDAO journal = open(delegate);
+        List<String> failures = new ArrayList<>();
+        journal.setSaveFailureListener(failures::add);
+        journal.autoSaveFileInDB(42, "missing.txt", 1, "content");
+
+        journal.flush();
+        assertEquals(0, journal.getPendingCount(), "Save of a page that no longer exists should be dropped");
+        assertEquals(1, failures.size(), "The dropped save should be reported");
+        assertTrue(failures.get(0).contains("missing.txt"));
+        journal.close();
+    }
+
+    @Test
+    void testFailedSaveIsKeptUntilTheDatabaseRecovers() {
+        CountingDAO delegate = new CountingDAO() {
+            boolean down = true;
+
+            @Override
+            public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+                updates++;
+                return !down && super.autoSaveFileInDB(id, fileName, pageNumber, content);
+            }
+
+            @Override
+            public boolean isPageMissing(int fileId, int pageNumber) {
+                if (updates == 10) {
+                    down = false;
+                }
+                return false;
+            }
+        };
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+        List<String> failures = new ArrayList<>();
+        journal.setSaveFailureListener(failures::add);
+        journal.autoSaveFileInDB(1, "file.txt", 1, "new content");
+
+        for (int i = 0; i < 10; i++) {
+            journal.flush();
+            assertEquals(1, journal.getPendingCount(), "Failed save should stay pending");
+        }
+        journal.flush();
+        assertEquals(0, journal.getPendingCount(), "Save should be written once the database is back");
+        assertEquals("new content", delegate.getFilesFromDB().get(0).getPages().get(0).getPageContent());
+        assertTrue(failures.isEmpty(), "Nothing should be reported as lost");
+        journal.close();
+    }
+
+    @Test
+    void testFailedSaveBacksOff() {
+        CountingDAO delegate = new CountingDAO() {
+            @Override
+            public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+                updates++;
+                return false;
+            }
+        };
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = new JournaledEditorDAO(delegate, directory.resolve("journal.log"), 60000, 60000,
+                1024 * 1024);
+        journal.autoSaveFileInDB(1, "file.txt", 1, "new content");
+
+        journal.flush();
+        journal.flush();
+        assertEquals(1, delegate.updates, "A failed save should not be retried before its backoff");
+        assertEquals(1, journal.getPendingCount());
+        journal.close();
+        assertEquals(2, delegate.updates, "Closing should give the save a last attempt");
+        assertEquals(1, delegate.getFilesFromDB().size());
+        JournaledEditorDAO reopened = new JournaledEditorDAO(delegate, directory.resolve("journal.log"), 0, 0, 1024 * 1024);
+        assertEquals(1, reopened.getPendingCount(), "The failed save should stay in the journal");
+    }
+
+    @Test
+    void testExplicitSaveIsWrittenBeforeReturning() {
+        CountingDAO delegate = new CountingDAO();
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+        journal.autoSaveFileInDB(1, "file.txt", 1, "autosaved");
+
+        assertTrue(journal.updateFileInDB(1, "file.txt", 1, "a".repeat(150)), "Save should succeed");
+        assertEquals(1, delegate.updates, "The save should replace the pending autosave and be written at once");
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(2, delegate.getFilesFromDB().get(0).getPages().size(), "The saved page should be split");
+        journal.close();
+    }
+
+    @Test
+    void testSaveDuringFlushIsNotOverwrittenByTheOlderSave() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingDAO delegate = new CountingDAO() {
+            @Override
+            public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.autoSaveFileInDB(id, fileName, pageNumber, content);
+            }
+        };
+        delegate.createFileInDB("file.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+        journal.autoSaveFileInDB(1, "file.txt", 1, "older save");
+
+        Thread flusher = new Thread(journal::flush);
+        flusher.start();
+        writing.await();
+        Thread saver = new Thread(() -> journal.updateFileInDB(1, "file.txt", 1, "newer save"));
+        saver.start();
+        Thread.sleep(100);
+        release.countDown();
+        flusher.join();
+        saver.join();
+
+        assertEquals("newer save", delegate.getFilesFromDB().get(0).getPages().get(0).getPageContent(),
+                "The older save must not land after the newer one");
+        assertEquals(0, journal.getPendingCount());
+        journal.close();
+    }
+
+    @Test
+    void testReplaySkipsSavesFlushedOutOfOrder() {
+        CountingDAO delegate = new CountingDAO() {
+            @Override
+            public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+                updates++;
+                return id != 1 && super.autoSaveFileInDB(id, fileName, pageNumber, content);
+            }
+        };
+        delegate.createFileInDB("first.txt", "old content");
+        delegate.createFileInDB("second.txt", "old content");
+        JournaledEditorDAO journal = open(delegate);
+        journal.autoSaveFileInDB(1, "first.txt", 1, "keeps failing");
+        journal.autoSaveFileInDB(2, "second.txt", 1, "written");
+        journal.flush();
+        journal.close();
+
+        JournaledEditorDAO reopened = open(new CountingDAO());
+        assertEquals(1, reopened.getPendingCount(), "Only the save that was never written should be replayed");
+        reopened.close();
+    }
+
+    @Test
+    void testLaterSavesOfAFileWaitForAnEarlierFailure() {
+        CountingDAO delegate = new CountingDAO() {
+            boolean down = true;
+
+            @Override
+            public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+                updates++;
+                boolean saved = !down && super.autoSaveFileInDB(id, fileName, pageNumber, content);
+                down = false;
+                return saved;
+            }
+        };
+        delegate.createFileInDB("file.txt", "a".repeat(150));
+        JournaledEditorDAO journal = open(delegate);
+        journal.autoSaveFileInDB(1, "file.txt", 2, "second page");
+        journal.updateFileInDB(1, "file.txt", 1, "b".repeat(250));
+
+        assertEquals(1, delegate.updates, "The reflowing save should wait for the failed save of page 2");
+        assertEquals(2, journal.getPendingCount());
+        journal.flush();
+        assertEquals(0, journal.getPendingCount());
+        StringBuilder content = new StringBuilder();
+        delegate.getFilesFromDB().get(0).getPages().stream()
+                .sorted((a, b) -> Integer.compare(a.getPageNumber(), b.getPageNumber()))
+                .forEach(page -> content.append(page.getPageContent()));
+        assertEquals("b".repeat(250) + "second page", content.toString(),
+                "Page 2 should be saved before page 1 is split");
+        journal.close();
+    }
+}
@@ -0,0 +1,245 @@
+package testing.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.LogStructuredEditorDAO;
+import dto.DedupeReport;
+import dto.Documents;
+import dto.PageAnalytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class LogStructuredEditorDAOTest {
+
+    // Record type of a file tombstone in the segment layout
+    private static final byte DELETE_RECORD = 5;
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredEditorDAO dao;
+
+    @AfterEach
+    void tearDown() {
+        if (dao != null) {
+            dao.close();
+        }
+    }
+
+    private LogStructuredEditorDAO open(long segmentSize) {
+        if (dao != null) {
+            dao.close();
+        }
+        dao = new LogStructuredEditorDAO(directory, segmentSize, 0.5, 0);
+        return dao;
+    }
+
+    @Test
+    void testFilesSurviveReopen() {
+        open(1024 * 1024).createFileInDB("first.txt", "a".repeat(250));
+        dao.createFileInDB("second.txt", "second file");
+
+        List<Documents> files = open(1024 * 1024).getFilesFromDB();
+        assertEquals(2, files.size(), "Both files should be replayed from the log");
+        assertEquals("first.txt", files.get(0).getName(), "File metadata should be replayed");
+        assertEquals(3, files.get(0).getPages().size(), "All pages should be replayed");
+        assertEquals("a".repeat(50), files.get(0).getPages().get(2).getPageContent(),
+                "Page content should be read back from the segment");
+    }
+
+    @Test
+    void testSimilarFilesSurviveReopen() {
+        open(1024 * 1024).createFileInDB("sun.txt", "الشمس تشرق في الصباح والشمس دافئة");
+        dao.createFileInDB("moon.txt", "القمر يظهر في الليل والقمر منير");
+        dao.createFileInDB("morning.txt", "الشمس دافئة في الصباح");
+        dao.createFileInDB("sea.txt", "البحر واسع وعميق");
+        int sunId = dao.getFilesFromDB().get(0).getId();
+        Map<Integer, Double> similar = dao.findSimilarFiles(sunId, 2);
+
+        assertEquals((Integer) dao.getFilesFromDB().get(2).getId(), similar.keySet().iterator().next(),
+                "The file sharing the most distinctive words should rank first");
+        assertEquals(similar, open(1024 * 1024).findSimilarFiles(sunId, 2),
+                "Stored term counts should give the same ranking after a reopen");
+    }
+
+    @Test
+    void testUpdateKeepsLatestVersion() {
+        open(1024 * 1024).createFileInDB("first.txt", "old content");
+        int fileId = dao.getFilesFromDB().get(0).getId();
+        assertTrue(dao.updateFileInDB(fileId, "renamed.txt", 1, "new content"), "Existing page should be updated");
+        assertFalse(dao.updateFileInDB(fileId, "renamed.txt", 2, "content"), "Unknown page should not be updated");
+
+        Documents file = open(1024 * 1024).getFilesFromDB().get(0);
+        assertEquals("renamed.txt", file.getName(), "Latest file record should win on replay");
+        assertEquals("new content", file.getPages().get(0).getPageContent(), "Latest page record should win on replay");
+    }
+
+    @Test
+    void testDeleteAndCompaction() {
+        open(512);
+        for (int i = 0; i < 6; i++) {
+            dao.createFileInDB("file" + i + ".txt", "content of file " + i);
+        }
+        int segmentsBefore = dao.getSegmentCount();
+        assertTrue(segmentsBefore > 2, "Small segment size should roll over to new segments");
+
+        for (Documents doc : dao.getFilesFromDB()) {
+            if (!doc.getName().equals("file5.txt")) {
+                assertTrue(dao.deleteFileInDB(doc.getId()), "Existing file should be deleted");
+            }
+        }
+        assertTrue(dao.compact() > 0, "Segments with deleted records should be compacted");
+        assertTrue(dao.getSegmentCount() < segmentsBefore, "Compacted segments should be removed");
+
+        List<Documents> files = open(512).getFilesFromDB();
+        assertEquals(1, files.size(), "Deleted files should stay deleted after compaction and replay");
+        assertEquals("content of file 5", files.get(0).getPages().get(0).getPageContent(),
+                "Live file should survive compaction");
+    }
+
+    // A file deleted and compacted away leaves nothing behind once the records it hid are gone
+    @Test
+    void testCompactionDropsTombstonesOfCompactedFiles() throws IOException {
+        open(512);
+        for (int round = 0; round < 20; round++) {
+            dao.createFileInDB("file" + round + ".txt", "content of file " + round);
+            for (Documents doc : dao.getFilesFromDB()) {
+                if (!doc.getName().equals("file" + round + ".txt")) {
+                    dao.deleteFileInDB(doc.getId());
+                }
+            }
+            dao.compact();
+        }
+
+        int tombstones = countRecords(DELETE_RECORD);
+        assertTrue(tombstones < 5, "Tombstones should not pile up, found " + tombstones);
+        List<Documents> files = open(512).getFilesFromDB();
+        assertEquals(1, files.size(), "Deleted files should stay deleted after their tombstones are dropped");
+        assertEquals("file19.txt", files.get(0).getName());
+    }
+
+    private int countRecords(byte type) throws IOException {
+        int count = 0;
+        try (Stream<Path> segments = Files.list(directory)) {
+            for (Path segment : (Iterable<Path>) segments::iterator) {
+                ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment));
+                while (records.remaining() >= 9) {
+                    int payloadLength = records.getInt();
+                    records.getInt();
+                    if (records.get() == type) {
+                        count++;
+                    }
+                    records.position(records.position() + payloadLength);
+                }
+            }
+        }
+        return count;
+    }
+
+    // Fails the analysis of the second page it imports
+    private static class FailingAnalysisDAO extends LogStructuredEditorDAO {
+        private int chunks;
+
+        FailingAnalysisDAO(Path directory) {
+            super(directory, 1024 * 1024, 0.5, 0);
+        }
+
+        @Override
+        protected PageAnalytics analyzeChunk(String content, DedupeReport report) {
+            if (++chunks == 2) {
+                throw new IllegalStateException("Analyzer failed");
+            }
+            return super.analyzeChunk(content, report);
+        }
+
+        int pageCount() throws Exception {
+            return getPagesAfter(0, Integer.MAX_VALUE).size();
+        }
+    }
+
+    @Test
+    void testFailedCreateLeavesNoOrphanPages() throws Exception {
+        FailingAnalysisDAO failing = new FailingAnalysisDAO(directory);
+        dao = failing;
+        assertFalse(failing.createFileInDB("first.txt", "a".repeat(250)), "A failed import should be reported");
+        assertEquals(0, failing.pageCount(), "Pages of the failed import should be discarded");
+        assertTrue(failing.createFileInDB("second.txt", "content"));
+        assertEquals(1, failing.pageCount());
+        assertEquals(1, open(1024 * 1024).getFilesFromDB().size(), "Only the finished import should be replayed");
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws IOException {
+        open(1024 * 1024).createFileInDB("first.txt", "content");
+        dao.close();
+        dao = null;
+
+        Path segment = Files.list(directory).findFirst().get();
+        Files.write(segment, new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+
+        open(1024 * 1024);
+        assertEquals(1, dao.getFilesFromDB().size(), "Records before the torn write should be kept");
+        assertTrue(dao.createFileInDB("second.txt", "more"), "Appending after recovery should work");
+        assertEquals(2, open(1024 * 1024).getFilesFromDB().size(), "New record should follow the truncated tail");
+    }
+
+    // A complete header whose payload fails its checksum, e.g. a write torn inside the payload
+    @Test
+    void testCorruptTailIsTruncatedOnReopen() throws IOException {
+        open(1024 * 1024).createFileInDB("first.txt", "content");
+        dao.close();
+        dao = null;
+
+        Path segment = Files.list(directory).findFirst().get();
+        long intactSize = Files.size(segment);
+        Files.write(segment, new byte[] { 0, 0, 0, 4, 9, 9, 9, 9, 1, 7, 7, 7, 7 }, StandardOpenOption.APPEND);
+
+        open(1024 * 1024);
+        assertEquals(intactSize, Files.size(segment), "The damaged record should be cut off the segment");
+        assertEquals(1, dao.getFilesFromDB().size());
+        dao.close();
+        dao = null;
+        assertEquals(1, open(1024 * 1024).getFilesFromDB().size(), "The store should reopen cleanly after recovery");
+    }
+
+    @Test
+    void testTransliterationAndAnalyticsAreStored() {
+        open(1024 * 1024).createFileInDB("first.txt", "content");
+        int pageId = dao.getFilesFromDB().get(0).getPages().get(0).getPageId();
+
+        String result = dao.transliterateInDB(pageId, "كتب");
+        assertEquals(result, open(1024 * 1024).getTransliteratedText(pageId),
+                "Latest transliteration should be replayed");
+        assertNotNull(dao.getPageAnalyticsFromDB(pageId), "Page analytics should be decoded from the log");
+    }
+
+    private long logBytes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    @Test
+    void testUnchangedPageReusesTransliteration() throws IOException {
+        open(1024 * 1024).createFileInDB("first.txt", "content");
+        int pageId = dao.getFilesFromDB().get(0).getPages().get(0).getPageId();
+
+        String first = dao.transliterateInDB(pageId, "كتب");
+        long bytes = logBytes();
+        assertEquals(first, dao.transliterateInDB(pageId, "كتب"), "A repeat view should return the same text");
+        assertEquals(bytes, logBytes(), "A repeat view of unchanged text should not append a record");
+
+        assertEquals("Qr'", dao.transliterateInDB(pageId, "قرء"), "Changed text should be transliterated again");
+        assertTrue(logBytes() > bytes, "Changed text should be stored");
+    }
+}
@@ -0,0 +1,149 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.AbstractEditorDAO;
+import dal.DatabaseConnection;
+import dal.EditorDBDAO;
+import dal.InMemoryEditorDAO;
+import dal.LogStructuredEditorDAO;
+import dal.MinHash;
+import dal.NearDuplicateIndex;
+import dal.SchemaInitializer;
+import dto.Pages;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class NearDuplicateIndexTest {
+
+    private static final String[] WORDS = { "كتب", "قرأ", "الطالب", "المدرسة", "العلم", "البيت", "الكتاب", "جميل",
+            "كبير", "صغير", "ذهب", "جاء", "الماء", "الشمس", "القمر", "الليل", "النهار", "الطريق", "المدينة", "الرجل" };
+
+    @TempDir
+    Path directory;
+
+    private static String text(long seed, int words) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(i % 12 == 11 ? ".\n" : " ");
+        }
+        return text.toString();
+    }
+
+    // Replaces every fiftieth word, as a second edition with small corrections would
+    private static String edition(String text) {
+        String[] words = text.split(" ");
+        for (int i = 0; i < words.length; i += 50) {
+            words[i] = "مختلف";
+        }
+        return String.join(" ", words);
+    }
+
+    @Test
+    void testSimilarityTracksShingleOverlap() {
+        String original = text(1, 600);
+
+        assertEquals(1.0, MinHash.similarity(MinHash.signature(original), MinHash.signature(original)),
+                "Identical texts should have identical signatures");
+        assertTrue(MinHash.similarity(MinHash.signature(original), MinHash.signature(edition(original))) > 0.8,
+                "A lightly edited copy should stay similar");
+        assertTrue(MinHash.similarity(MinHash.signature(original), MinHash.signature(text(2, 600))) < 0.3,
+                "Unrelated texts should not be similar");
+        assertNull(MinHash.signature("no arabic words 123"), "Text without Arabic words has no signature");
+    }
+
+    @Test
+    void testIndexReturnsOnlySimilarFiles() {
+        NearDuplicateIndex index = new NearDuplicateIndex();
+        String original = text(1, 600);
+        index.add(1, MinHash.signature(original));
+        index.add(2, MinHash.signature(edition(original)));
+        for (int i = 3; i < 50; i++) {
+            index.add(i, MinHash.signature(text(i, 600)));
+        }
+
+        Map<Integer, Double> similar = index.findSimilar(index.getSignature(1), 0.7, 1);
+        assertEquals(1, similar.size(), "Only the edited copy should match");
+        assertTrue(similar.containsKey(2), "The edited copy should be found");
+
+        index.remove(2);
+        assertTrue(index.findSimilar(index.getSignature(1), 0.7, 1).isEmpty(), "Removed files should not match");
+    }
+
+    @Test
+    void testDaoFindsNearDuplicates() {
+        InMemoryEditorDAO dao = new InMemoryEditorDAO();
+        String original = text(1, 300);
+        dao.createFileInDB("first.txt", original);
+        dao.createFileInDB("other.txt", text(2, 300));
+        dao.createFileInDB("second.txt", edition(original));
+        int first = dao.getFilesFromDB().get(0).getId();
+        int second = dao.getFilesFromDB().get(2).getId();
+
+        assertEquals(Integer.valueOf(second), dao.findNearDuplicates(first, 0.7).keySet().iterator().next(),
+                "The second edition should be the nearest duplicate");
+        assertEquals(Integer.valueOf(first), dao.findNearDuplicates(original, 0.99).keySet().iterator().next(),
+                "Content identical to a stored file should match it");
+
+        dao.deleteFileInDB(second);
+        assertTrue(dao.findNearDuplicates(first, 0.7).isEmpty(), "Deleted files should no longer match");
+    }
+
+    @Test
+    void testLogStoreKeepsSignaturesAcrossReopen() {
+        String original = text(1, 300);
+        LogStructuredEditorDAO dao = new LogStructuredEditorDAO(directory, 1 << 20, 0.5, 0);
+        dao.createFileInDB("first.txt", original);
+        dao.close();
+
+        dao = new LogStructuredEditorDAO(directory, 1 << 20, 0.5, 0);
+        try {
+            assertEquals(1, dao.findNearDuplicates(edition(original), 0.7).size(),
+                    "Stored signatures should be found after a restart");
+        } finally {
+            dao.close();
+        }
+    }
+
+    @Test
+    void testSavedFilesAreSignedAgain() throws Exception {
+        String original = text(1, 300);
+        Connection conn = DatabaseConnection.connect("jdbc:h2:mem:signatures;MODE=MariaDB;DATABASE_TO_LOWER=TRUE", "sa", "");
+        SchemaInitializer.runScript(conn, "/Database/EmbeddedEditorDBQuery.sql");
+        LogStructuredEditorDAO log = new LogStructuredEditorDAO(directory, 1 << 20, 0.5, 0);
+        for (AbstractEditorDAO dao : List.of(new InMemoryEditorDAO(), log, new EditorDBDAO(conn))) {
+            dao.createFileInDB("first.txt", original);
+            dao.createFileInDB("second.txt", text(2, 300));
+            int first = dao.getFilesFromDB().get(0).getId();
+            int second = dao.getFilesFromDB().get(1).getId();
+            assertTrue(dao.findNearDuplicates(first, 0.7).isEmpty(), "Unrelated files should not match");
+
+            // An autosave keeps the whole edition on the first page
+            assertTrue(dao.autoSaveFileInDB(second, "second.txt", 1, edition(original)));
+            for (Pages page : dao.getFilesFromDB().get(1).getPages()) {
+                if (page.getPageNumber() > 1) {
+                    dao.autoSaveFileInDB(second, "second.txt", page.getPageNumber(), "");
+                }
+            }
+            assertEquals(Integer.valueOf(second), dao.findNearDuplicates(first, 0.7).keySet().iterator().next(),
+                    "The saved file should be indexed with its new content");
+        }
+        conn.close();
+        log.close();
+
+        log = new LogStructuredEditorDAO(directory, 1 << 20, 0.5, 0);
+        try {
+            assertEquals(2, log.findNearDuplicates(edition(original), 0.7).size(),
+                    "Signatures made after a save should survive a restart");
+        } finally {
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.PMICalculator;
+import dal.TokenizedText;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PMICalculatorTest {
+
+    // The string-keyed counting the id-based version replaces
+    private static Map<String, Double> previous(TokenizedText text) {
+        String[] words = text.words();
+        Map<String, Integer> bigramFreq = new HashMap<>();
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
+        }
+        Map<String, Double> pmiScores = new LinkedHashMap<>();
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            double probWord1 = (double) text.count(text.idOf(words[i])) / words.length;
+            double probWord2 = (double) text.count(text.idOf(words[i + 1])) / words.length;
+            double probBigram = (double) bigramFreq.get(bigram) / words.length;
+            pmiScores.put(bigram, Math.log(probBigram / (probWord1 * probWord2)) / Math.log(2));
+        }
+        return pmiScores;
+    }
+
+    @Test
+    void testMatchesStringKeyedCounting() {
+        Random random = new Random(5);
+        String letters = "ابتثجحخدذرزسشصضطظعغفقكلمنهوي";
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            vocabulary.add("" + letters.charAt(i % letters.length()) + letters.charAt(i / letters.length() % letters.length())
+                    + letters.charAt(i / 7 % letters.length()));
+        }
+        for (int words : new int[] { 0, 1, 2, 30, 5000 }) {
+            TokenizedText text = TokenizedText.of(RandomTexts.words(random, vocabulary.subList(0, 1 + words / 3), words));
+            Map<String, Double> expected = previous(text);
+            Map<String, Double> actual = new PMICalculator(text).calculatePMIForAllBigrams();
+
+            assertEquals(expected, actual, "PMI of a " + words + "-word text");
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()),
+                    "Bigrams should keep their order of first occurrence");
+        }
+    }
+
+    @Test
+    void testScoresSingleBigram() {
+        PMICalculator pmi = new PMICalculator("الشمس تشرق الشمس تغرب");
+
+        assertEquals(Math.log((1.0 / 4) / ((2.0 / 4) * (1.0 / 4))) / Math.log(2), pmi.calculatePMI("الشمس", "تشرق"), 1e-12);
+        assertEquals(Double.NEGATIVE_INFINITY, pmi.calculatePMI("تشرق", "تغرب"), "Words never adjacent");
+        assertEquals(Double.NEGATIVE_INFINITY, pmi.calculatePMI("القمر", "تشرق"), "Word not on the page");
+    }
+}
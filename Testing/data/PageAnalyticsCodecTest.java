@@ -0,0 +1,44 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.PageAnalyticsCodec;
+import dto.PageAnalytics;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PageAnalyticsCodecTest {
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Map<String, List<String>> pos = new HashMap<>();
+        pos.put("كتب", Arrays.asList("فعل", "اسم"));
+        Map<String, String> lemmas = new HashMap<>();
+        lemmas.put("كتب", "كَتَبَ");
+        Map<String, Double> pmi = new HashMap<>();
+        pmi.put("كتب الدرس", 1.5);
+
+        PageAnalytics decoded = PageAnalyticsCodec.decode(PageAnalyticsCodec.encode(
+                new PageAnalytics(pos, lemmas, new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), pmi)));
+
+        assertEquals(pos, decoded.getPosTags(), "POS tags should round trip");
+        assertEquals(lemmas, decoded.getLemmas(), "Lemmas should round trip");
+        assertEquals(pmi, decoded.getPmiScores(), "PMI scores should round trip");
+        assertTrue(decoded.getRoots().isEmpty(), "Empty maps should stay empty");
+    }
+
+    @Test
+    void testFormatVersionIsChecked() throws IOException {
+        byte[] blob = PageAnalyticsCodec.encode(new PageAnalytics(new HashMap<>(), new HashMap<>(), new HashMap<>(),
+                new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>()));
+        assertEquals(PageAnalyticsCodec.VERSION, blob[0], "Blob should start with the format version");
+
+        blob[0] = 99;
+        assertThrows(IOException.class, () -> PageAnalyticsCodec.decode(blob), "Unknown versions should be rejected");
+    }
+}
@@ -0,0 +1,192 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.AbstractEditorDAO;
+import dal.DatabaseConnection;
+import dal.EditorDBDAO;
+import dal.HashCalculator;
+import dal.InMemoryEditorDAO;
+import dal.LogStructuredEditorDAO;
+import dal.PageReflow;
+import dal.SchemaInitializer;
+import dal.TFIDFCalculator;
+import dal.Transliteration;
+import dto.Documents;
+import dto.Pages;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PageReflowTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<String> contents(Documents file) {
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < file.getPages().size(); i++) {
+            Pages page = file.getPages().get(i);
+            assertEquals(i + 1, page.getPageNumber(), "Pages should be numbered without gaps");
+            contents.add(page.getPageContent());
+        }
+        return contents;
+    }
+
+    private static Documents file(List<Documents> files) {
+        return files.get(0);
+    }
+
+    @Test
+    void testOverflowingPageIsSplit() {
+        PageReflow reflow = PageReflow.plan(2, "a".repeat(250), 3, number -> "unused");
+
+        assertEquals(2, reflow.getFirstPageNumber(), "Reflow should start at the saved page");
+        assertEquals(1, reflow.getReplacedPages(), "Only the saved page should be replaced");
+        assertEquals(2, reflow.getShift(), "Two pages should be inserted after it");
+    }
+
+    @Test
+    void testShortTailIsBalanced() {
+        PageReflow reflow = PageReflow.plan(1, "a".repeat(210), 1, number -> "unused");
+
+        assertEquals(List.of("a".repeat(100), "a".repeat(55), "a".repeat(55)), reflow.getContents(),
+                "A short last page should be evened out with the one before it");
+    }
+
+    @Test
+    void testUnderfullPageIsMergedWithNextPage() {
+        List<Integer> read = new ArrayList<>();
+        PageReflow reflow = PageReflow.plan(1, "short ", 3, number -> {
+            read.add(number);
+            return "next page";
+        });
+
+        assertEquals(List.of(2), read, "Only the next page should be read");
+        assertEquals(List.of("short next page"), reflow.getContents(), "Both pages should fit on one");
+        assertEquals(-1, reflow.getShift(), "One page should be removed");
+    }
+
+    @Test
+    void testInMemoryReflowKeepsPageOrder() {
+        InMemoryEditorDAO dao = new InMemoryEditorDAO();
+        dao.createFileInDB("file.txt", "a".repeat(100) + "b".repeat(100) + "c".repeat(100));
+
+        assertTrue(dao.updateFileInDB(1, "file.txt", 2, "x".repeat(150)), "Overflowing save should succeed");
+        assertEquals(List.of("a".repeat(100), "x".repeat(100), "x".repeat(50), "c".repeat(100)),
+                contents(file(dao.getFilesFromDB())), "Overflow should be inserted after the saved page");
+
+        assertTrue(dao.updateFileInDB(1, "file.txt", 2, ""), "Emptying a page should succeed");
+        assertEquals(List.of("a".repeat(100), "x".repeat(50), "c".repeat(100)), contents(file(dao.getFilesFromDB())),
+                "Empty page should be merged away");
+    }
+
+    @Test
+    void testLogStructuredReflowSurvivesReopen() {
+        LogStructuredEditorDAO dao = new LogStructuredEditorDAO(directory, 1024 * 1024, 0.5, 0);
+        dao.createFileInDB("file.txt", "a".repeat(100) + "b".repeat(100) + "c".repeat(100));
+        int fileId = dao.getFilesFromDB().get(0).getId();
+        dao.updateFileInDB(fileId, "file.txt", 1, "x".repeat(250));
+        dao.updateFileInDB(fileId, "file.txt", 4, "y");
+        dao.close();
+
+        dao = new LogStructuredEditorDAO(directory, 1024 * 1024, 0.5, 0);
+        assertEquals(List.of("x".repeat(100), "x".repeat(100), "x".repeat(50), "y" + "c".repeat(50), "c".repeat(50)),
+                contents(file(dao.getFilesFromDB())), "Split, merge and renumbering should be replayed");
+        dao.close();
+    }
+
+    @Test
+    void testRepeatedSavesOfOverflowingTextKeepTheContent() {
+        String text = "x".repeat(150);
+        InMemoryEditorDAO dao = new InMemoryEditorDAO();
+        dao.createFileInDB("file.txt", "a".repeat(100) + "b".repeat(100));
+
+        // Autosave sends the whole text area each time and does not reload the pages
+        assertTrue(dao.autoSaveFileInDB(1, "file.txt", 1, text), "Autosave should succeed");
+        assertTrue(dao.autoSaveFileInDB(1, "file.txt", 1, text), "Autosave should succeed");
+        assertEquals(List.of(text, "b".repeat(100)), contents(file(dao.getFilesFromDB())),
+                "Autosaving the same text twice should not change the content");
+
+        // An explicit Save splits the page, and the editor reloads the pages before the next save
+        assertTrue(dao.updateFileInDB(1, "file.txt", 1, text), "Save should succeed");
+        List<String> pages = contents(file(dao.getFilesFromDB()));
+        assertTrue(dao.updateFileInDB(1, "file.txt", 1, pages.get(0)), "Save should succeed");
+        assertTrue(dao.autoSaveFileInDB(1, "file.txt", 1, pages.get(0)), "Autosave should succeed");
+        assertEquals(pages, contents(file(dao.getFilesFromDB())), "Saving the reloaded page should not change the file");
+        assertEquals(text + "b".repeat(100), String.join("", pages), "The split should keep the text");
+    }
+
+    // Scores from the index's term counts against scores of the stored text
+    private static void assertScoresMatchContent(AbstractEditorDAO dao) {
+        // Pages come back in page order from every backend
+        List<Documents> files = dao.getFilesFromDB();
+        for (Documents file : files) {
+            TFIDFCalculator others = new TFIDFCalculator();
+            for (Documents other : files) {
+                if (other.getId() != file.getId()) {
+                    others.addDocumentToCorpus(String.join("", contents(other)));
+                }
+            }
+            assertEquals(others.calculateDocumentTfIdf(String.join("", contents(file))), dao.performTFIDF(file.getId()),
+                    1e-12, "Score of file " + file.getId());
+        }
+    }
+
+    @Test
+    void testTermCountsFollowSplitsAndMerges() throws Exception {
+        String words = "الشمس تشرق صباحا والقمر يظهر ليلا ";
+        InMemoryEditorDAO memory = new InMemoryEditorDAO();
+        LogStructuredEditorDAO log = new LogStructuredEditorDAO(directory, 1024 * 1024, 0.5, 0);
+        Connection conn = DatabaseConnection.connect("jdbc:h2:mem:reflow;MODE=MariaDB;DATABASE_TO_LOWER=TRUE", "sa", "");
+        SchemaInitializer.runScript(conn, "/Database/EmbeddedEditorDBQuery.sql");
+        for (AbstractEditorDAO dao : List.of(memory, log, new EditorDBDAO(conn))) {
+            dao.createFileInDB("first.txt", words.repeat(6));
+            dao.createFileInDB("second.txt", "تلمع النجوم في السماء ليلا ");
+            int fileId = dao.getFilesFromDB().get(0).getId();
+            dao.updateFileInDB(fileId, "first.txt", 1, words.repeat(4) + "والنجوم ");
+            dao.updateFileInDB(fileId, "first.txt", 2, "ليلا ");
+            dao.autoSaveFileInDB(fileId, "first.txt", 1, "السماء ");
+            assertScoresMatchContent(dao);
+        }
+        log.close();
+
+        conn.close();
+
+        log = new LogStructuredEditorDAO(directory, 1024 * 1024, 0.5, 0);
+        assertScoresMatchContent(log);
+        log.close();
+    }
+
+    @Test
+    void testSaveRefreshesTheStoredTransliteration() throws Exception {
+        String saved = "تلمع النجوم في السماء ليلا ";
+        InMemoryEditorDAO memory = new InMemoryEditorDAO();
+        memory.createFileInDB("first.txt", "الشمس تشرق صباحا ");
+        Pages page = memory.getFilesFromDB().get(0).getPages().get(0);
+        memory.updateFileInDB(page.getFileId(), "first.txt", 1, saved);
+        assertEquals(Transliteration.transliterate(saved),
+                memory.getTransliteratedPage(page.getPageId()).getTransliteratedText());
+
+        Connection conn = DatabaseConnection.connect("jdbc:h2:mem:transliterate;MODE=MariaDB;DATABASE_TO_LOWER=TRUE", "sa", "");
+        SchemaInitializer.runScript(conn, "/Database/EmbeddedEditorDBQuery.sql");
+        EditorDBDAO db = new EditorDBDAO(conn);
+        db.createFileInDB("first.txt", "الشمس تشرق صباحا ");
+        page = db.getFilesFromDB().get(0).getPages().get(0);
+        db.updateFileInDB(page.getFileId(), "first.txt", 1, saved);
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT contentHash FROM transliteratedpages WHERE pageId = ?")) {
+            stmt.setInt(1, page.getPageId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(HashCalculator.contentHash(saved), rs.getString("contentHash"));
+            }
+        }
+        conn.close();
+    }
+}
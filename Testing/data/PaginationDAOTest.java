@@ -158,6 +158,86 @@ public class PaginationDAOTest {
         }
     }
 
+    @Test
+    void testPaginateSnapsToWordBoundary() {
+        String content = "word ".repeat(19) + "longword more";
+        List<Pages> pages = PaginationDAO.paginate(content, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.WORD);
+
+        assertEquals(2, pages.size(), "Content should need two pages");
+        assertEquals("word ".repeat(19), pages.get(0).getPageContent(), "First page should end before the split word");
+        assertEquals("longword more", pages.get(1).getPageContent(), "Split word should start the second page");
+    }
+
+    @Test
+    void testPaginateSnapsToSentenceBoundary() {
+        String content = "a".repeat(60) + ". " + "b ".repeat(30);
+        List<Pages> pages = PaginationDAO.paginate(content, 100, PaginationDAO.Unit.CHARS,
+                PaginationDAO.Boundary.SENTENCE);
+
+        assertEquals("a".repeat(60) + ". ", pages.get(0).getPageContent(), "First page should end after the sentence");
+    }
+
+    @Test
+    void testPaginateByWords() {
+        String content = "كلمة ".repeat(25);
+        List<Pages> pages = PaginationDAO.paginate(content, 10, PaginationDAO.Unit.WORDS, PaginationDAO.Boundary.WORD);
+
+        assertEquals(3, pages.size(), "25 words should fill 3 pages of 10 words");
+        assertEquals("كلمة ".repeat(10), pages.get(0).getPageContent(), "Page should hold exactly 10 words");
+        assertEquals("كلمة ".repeat(5), pages.get(2).getPageContent(), "Last page should hold the remainder");
+    }
+
+    @Test
+    void testPaginateHardCutKeepsDiacritics() {
+        String content = "ا".repeat(99) + "بِ" + "ت".repeat(10);
+        List<Pages> pages = PaginationDAO.paginate(content, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.NONE);
+
+        assertEquals(99, pages.get(0).getPageContent().length(), "Cut should move before the letter and its mark");
+        assertTrue(pages.get(1).getPageContent().startsWith("بِ"), "Letter should keep its diacritic");
+    }
+
+    @Test
+    void testPaginateMultiMegabyteContent() {
+        String content = "كلمة عربية ".repeat(300000);
+        List<Pages> pages = PaginationDAO.paginate(content, 100, PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.WORD);
+
+        long total = 0;
+        for (Pages page : pages) {
+            total += page.getPageContent().length();
+        }
+        assertEquals(content.length(), total, "Pages should cover the whole content");
+    }
+
+    @Test
+    void testContentBoundariesRepeatAcrossFiles() {
+        String[] words = { "قال", "الله", "تعالى", "في", "كتابه", "العزيز", "الحكيم", "وهو", "على", "كل", "شيء", "قدير" };
+        java.util.Random random = new java.util.Random(7);
+        StringBuilder passage = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            passage.append(words[random.nextInt(words.length)]).append(' ');
+        }
+
+        List<Pages> first = PaginationDAO.paginate("مقدمة قصيرة " + passage, 100, PaginationDAO.Unit.CHARS,
+                PaginationDAO.Boundary.CONTENT);
+        List<Pages> second = PaginationDAO.paginate("مقدمة أطول بكثير من الأولى في هذا الملف " + passage, 100,
+                PaginationDAO.Unit.CHARS, PaginationDAO.Boundary.CONTENT);
+
+        java.util.Set<String> firstPages = new java.util.HashSet<>();
+        for (int i = 0; i < first.size(); i++) {
+            String content = first.get(i).getPageContent();
+            assertTrue(content.length() <= 200, "Content-defined pages should stay under twice the page size");
+            assertTrue(i == first.size() - 1 || content.length() >= 50, "Only the last page may be under half a page");
+            firstPages.add(content);
+        }
+        int shared = 0;
+        for (Pages page : second) {
+            if (firstPages.contains(page.getPageContent())) {
+                shared++;
+            }
+        }
+        assertTrue(shared >= second.size() - 3, "Pages after the differing prefix should be identical");
+    }
+
     private List<Pages> invokePaginate(String content) throws Exception {
         Method paginateMethod = PaginationDAO.class.getDeclaredMethod("paginate", String.class);
         paginateMethod.setAccessible(true);
@@ -0,0 +1,95 @@
+package testing.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.InstrumentedConnection;
+import dal.QueryMetrics;
+import dto.QueryStatistics;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+public class QueryMetricsTest {
+
+    private QueryMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = QueryMetrics.getInstance();
+        metrics.reset();
+    }
+
+    @Test
+    void testRecordAggregatesPerTemplate() {
+        metrics.record("SELECT * FROM pages WHERE fileId = ?", 1_000_000, 0, -1);
+        metrics.record("SELECT * FROM pages WHERE fileId = ?", 3_000_000, 0, -1);
+
+        QueryStatistics stats = metrics.getStatistics("SELECT * FROM pages WHERE fileId = ?");
+        assertNotNull(stats, "Statistics should exist for recorded template");
+        assertEquals(2, stats.getCount(), "Both executions should be counted");
+        assertEquals(4_000_000, stats.getTotalNanos(), "Total latency should be summed");
+        assertEquals(3_000_000, stats.getMaxNanos(), "Max latency should be tracked");
+    }
+
+    @Test
+    void testLiteralsShareOneTemplate() {
+        metrics.record("DELETE FROM files WHERE fileId = 12", 1000, 1, -1);
+        metrics.record("DELETE FROM files WHERE fileId = 13", 1000, 1, -1);
+
+        List<QueryStatistics> all = metrics.getStatistics();
+        assertEquals(1, all.size(), "Statements differing only by literals should share a template");
+        assertEquals(2, all.get(0).getRowsAffected(), "Rows affected should be summed");
+    }
+
+    @Test
+    void testPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            metrics.record("SELECT 1", i * 1000L, 0, -1);
+        }
+
+        QueryStatistics stats = metrics.getStatistics("SELECT 1");
+        assertEquals(50_000, stats.getP50Nanos(), "p50 should be the median sample");
+        assertEquals(95_000, stats.getP95Nanos(), "p95 should be the 95th sample");
+        assertEquals(99_000, stats.getP99Nanos(), "p99 should be the 99th sample");
+    }
+
+    @Test
+    void testInstrumentedConnectionRecordsBatchSize() throws Exception {
+        Connection connection = InstrumentedConnection.wrap(fakeConnection(), metrics);
+        String sql = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.addBatch();
+            stmt.addBatch();
+            stmt.addBatch();
+            stmt.executeBatch();
+            stmt.executeUpdate();
+        }
+
+        QueryStatistics stats = metrics.getStatistics(sql);
+        assertEquals(2, stats.getCount(), "Batch and single execution should both be counted");
+        assertEquals(1, stats.getBatchCount(), "Only executeBatch should count as a batch");
+        assertEquals(3, stats.getBatchedStatements(), "Batch size should match addBatch calls");
+        assertEquals(4, stats.getRowsAffected(), "Rows from batch and update should be summed");
+    }
+
+    private Connection fakeConnection() {
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "executeBatch":
+                        return new int[] { 1, 1, 1 };
+                    case "executeUpdate":
+                        return 1;
+                    default:
+                        return null;
+                    }
+                });
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("prepareStatement") ? statement : null);
+    }
+}
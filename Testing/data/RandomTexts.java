@@ -0,0 +1,30 @@
+package testing.data;
+
+import java.util.List;
+import java.util.Random;
+
+// Seeded random inputs for the tests that compare a rewritten text routine with the code it replaced
+final class RandomTexts {
+
+    // Arabic letters with diacritics, Latin letters, digits, punctuation and every kind of word gap
+    static final String MIXED = "كتبقرأ َُِّ abc12 \t\n.،";
+
+    private RandomTexts() {
+    }
+
+    static String chars(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    static String words(Random random, List<String> vocabulary, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(vocabulary.get(random.nextInt(vocabulary.size()))).append(' ');
+        }
+        return text.toString();
+    }
+}
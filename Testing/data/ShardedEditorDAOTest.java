@@ -0,0 +1,189 @@
+package testing.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.AbstractEditorDAO;
+import dal.InMemoryEditorDAO;
+import dal.IEditorDBDAO;
+import dal.ShardRouter;
+import dal.ShardedDAOFactory;
+import dal.ShardedEditorDAO;
+import dto.Documents;
+import dto.Pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ShardedEditorDAOTest {
+
+    private static final int RANGE_SIZE = 1000;
+
+    private List<InMemoryEditorDAO> shards;
+    private ShardedEditorDAO dao;
+
+    @BeforeEach
+    void setUp() {
+        shards = Arrays.asList(new InMemoryEditorDAO(), new InMemoryEditorDAO(), new InMemoryEditorDAO());
+        dao = new ShardedEditorDAO(new ArrayList<AbstractEditorDAO>(shards), RANGE_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dao.close();
+    }
+
+    @Test
+    void testRouterRanges() {
+        ShardRouter router = new ShardRouter(3, RANGE_SIZE);
+        assertEquals(1, router.firstIdOf(0), "First shard should keep ids from 1");
+        assertEquals(2001, router.firstIdOf(2), "Ranges should be consecutive");
+        assertEquals(0, router.shardOf(1000), "Last id of a range belongs to that range");
+        assertEquals(1, router.shardOf(1001), "Next id belongs to the next shard");
+        assertThrows(IllegalArgumentException.class, () -> router.shardOf(3001), "Ids past the last range are invalid");
+    }
+
+    @Test
+    void testFilesAreSpreadAndMerged() {
+        for (int i = 0; i < 6; i++) {
+            assertTrue(dao.createFileInDB("file" + i + ".txt", "content " + i), "File should be created");
+        }
+
+        for (InMemoryEditorDAO shard : shards) {
+            assertEquals(2, shard.getFilesFromDB().size(), "Files should be spread evenly over the shards");
+        }
+        List<Documents> files = dao.getFilesFromDB();
+        assertEquals(6, files.size(), "Reads should merge every shard");
+        for (int i = 1; i < files.size(); i++) {
+            assertTrue(files.get(i - 1).getId() < files.get(i).getId(), "Merged files should be ordered by id");
+        }
+    }
+
+    @Test
+    void testOperationsRouteToOwningShard() {
+        dao.createFileInDB("first.txt", "content");
+        dao.createFileInDB("second.txt", "content");
+        Documents second = dao.getFilesFromDB().get(1);
+        assertEquals(1001, second.getId(), "Second shard should hand out ids from its own range");
+
+        assertTrue(dao.updateFileInDB(second.getId(), "renamed.txt", 1, "new content"), "Update should be routed");
+        assertEquals("renamed.txt", shards.get(1).getFilesFromDB().get(0).getName(),
+                "Owning shard should hold the update");
+
+        int pageId = second.getPages().get(0).getPageId();
+        assertNotNull(dao.transliterateInDB(pageId, "كتب"), "Transliteration should be routed by page id");
+        assertNotNull(shards.get(1).getTransliteratedPage(pageId), "Owning shard should store the transliteration");
+
+        assertTrue(dao.deleteFileInDB(second.getId()), "Delete should be routed");
+        assertTrue(shards.get(1).getFilesFromDB().isEmpty(), "Owning shard should no longer hold the file");
+        assertEquals(1, dao.getFilesFromDB().size(), "Other shards should be untouched");
+    }
+
+    @Test
+    void testTFIDFUsesWholeCorpus() {
+        InMemoryEditorDAO single = new InMemoryEditorDAO();
+        String[] contents = { "alpha beta gamma", "beta gamma delta", "gamma delta alpha beta" };
+        for (int i = 0; i < contents.length; i++) {
+            single.createFileInDB("file" + i + ".txt", contents[i]);
+            dao.createFileInDB("file" + i + ".txt", contents[i]);
+        }
+
+        Documents last = dao.getFilesFromDB().get(2);
+        assertEquals(single.getTFIDFScore(3), shards.get(2).getTFIDFScore(last.getId()), 1e-9,
+                "Shards should score against the whole corpus, not only their own files");
+    }
+
+    @Test
+    void testPagesRouteByTheirOwnRange() {
+        ShardRouter router = new ShardRouter(3, 10, 100);
+        assertEquals(11, router.firstIdOf(1));
+        assertEquals(101, router.firstPageIdOf(1), "Pages should have a range of their own");
+        assertEquals(200, router.lastPageIdOf(1));
+        assertEquals(0, router.shardOfPage(100), "Page ids route by the page range");
+        assertEquals(1, router.shardOf(11), "File ids route by the file range");
+    }
+
+    @Test
+    void testFullRangeRefusesInsteadOfSpilling() {
+        dao.close();
+        shards = Arrays.asList(new InMemoryEditorDAO(), new InMemoryEditorDAO());
+        dao = new ShardedEditorDAO(new ArrayList<AbstractEditorDAO>(shards), 100, 3);
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(dao.createFileInDB("file" + i + ".txt", "content " + i), "Pages " + (i + 1) + " should fit");
+        }
+        assertFalse(dao.createFileInDB("overflow.txt", "content"), "A shard with a full page range should refuse");
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (Documents file : shards.get(shard).getFilesFromDB()) {
+                for (Pages page : file.getPages()) {
+                    assertEquals(shard, (page.getPageId() - 1) / 3, "Page " + page.getPageId() + " left its range");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFullShardPassesNewFileToTheNext() {
+        dao.close();
+        shards = Arrays.asList(new InMemoryEditorDAO(), new InMemoryEditorDAO());
+        dao = new ShardedEditorDAO(new ArrayList<AbstractEditorDAO>(shards), 100, 3);
+
+        assertTrue(dao.createFileInDB("long.txt", "word ".repeat(50)), "Three pages should fill the first shard");
+        assertTrue(dao.createFileInDB("second.txt", "content"));
+        assertTrue(dao.createFileInDB("third.txt", "more content"), "A full shard should hand the file on");
+        assertEquals(1, shards.get(0).getFilesFromDB().size(), "Full shard should not take the file");
+        assertEquals(2, shards.get(1).getFilesFromDB().size(), "Next shard should take the file");
+    }
+
+    @Test
+    void testDeleteOutsideEveryRangeFails() {
+        assertFalse(dao.deleteFileInDB(3 * RANGE_SIZE + 1), "Ids past the last range should not be deleted");
+        assertFalse(dao.deleteFileInDB(0), "Ids below the first range should not be deleted");
+    }
+
+    @Test
+    void testStartIdsAtKeepsShardRanges() {
+        dao.startIdsAt(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> dao.startIdsAt(RANGE_SIZE + 1, 1),
+                "Shard ranges should not move");
+        dao.createFileInDB("first.txt", "content");
+        assertEquals(1, dao.getFilesFromDB().get(0).getId(), "Ids should still start at the first shard range");
+    }
+
+    // Two local H2 databases configured the way config.properties configures MariaDB shards
+    @Test
+    void testH2ShardsFromFactory() {
+        String[] keys = { "db.shards", "db.shard.rangeSize", "db.shard.pageRangeSize", "db.shard.1.url",
+                "db.shard.1.username", "db.shard.2.url", "db.shard.2.username" };
+        String[] values = { "2", "1000", "5000", "jdbc:h2:mem:shard1;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "jdbc:h2:mem:shard2;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa" };
+        for (int i = 0; i < keys.length; i++) {
+            System.setProperty(keys[i], values[i]);
+        }
+        try {
+            IEditorDBDAO sharded = new ShardedDAOFactory().createEditorDAO();
+            assertTrue(sharded.createFileInDB("first.txt", "الشمس تشرق"));
+            assertTrue(sharded.createFileInDB("second.txt", "القمر يظهر"));
+
+            List<Documents> files = sharded.getFilesFromDB();
+            assertEquals(2, files.size(), "Reads should merge both databases");
+            assertEquals(1, files.get(0).getId());
+            assertEquals(1001, files.get(1).getId(), "The second database should start at its file range");
+            int pageId = files.get(1).getPages().get(0).getPageId();
+            assertEquals(5001, pageId, "The second database should start at its page range");
+            assertNotNull(sharded.transliterateInDB(pageId, "القمر يظهر"), "Page operations should reach the owning shard");
+            assertNotNull(sharded.getPageAnalyticsFromDB(pageId));
+
+            assertTrue(sharded.updateFileInDB(1001, "renamed.txt", 1, "القمر يظهر ليلا"));
+            assertEquals("renamed.txt", sharded.getFilesFromDB().get(1).getName());
+            ((ShardedEditorDAO) sharded).close();
+        } finally {
+            for (String key : keys) {
+                System.clearProperty(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.AbstractEditorDAO;
+import dal.InMemoryEditorDAO;
+import dal.LogStructuredEditorDAO;
+import dal.TFIDFCalculator;
+import dal.TFIDFJob;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TFIDFJobTest {
+
+    @TempDir
+    Path directory;
+
+    private static final String[] CONTENTS = { "الشمس تشرق صباحا", "القمر يظهر ليلا والنجوم تلمع",
+            "الشمس والقمر في السماء", "يكتب الطالب الدرس صباحا", "تلمع النجوم في السماء ليلا" };
+
+    @Test
+    void testRescoresEveryFileAgainstTheCurrentCorpus() {
+        InMemoryEditorDAO dao = new InMemoryEditorDAO();
+        for (int i = 0; i < CONTENTS.length; i++) {
+            dao.createFileInDB("file" + i + ".txt", CONTENTS[i]);
+        }
+        // Scored on import against only the files before it, so the first files are stale
+        double staleScore = dao.getTFIDFScore(1);
+
+        List<TFIDFJob.Progress> reports = new ArrayList<>();
+        TFIDFJob job = new TFIDFJob(dao, 2, 3);
+        job.setProgressListener(reports::add);
+        TFIDFJob.Progress progress = job.run();
+
+        assertNotNull(progress, "The job should finish");
+        assertEquals(CONTENTS.length, progress.getFilesScored());
+        assertEquals(CONTENTS.length, progress.getFilesWritten());
+        assertEquals(3, reports.size(), "Progress should be reported once per chunk");
+        for (int fileId = 1; fileId <= CONTENTS.length; fileId++) {
+            TFIDFCalculator others = new TFIDFCalculator();
+            for (int other = 0; other < CONTENTS.length; other++) {
+                if (other != fileId - 1) {
+                    others.addDocumentToCorpus(CONTENTS[other]);
+                }
+            }
+            double expected = others.calculateDocumentTfIdf(CONTENTS[fileId - 1]);
+            assertEquals(expected, dao.getTFIDFScore(fileId), 1e-12, "Stored score of file " + fileId);
+            assertEquals(expected, dao.performTFIDF(fileId), 1e-12, "Score of file " + fileId + " from the index");
+        }
+        assertNotEquals(staleScore, dao.getTFIDFScore(1), 1e-12, "The first file's score should be refreshed");
+    }
+
+    @Test
+    void testSaveStoresTheScoreOfTheWholeFile() {
+        InMemoryEditorDAO memory = new InMemoryEditorDAO();
+        LogStructuredEditorDAO log = new LogStructuredEditorDAO(directory, 1024 * 1024, 0.5, 0);
+        for (AbstractEditorDAO dao : List.of(memory, log)) {
+            for (int i = 0; i < CONTENTS.length; i++) {
+                dao.createFileInDB("file" + i + ".txt", CONTENTS[i]);
+            }
+            dao.createFileInDB("long.txt", String.join(" ", CONTENTS).repeat(2));
+            int fileId = dao.getFilesFromDB().get(CONTENTS.length).getId();
+            assertTrue(dao.updateFileInDB(fileId, "long.txt", 2, "الشمس تشرق صباحا "), "Save should succeed");
+
+            double stored = dao == memory ? memory.getTFIDFScore(fileId) : log.getTFIDFScore(fileId);
+            assertEquals(dao.performTFIDF(fileId), stored, 1e-12, "The stored score should be the file's, not the page's");
+            assertNotEquals(dao.performTFIDF(List.of(CONTENTS), "الشمس تشرق صباحا "), stored, 1e-12,
+                    "The saved page alone should score differently");
+        }
+        log.close();
+    }
+}
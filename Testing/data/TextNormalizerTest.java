@@ -0,0 +1,99 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.EditorConfig;
+import dal.PreProcessText;
+import dal.TextNormalizer;
+import dal.TokenizedText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TextNormalizerTest {
+
+    // The three-pass pipeline TextNormalizer replaces
+    private static String previous(String text) {
+        return PreProcessText.removeNonArabicCharacters(PreProcessText.removeHarakat(text)).toLowerCase();
+    }
+
+    @Test
+    void testEveryCharacterMatchesPreviousPipeline() {
+        StringBuilder all = new StringBuilder();
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!Character.isSurrogate((char) c)) {
+                all.append((char) c);
+            }
+        }
+        assertEquals(previous(all.toString()), TextNormalizer.normalize(all.toString()),
+                "Every BMP character should be kept or dropped as before");
+    }
+
+    @Test
+    void testMixedTextMatchesPreviousPipeline() {
+        String text = "بِسْمِ اللَّهِ Hello, World! ١٢٣ 123\tالرَّحْمَٰنِ\n ﷲ 𞸀 😀 \uD83B";
+        assertEquals(previous(text), TextNormalizer.normalize(text), "Normalization should match the previous pipeline");
+        assertEquals(previous(text), PreProcessText.preprocessText(text), "preprocessText should use the new path");
+    }
+
+    @Test
+    void testTokensMatchSplitWords() {
+        Random random = new Random(3);
+        TextNormalizer.Tokens tokens = new TextNormalizer.Tokens();
+        for (int round = 0; round < 200; round++) {
+            String text = RandomTexts.chars(random, RandomTexts.MIXED, random.nextInt(80));
+
+            List<String> expected = new ArrayList<>(Arrays.asList(previous(text).split("\\s+")));
+            expected.removeIf(String::isEmpty);
+            TextNormalizer.tokenize(text, tokens);
+            List<String> actual = new ArrayList<>();
+            for (int i = 0; i < tokens.count(); i++) {
+                actual.add(tokens.token(i));
+                assertEquals(tokens.token(i).hashCode(), tokens.tokenHash(i), "Token hash should match String.hashCode");
+                assertTrue(tokens.tokenEquals(i, tokens.token(i)), "Token should equal its own text");
+                int source = tokens.sourceStart(i);
+                assertTrue(source == 0 || Character.isWhitespace(text.charAt(source - 1)), "Token should map to the start of a word");
+                assertEquals(tokens.token(i), previous(text.substring(source).split("\\s")[0]),
+                        "Token should be the normalized word it maps to");
+            }
+            assertEquals(expected, actual, "Tokens should match the split words of \"" + text + "\"");
+            assertEquals(previous(text), tokens.toString(), "Token buffer should hold the normalized text");
+        }
+    }
+
+    @Test
+    void testOrthographicProfileFoldsVariants() {
+        TextNormalizer.Profile profile = TextNormalizer.Profile.ORTHOGRAPHIC;
+        assertEquals("الاسلام", TextNormalizer.normalize("الإسْلَامُ", profile));
+        assertEquals("الاسلام", TextNormalizer.normalize("الاســلام", profile), "Tatweel should be dropped");
+        assertEquals("مدرسه علي", TextNormalizer.normalize("مدرسة على", profile));
+        assertEquals("الرحمن", TextNormalizer.normalize("الرَّحْمَٰنِ", profile), "Superscript alef should be dropped");
+        assertEquals("ٱلرحمن", TextNormalizer.normalize("ٱلرَّحْمَٰنِ", TextNormalizer.Profile.BASIC),
+                "The basic profile should keep spelling variants");
+
+        String text = "أَحْمَد يقرأ القرآن في المدرسة، واحمد يقرا القران في المدرسه";
+        TextNormalizer.Tokens tokens = TextNormalizer.tokenize(text, new TextNormalizer.Tokens(), profile);
+        assertEquals(TextNormalizer.normalize(text, profile), tokens.toString(),
+                "Tokenizing should fold the same way as normalizing");
+        assertEquals(6, TokenizedText.of(text, profile).vocabularySize(), "Both spellings should share each word");
+        assertEquals(9, TokenizedText.of(text, TextNormalizer.Profile.BASIC).vocabularySize());
+        assertEquals("أَحْمَد", TokenizedText.of(text, profile).token(0), "Tokens should keep the text as written");
+    }
+
+    @Test
+    void testProfileSettingIgnoresCaseAndFallsBack() {
+        String key = "test.text.normalization";
+        try {
+            System.setProperty(key, "Orthographic");
+            assertEquals(TextNormalizer.Profile.ORTHOGRAPHIC, EditorConfig.getEnum(key, TextNormalizer.Profile.BASIC));
+            System.setProperty(key, "orthographic-ish");
+            assertEquals(TextNormalizer.Profile.BASIC, EditorConfig.getEnum(key, TextNormalizer.Profile.BASIC),
+                    "An unknown profile should fall back to the default");
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+}
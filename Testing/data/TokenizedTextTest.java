@@ -0,0 +1,91 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.Lemmatization;
+import dal.PMICalculator;
+import dal.POSTagger;
+import dal.PreProcessText;
+import dal.TokenizedText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TokenizedTextTest {
+
+    private static List<String> split(String text) {
+        List<String> words = new ArrayList<>(Arrays.asList(text.split("\\s+")));
+        words.removeIf(String::isEmpty);
+        return words;
+    }
+
+    @Test
+    void testTokensAndWordsMatchSplit() {
+        Random random = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            String text = RandomTexts.chars(random, RandomTexts.MIXED, random.nextInt(80));
+            TokenizedText tokenized = TokenizedText.of(text);
+
+            assertEquals(split(text), Arrays.asList(tokenized.tokens()), "Tokens should be the split words");
+            assertEquals(split(PreProcessText.preprocessText(text)), Arrays.asList(tokenized.words()),
+                    "Words should be the split preprocessed text");
+            for (int i = 0; i < tokenized.tokenCount(); i++) {
+                assertTrue(text.startsWith(tokenized.token(i), tokenized.start(i)), "Token should start at its offset");
+                assertEquals(PreProcessText.preprocessText(tokenized.token(i)), tokenized.normalized(i),
+                        "Normalized form should be the preprocessed token");
+            }
+        }
+    }
+
+    @Test
+    void testIdsShareOneVocabulary() {
+        TokenizedText text = TokenizedText.of("كَتَبَ الطالب، كتب 12 الطالب");
+
+        assertEquals(5, text.tokenCount());
+        assertEquals(2, text.vocabularySize(), "Harakat and punctuation should not create new words");
+        assertEquals(text.id(0), text.id(2), "Both spellings of the same word should share an id");
+        assertEquals(text.id(1), text.id(4));
+        assertEquals(-1, text.id(3), "Tokens without Arabic letters have no id");
+        assertEquals("كتب", text.word(text.id(0)));
+        assertEquals(2, text.count(text.idOf("الطالب")));
+        assertEquals(-1, text.idOf("missing"));
+    }
+
+    @Test
+    void testRepeatedWordsShareOneString() {
+        TokenizedText text = TokenizedText.of("كَتَبَ الطالب كتب الطالبُ كتب");
+        String[] words = text.words();
+
+        assertSame(words[0], words[2], "A word should be created once per vocabulary entry");
+        assertSame(words[1], words[3]);
+        assertSame(text.word(text.id(4)), text.normalized(4));
+    }
+
+    @Test
+    void testAnalyzersKeyEveryTokenAsWritten() {
+        TokenizedText text = TokenizedText.of("كَتَبَ الطالب، كتب 12 الطالب");
+        Map<String, String> lemmas = Lemmatization.lemmatizeWords(text);
+        Map<String, List<String>> tags = POSTagger.extractPOS(text);
+
+        assertEquals(new HashSet<>(Arrays.asList(text.tokens())), lemmas.keySet(), "Every spelling should be a key");
+        assertEquals(lemmas.get("كَتَبَ"), lemmas.get("كتب"), "Spellings of one word should share its analysis");
+        assertEquals(tags.get("الطالب،"), tags.get("الطالب"));
+        assertEquals(lemmas.keySet(), tags.keySet());
+    }
+
+    @Test
+    void testCalculatorsAcceptSharedText() {
+        String content = "ذهب الطالب إلى المدرسة. ذهب الطالب إلى البيت";
+        TokenizedText text = TokenizedText.of(content);
+
+        Map<String, Double> shared = new PMICalculator(text).calculatePMIForAllBigrams();
+        assertEquals(new PMICalculator(content).calculatePMIForAllBigrams(), shared,
+                "Tokenized and raw input should give the same scores");
+        assertEquals(1.0, shared.get("الطالب إلى") / shared.get("ذهب الطالب"), 1e-9);
+    }
+}
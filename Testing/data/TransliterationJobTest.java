@@ -0,0 +1,71 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.InMemoryEditorDAO;
+import dal.Transliteration;
+import dal.TransliterationJob;
+import dto.Documents;
+import dto.Pages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransliterationJobTest {
+
+    private static InMemoryEditorDAO corpus(int files) {
+        InMemoryEditorDAO dao = new InMemoryEditorDAO();
+        for (int i = 0; i < files; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int word = 0; word < 60; word++) {
+                content.append(word % 2 == 0 ? "كتب " : "قرأ ").append(i).append(' ');
+            }
+            dao.createFileInDB("file" + i + ".txt", content.toString());
+        }
+        return dao;
+    }
+
+    private static List<Pages> allPages(InMemoryEditorDAO dao) {
+        List<Pages> pages = new ArrayList<>();
+        for (Documents file : dao.getFilesFromDB()) {
+            pages.addAll(file.getPages());
+        }
+        return pages;
+    }
+
+    @Test
+    void testRebuildsEveryPageInChunks() {
+        InMemoryEditorDAO dao = corpus(5);
+        List<Pages> pages = allPages(dao);
+        for (Pages page : pages) {
+            dao.transliterateInDB(page.getPageId(), "قديم");
+        }
+
+        List<TransliterationJob.Progress> reports = new ArrayList<>();
+        TransliterationJob job = new TransliterationJob(dao, 3, 4, 0, false);
+        job.setProgressListener(reports::add);
+        TransliterationJob.Progress progress = job.run();
+
+        assertNotNull(progress, "The job should finish");
+        assertEquals(pages.size(), progress.getPagesScanned(), "Every page should be read");
+        assertEquals(pages.size(), progress.getPagesWritten(), "Pages without a known hash should be rewritten");
+        assertEquals((pages.size() + 2) / 3, reports.size(), "Progress should be reported once per chunk");
+        for (Pages page : pages) {
+            assertEquals(Transliteration.transliterate(page.getPageContent()),
+                    dao.getTransliteratedPage(page.getPageId()).getTransliteratedText(),
+                    "Page " + page.getPageId() + " should hold the transliteration of its text");
+        }
+    }
+
+    @Test
+    void testThrottleLimitsPagesPerSecond() {
+        InMemoryEditorDAO dao = corpus(2);
+        int pageCount = allPages(dao).size();
+
+        TransliterationJob.Progress progress = new TransliterationJob(dao, 2, 2, pageCount * 5, true).run();
+
+        assertEquals(pageCount, progress.getPagesWritten());
+        assertTrue(progress.getElapsedMillis() >= 200, "The job should take at least a fifth of a second");
+    }
+}
@@ -0,0 +1,72 @@
+package testing.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dal.Transliteration;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TransliterationTest {
+
+    private static final String ARABIC = "اآبتثجحخدذرزسشصضطظعغفقكلمنهويءَُِ";
+    private static final String[] ROMAN = { "a", "aa", "b", "t", "th", "j", "H", "kh", "d", "dh", "r", "z", "s", "sh",
+            "S", "D", "T", "DH", "3", "gh", "f", "q", "k", "l", "m", "n", "h", "w", "y", "'", "a", "u", "i" };
+    // Letters with and without a mapping, spaces, punctuation and Latin text
+    private static final String TEXT_ALPHABET = ARABIC + "ةىأ  \n.؟abc1";
+
+    // The map lookup, split and capitalization the table-driven version replaces
+    private static String previous(String arabicText) {
+        Map<Character, String> map = new HashMap<>();
+        for (int i = 0; i < ARABIC.length(); i++) {
+            map.put(ARABIC.charAt(i), ROMAN[i]);
+        }
+        StringBuilder romanText = new StringBuilder();
+        boolean lastCharWasSpace = false;
+        for (char ch : arabicText.toCharArray()) {
+            if (ch == ' ') {
+                if (!lastCharWasSpace) {
+                    romanText.append(" ");
+                    lastCharWasSpace = true;
+                }
+                continue;
+            }
+            if (map.containsKey(ch)) {
+                romanText.append(map.get(ch));
+                lastCharWasSpace = false;
+            }
+        }
+        StringBuilder formattedText = new StringBuilder();
+        for (String word : romanText.toString().split(" ")) {
+            if (!word.isEmpty()) {
+                formattedText.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1)).append(" ");
+            }
+        }
+        return formattedText.toString().trim();
+    }
+
+    @Test
+    void testMatchesPreviousTransliteration() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            String text = RandomTexts.chars(random, TEXT_ALPHABET, random.nextInt(60));
+            assertEquals(previous(text), Transliteration.transliterate(text), "Transliteration of \"" + text + "\"");
+        }
+        assertEquals("MrHba Bkm", Transliteration.transliterate("  مرحبا   بكم  "));
+        assertEquals("Shms", Transliteration.transliterate("شمس"));
+    }
+
+    @Test
+    void testStreamsAcrossBufferBoundaries() throws IOException {
+        String text = RandomTexts.chars(new Random(11), TEXT_ALPHABET, 50000);
+        StringWriter romanText = new StringWriter();
+        Transliteration.transliterate(new StringReader(text), romanText);
+
+        assertEquals(previous(text), romanText.toString(), "Streaming should match transliterating the whole text");
+    }
+}
@@ -0,0 +1,30 @@
+package testing.presentation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pl.PieceTableContent;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Position;
+
+public class PieceTableContentTest {
+
+    @Test
+    void testPlainDocumentEditing() throws BadLocationException {
+        PieceTableContent content = new PieceTableContent();
+        PlainDocument document = new PlainDocument(content);
+
+        document.insertString(0, "line one\nline two", null);
+        Position position = document.createPosition(9);
+        document.insertString(0, "start\n", null);
+        document.remove(6, 5);
+
+        assertEquals("start\none\nline two", document.getText(0, document.getLength()),
+                "Document text should follow the edits");
+        assertEquals(10, position.getOffset(), "Positions should move with the text");
+        assertEquals(3, document.getDefaultRootElement().getElementCount(), "Line elements should be maintained");
+        assertEquals(4, content.getPieceTable().getWordCount(), "Word count should be available without copying");
+    }
+}
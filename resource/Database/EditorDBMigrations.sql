@@ -0,0 +1,127 @@
+-- Upgrades an existing realeditor database created from an older EditorDBQuery.sql.
+-- Sections are in release order; run the ones your database does not have yet.
+Use realeditor
+
+-- Compressed storage of page and transliteration text (ContentCodec)
+ALTER TABLE `pages` ADD COLUMN IF NOT EXISTS `contentCodec` TINYINT(4) NOT NULL DEFAULT 0;
+ALTER TABLE `pages` ADD COLUMN IF NOT EXISTS `compressedContent` LONGBLOB NULL DEFAULT NULL;
+ALTER TABLE `transliteratedpages` ADD COLUMN IF NOT EXISTS `textCodec` TINYINT(4) NOT NULL DEFAULT 0;
+ALTER TABLE `transliteratedpages` ADD COLUMN IF NOT EXISTS `compressedText` LONGBLOB NULL DEFAULT NULL;
+
+-- Vocabulary ids for analytics tables (words, lemmas, roots and stems stored once)
+CREATE TABLE IF NOT EXISTS `vocabulary` (
+	`wordId` INT(11) NOT NULL AUTO_INCREMENT,
+	`word` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`wordId`) USING BTREE,
+	UNIQUE INDEX `word` (`word`) USING BTREE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS `lemmas` (
+	`lemmaId` INT(11) NOT NULL AUTO_INCREMENT,
+	`lemma` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`lemmaId`) USING BTREE,
+	UNIQUE INDEX `lemma` (`lemma`) USING BTREE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS `roots` (
+	`rootId` INT(11) NOT NULL AUTO_INCREMENT,
+	`root` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`rootId`) USING BTREE,
+	UNIQUE INDEX `root` (`root`) USING BTREE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+CREATE TABLE IF NOT EXISTS `stems` (
+	`stemId` INT(11) NOT NULL AUTO_INCREMENT,
+	`stem` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`stemId`) USING BTREE,
+	UNIQUE INDEX `stem` (`stem`) USING BTREE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+
+INSERT IGNORE INTO `vocabulary` (`word`)
+	SELECT `word` FROM `pos` UNION ALL SELECT `word` FROM `lemmatization` UNION ALL SELECT `word` FROM `rootextraction`
+	UNION ALL SELECT `word` FROM `stemmation` UNION ALL SELECT `word` FROM `wordsegementation` UNION ALL SELECT `word` FROM `pkl`
+	UNION ALL SELECT SUBSTRING_INDEX(`word`, ' ', 1) FROM `pmi` UNION ALL SELECT SUBSTRING_INDEX(`word`, ' ', -1) FROM `pmi`;
+INSERT IGNORE INTO `lemmas` (`lemma`) SELECT `lemma` FROM `lemmatization` WHERE `lemma` IS NOT NULL;
+INSERT IGNORE INTO `roots` (`root`) SELECT `root` FROM `rootextraction` WHERE `root` IS NOT NULL;
+INSERT IGNORE INTO `stems` (`stem`) SELECT `stem` FROM `stemmation` WHERE `stem` IS NOT NULL;
+
+ALTER TABLE `pos` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`;
+UPDATE `pos` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+ALTER TABLE `pos` DROP COLUMN `word`, MODIFY `wordId` INT(11) NOT NULL, ADD INDEX `pos_word` (`wordId`),
+	ADD CONSTRAINT `pos_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`);
+
+ALTER TABLE `lemmatization` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`, ADD COLUMN `lemmaId` INT(11) NULL;
+UPDATE `lemmatization` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+UPDATE `lemmatization` t JOIN `lemmas` l ON l.`lemma` = t.`lemma` COLLATE utf8mb4_bin SET t.`lemmaId` = l.`lemmaId`;
+ALTER TABLE `lemmatization` DROP COLUMN `word`, DROP COLUMN `lemma`, MODIFY `wordId` INT(11) NOT NULL,
+	ADD INDEX `lemmatization_word` (`wordId`),
+	ADD CONSTRAINT `lemmatization_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`),
+	ADD CONSTRAINT `lemmatization_lemmaId_fk` FOREIGN KEY (`lemmaId`) REFERENCES `lemmas` (`lemmaId`);
+
+ALTER TABLE `rootextraction` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`, ADD COLUMN `rootId` INT(11) NULL;
+UPDATE `rootextraction` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+UPDATE `rootextraction` t JOIN `roots` r ON r.`root` = t.`root` COLLATE utf8mb4_bin SET t.`rootId` = r.`rootId`;
+ALTER TABLE `rootextraction` DROP COLUMN `word`, DROP COLUMN `root`, MODIFY `wordId` INT(11) NOT NULL,
+	ADD INDEX `rootextraction_word` (`wordId`),
+	ADD CONSTRAINT `rootextraction_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`),
+	ADD CONSTRAINT `rootextraction_rootId_fk` FOREIGN KEY (`rootId`) REFERENCES `roots` (`rootId`);
+
+ALTER TABLE `stemmation` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`, ADD COLUMN `stemId` INT(11) NULL;
+UPDATE `stemmation` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+UPDATE `stemmation` t JOIN `stems` s ON s.`stem` = t.`stem` COLLATE utf8mb4_bin SET t.`stemId` = s.`stemId`;
+ALTER TABLE `stemmation` DROP COLUMN `word`, DROP COLUMN `stem`, MODIFY `wordId` INT(11) NOT NULL,
+	ADD INDEX `stemmation_word` (`wordId`),
+	ADD CONSTRAINT `stemmation_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`),
+	ADD CONSTRAINT `stemmation_stemId_fk` FOREIGN KEY (`stemId`) REFERENCES `stems` (`stemId`);
+
+ALTER TABLE `wordsegementation` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`;
+UPDATE `wordsegementation` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+ALTER TABLE `wordsegementation` DROP COLUMN `word`, MODIFY `wordId` INT(11) NOT NULL,
+	ADD INDEX `wordsegementation_word` (`wordId`),
+	ADD CONSTRAINT `wordsegementation_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`);
+
+ALTER TABLE `pkl` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`;
+UPDATE `pkl` t JOIN `vocabulary` v ON v.`word` = t.`word` COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+ALTER TABLE `pkl` DROP COLUMN `word`, MODIFY `wordId` INT(11) NOT NULL, ADD INDEX `pkl_word` (`wordId`),
+	ADD CONSTRAINT `pkl_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`);
+
+ALTER TABLE `pmi` ADD COLUMN `wordId` INT(11) NULL AFTER `pageId`, ADD COLUMN `nextWordId` INT(11) NULL AFTER `wordId`;
+UPDATE `pmi` t JOIN `vocabulary` v ON v.`word` = SUBSTRING_INDEX(t.`word`, ' ', 1) COLLATE utf8mb4_bin SET t.`wordId` = v.`wordId`;
+UPDATE `pmi` t JOIN `vocabulary` v ON v.`word` = SUBSTRING_INDEX(t.`word`, ' ', -1) COLLATE utf8mb4_bin SET t.`nextWordId` = v.`wordId`;
+ALTER TABLE `pmi` DROP COLUMN `word`, MODIFY `wordId` INT(11) NOT NULL, MODIFY `nextWordId` INT(11) NOT NULL,
+	ADD INDEX `pmi_word` (`wordId`),
+	ADD CONSTRAINT `pmi_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`),
+	ADD CONSTRAINT `pmi_nextWordId_fk` FOREIGN KEY (`nextWordId`) REFERENCES `vocabulary` (`wordId`);
+
+-- Per-page analytics blobs (db.analytics = blob)
+CREATE TABLE IF NOT EXISTS `pageanalytics` (
+	`pageId` INT(11) NOT NULL,
+	`formatVersion` TINYINT(4) NOT NULL,
+	`analytics` LONGBLOB NOT NULL,
+	PRIMARY KEY (`pageId`) USING BTREE,
+	CONSTRAINT `pageanalytics_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+
+-- MinHash signatures for near-duplicate detection (dal.MinHash); a save deletes the file's row and the next lookup signs it again, as it signs older files that have none
+CREATE TABLE IF NOT EXISTS `filesignatures` (
+	`fileId` INT(11) NOT NULL,
+	`signature` BLOB NOT NULL,
+	PRIMARY KEY (`fileId`) USING BTREE,
+	CONSTRAINT `filesignatures_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+
+-- Analytics shared by identical page text (analytics.chunkStore = database)
+CREATE TABLE IF NOT EXISTS `chunkanalytics` (
+	`chunkHash` CHAR(32) NOT NULL COLLATE 'ascii_bin',
+	`formatVersion` TINYINT(4) NOT NULL,
+	`analytics` LONGBLOB NOT NULL,
+	PRIMARY KEY (`chunkHash`) USING BTREE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
+
+-- Hash of the page text each transliteration was made from; rows without one are recomputed on first view
+ALTER TABLE `transliteratedpages` ADD COLUMN IF NOT EXISTS `contentHash` CHAR(32) NULL DEFAULT NULL COLLATE 'ascii_bin';
+
+-- Term counts of each file for the TF-IDF index (dal.TFIDFCalculator), summed over its pages, written when a file is created and adjusted by each save for the pages it changed; files without a row are counted from their pages on every index build until they are saved again
+CREATE TABLE IF NOT EXISTS `filetermcounts` (
+	`fileId` INT(11) NOT NULL,
+	`termCounts` MEDIUMBLOB NOT NULL,
+	PRIMARY KEY (`fileId`) USING BTREE,
+	CONSTRAINT `filetermcounts_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB;
@@ -18,6 +18,8 @@ CREATE TABLE `pages` (
 	`fileId` INT(11) NOT NULL,
 	`pageNumber` INT(11) NOT NULL,
 	`pageContent` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`contentCodec` TINYINT(4) NOT NULL DEFAULT 0,
+	`compressedContent` LONGBLOB NULL DEFAULT NULL,
 	PRIMARY KEY (`pageId`) USING BTREE,
 	UNIQUE INDEX `file_id` (`fileId`, `pageNumber`) USING BTREE,
 	CONSTRAINT `pages_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
@@ -30,6 +32,9 @@ CREATE TABLE `transliteratedpages` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
 	`transliteratedText` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`textCodec` TINYINT(4) NOT NULL DEFAULT 0,
+	`compressedText` LONGBLOB NULL DEFAULT NULL,
+	`contentHash` CHAR(32) NULL DEFAULT NULL COLLATE 'ascii_bin',
 	PRIMARY KEY (`id`) USING BTREE,
 	UNIQUE INDEX `page_id` (`pageId`) USING BTREE,
 	CONSTRAINT `transliteratedpages_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
@@ -39,108 +44,163 @@ ENGINE=InnoDB
 AUTO_INCREMENT=32
 ;
 
+CREATE TABLE `vocabulary` (
+	`wordId` INT(11) NOT NULL AUTO_INCREMENT,
+	`word` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`wordId`) USING BTREE,
+	UNIQUE INDEX `word` (`word`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `lemmas` (
+	`lemmaId` INT(11) NOT NULL AUTO_INCREMENT,
+	`lemma` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`lemmaId`) USING BTREE,
+	UNIQUE INDEX `lemma` (`lemma`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `roots` (
+	`rootId` INT(11) NOT NULL AUTO_INCREMENT,
+	`root` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`rootId`) USING BTREE,
+	UNIQUE INDEX `root` (`root`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `stems` (
+	`stemId` INT(11) NOT NULL AUTO_INCREMENT,
+	`stem` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`stemId`) USING BTREE,
+	UNIQUE INDEX `stem` (`stem`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
 CREATE TABLE `lemmatization` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`lemma` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
+	`lemmaId` INT(11) NULL DEFAULT NULL,
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `lemmatization_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `lemmatization_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `lemmatization_word` (`wordId`) USING BTREE,
+	CONSTRAINT `lemmatization_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `lemmatization_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT,
+	CONSTRAINT `lemmatization_lemmaId_fk` FOREIGN KEY (`lemmaId`) REFERENCES `lemmas` (`lemmaId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14573
 ;
 
 CREATE TABLE `pos` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
 	`pos` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `pos_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pos_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `pos_word` (`wordId`) USING BTREE,
+	CONSTRAINT `pos_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `pos_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=613
 ;
 
 CREATE TABLE `rootextraction` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`root` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
+	`rootId` INT(11) NULL DEFAULT NULL,
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `rootExtraction_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `rootExtraction_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `rootextraction_word` (`wordId`) USING BTREE,
+	CONSTRAINT `rootExtraction_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `rootextraction_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT,
+	CONSTRAINT `rootextraction_rootId_fk` FOREIGN KEY (`rootId`) REFERENCES `roots` (`rootId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14506
 ;
 
 CREATE TABLE `stemmation` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`stem` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
+	`stemId` INT(11) NULL DEFAULT NULL,
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `stemmation_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `stemmation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `stemmation_word` (`wordId`) USING BTREE,
+	CONSTRAINT `stemmation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `stemmation_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT,
+	CONSTRAINT `stemmation_stemId_fk` FOREIGN KEY (`stemId`) REFERENCES `stems` (`stemId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14460
 ;
 
 CREATE TABLE `wordsegementation` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
 	`segment` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `wordSegementation_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `wordSegementation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `wordsegementation_word` (`wordId`) USING BTREE,
+	CONSTRAINT `wordSegementation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `wordsegementation_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14475
 ;
 
 CREATE TABLE `pkl` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
 	`pklScore` DOUBLE NOT NULL DEFAULT '0',
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `pkl_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pkl_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `pkl_word` (`wordId`) USING BTREE,
+	CONSTRAINT `pkl_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `pkl_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14394
 ;
 CREATE TABLE `pmi` (
 	`id` INT(11) NOT NULL AUTO_INCREMENT,
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
+	`wordId` INT(11) NOT NULL,
+	`nextWordId` INT(11) NOT NULL,
 	`pmiScore` DOUBLE NOT NULL DEFAULT '0',
 	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
 	INDEX `pmi_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pmi_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	INDEX `pmi_word` (`wordId`) USING BTREE,
+	CONSTRAINT `pmi_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `pmi_word_fk` FOREIGN KEY (`wordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT,
+	CONSTRAINT `pmi_nextWordId_fk` FOREIGN KEY (`nextWordId`) REFERENCES `vocabulary` (`wordId`) ON UPDATE RESTRICT ON DELETE RESTRICT
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+CREATE TABLE `pageanalytics` (
+	`pageId` INT(11) NOT NULL,
+	`formatVersion` TINYINT(4) NOT NULL,
+	`analytics` LONGBLOB NOT NULL,
+	PRIMARY KEY (`pageId`) USING BTREE,
+	CONSTRAINT `pageanalytics_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14386
 ;
 CREATE TABLE `tfidf` (
 	`tfidfId` INT(11) NOT NULL AUTO_INCREMENT,
@@ -154,3 +214,30 @@ COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
 AUTO_INCREMENT=14517
 ;
+CREATE TABLE `filesignatures` (
+	`fileId` INT(11) NOT NULL,
+	`signature` BLOB NOT NULL,
+	PRIMARY KEY (`fileId`) USING BTREE,
+	CONSTRAINT `filesignatures_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+CREATE TABLE `filetermcounts` (
+	`fileId` INT(11) NOT NULL,
+	`termCounts` MEDIUMBLOB NOT NULL,
+	PRIMARY KEY (`fileId`) USING BTREE,
+	CONSTRAINT `filetermcounts_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+CREATE TABLE `chunkanalytics` (
+	`chunkHash` CHAR(32) NOT NULL COLLATE 'ascii_bin',
+	`formatVersion` TINYINT(4) NOT NULL,
+	`analytics` LONGBLOB NOT NULL,
+	PRIMARY KEY (`chunkHash`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
@@ -0,0 +1,188 @@
+-- Schema for the embedded (H2, MariaDB compatibility mode) backend.
+-- Mirrors EditorDBQuery.sql and is applied on every start, so keep it idempotent.
+
+CREATE TABLE IF NOT EXISTS files (
+	fileId INT NOT NULL AUTO_INCREMENT,
+	fileName VARCHAR(255) NOT NULL,
+	fileHash VARCHAR(255) NOT NULL,
+	dateCreated TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+	lastModified TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+	PRIMARY KEY (fileId)
+);
+
+CREATE TABLE IF NOT EXISTS pages (
+	pageId INT NOT NULL AUTO_INCREMENT,
+	fileId INT NOT NULL,
+	pageNumber INT NOT NULL,
+	pageContent LONGTEXT NOT NULL,
+	PRIMARY KEY (pageId),
+	CONSTRAINT pages_file_page UNIQUE (fileId, pageNumber),
+	CONSTRAINT pages_ibfk_1 FOREIGN KEY (fileId) REFERENCES files (fileId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS transliteratedpages (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	transliteratedText LONGTEXT NOT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT transliteratedpages_page UNIQUE (pageId),
+	CONSTRAINT transliteratedpages_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS vocabulary (
+	wordId INT NOT NULL AUTO_INCREMENT,
+	word VARCHAR(768) NOT NULL,
+	PRIMARY KEY (wordId),
+	CONSTRAINT vocabulary_word UNIQUE (word)
+);
+
+CREATE TABLE IF NOT EXISTS lemmas (
+	lemmaId INT NOT NULL AUTO_INCREMENT,
+	lemma VARCHAR(768) NOT NULL,
+	PRIMARY KEY (lemmaId),
+	CONSTRAINT lemmas_lemma UNIQUE (lemma)
+);
+
+CREATE TABLE IF NOT EXISTS roots (
+	rootId INT NOT NULL AUTO_INCREMENT,
+	root VARCHAR(768) NOT NULL,
+	PRIMARY KEY (rootId),
+	CONSTRAINT roots_root UNIQUE (root)
+);
+
+CREATE TABLE IF NOT EXISTS stems (
+	stemId INT NOT NULL AUTO_INCREMENT,
+	stem VARCHAR(768) NOT NULL,
+	PRIMARY KEY (stemId),
+	CONSTRAINT stems_stem UNIQUE (stem)
+);
+
+CREATE TABLE IF NOT EXISTS lemmatization (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	lemmaId INT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT lemmatization_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT lemmatization_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId),
+	CONSTRAINT lemmatization_lemmaId_fk FOREIGN KEY (lemmaId) REFERENCES lemmas (lemmaId)
+);
+
+CREATE TABLE IF NOT EXISTS pos (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	pos LONGTEXT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT pos_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT pos_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId)
+);
+
+CREATE TABLE IF NOT EXISTS rootextraction (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	rootId INT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT rootextraction_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT rootextraction_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId),
+	CONSTRAINT rootextraction_rootId_fk FOREIGN KEY (rootId) REFERENCES roots (rootId)
+);
+
+CREATE TABLE IF NOT EXISTS stemmation (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	stemId INT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT stemmation_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT stemmation_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId),
+	CONSTRAINT stemmation_stemId_fk FOREIGN KEY (stemId) REFERENCES stems (stemId)
+);
+
+CREATE TABLE IF NOT EXISTS wordsegementation (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	segment LONGTEXT NULL,
+	PRIMARY KEY (id),
+	CONSTRAINT wordsegementation_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT wordsegementation_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId)
+);
+
+CREATE TABLE IF NOT EXISTS pkl (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	pklScore DOUBLE NOT NULL DEFAULT 0,
+	PRIMARY KEY (id),
+	CONSTRAINT pkl_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT pkl_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId)
+);
+
+CREATE TABLE IF NOT EXISTS pmi (
+	id INT NOT NULL AUTO_INCREMENT,
+	pageId INT NOT NULL,
+	wordId INT NOT NULL,
+	nextWordId INT NOT NULL,
+	pmiScore DOUBLE NOT NULL DEFAULT 0,
+	PRIMARY KEY (id),
+	CONSTRAINT pmi_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE,
+	CONSTRAINT pmi_word_fk FOREIGN KEY (wordId) REFERENCES vocabulary (wordId),
+	CONSTRAINT pmi_nextWordId_fk FOREIGN KEY (nextWordId) REFERENCES vocabulary (wordId)
+);
+
+CREATE TABLE IF NOT EXISTS pageanalytics (
+	pageId INT NOT NULL,
+	formatVersion TINYINT NOT NULL,
+	analytics BLOB NOT NULL,
+	PRIMARY KEY (pageId),
+	CONSTRAINT pageanalytics_ibfk_1 FOREIGN KEY (pageId) REFERENCES pages (pageId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS tfidf (
+	tfidfId INT NOT NULL AUTO_INCREMENT,
+	fileId INT NOT NULL,
+	tfidfScore DOUBLE NOT NULL DEFAULT 0,
+	PRIMARY KEY (tfidfId),
+	CONSTRAINT tfidf_fk FOREIGN KEY (fileId) REFERENCES files (fileId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS filesignatures (
+	fileId INT NOT NULL,
+	signature BLOB NOT NULL,
+	PRIMARY KEY (fileId),
+	CONSTRAINT filesignatures_ibfk_1 FOREIGN KEY (fileId) REFERENCES files (fileId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS filetermcounts (
+	fileId INT NOT NULL,
+	termCounts BLOB NOT NULL,
+	PRIMARY KEY (fileId),
+	CONSTRAINT filetermcounts_ibfk_1 FOREIGN KEY (fileId) REFERENCES files (fileId) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS chunkanalytics (
+	chunkHash CHAR(32) NOT NULL,
+	formatVersion TINYINT NOT NULL,
+	analytics BLOB NOT NULL,
+	PRIMARY KEY (chunkHash)
+);
+
+-- Compressed storage of page and transliteration text (ContentCodec)
+ALTER TABLE pages ADD COLUMN IF NOT EXISTS contentCodec TINYINT NOT NULL DEFAULT 0;
+ALTER TABLE pages ADD COLUMN IF NOT EXISTS compressedContent BLOB NULL;
+ALTER TABLE transliteratedpages ADD COLUMN IF NOT EXISTS textCodec TINYINT NOT NULL DEFAULT 0;
+ALTER TABLE transliteratedpages ADD COLUMN IF NOT EXISTS compressedText BLOB NULL;
+
+-- Hash of the page text a transliteration was made from
+ALTER TABLE transliteratedpages ADD COLUMN IF NOT EXISTS contentHash CHAR(32) NULL;
+
+-- Word-keyed lookups on the vocabulary ids
+CREATE INDEX IF NOT EXISTS pos_word ON pos (wordId);
+CREATE INDEX IF NOT EXISTS lemmatization_word ON lemmatization (wordId);
+CREATE INDEX IF NOT EXISTS rootextraction_word ON rootextraction (wordId);
+CREATE INDEX IF NOT EXISTS stemmation_word ON stemmation (wordId);
+CREATE INDEX IF NOT EXISTS wordsegementation_word ON wordsegementation (wordId);
+CREATE INDEX IF NOT EXISTS pkl_word ON pkl (wordId);
+CREATE INDEX IF NOT EXISTS pmi_word ON pmi (wordId);
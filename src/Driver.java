@@ -1,10 +1,17 @@
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
 import bll.EditorBO;
 import bll.FacadeBO;
 import bll.IFacadeBO;
 import dal.AbstractDAOEditorFactory;
+import dal.AbstractEditorDAO;
+import dal.EditorConfig;
 import dal.FacadeDAO;
 import dal.IEditorDBDAO;
 import dal.IFacadeDAO;
+import dal.JournaledEditorDAO;
+import dal.TFIDFJob;
 import pl.EditorPO;
 
 public class Driver {
@@ -15,6 +22,19 @@ public class Driver {
     public static void main(String[] args) {
 
     	IEditorDBDAO editorDAO = AbstractDAOEditorFactory.getInstance().createEditorDAO();
+        if (editorDAO instanceof AbstractEditorDAO) {
+            // Refreshes the stored TF-IDF scores every tfidf.job.interval minutes, when set
+            TFIDFJob.schedule((AbstractEditorDAO) editorDAO);
+        }
+        if (EditorConfig.getBoolean("db.journal", false)) {
+            JournaledEditorDAO journal = new JournaledEditorDAO(editorDAO);
+            // Saves given up because their page was deleted are shown to the user
+            journal.setSaveFailureListener(message -> SwingUtilities.invokeLater(
+                    () -> JOptionPane.showMessageDialog(null, message, "Save failed", JOptionPane.ERROR_MESSAGE)));
+            // Write out whatever is still pending when the editor exits
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+            editorDAO = journal;
+        }
         IFacadeDAO facadeDAO = new FacadeDAO(editorDAO);
         IFacadeBO editorBO = new FacadeBO(new EditorBO(facadeDAO));
         new EditorPO(editorBO);
@@ -1,5 +1,7 @@
 package bll;
 
+import dal.TokenizedText;
+
 public class AutoSaveChecker {
 
     private static final int AUTO_SAVE_THRESHOLD = 500;
@@ -9,8 +11,7 @@ public class AutoSaveChecker {
             return false;
         }
 
-        int wordCount = countWords(content);
-        return wordCount > AUTO_SAVE_THRESHOLD;
+        return shouldTriggerAutoSaveByWordCount(countWords(TokenizedText.of(content)));
     }
 
     public static int countWords(String text) {
@@ -18,10 +19,11 @@ public class AutoSaveChecker {
             return 0;
         }
 
-        String trimmedText = text.trim();
-        String[] words = trimmedText.split("\\s+");
+        return countWords(TokenizedText.of(text));
+    }
 
-        return words.length;
+    public static int countWords(TokenizedText text) {
+        return text.tokenCount();
     }
 
     public static boolean shouldTriggerAutoSaveByWordCount(int wordCount) {
@@ -10,6 +10,8 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import dal.EditorConfig;
+import dal.HashCalculator;
 import dal.IFacadeDAO;
 import dto.Documents;
 import dto.Pages;
@@ -46,6 +48,17 @@ public class EditorBO implements IEditorBO {
 		}
 	}
 
+	@Override
+	public boolean autoSaveFile(int id, String fileName, int pageNumber, String content) {
+		try {
+			return db.autoSaveFileInDB(id, fileName, pageNumber, content);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
 	@Override
 	public boolean deleteFile(int id) {
 		try {
@@ -65,14 +78,27 @@ public class EditorBO implements IEditorBO {
 		try {
 			reader = new BufferedReader(new FileReader(file));
 			String line;
+			// Hashed line by line while reading, so the content is never copied to bytes as a whole
+			HashCalculator.Hasher hasher = HashCalculator.newHasher();
 
 			while ((line = reader.readLine()) != null) {
 				fileContent.append(line).append("\n");
+				hasher.update(line).update("\n");
 			}
 			reader.close();
 
 			if (fileExtension.equalsIgnoreCase("txt") || fileExtension.equalsIgnoreCase("md5")) {
-				return db.createFileInDB(fileName, fileContent.toString());
+				String content = fileContent.toString();
+				if (EditorConfig.getBoolean("dedup.onImport", false)) {
+					double threshold = Double.parseDouble(EditorConfig.getProperty("dedup.threshold", "0.9"));
+					Map<Integer, Double> duplicates = db.findNearDuplicates(content, threshold);
+					if (!duplicates.isEmpty()) {
+						LOGGER.info("Skipped " + fileName + ": near-duplicate of file " + duplicates.keySet().iterator().next()
+								+ " (similarity " + duplicates.values().iterator().next() + ")");
+						return false;
+					}
+				}
+				return db.createFileInDB(fileName, content, hasher.hexDigest());
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -137,6 +163,11 @@ public class EditorBO implements IEditorBO {
 		return db.performTFIDF(unSelectedDocsContent, selectedDocContent);
 	}
 
+	@Override
+	public double performTFIDF(int fileId) {
+		return db.performTFIDF(fileId);
+	}
+
 	@Override
 	public Map<String, Double> performPMI(String content) {
 
@@ -160,4 +191,14 @@ public class EditorBO implements IEditorBO {
 		return db.segmentWords(text);
 	}
 
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		return db.findNearDuplicates(fileId, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findSimilarFiles(int fileId, int limit) {
+		return db.findSimilarFiles(fileId, limit);
+	}
+
 }
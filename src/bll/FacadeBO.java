@@ -26,6 +26,11 @@ public class FacadeBO implements IFacadeBO {
 		return bo.updateFile(id, fileName, pageNumber, content);
 	}
 
+	@Override
+	public boolean autoSaveFile(int id, String fileName, int pageNumber, String content) {
+		return bo.autoSaveFile(id, fileName, pageNumber, content);
+	}
+
 	@Override
 	public boolean deleteFile(int id) {
 		// TODO Auto-generated method stub
@@ -90,6 +95,11 @@ public class FacadeBO implements IFacadeBO {
 		return bo.performTFIDF(unSelectedDocsContent, selectedDocContent);
 	}
 
+	@Override
+	public double performTFIDF(int fileId) {
+		return bo.performTFIDF(fileId);
+	}
+
 	@Override
 	public Map<String, Double> performPMI(String content) {
 		// TODO Auto-generated method stub
@@ -114,4 +124,14 @@ public class FacadeBO implements IFacadeBO {
 		return bo.segmentWords(text);
 	}
 
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		return bo.findNearDuplicates(fileId, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findSimilarFiles(int fileId, int limit) {
+		return bo.findSimilarFiles(fileId, limit);
+	}
+
 }
@@ -11,6 +11,9 @@ public interface IEditorBO {
 
 	boolean updateFile(int id, String fileName, int pageNumber, String content);
 
+	// Saves the page without splitting or merging it
+	boolean autoSaveFile(int id, String fileName, int pageNumber, String content);
+
 	boolean deleteFile(int id);
 
 	boolean importTextFiles(File file, String fileName);
@@ -33,6 +36,8 @@ public interface IEditorBO {
 
 	double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent);
 
+	double performTFIDF(int fileId);
+
 	Map<String, Double> performPMI(String content);
 
 	Map<String, Double> performPKL(String content);
@@ -41,4 +46,8 @@ public interface IEditorBO {
 
 	Map<String, String> segmentWords(String text);
 
+	Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity);
+
+	Map<Integer, Double> findSimilarFiles(int fileId, int limit);
+
 }
@@ -0,0 +1,478 @@
+package bll;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Editable text stored as a list of pieces over two buffers: the text the table was loaded
+// with (never modified) and an append-only buffer of everything typed since. Inserts and
+// deletes touch the piece list only, so they cost O(pieces + edit length) however large the
+// text is. Word, non-whitespace and line counts are kept up to date on every edit, and
+// snapshot() returns an immutable view that stays valid while editing continues.
+public class PieceTable {
+
+    private static final int[] NO_NEWLINES = new int[0];
+
+    private static final class Piece {
+        final boolean added;
+        final int start;
+        final int length;
+
+        Piece(boolean added, int start, int length) {
+            this.added = added;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    // Receives consecutive slices of the text; the array must not be modified
+    public interface ChunkVisitor {
+        void visit(char[] buffer, int start, int length);
+    }
+
+    private char[] original = new char[0];
+    private int[] originalNewlines = NO_NEWLINES;
+    private char[] added = new char[16];
+    private int addedLength;
+    private int[] addedNewlines = new int[16];
+    private int addedNewlineCount;
+
+    private final List<Piece> pieces = new ArrayList<>();
+    private int length;
+    private int newlines;
+    private int words;
+    private int wordChars;
+
+    // Piece found by the last lookup and its offset in the text; edits are usually local
+    private int cachedPiece;
+    private int cachedStart;
+
+    public PieceTable() {
+    }
+
+    public PieceTable(String text) {
+        insert(0, text);
+    }
+
+    public synchronized int length() {
+        return length;
+    }
+
+    public synchronized int getWordCount() {
+        return words;
+    }
+
+    // Total length of all words, i.e. every non-whitespace character
+    public synchronized int getWordCharacterCount() {
+        return wordChars;
+    }
+
+    public synchronized int getNewlineCount() {
+        return newlines;
+    }
+
+    public synchronized void insert(int offset, String text) {
+        checkRange(offset, 0);
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        if (length == 0) {
+            load(text);
+            return;
+        }
+
+        int before = offset > 0 ? charAt(offset - 1) : ' ';
+        int after = offset < length ? charAt(offset) : ' ';
+        int addedStart = append(text);
+
+        int index = splitAt(offset);
+        Piece previous = index > 0 ? pieces.get(index - 1) : null;
+        if (previous != null && previous.added && previous.start + previous.length == addedStart) {
+            // Typing continues the previous insert
+            pieces.set(index - 1, new Piece(true, previous.start, previous.length + text.length()));
+            cachedPiece = index - 1;
+            cachedStart = offset - previous.length;
+        } else {
+            pieces.add(index, new Piece(true, addedStart, text.length()));
+            cachedPiece = index;
+            cachedStart = offset;
+        }
+
+        length += text.length();
+        newlines += countNewlines(added, addedStart, text.length());
+        wordChars += countWordChars(added, addedStart, text.length());
+        words += countWordStarts(added, addedStart, text.length(), before)
+                + wordStart(text.charAt(text.length() - 1), after) - wordStart(before, after);
+    }
+
+    public synchronized void delete(int offset, int count) {
+        checkRange(offset, count);
+        if (count == 0) {
+            return;
+        }
+        int before = offset > 0 ? charAt(offset - 1) : ' ';
+        int after = offset + count < length ? charAt(offset + count) : ' ';
+        int[] removed = new int[3];
+        int[] last = { before };
+        forEachChunk(offset, count, (buffer, start, chunkLength) -> {
+            removed[0] += countNewlines(buffer, start, chunkLength);
+            removed[1] += countWordChars(buffer, start, chunkLength);
+            removed[2] += countWordStarts(buffer, start, chunkLength, last[0]);
+            last[0] = buffer[start + chunkLength - 1];
+        });
+
+        int first = splitAt(offset);
+        int end = splitAt(offset + count);
+        pieces.subList(first, end).clear();
+        cachedPiece = first;
+        cachedStart = offset;
+
+        length -= count;
+        newlines -= removed[0];
+        wordChars -= removed[1];
+        words += wordStart(before, after) - removed[2] - wordStart(last[0], after);
+    }
+
+    public synchronized void replace(int offset, int count, String text) {
+        delete(offset, count);
+        insert(offset, text);
+    }
+
+    public synchronized char charAt(int offset) {
+        if (offset < 0 || offset >= length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " outside text of length " + length);
+        }
+        int index = locate(offset);
+        Piece piece = pieces.get(index);
+        return bufferOf(piece)[piece.start + offset - cachedStart];
+    }
+
+    // Visits the buffer slices covering [offset, offset + count) in order, without copying
+    public synchronized void forEachChunk(int offset, int count, ChunkVisitor visitor) {
+        checkRange(offset, count);
+        if (count == 0) {
+            return;
+        }
+        int index = locate(offset);
+        int pieceStart = cachedStart;
+        int remaining = count;
+        int position = offset;
+        while (remaining > 0) {
+            Piece piece = pieces.get(index);
+            int skip = position - pieceStart;
+            int chunkLength = Math.min(piece.length - skip, remaining);
+            visitor.visit(bufferOf(piece), piece.start + skip, chunkLength);
+            remaining -= chunkLength;
+            position += chunkLength;
+            pieceStart += piece.length;
+            index++;
+        }
+    }
+
+    public synchronized void getChars(int offset, int count, char[] destination, int destinationStart) {
+        int[] position = { destinationStart };
+        forEachChunk(offset, count, (buffer, start, chunkLength) -> {
+            System.arraycopy(buffer, start, destination, position[0], chunkLength);
+            position[0] += chunkLength;
+        });
+    }
+
+    public synchronized String getText(int offset, int count) {
+        char[] text = new char[count];
+        getChars(offset, count, text, 0);
+        return new String(text);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getText(0, length);
+    }
+
+    // Offset of the first character of a line; line 0 starts at 0
+    public synchronized int getLineStartOffset(int line) {
+        if (line < 0 || line > newlines) {
+            throw new IndexOutOfBoundsException("Line " + line + " outside text with " + (newlines + 1) + " lines");
+        }
+        if (line == 0) {
+            return 0;
+        }
+        int remaining = line;
+        int pieceStart = 0;
+        for (Piece piece : pieces) {
+            int[] positions = piece.added ? addedNewlines : originalNewlines;
+            int limit = piece.added ? addedNewlineCount : originalNewlines.length;
+            int first = lowerBound(positions, limit, piece.start);
+            int inPiece = lowerBound(positions, limit, piece.start + piece.length) - first;
+            if (remaining <= inPiece) {
+                return pieceStart + positions[first + remaining - 1] - piece.start + 1;
+            }
+            remaining -= inPiece;
+            pieceStart += piece.length;
+        }
+        throw new IllegalStateException("Line index is out of date");
+    }
+
+    public synchronized int getLineOfOffset(int offset) {
+        checkRange(offset, 0);
+        int line = 0;
+        int pieceStart = 0;
+        for (Piece piece : pieces) {
+            if (pieceStart >= offset) {
+                break;
+            }
+            int[] positions = piece.added ? addedNewlines : originalNewlines;
+            int limit = piece.added ? addedNewlineCount : originalNewlines.length;
+            int end = piece.start + Math.min(piece.length, offset - pieceStart);
+            line += lowerBound(positions, limit, end) - lowerBound(positions, limit, piece.start);
+            pieceStart += piece.length;
+        }
+        return line;
+    }
+
+    // Start of the word containing or ending at offset; offset itself when there is none
+    public synchronized int getWordStart(int offset) {
+        checkRange(offset, 0);
+        int start = offset;
+        while (start > 0 && !Character.isWhitespace(charAt(start - 1))) {
+            start--;
+        }
+        return start;
+    }
+
+    public synchronized int getWordEnd(int offset) {
+        checkRange(offset, 0);
+        int end = offset;
+        while (end < length && !Character.isWhitespace(charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    public synchronized Snapshot snapshot() {
+        Piece[] copy = pieces.toArray(new Piece[0]);
+        int[] starts = new int[copy.length];
+        int position = 0;
+        for (int i = 0; i < copy.length; i++) {
+            starts[i] = position;
+            position += copy[i].length;
+        }
+        return new Snapshot(original, added, copy, starts, length, words, wordChars, newlines);
+    }
+
+    // Immutable view of the text at the time snapshot() was called. The buffers it reads are
+    // never overwritten: the added buffer is only appended to, or replaced when it grows.
+    public static final class Snapshot implements CharSequence {
+        private final char[] original;
+        private final char[] added;
+        private final Piece[] pieces;
+        private final int[] starts;
+        private final int length;
+        private final int words;
+        private final int wordChars;
+        private final int newlines;
+
+        private Snapshot(char[] original, char[] added, Piece[] pieces, int[] starts, int length, int words,
+                int wordChars, int newlines) {
+            this.original = original;
+            this.added = added;
+            this.pieces = pieces;
+            this.starts = starts;
+            this.length = length;
+            this.words = words;
+            this.wordChars = wordChars;
+            this.newlines = newlines;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Offset " + index + " outside text of length " + length);
+            }
+            int piece = Arrays.binarySearch(starts, index);
+            if (piece < 0) {
+                piece = -piece - 2;
+            }
+            return (pieces[piece].added ? added : original)[pieces[piece].start + index - starts[piece]];
+        }
+
+        @Override
+        public String subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("Range " + start + ".." + end + " outside text of length " + length);
+            }
+            char[] text = new char[end - start];
+            int position = 0;
+            for (int i = 0; i < pieces.length && position < text.length; i++) {
+                int pieceEnd = starts[i] + pieces[i].length;
+                if (pieceEnd <= start) {
+                    continue;
+                }
+                int from = Math.max(start, starts[i]);
+                int to = Math.min(end, pieceEnd);
+                System.arraycopy(pieces[i].added ? added : original, pieces[i].start + from - starts[i], text, position,
+                        to - from);
+                position += to - from;
+            }
+            return new String(text);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length);
+        }
+
+        public int getWordCount() {
+            return words;
+        }
+
+        public int getWordCharacterCount() {
+            return wordChars;
+        }
+
+        public int getNewlineCount() {
+            return newlines;
+        }
+    }
+
+    // Replaces the (empty) text with a new original buffer; earlier snapshots keep the old buffers
+    private void load(String text) {
+        original = text.toCharArray();
+        int[] positions = new int[16];
+        int count = 0;
+        for (int i = 0; i < original.length; i++) {
+            if (original[i] == '\n') {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count++] = i;
+            }
+        }
+        originalNewlines = Arrays.copyOf(positions, count);
+        added = new char[16];
+        addedLength = 0;
+        addedNewlines = new int[16];
+        addedNewlineCount = 0;
+
+        pieces.clear();
+        pieces.add(new Piece(false, 0, original.length));
+        cachedPiece = 0;
+        cachedStart = 0;
+        length = original.length;
+        newlines = count;
+        wordChars = countWordChars(original, 0, original.length);
+        words = countWordStarts(original, 0, original.length, ' ');
+    }
+
+    private int append(String text) {
+        int start = addedLength;
+        if (addedLength + text.length() > added.length) {
+            added = Arrays.copyOf(added, Math.max(added.length * 2, addedLength + text.length()));
+        }
+        text.getChars(0, text.length(), added, addedLength);
+        addedLength += text.length();
+        for (int i = start; i < addedLength; i++) {
+            if (added[i] == '\n') {
+                if (addedNewlineCount == addedNewlines.length) {
+                    addedNewlines = Arrays.copyOf(addedNewlines, addedNewlineCount * 2);
+                }
+                addedNewlines[addedNewlineCount++] = i;
+            }
+        }
+        return start;
+    }
+
+    // Index of the piece containing offset (pieces.size() at the end); sets cachedStart to its offset
+    private int locate(int offset) {
+        int index = Math.min(cachedPiece, pieces.size());
+        int start = index == cachedPiece ? cachedStart : length;
+        while (index > 0 && start > offset) {
+            index--;
+            start -= pieces.get(index).length;
+        }
+        while (index < pieces.size() && start + pieces.get(index).length <= offset) {
+            start += pieces.get(index).length;
+            index++;
+        }
+        cachedPiece = index;
+        cachedStart = start;
+        return index;
+    }
+
+    // Splits the piece containing offset so a piece starts there and returns its index
+    private int splitAt(int offset) {
+        int index = locate(offset);
+        if (index == pieces.size() || cachedStart == offset) {
+            return index;
+        }
+        Piece piece = pieces.get(index);
+        int left = offset - cachedStart;
+        pieces.set(index, new Piece(piece.added, piece.start, left));
+        pieces.add(index + 1, new Piece(piece.added, piece.start + left, piece.length - left));
+        cachedPiece = index + 1;
+        cachedStart = offset;
+        return index + 1;
+    }
+
+    private char[] bufferOf(Piece piece) {
+        return piece.added ? added : original;
+    }
+
+    private void checkRange(int offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IndexOutOfBoundsException(
+                    "Range " + offset + ".." + (offset + count) + " outside text of length " + length);
+        }
+    }
+
+    private static int wordStart(int previous, int current) {
+        return !Character.isWhitespace(current) && Character.isWhitespace(previous) ? 1 : 0;
+    }
+
+    private static int countWordStarts(char[] buffer, int start, int count, int previous) {
+        int starts = 0;
+        for (int i = start; i < start + count; i++) {
+            starts += wordStart(previous, buffer[i]);
+            previous = buffer[i];
+        }
+        return starts;
+    }
+
+    private static int countWordChars(char[] buffer, int start, int count) {
+        int chars = 0;
+        for (int i = start; i < start + count; i++) {
+            if (!Character.isWhitespace(buffer[i])) {
+                chars++;
+            }
+        }
+        return chars;
+    }
+
+    private static int countNewlines(char[] buffer, int start, int count) {
+        int lines = 0;
+        for (int i = start; i < start + count; i++) {
+            if (buffer[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static int lowerBound(int[] values, int limit, int key) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
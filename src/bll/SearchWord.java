@@ -6,6 +6,7 @@ import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import dal.TokenizedText;
 import dto.Documents;
 import dto.Pages;
 import pl.EditorPO;
@@ -24,7 +25,7 @@ public class SearchWord {
 				String pageContent = page.getPageContent();
 				if (pageContent.contains(keyword)) {
 
-					String[] words = pageContent.split("\\s+");
+					String[] words = TokenizedText.of(pageContent).tokens();
 
 					for (int i = 0; i < words.length; i++) {
 						if (words[i].equalsIgnoreCase(keyword)) {
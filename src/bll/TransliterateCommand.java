@@ -1,5 +1,8 @@
 package bll;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+
 import dal.Transliteration;
 
 public class TransliterateCommand implements Command {
@@ -23,7 +26,9 @@ public class TransliterateCommand implements Command {
         }
 
         try {
-            transliteratedText = Transliteration.transliterate(arabicText);
+            StringWriter romanText = new StringWriter(arabicText.length());
+            Transliteration.transliterate(new StringReader(arabicText), romanText);
+            transliteratedText = romanText.toString();
             success = true;
             return true;
 
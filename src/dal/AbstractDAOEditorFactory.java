@@ -1,9 +1,5 @@
 package dal;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
-
 public abstract class AbstractDAOEditorFactory implements IDAOEditorFactory {
 
 	private static IDAOEditorFactory instance = null;
@@ -12,16 +8,11 @@ public abstract class AbstractDAOEditorFactory implements IDAOEditorFactory {
 
 		if (instance == null) {
 			String factoryClassName = null;
-			try (FileInputStream input = new FileInputStream("config.properties")) {
-				Properties prop = new Properties();
-				prop.load(input);
-				factoryClassName = prop.getProperty("db.type");
+			try {
+				factoryClassName = EditorConfig.getProperty("db.type", MariaDBDAOFactory.class.getName());
 				Class<?> clazz = Class.forName(factoryClassName); // Load class by name
 				instance = (IDAOEditorFactory) clazz.getDeclaredConstructor().newInstance(); // Instantiate class
 			} 
-			catch (IOException e) {
-				e.printStackTrace();
-			} 
 			catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -0,0 +1,342 @@
+package dal;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.DedupeReport;
+import dto.PageAnalytics;
+import dto.Pages;
+import pl.EditorPO;
+
+// Text analytics shared by every storage backend; subclasses provide persistence
+public abstract class AbstractEditorDAO implements IEditorDBDAO {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	// Built from the stored files on first use, then kept current by create, update and delete
+	private volatile TFIDFCalculator tfidf;
+	private AbstractEditorDAO tfidfOwner = this;
+	// Built from the stored signatures on first use, then kept current by create, save and delete
+	private NearDuplicateIndex nearDuplicates;
+	// Files saved since they were last signed; signed again on the next near-duplicate lookup
+	private final Set<Integer> unsignedFiles = new HashSet<>();
+	private ChunkAnalyticsStore chunkAnalytics;
+	private volatile DedupeReport lastDedupeReport;
+	private Map<Integer, CachedTransliteration> transliterations;
+	// Highest ids this store may hand out; see endIdsAt
+	private volatile int lastFileIdAllowed = Integer.MAX_VALUE;
+	private volatile int lastPageIdAllowed = Integer.MAX_VALUE;
+	// Whether the last id range check failed; see isIdRangeFull
+	private volatile boolean idRangeFull;
+
+	// Term counts of every stored file that has content, by file id; see TFIDFCalculator.termCounts
+	protected abstract Map<Integer, Map<String, Integer>> loadTermCounts();
+
+	// Lowest file and page ids this store may hand out, so several stores can share one id space
+	public abstract void startIdsAt(int firstFileId, int firstPageId);
+
+	// Highest file and page ids this store may hand out; writes that need more ids fail
+	public void endIdsAt(int lastFileId, int lastPageId) {
+		this.lastFileIdAllowed = lastFileId;
+		this.lastPageIdAllowed = lastPageId;
+	}
+
+	// Subclasses call this before new ids are stored, so a full range never spills into the next one
+	protected void checkIdRange(int fileId, int pageId) {
+		idRangeFull = fileId > lastFileIdAllowed || pageId > lastPageIdAllowed;
+		if (idRangeFull) {
+			throw new IllegalStateException("Id range of this store is full (file id " + fileId + ", page id " + pageId
+					+ ", last allowed " + lastFileIdAllowed + ", " + lastPageIdAllowed + ")");
+		}
+	}
+
+	// Whether the last write failed because it needed ids past the end of this store's range
+	public boolean isIdRangeFull() {
+		return idRangeFull;
+	}
+
+	@Override
+	public boolean createFileInDB(String nameOfFile, String content) {
+		String hash;
+		try {
+			hash = HashCalculator.calculateHash(content);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+		return createFileInDB(nameOfFile, content, hash);
+	}
+
+	// MinHash signature of every stored file that has one, by file id
+	protected abstract Map<Integer, int[]> loadSignatures();
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		return findNearDuplicates(loadSignature(fileId), minSimilarity, fileId);
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(String content, double minSimilarity) {
+		return findNearDuplicates(MinHash.signature(content), minSimilarity, -1);
+	}
+
+	// Signature lookups are split out so a sharded store can query every shard with one signature
+	protected int[] loadSignature(int fileId) {
+		return nearDuplicateIndex().getSignature(fileId);
+	}
+
+	protected Map<Integer, Double> findNearDuplicates(int[] signature, double minSimilarity, int excludedFileId) {
+		return nearDuplicateIndex().findSimilar(signature, minSimilarity, excludedFileId);
+	}
+
+	// Called by subclasses once a new file and its signature are stored
+	protected synchronized void indexSignature(int fileId, int[] signature) {
+		if (nearDuplicates != null) {
+			nearDuplicates.add(fileId, signature);
+		}
+	}
+
+	protected synchronized void unindexSignature(int fileId) {
+		unsignedFiles.remove(fileId);
+		if (nearDuplicates != null) {
+			nearDuplicates.remove(fileId);
+		}
+	}
+
+	// Called by subclasses once a save changed a file and dropped its stored signature. Signing
+	// reads the whole file, so it waits for the next lookup instead of slowing every save down.
+	protected synchronized void invalidateSignature(int fileId) {
+		unsignedFiles.add(fileId);
+		if (nearDuplicates != null) {
+			nearDuplicates.remove(fileId);
+		}
+	}
+
+	// Signs a file from its stored pages and stores the signature; null when the file is gone
+	// or too short to sign
+	protected abstract int[] storeSignature(int fileId);
+
+	private synchronized NearDuplicateIndex nearDuplicateIndex() {
+		if (nearDuplicates == null) {
+			NearDuplicateIndex index = new NearDuplicateIndex();
+			for (Map.Entry<Integer, int[]> entry : loadSignatures().entrySet()) {
+				index.add(entry.getKey(), entry.getValue());
+			}
+			nearDuplicates = index;
+		}
+		for (int fileId : unsignedFiles) {
+			int[] signature = storeSignature(fileId);
+			nearDuplicates.remove(fileId);
+			if (signature != null) {
+				nearDuplicates.add(fileId, signature);
+			}
+		}
+		unsignedFiles.clear();
+		return nearDuplicates;
+	}
+
+	// Analytics of a page, reused when identical text was analyzed before; report may be null
+	protected PageAnalytics analyzeChunk(String content, DedupeReport report) {
+		return chunkAnalytics().analyze(content, report);
+	}
+
+	// Called by subclasses once an import is stored
+	protected void finishImport(DedupeReport report) {
+		lastDedupeReport = report;
+		LOGGER.info("Analytics reuse for " + report);
+	}
+
+	public DedupeReport getLastDedupeReport() {
+		return lastDedupeReport;
+	}
+
+	// Persistent tier behind the in-memory chunk analytics; none by default
+	protected ChunkAnalyticsStore.Tier createChunkAnalyticsTier() {
+		return null;
+	}
+
+	private synchronized ChunkAnalyticsStore chunkAnalytics() {
+		if (chunkAnalytics == null) {
+			chunkAnalytics = new ChunkAnalyticsStore(EditorConfig.getInt("analytics.chunkCache", 10000),
+					createChunkAnalyticsTier());
+		}
+		return chunkAnalytics;
+	}
+
+	// Up to limit pages with ids above afterPageId, in id order, in a modifiable list
+	protected abstract List<TransliterationJob.PageText> getPagesAfter(int afterPageId, int limit) throws Exception;
+
+	// Stores the transliteration of every page, replacing the previous one
+	protected abstract void storeTransliterations(List<TransliterationJob.PageText> pages) throws Exception;
+
+	// The transliteration last served for a page, or null unless its text still has this hash
+	protected synchronized String cachedTransliteration(int pageId, String contentHash) {
+		CachedTransliteration cached = transliterations().get(pageId);
+		return cached != null && cached.contentHash.equals(contentHash) ? cached.text : null;
+	}
+
+	// Subclasses call this once the transliteration is stored for the page
+	protected synchronized void cacheTransliteration(int pageId, String contentHash, String text) {
+		transliterations().put(pageId, new CachedTransliteration(contentHash, text));
+	}
+
+	private Map<Integer, CachedTransliteration> transliterations() {
+		if (transliterations == null) {
+			int capacity = EditorConfig.getInt("transliteration.cacheSize", 1000);
+			transliterations = new LinkedHashMap<Integer, CachedTransliteration>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, CachedTransliteration> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+		return transliterations;
+	}
+
+	private static class CachedTransliteration {
+		private final String contentHash;
+		private final String text;
+
+		private CachedTransliteration(String contentHash, String text) {
+			this.contentHash = contentHash;
+			this.text = text;
+		}
+	}
+
+	// TF-IDF normally compares against this store's files; a sharded setup keeps one index of
+	// the whole corpus in the sharded store
+	public void shareTFIDFIndex(AbstractEditorDAO owner) {
+		this.tfidfOwner = owner;
+	}
+
+	protected TFIDFCalculator tfidfIndex() {
+		if (tfidfOwner != this) {
+			return tfidfOwner.tfidfIndex();
+		}
+		if (tfidf != null) {
+			return tfidf;
+		}
+		synchronized (this) {
+			if (tfidf == null) {
+				TFIDFCalculator index = new TFIDFCalculator();
+				for (Map.Entry<Integer, Map<String, Integer>> file : loadTermCounts().entrySet()) {
+					index.addDocument(file.getKey(), file.getValue());
+				}
+				tfidf = index;
+			}
+			return tfidf;
+		}
+	}
+
+	// TF-IDF score of text from a file against the other stored files; fileId 0 for a new file
+	protected double scoreTFIDF(int fileId, String content) {
+		return tfidfIndex().calculateDocumentTfIdf(TokenizedText.of(content), fileId);
+	}
+
+	// TF-IDF score of a whole file from its term counts against the other stored files; a save
+	// scores the file, not just the page it saved
+	protected double scoreTFIDF(int fileId, Map<String, Integer> termCounts) {
+		return tfidfIndex().calculateDocumentTfIdf(termCounts, fileId);
+	}
+
+	// Called by subclasses once a file's content and term counts are stored
+	protected void indexTFIDF(int fileId, Map<String, Integer> termCounts) {
+		TFIDFCalculator index = tfidfOwner.tfidf;
+		if (index != null) {
+			index.updateDocument(fileId, termCounts);
+		}
+	}
+
+	// Term counts of a file are summed over its pages, so a save only recounts the pages it
+	// replaced and wrote; see addPageTermCounts
+	protected static Map<String, Integer> termCounts(List<Pages> pages) {
+		Map<String, Integer> termCounts = new LinkedHashMap<>();
+		for (Pages page : pages) {
+			addPageTermCounts(termCounts, page.getPageContent(), 1);
+		}
+		return termCounts;
+	}
+
+	// Adds the counts of a written page with sign 1 and removes those of a replaced page with -1
+	protected static void addPageTermCounts(Map<String, Integer> termCounts, String pageContent, int sign) {
+		TFIDFCalculator.addTermCounts(termCounts, TFIDFCalculator.termCounts(TokenizedText.of(pageContent)), sign);
+	}
+
+	protected void unindexTFIDF(int fileId) {
+		TFIDFCalculator index = tfidfOwner.tfidf;
+		if (index != null) {
+			index.removeDocument(fileId);
+		}
+	}
+
+	// Replaces the stored TF-IDF score of every file in the map; see TFIDFJob
+	protected abstract void storeTFIDFScores(Map<Integer, Double> scores) throws Exception;
+
+	@Override
+	public double performTFIDF(int fileId) {
+		return tfidfIndex().calculateDocumentTfIdf(fileId);
+	}
+
+	@Override
+	public Map<Integer, Double> findSimilarFiles(int fileId, int limit) {
+		return tfidfIndex().findSimilar(fileId, limit);
+	}
+
+	@Override
+	public synchronized Map<String, String> lemmatizeWords(String text) {
+		return Lemmatization.lemmatizeWords(PreProcessText.preprocessText(text));
+	}
+
+	@Override
+	public synchronized Map<String, List<String>> extractPOS(String text) {
+		return POSTagger.extractPOS(PreProcessText.preprocessText(text));
+	}
+
+	@Override
+	public synchronized Map<String, String> extractRoots(String text) {
+		return RootExtraction.extractRoots(PreProcessText.preprocessText(text));
+	}
+
+	@Override
+	public synchronized double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
+		TFIDFCalculator tfidf = new TFIDFCalculator();
+		for (String unSelectedDocContent : unSelectedDocsContent) {
+			tfidf.addDocumentToCorpus(unSelectedDocContent);
+		}
+		return tfidf.calculateDocumentTfIdf(selectedDocContent);
+	}
+
+	@Override
+	public synchronized Map<String, Double> performPMI(String content) {
+		PMICalculator pmi = new PMICalculator(content);
+		Map<String, Double> pmiScores = pmi.calculatePMIForAllBigrams();
+
+		return pmiScores;
+	}
+
+	@Override
+	public synchronized Map<String, Double> performPKL(String content) {
+		PKLCalculator pkl = new PKLCalculator(content);
+		Map<String, Double> pklScores = pkl.calculatePKLForAllWords();
+		return pklScores;
+	}
+
+	@Override
+	public synchronized Map<String, String> stemWords(String text) {
+		return Stemmation.stemWords(PreProcessText.preprocessText(text));
+	}
+
+	@Override
+	public synchronized Map<String, String> segmentWords(String text) {
+		return WordSegmentation.extractSegments(PreProcessText.preprocessText(text));
+	}
+
+}
@@ -0,0 +1,106 @@
+package dal;
+
+import java.util.Arrays;
+
+// Counts of word pairs, each packed from two non-negative vocabulary ids into one long, in an
+// open-addressed primitive table so counting never boxes or builds strings. The table holds
+// key + 1 (0 marks a free slot) and the index of the pair in dense arrays that keep pairs in
+// order of first occurrence. Iterate with size(), first(), second() and countAt().
+public final class BigramCounts {
+	private long[] table;
+	private int[] indexes;
+	private long[] keys;
+	private int[] counts;
+	private int size;
+
+	public BigramCounts() {
+		this(8);
+	}
+
+	public BigramCounts(int expectedPairs) {
+		int capacity = 8;
+		while (capacity < expectedPairs * 2) {
+			capacity <<= 1;
+		}
+		table = new long[capacity];
+		indexes = new int[capacity];
+		keys = new long[capacity / 2];
+		counts = new int[capacity / 2];
+	}
+
+	public static long key(int first, int second) {
+		return (long) first << 32 | second;
+	}
+
+	public int get(int first, int second) {
+		int slot = find(key(first, second));
+		return table[slot] == 0 ? 0 : counts[indexes[slot]];
+	}
+
+	// Adds one to the pair's count and returns the new count
+	public int add(int first, int second) {
+		long key = key(first, second);
+		int slot = find(key);
+		if (table[slot] != 0) {
+			return ++counts[indexes[slot]];
+		}
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			counts = Arrays.copyOf(counts, size * 2);
+		}
+		keys[size] = key;
+		counts[size] = 1;
+		table[slot] = key + 1;
+		indexes[slot] = size++;
+		if (size * 2 > table.length) {
+			grow();
+		}
+		return 1;
+	}
+
+	// Number of distinct pairs
+	public int size() {
+		return size;
+	}
+
+	// First id of the pair at an index, in order of first occurrence
+	public int first(int index) {
+		return (int) (keys[index] >>> 32);
+	}
+
+	public int second(int index) {
+		return (int) keys[index];
+	}
+
+	public int countAt(int index) {
+		return counts[index];
+	}
+
+	private int find(long key) {
+		int mask = table.length - 1;
+		int slot = mix(key) & mask;
+		while (table[slot] != 0 && table[slot] != key + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldTable = table;
+		int[] oldIndexes = indexes;
+		table = new long[oldTable.length * 2];
+		indexes = new int[oldTable.length * 2];
+		for (int slot = 0; slot < oldTable.length; slot++) {
+			if (oldTable[slot] != 0) {
+				int target = find(oldTable[slot] - 1);
+				table[target] = oldTable[slot];
+				indexes[target] = oldIndexes[slot];
+			}
+		}
+	}
+
+	private static int mix(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
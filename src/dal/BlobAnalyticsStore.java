@@ -0,0 +1,64 @@
+package dal;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import dto.PageAnalytics;
+
+// Keeps all analytics of a page in one pageanalytics row encoded by PageAnalyticsCodec,
+// so writing or reading a page's analytics is a single statement
+public class BlobAnalyticsStore implements IAnalyticsStore {
+	private static final String UPSERT_QUERY = "INSERT INTO pageanalytics (pageId, formatVersion, analytics) VALUES (?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE formatVersion = VALUES(formatVersion), analytics = VALUES(analytics)";
+
+	@Override
+	public void insert(Connection conn, int pageId, PageAnalytics analytics) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(UPSERT_QUERY)) {
+			stmt.setInt(1, pageId);
+			stmt.setInt(2, PageAnalyticsCodec.VERSION);
+			stmt.setBytes(3, PageAnalyticsCodec.encode(analytics));
+			stmt.executeUpdate();
+		} catch (IOException e) {
+			throw new SQLException("Cannot encode analytics of page " + pageId, e);
+		}
+	}
+
+	@Override
+	public void replace(Connection conn, int pageId, PageAnalytics analytics) throws SQLException {
+		insert(conn, pageId, analytics);
+	}
+
+	@Override
+	public void delete(Connection conn, int pageId) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM pageanalytics WHERE pageId = ?")) {
+			stmt.setInt(1, pageId);
+			stmt.executeUpdate();
+		}
+	}
+
+	@Override
+	public PageAnalytics read(Connection conn, int pageId) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT analytics FROM pageanalytics WHERE pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (!rs.next()) {
+					return null;
+				}
+				return PageAnalyticsCodec.decode(rs.getBytes("analytics"));
+			}
+		} catch (IOException e) {
+			throw new SQLException("Cannot decode analytics of page " + pageId, e);
+		}
+	}
+
+	@Override
+	public void commit() {
+	}
+
+	@Override
+	public void rollback() {
+	}
+}
@@ -0,0 +1,108 @@
+package dal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.DedupeReport;
+import dto.PageAnalytics;
+import pl.EditorPO;
+
+// Page analytics keyed by a murmur3-128 hash of the page text, the normalization profile and
+// ANALYZER_VERSION, so text repeated in any file is analyzed once and a profile or analyzer
+// change never reuses old results. The most recently used results stay in memory; a backend
+// may add a persistent tier that outlives the process. Results are shared between callers and
+// so are returned read-only.
+public class ChunkAnalyticsStore {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	// Bump when the analyzers produce different results for the same text and profile
+	public static final byte ANALYZER_VERSION = 1;
+
+	public interface Tier {
+		PageAnalytics load(String chunkHash) throws Exception;
+
+		void store(String chunkHash, PageAnalytics analytics) throws Exception;
+	}
+
+	private final Map<String, PageAnalytics> recent;
+	private final Tier tier;
+
+	public ChunkAnalyticsStore(int capacity, Tier tier) {
+		this.tier = tier;
+		this.recent = new LinkedHashMap<String, PageAnalytics>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PageAnalytics> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	// report may be null when the caller does not track reuse
+	public PageAnalytics analyze(String content, DedupeReport report) {
+		return analyze(content, TextNormalizer.Profile.configured(), report);
+	}
+
+	public synchronized PageAnalytics analyze(String content, TextNormalizer.Profile profile, DedupeReport report) {
+		String chunkHash = chunkHash(content, profile);
+		PageAnalytics analytics = recent.get(chunkHash);
+		if (analytics != null) {
+			if (report != null) {
+				report.addChunk(content.length(), true);
+			}
+			return analytics;
+		}
+		if (tier != null) {
+			try {
+				analytics = tier.load(chunkHash);
+			} catch (Exception e) {
+				LOGGER.error("Cannot load chunk analytics: " + e.getMessage());
+			}
+		}
+
+		boolean reused = analytics != null;
+		if (!reused) {
+			analytics = PageAnalyzer.analyze(TokenizedText.of(content, profile));
+			if (tier != null) {
+				try {
+					tier.store(chunkHash, analytics);
+				} catch (Exception e) {
+					LOGGER.error("Cannot store chunk analytics: " + e.getMessage());
+				}
+			}
+		}
+		analytics = readOnly(analytics);
+		recent.put(chunkHash, analytics);
+		if (report != null) {
+			report.addChunk(content.length(), reused);
+		}
+		return analytics;
+	}
+
+	static String chunkHash(String content, TextNormalizer.Profile profile) {
+		return HashCalculator.contentHasher().update(new byte[] { ANALYZER_VERSION, (byte) profile.ordinal() }, 0, 2)
+				.update(content).hexDigest();
+	}
+
+	// Wraps each map once, when the result enters the memory tier
+	private static PageAnalytics readOnly(PageAnalytics analytics) {
+		Map<String, List<String>> posTags = new LinkedHashMap<>();
+		for (Map.Entry<String, List<String>> entry : analytics.getPosTags().entrySet()) {
+			posTags.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+		}
+		return new PageAnalytics(Collections.unmodifiableMap(posTags), Collections.unmodifiableMap(analytics.getLemmas()),
+				Collections.unmodifiableMap(analytics.getRoots()), Collections.unmodifiableMap(analytics.getStems()),
+				Collections.unmodifiableMap(analytics.getSegments()), Collections.unmodifiableMap(analytics.getPklScores()),
+				Collections.unmodifiableMap(analytics.getPmiScores()));
+	}
+
+	public synchronized int size() {
+		return recent.size();
+	}
+}
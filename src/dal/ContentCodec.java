@@ -0,0 +1,132 @@
+package dal;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+// Optional compression of page and transliteration text at rest. Every row carries a codec
+// marker, so plain and compressed rows can live side by side and old rows stay readable.
+public class ContentCodec {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	public static final int PLAIN = 0;
+	public static final int DEFLATE = 1;
+
+	private static final AtomicLong rawBytes = new AtomicLong();
+	private static final AtomicLong storedBytes = new AtomicLong();
+	private static final AtomicLong compressNanos = new AtomicLong();
+	private static final AtomicLong decompressNanos = new AtomicLong();
+
+	// db.compression = deflate enables it; short texts compress badly, so only rows of at
+	// least db.compression.minChars characters are compressed. The default stays below the
+	// default page size (pagination.size = 100 characters), so full pages are compressed
+	public static int codecFor(String text) {
+		boolean enabled = EditorConfig.getProperty("db.compression", "none").equalsIgnoreCase("deflate");
+		return enabled && text.length() >= EditorConfig.getInt("db.compression.minChars", 64) ? DEFLATE : PLAIN;
+	}
+
+	// Sets three consecutive parameters: text column, codec marker and compressed column
+	public static void bind(PreparedStatement stmt, int firstIndex, String text) throws SQLException {
+		int codec = codecFor(text);
+		if (codec == DEFLATE) {
+			stmt.setString(firstIndex, "");
+			stmt.setInt(firstIndex + 1, DEFLATE);
+			stmt.setBytes(firstIndex + 2, compress(text));
+		} else {
+			stmt.setString(firstIndex, text);
+			stmt.setInt(firstIndex + 1, PLAIN);
+			stmt.setNull(firstIndex + 2, Types.BLOB);
+		}
+	}
+
+	public static String read(ResultSet rs, String textColumn, String codecColumn, String compressedColumn)
+			throws SQLException {
+		int codec = rs.getInt(codecColumn);
+		if (codec == DEFLATE) {
+			return decompress(rs.getBytes(compressedColumn));
+		}
+		if (codec != PLAIN) {
+			throw new SQLException("Unknown content codec " + codec);
+		}
+		return rs.getString(textColumn);
+	}
+
+	// Layout: [int utf8Length][raw deflate stream]
+	public static byte[] compress(String text) {
+		long start = System.nanoTime();
+		byte[] input = text.getBytes(StandardCharsets.UTF_8);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+		try {
+			deflater.setInput(input);
+			deflater.finish();
+			ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2 + 16);
+			output.write(ByteBuffer.allocate(4).putInt(input.length).array(), 0, 4);
+			byte[] block = new byte[8192];
+			while (!deflater.finished()) {
+				int written = deflater.deflate(block);
+				output.write(block, 0, written);
+			}
+			byte[] compressed = output.toByteArray();
+			rawBytes.addAndGet(input.length);
+			storedBytes.addAndGet(compressed.length);
+			return compressed;
+		} finally {
+			deflater.end();
+			compressNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	public static String decompress(byte[] compressed) throws SQLException {
+		long start = System.nanoTime();
+		Inflater inflater = new Inflater(true);
+		try {
+			byte[] output = new byte[ByteBuffer.wrap(compressed, 0, 4).getInt()];
+			inflater.setInput(compressed, 4, compressed.length - 4);
+			int length = 0;
+			while (length < output.length) {
+				int read = inflater.inflate(output, length, output.length - length);
+				if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+					break;
+				}
+				length += read;
+			}
+			if (length != output.length) {
+				throw new SQLException("Compressed content is truncated");
+			}
+			return new String(output, StandardCharsets.UTF_8);
+		} catch (DataFormatException e) {
+			LOGGER.error(e.getMessage());
+			throw new SQLException("Compressed content is corrupt", e);
+		} finally {
+			inflater.end();
+			decompressNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	public static String getStatistics() {
+		long raw = rawBytes.get();
+		long stored = storedBytes.get();
+		return String.format("compressed %d -> %d bytes (%.1f%%), compress %.1f ms, decompress %.1f ms", raw, stored,
+				raw == 0 ? 100.0 : 100.0 * stored / raw, compressNanos.get() / 1e6, decompressNanos.get() / 1e6);
+	}
+
+	public static void resetStatistics() {
+		rawBytes.set(0);
+		storedBytes.set(0);
+		compressNanos.set(0);
+		decompressNanos.set(0);
+	}
+}
@@ -3,16 +3,12 @@ package dal;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import pl.EditorPO;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-
 public class DatabaseConnection {
     private static DatabaseConnection INSTANCE;
     private Connection connection;
@@ -23,19 +19,27 @@ public class DatabaseConnection {
 
     private DatabaseConnection() {
         try {
-            FileInputStream propertiesInput = new FileInputStream("config.properties");
-            Properties properties = new Properties();
-            properties.load(propertiesInput);
-            url = properties.getProperty("db.url");
-            username = properties.getProperty("db.username");
-            password = properties.getProperty("db.password");
-            connection = DriverManager.getConnection(url, username, password);
-        } catch (IOException | SQLException e) {
+            url = EditorConfig.getProperty("db.url", null);
+            username = EditorConfig.getProperty("db.username", null);
+            password = EditorConfig.getProperty("db.password", "");
+            connection = connect(url, username, password);
+        } catch (SQLException e) {
             e.printStackTrace();
             LOGGER.error(e.getMessage());
         }
     }
 
+    // Opens an additional connection (e.g. to a shard) with the same instrumentation settings
+    public static Connection connect(String url, String username, String password) throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        if (EditorConfig.getBoolean("db.metrics", false)) {
+            QueryMetrics metrics = QueryMetrics.getInstance();
+            connection = InstrumentedConnection.wrap(connection, metrics);
+            metrics.startPeriodicSummary(EditorConfig.getLong("db.metrics.interval", 60));
+        }
+        return connection;
+    }
+
     public static synchronized DatabaseConnection getInstance() {
         if (INSTANCE == null) {
             INSTANCE = new DatabaseConnection();
@@ -0,0 +1,69 @@
+package dal;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+public class EditorConfig {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String CONFIG_FILE = "config.properties";
+	private static Properties properties;
+
+	public static synchronized Properties getProperties() {
+		if (properties == null) {
+			properties = new Properties();
+			try (FileInputStream input = new FileInputStream(CONFIG_FILE)) {
+				properties.load(input);
+			} catch (IOException e) {
+				e.printStackTrace();
+				LOGGER.error(e.getMessage());
+			}
+		}
+		return properties;
+	}
+
+	// A -Dkey=value system property overrides the file, e.g. to point a benchmark at another backend
+	public static String getProperty(String key, String defaultValue) {
+		String value = System.getProperty(key, getProperties().getProperty(key));
+		return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		try {
+			return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.error("Invalid integer for " + key + ": " + e.getMessage());
+			return defaultValue;
+		}
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		try {
+			return Long.parseLong(getProperty(key, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.error("Invalid number for " + key + ": " + e.getMessage());
+			return defaultValue;
+		}
+	}
+
+	// Case-insensitive constant name; an unknown value is logged and the default used
+	public static <E extends Enum<E>> E getEnum(String key, E defaultValue) {
+		String value = getProperty(key, defaultValue.name());
+		try {
+			return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			LOGGER.error("Invalid value for " + key + ": " + value + ", using " + defaultValue.name().toLowerCase(Locale.ROOT));
+			return defaultValue;
+		}
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		return Boolean.parseBoolean(getProperty(key, String.valueOf(defaultValue)));
+	}
+}
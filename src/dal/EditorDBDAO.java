@@ -1,5 +1,7 @@
 package dal;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -7,58 +9,65 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import dto.DedupeReport;
 import dto.Documents;
+import dto.PageAnalytics;
 import dto.Pages;
 import pl.EditorPO;
 
-public class EditorDBDAO implements IEditorDBDAO {
+// Every method that uses the connection is synchronized on the DAO: a save turns auto-commit
+// off for its transaction, so nothing else may run on the connection until it commits
+public class EditorDBDAO extends AbstractEditorDAO {
 	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String TRANSLITERATION_UPSERT = "INSERT INTO transliteratedpages (pageId, transliteratedText, textCodec, compressedText, contentHash) VALUES (?, ?, ?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE transliteratedText = VALUES(transliteratedText), textCodec = VALUES(textCodec), "
+			+ "compressedText = VALUES(compressedText), contentHash = VALUES(contentHash)";
 	Connection conn = null;
+	private final IAnalyticsStore analyticsStore = createAnalyticsStore();
 
 	public EditorDBDAO() {
 		this.conn = DatabaseConnection.getInstance().getConnection();
 
 	}
 
+	public EditorDBDAO(Connection conn) {
+		this.conn = conn;
+	}
+
+	// db.analytics = tables keeps one row per word in the analytics tables, blob keeps one row per page
+	private static IAnalyticsStore createAnalyticsStore() {
+		String mode = EditorConfig.getProperty("db.analytics", "tables");
+		if (mode.equalsIgnoreCase("blob")) {
+			return new BlobAnalyticsStore();
+		}
+		if (!mode.equalsIgnoreCase("tables")) {
+			LOGGER.error("Unknown db.analytics mode " + mode + ", using tables");
+		}
+		return new VocabularyAnalyticsStore();
+	}
+
 	@Override
-	public synchronized boolean createFileInDB(String nameOfFile, String content) {
-		String hash = null;
+	public synchronized boolean createFileInDB(String nameOfFile, String content, String hash) {
 		List<Pages> pages = null;
 
 		String insertQuery = "INSERT INTO files (fileName, fileHash) VALUES (?, ?)";
-		String pageQuery = "INSERT INTO pages (fileId, pageNumber, pageContent) VALUES (?, ?, ?)";
-		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
-		;
-		String posQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-		String lemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-		String rootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-		String stemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-		String segmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
+		String pageQuery = "INSERT INTO pages (fileId, pageNumber, pageContent, contentCodec, compressedContent) VALUES (?, ?, ?, ?, ?)";
+		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText, textCodec, compressedText, contentHash) VALUES (?, ?, ?, ?, ?)";
 		String tfidfQuery = "INSERT INTO tfidf (fileId, tfidfScore) VALUES (?, ?)";
-		String pklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-		String pmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-		Map<String, String> analyticsMap = new HashMap<>();
-		Map<String, Double> scoreMap = new HashMap<>();
+		String signatureQuery = "INSERT INTO filesignatures (fileId, signature) VALUES (?, ?)";
+		String termCountsQuery = "INSERT INTO filetermcounts (fileId, termCounts) VALUES (?, ?)";
+		int[] signature = MinHash.signature(content);
+		DedupeReport report = new DedupeReport(nameOfFile);
 
-//		PreparedStatement fileStmt = null;
-//		PreparedStatement transliteratetStmt = null;
-//		PreparedStatement posStmt = null;
-//		PreparedStatement lemmaStmt = null;
-//		PreparedStatement rootStmt = null;
-//		PreparedStatement segmentStmt = null;
-//		PreparedStatement stemStmt = null;
-//		PreparedStatement pklStmt = null;
-//		PreparedStatement pmiStmt = null;
-//		PreparedStatement tfidfStmt = null;
 		try {
 
-			hash = HashCalculator.calculateHash(content);
 			pages = PaginationDAO.paginate(content);
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -68,20 +77,14 @@ public class EditorDBDAO implements IEditorDBDAO {
 		try (PreparedStatement fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
 				PreparedStatement pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
 				PreparedStatement transliteratetStmt = conn.prepareStatement(transliterateQuery);
-				PreparedStatement posStmt = conn.prepareStatement(posQuery);
-				PreparedStatement lemmaStmt = conn.prepareStatement(lemmaQuery);
-				PreparedStatement rootStmt = conn.prepareStatement(rootQuery);
-				PreparedStatement segmentStmt = conn.prepareStatement(segmentQuery);
-				PreparedStatement stemStmt = conn.prepareStatement(stemQuery);
-				PreparedStatement pklStmt = conn.prepareStatement(pklQuery);
-				PreparedStatement pmiStmt = conn.prepareStatement(pmiQuery);
-				PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery)) {
-			conn = DatabaseConnection.getInstance().getConnection();
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
+				PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery);
+				PreparedStatement signatureStmt = conn.prepareStatement(signatureQuery);
+				PreparedStatement termCountsStmt = conn.prepareStatement(termCountsQuery)) {
+			double tfidf = scoreTFIDF(0, content);
+			Map<String, Integer> termCounts = termCounts(pages);
 			conn.setAutoCommit(false);
 
 			// Insert into files table
-//			fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
 			fileStmt.setString(1, nameOfFile);
 			fileStmt.setString(2, hash);
 			fileStmt.executeUpdate();
@@ -92,137 +95,45 @@ public class EditorDBDAO implements IEditorDBDAO {
 
 			for (Pages page : pages) {
 				// Insert into pages table
-//				pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
 				pageStmt.setInt(1, fileID);
 				pageStmt.setInt(2, page.getPageNumber());
-				pageStmt.setString(3, page.getPageContent());
+				ContentCodec.bind(pageStmt, 3, page.getPageContent());
 				pageStmt.executeUpdate();
 
 				ResultSet pageRS = pageStmt.getGeneratedKeys();
 				pageRS.next();
 				int pageId = pageRS.getInt(1);
+				checkIdRange(fileID, pageId);
 
 				// Transliteration
 				String transliteratedText = Transliteration.transliterate(page.getPageContent());
-//				transliteratetStmt = conn.prepareStatement(transliterateQuery);
 				transliteratetStmt.setInt(1, pageId);
-				transliteratetStmt.setString(2, transliteratedText);
+				ContentCodec.bind(transliteratetStmt, 2, transliteratedText);
+				transliteratetStmt.setString(5, HashCalculator.contentHash(page.getPageContent()));
 				transliteratetStmt.executeUpdate();
 
-				// POS Tagging
-				Map<String, List<String>> posTagsMap = POSTagger.extractPOS(page.getPageContent());
-
-//				posStmt = conn.prepareStatement(posQuery);
-
-				for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-					String word = entry.getKey();
-					List<String> posTags = entry.getValue();
-					String posTagString = String.join("|", posTags);
-
-					posStmt.setInt(1, pageId);
-					posStmt.setString(2, word);
-					posStmt.setString(3, posTagString);
-					posStmt.addBatch();
-				}
-				posStmt.executeBatch();
-
-				analyticsMap = Lemmatization.lemmatizeWords(page.getPageContent());
-
-//				lemmaStmt = conn.prepareStatement(lemmaQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String lemma = entry.getValue();
-					String lemmaString = String.join("|", lemma);
-
-					lemmaStmt.setInt(1, pageId);
-					lemmaStmt.setString(2, word);
-					lemmaStmt.setString(3, lemmaString);
-					lemmaStmt.addBatch();
-				}
-				lemmaStmt.executeBatch();
-				analyticsMap = RootExtraction.extractRoots(page.getPageContent());
-
-//				rootStmt = conn.prepareStatement(rootQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String root = entry.getValue();
-					String rootString = String.join("|", root);
-
-					rootStmt.setInt(1, pageId);
-					rootStmt.setString(2, word);
-					rootStmt.setString(3, rootString);
-					rootStmt.addBatch();
-				}
-				rootStmt.executeBatch();
-
-				analyticsMap = WordSegmentation.extractSegments(page.getPageContent());
-//				segmentStmt = conn.prepareStatement(segmentQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String segment = entry.getValue();
-					String segmentString = String.join("|", segment);
-
-					segmentStmt.setInt(1, pageId);
-					segmentStmt.setString(2, word);
-					segmentStmt.setString(3, segmentString);
-					segmentStmt.addBatch();
-				}
-				segmentStmt.executeBatch();
-
-				analyticsMap = Stemmation.stemWords(page.getPageContent());
-//				stemStmt = conn.prepareStatement(stemQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String stem = entry.getValue();
-					String stemString = String.join("|", stem);
-
-					stemStmt.setInt(1, pageId);
-					stemStmt.setString(2, word);
-					stemStmt.setString(3, stemString);
-					stemStmt.addBatch();
-				}
-				stemStmt.executeBatch();
-
-				scoreMap = performPKL(page.getPageContent());
-//				pklStmt = conn.prepareStatement(pklQuery);
-
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pkl = entry.getValue();
-
-					pklStmt.setInt(1, pageId);
-					pklStmt.setString(2, word);
-					pklStmt.setDouble(3, pkl);
-					pklStmt.addBatch();
-				}
-				pklStmt.executeBatch();
-
-				scoreMap = performPMI(page.getPageContent());
-//				pmiStmt = conn.prepareStatement(pmiQuery);
-
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pmi = entry.getValue();
-
-					pmiStmt.setInt(1, pageId);
-					pmiStmt.setString(2, word);
-					pmiStmt.setDouble(3, pmi);
-					pmiStmt.addBatch();
-				}
-				pmiStmt.executeBatch();
-
+				// POS, lemmas, roots, stems, segments, PKL and PMI
+				analyticsStore.insert(conn, pageId, analyzeChunk(page.getPageContent(), report));
 			}
 
-//			tfidfStmt = conn.prepareStatement(tfidfQuery);
 			tfidfStmt.setInt(1, fileID);
 			tfidfStmt.setDouble(2, tfidf);
 			tfidfStmt.executeUpdate();
 
+			if (signature != null) {
+				signatureStmt.setInt(1, fileID);
+				signatureStmt.setBytes(2, MinHash.toBytes(signature));
+				signatureStmt.executeUpdate();
+			}
+			termCountsStmt.setInt(1, fileID);
+			termCountsStmt.setBytes(2, TFIDFCalculator.toBytes(termCounts));
+			termCountsStmt.executeUpdate();
+
 			conn.commit();
+			analyticsStore.commit();
+			indexSignature(fileID, signature);
+			indexTFIDF(fileID, termCounts);
+			finishImport(report);
 			return true;
 
 		} catch (Exception e) {
@@ -232,6 +143,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 				e1.printStackTrace();
 				LOGGER.error(e1.getMessage());
 			}
+			analyticsStore.rollback();
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 		}
@@ -241,17 +153,17 @@ public class EditorDBDAO implements IEditorDBDAO {
 
 	@Override
 	public boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, true);
+	}
+
+	@Override
+	public boolean autoSaveFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, false);
+	}
+
+	private synchronized boolean saveFile(int fileId, String fileName, int pageNumber, String content, boolean reflow) {
 
 		PreparedStatement fileStmt = null;
-		PreparedStatement pageStmt = null;
-		// PreparedStatement transliterateStmt = null;
-		PreparedStatement posStmt = null;
-		PreparedStatement lemmaStmt = null;
-		PreparedStatement rootStmt = null;
-		PreparedStatement segmentStmt = null;
-		PreparedStatement stemStmt = null;
-		PreparedStatement pklStmt = null;
-		PreparedStatement pmiStmt = null;
 		PreparedStatement tfidfStmt = null;
 
 		try {
@@ -259,169 +171,34 @@ public class EditorDBDAO implements IEditorDBDAO {
 			conn.setAutoCommit(false);
 
 			// Update file information
-			String fileQuery = "UPDATE files SET fileName = ?, lastModified = CURRENT_TIMESTAMP() WHERE fileId = ?";
+			String fileQuery = "UPDATE files SET fileName = ?, lastModified = CURRENT_TIMESTAMP WHERE fileId = ?";
 			fileStmt = conn.prepareStatement(fileQuery);
 			fileStmt.setString(1, fileName);
 			fileStmt.setInt(2, fileId);
 			fileStmt.executeUpdate();
 
-			// Update page content
-			String pageQuery = "UPDATE pages SET pageContent = ? WHERE fileId = ? AND pageNumber = ?";
-			pageStmt = conn.prepareStatement(pageQuery);
-			pageStmt.setString(1, content);
-			pageStmt.setInt(2, fileId);
-			pageStmt.setInt(3, pageNumber);
-			pageStmt.executeUpdate();
-
-			// Get the pageId of the updated page
-			String pageIdQuery = "SELECT pageId FROM pages WHERE fileId = ? AND pageNumber = ?";
-			PreparedStatement pageIdStmt = conn.prepareStatement(pageIdQuery);
-			pageIdStmt.setInt(1, fileId);
-			pageIdStmt.setInt(2, pageNumber);
-			ResultSet pageIdRS = pageIdStmt.executeQuery();
-			if (!pageIdRS.next()) {
-				throw new SQLException("Page not found for the given fileId and pageNumber");
-			}
-			int pageId = pageIdRS.getInt("pageId");
-
-//	        // Update transliteration
-//	        String transliteratedText = Transliteration.transliterate(content);
-//	        String transliterateQuery = "UPDATE transliteratedpages SET transliteratedText = ? WHERE pageId = ?";
-//	        transliterateStmt = conn.prepareStatement(transliterateQuery);
-//	        transliterateStmt.setString(1, transliteratedText);
-//	        transliterateStmt.setInt(2, pageId);
-//	        transliterateStmt.executeUpdate();
-
-			// Update POS tagging
-			Map<String, List<String>> posTagsMap = POSTagger.extractPOS(content);
-			String deletePosQuery = "DELETE FROM pos WHERE pageId = ?";
-			posStmt = conn.prepareStatement(deletePosQuery);
-			posStmt.setInt(1, pageId);
-			posStmt.executeUpdate();
-
-			String insertPosQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-			posStmt = conn.prepareStatement(insertPosQuery);
-			for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-				String word = entry.getKey();
-				String posTags = String.join("|", entry.getValue());
-				posStmt.setInt(1, pageId);
-				posStmt.setString(2, word);
-				posStmt.setString(3, posTags);
-				posStmt.addBatch();
-			}
-			posStmt.executeBatch();
-
-			// Update lemmatization
-			Map<String, String> lemmaMap = Lemmatization.lemmatizeWords(content);
-			String deleteLemmaQuery = "DELETE FROM lemmatization WHERE pageId = ?";
-			lemmaStmt = conn.prepareStatement(deleteLemmaQuery);
-			lemmaStmt.setInt(1, pageId);
-			lemmaStmt.executeUpdate();
-
-			String insertLemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-			lemmaStmt = conn.prepareStatement(insertLemmaQuery);
-			for (Map.Entry<String, String> entry : lemmaMap.entrySet()) {
-				lemmaStmt.setInt(1, pageId);
-				lemmaStmt.setString(2, entry.getKey());
-				lemmaStmt.setString(3, entry.getValue());
-				lemmaStmt.addBatch();
-			}
-			lemmaStmt.executeBatch();
-
-			// Update root extraction
-			Map<String, String> rootMap = RootExtraction.extractRoots(content);
-			String deleteRootQuery = "DELETE FROM rootextraction WHERE pageId = ?";
-			rootStmt = conn.prepareStatement(deleteRootQuery);
-			rootStmt.setInt(1, pageId);
-			rootStmt.executeUpdate();
-
-			String insertRootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-			rootStmt = conn.prepareStatement(insertRootQuery);
-			for (Map.Entry<String, String> entry : rootMap.entrySet()) {
-				rootStmt.setInt(1, pageId);
-				rootStmt.setString(2, entry.getKey());
-				rootStmt.setString(3, entry.getValue());
-				rootStmt.addBatch();
-			}
-			rootStmt.executeBatch();
-
-			// Update word segmentation
-			Map<String, String> segmentMap = WordSegmentation.extractSegments(content);
-			String deleteSegmentQuery = "DELETE FROM wordsegementation WHERE pageId = ?";
-			segmentStmt = conn.prepareStatement(deleteSegmentQuery);
-			segmentStmt.setInt(1, pageId);
-			segmentStmt.executeUpdate();
-
-			String insertSegmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
-			segmentStmt = conn.prepareStatement(insertSegmentQuery);
-			for (Map.Entry<String, String> entry : segmentMap.entrySet()) {
-				segmentStmt.setInt(1, pageId);
-				segmentStmt.setString(2, entry.getKey());
-				segmentStmt.setString(3, entry.getValue());
-				segmentStmt.addBatch();
-			}
-			segmentStmt.executeBatch();
-
-			// Update stemming
-			Map<String, String> stemMap = Stemmation.stemWords(content);
-			String deleteStemQuery = "DELETE FROM stemmation WHERE pageId = ?";
-			stemStmt = conn.prepareStatement(deleteStemQuery);
-			stemStmt.setInt(1, pageId);
-			stemStmt.executeUpdate();
-
-			String insertStemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-			stemStmt = conn.prepareStatement(insertStemQuery);
-			for (Map.Entry<String, String> entry : stemMap.entrySet()) {
-				stemStmt.setInt(1, pageId);
-				stemStmt.setString(2, entry.getKey());
-				stemStmt.setString(3, entry.getValue());
-				stemStmt.addBatch();
-			}
-			stemStmt.executeBatch();
-
-			// Update PKL
-			Map<String, Double> pklMap = performPKL(content);
-			String deletePklQuery = "DELETE FROM pkl WHERE pageId = ?";
-			pklStmt = conn.prepareStatement(deletePklQuery);
-			pklStmt.setInt(1, pageId);
-			pklStmt.executeUpdate();
-
-			String insertPklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-			pklStmt = conn.prepareStatement(insertPklQuery);
-			for (Map.Entry<String, Double> entry : pklMap.entrySet()) {
-				pklStmt.setInt(1, pageId);
-				pklStmt.setString(2, entry.getKey());
-				pklStmt.setDouble(3, entry.getValue());
-				pklStmt.addBatch();
-			}
-			pklStmt.executeBatch();
-
-			// Update PMI
-			Map<String, Double> pmiMap = performPMI(content);
-			String deletePmiQuery = "DELETE FROM pmi WHERE pageId = ?";
-			pmiStmt = conn.prepareStatement(deletePmiQuery);
-			pmiStmt.setInt(1, pageId);
-			pmiStmt.executeUpdate();
-
-			String insertPmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-			pmiStmt = conn.prepareStatement(insertPmiQuery);
-			for (Map.Entry<String, Double> entry : pmiMap.entrySet()) {
-				pmiStmt.setInt(1, pageId);
-				pmiStmt.setString(2, entry.getKey());
-				pmiStmt.setDouble(3, entry.getValue());
-				pmiStmt.addBatch();
-			}
-			pmiStmt.executeBatch();
+			// Update the page, splitting or merging it with a neighbour when its size is out of bounds
+			FilePages filePages = new FilePages(fileId);
+			(reflow ? PageReflow.plan(pageNumber, content, countPages(fileId), number -> readPage(fileId, number))
+					: PageReflow.keep(pageNumber, content)).apply(filePages);
 
 			// Update TF-IDF
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
+			Map<String, Integer> termCounts = storeTermCounts(fileId, filePages.termCountsDelta);
+			double tfidf = scoreTFIDF(fileId, termCounts);
 			String tfidfQuery = "UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?";
 			tfidfStmt = conn.prepareStatement(tfidfQuery);
 			tfidfStmt.setDouble(1, tfidf);
 			tfidfStmt.setInt(2, fileId);
 			tfidfStmt.executeUpdate();
+			try (PreparedStatement signatureStmt = conn.prepareStatement("DELETE FROM filesignatures WHERE fileId = ?")) {
+				signatureStmt.setInt(1, fileId);
+				signatureStmt.executeUpdate();
+			}
 
 			conn.commit();
+			analyticsStore.commit();
+			indexTFIDF(fileId, termCounts);
+			invalidateSignature(fileId);
 			return true;
 		} catch (Exception e) {
 			try {
@@ -432,6 +209,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 				rollbackEx.printStackTrace();
 				LOGGER.error(rollbackEx.getMessage());
 			}
+			analyticsStore.rollback();
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 			return false;
@@ -439,12 +217,166 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public boolean deleteFileInDB(int id) {
+	public synchronized boolean isPageMissing(int fileId, int pageNumber) {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM pages WHERE fileId = ? AND pageNumber = ?")) {
+			stmt.setInt(1, fileId);
+			stmt.setInt(2, pageNumber);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return !rs.next();
+			}
+		} catch (SQLException e) {
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	private int countPages(int fileId) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM pages WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				rs.next();
+				return rs.getInt(1);
+			}
+		}
+	}
+
+	private String readPage(int fileId, int pageNumber) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT pageContent, contentCodec, compressedContent FROM pages WHERE fileId = ? AND pageNumber = ?")) {
+			stmt.setInt(1, fileId);
+			stmt.setInt(2, pageNumber);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (!rs.next()) {
+					throw new SQLException("Page not found for the given fileId and pageNumber");
+				}
+				return ContentCodec.read(rs, "pageContent", "contentCodec", "compressedContent");
+			}
+		}
+	}
+
+	// Applies a page reflow to one file's pages inside the caller's transaction
+	private class FilePages implements PageReflow.Target<SQLException> {
+		private final int fileId;
+		// Counts of the written pages minus those of the pages they replaced
+		private final Map<String, Integer> termCountsDelta = new HashMap<>();
+
+		FilePages(int fileId) {
+			this.fileId = fileId;
+		}
+
+		// (fileId, pageNumber) is unique, so pages move through negative numbers; both
+		// statements go to the server as one batch
+		@Override
+		public void renumber(int afterPageNumber, int shift) throws SQLException {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.addBatch("UPDATE pages SET pageNumber = -(pageNumber + " + shift + ") WHERE fileId = " + fileId
+						+ " AND pageNumber > " + afterPageNumber);
+				stmt.addBatch("UPDATE pages SET pageNumber = -pageNumber WHERE fileId = " + fileId
+						+ " AND pageNumber < 0");
+				stmt.executeBatch();
+			}
+		}
+
+		// Transliterations and analytics go with the pages through ON DELETE CASCADE
+		@Override
+		public void deletePages(int firstPageNumber, int lastPageNumber) throws SQLException {
+			try (PreparedStatement stmt = conn.prepareStatement("SELECT pageContent, contentCodec, compressedContent "
+					+ "FROM pages WHERE fileId = ? AND pageNumber BETWEEN ? AND ?")) {
+				stmt.setInt(1, fileId);
+				stmt.setInt(2, firstPageNumber);
+				stmt.setInt(3, lastPageNumber);
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						addPageTermCounts(termCountsDelta,
+								ContentCodec.read(rs, "pageContent", "contentCodec", "compressedContent"), -1);
+					}
+				}
+			}
+			try (PreparedStatement stmt = conn
+					.prepareStatement("DELETE FROM pages WHERE fileId = ? AND pageNumber BETWEEN ? AND ?")) {
+				stmt.setInt(1, fileId);
+				stmt.setInt(2, firstPageNumber);
+				stmt.setInt(3, lastPageNumber);
+				stmt.executeUpdate();
+			}
+		}
+
+		@Override
+		public void updatePage(int pageNumber, String content) throws SQLException {
+			int pageId;
+			try (PreparedStatement pageIdStmt = conn.prepareStatement("SELECT pageId, pageContent, contentCodec, "
+					+ "compressedContent FROM pages WHERE fileId = ? AND pageNumber = ?")) {
+				pageIdStmt.setInt(1, fileId);
+				pageIdStmt.setInt(2, pageNumber);
+				try (ResultSet pageIdRS = pageIdStmt.executeQuery()) {
+					if (!pageIdRS.next()) {
+						throw new SQLException("Page not found for the given fileId and pageNumber");
+					}
+					pageId = pageIdRS.getInt("pageId");
+					addPageTermCounts(termCountsDelta,
+							ContentCodec.read(pageIdRS, "pageContent", "contentCodec", "compressedContent"), -1);
+				}
+			}
+			addPageTermCounts(termCountsDelta, content, 1);
+
+			try (PreparedStatement pageStmt = conn.prepareStatement(
+					"UPDATE pages SET pageContent = ?, contentCodec = ?, compressedContent = ? WHERE fileId = ? AND pageNumber = ?")) {
+				ContentCodec.bind(pageStmt, 1, content);
+				pageStmt.setInt(4, fileId);
+				pageStmt.setInt(5, pageNumber);
+				pageStmt.executeUpdate();
+			}
+
+			try (PreparedStatement transliterateStmt = conn.prepareStatement(TRANSLITERATION_UPSERT)) {
+				transliterateStmt.setInt(1, pageId);
+				ContentCodec.bind(transliterateStmt, 2, Transliteration.transliterate(content));
+				transliterateStmt.setString(5, HashCalculator.contentHash(content));
+				transliterateStmt.executeUpdate();
+			}
+
+			// Replace POS, lemmas, roots, stems, segments, PKL and PMI
+			analyticsStore.replace(conn, pageId, analyzeChunk(content, null));
+		}
+
+		@Override
+		public void insertPage(int pageNumber, String content) throws SQLException {
+			int pageId;
+			try (PreparedStatement pageStmt = conn.prepareStatement(
+					"INSERT INTO pages (fileId, pageNumber, pageContent, contentCodec, compressedContent) VALUES (?, ?, ?, ?, ?)",
+					PreparedStatement.RETURN_GENERATED_KEYS)) {
+				pageStmt.setInt(1, fileId);
+				pageStmt.setInt(2, pageNumber);
+				ContentCodec.bind(pageStmt, 3, content);
+				pageStmt.executeUpdate();
+				try (ResultSet pageRS = pageStmt.getGeneratedKeys()) {
+					pageRS.next();
+					pageId = pageRS.getInt(1);
+				}
+				checkIdRange(fileId, pageId);
+			}
+			addPageTermCounts(termCountsDelta, content, 1);
+
+			try (PreparedStatement transliterateStmt = conn.prepareStatement(
+					"INSERT INTO transliteratedpages (pageId, transliteratedText, textCodec, compressedText, contentHash) VALUES (?, ?, ?, ?, ?)")) {
+				transliterateStmt.setInt(1, pageId);
+				ContentCodec.bind(transliterateStmt, 2, Transliteration.transliterate(content));
+				transliterateStmt.setString(5, HashCalculator.contentHash(content));
+				transliterateStmt.executeUpdate();
+			}
+
+			analyticsStore.insert(conn, pageId, analyzeChunk(content, null));
+		}
+	}
+
+	@Override
+	public synchronized boolean deleteFileInDB(int id) {
 		String query = "DELETE FROM FILES WHERE fileId = ?";
 		try (PreparedStatement fileStmt = conn.prepareStatement(query)) {
 
 			fileStmt.setInt(1, id);
 			int rowsAffected = fileStmt.executeUpdate();
+			unindexSignature(id);
+			unindexTFIDF(id);
 
 			return rowsAffected > 0;
 
@@ -474,7 +406,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 //	}
 
 	@Override
-	public List<Documents> getFilesFromDB() {
+	public synchronized List<Documents> getFilesFromDB() {
 		List<Documents> documents = new ArrayList<>();
 
 		PreparedStatement stmt = null;
@@ -495,7 +427,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 				String lastModified = rs.getString("lastModified");
 				String dateCreated = rs.getString("dateCreated");
 
-				String query1 = "SELECT pageId, fileId, pageNumber, pageContent FROM pages where fileId = ?";
+				String query1 = "SELECT pageId, fileId, pageNumber, pageContent, contentCodec, compressedContent FROM pages where fileId = ? ORDER BY pageNumber";
 				PreparedStatement stmt1 = conn.prepareStatement(query1);
 				stmt1.setInt(1, id);
 				ResultSet rs1 = stmt1.executeQuery();
@@ -503,7 +435,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 
 				while (rs1.next()) {
 					pages.add(new Pages(rs1.getInt("pageId"), rs1.getInt("fileId"), rs1.getInt("pageNumber"),
-							rs1.getString("pageContent")));
+							ContentCodec.read(rs1, "pageContent", "contentCodec", "compressedContent")));
 				}
 
 				documents.add(new Documents(id, name, hash, lastModified, dateCreated, pages));
@@ -522,33 +454,41 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public String transliterateInDB(int pageId, String arabicText) {
-		String content;
-		String deleteQuery = "DELETE FROM transliteratedpages WHERE pageId = ?";
-		String insertQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
-
-		try {
-			// Ensure the transliteration result is valid
-			content = Transliteration.transliterate(arabicText);
+	public synchronized String transliterateInDB(int pageId, String arabicText) {
+		String contentHash = HashCalculator.contentHash(arabicText);
+		String content = cachedTransliteration(pageId, contentHash);
+		if (content != null) {
+			return content;
+		}
 
-			// Begin transaction
-			conn.setAutoCommit(false);
+		String selectQuery = "SELECT transliteratedText, textCodec, compressedText FROM transliteratedpages WHERE pageId = ? AND contentHash = ?";
 
-			// Delete existing entries
-			try (PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery)) {
-				deleteStmt.setInt(1, pageId);
-				deleteStmt.executeUpdate();
+		try {
+			// The stored row is current while the page text has the hash it was made from
+			try (PreparedStatement selectStmt = conn.prepareStatement(selectQuery)) {
+				selectStmt.setInt(1, pageId);
+				selectStmt.setString(2, contentHash);
+				try (ResultSet rs = selectStmt.executeQuery()) {
+					if (rs.next()) {
+						content = ContentCodec.read(rs, "transliteratedText", "textCodec", "compressedText");
+					}
+				}
 			}
 
-			// Insert new transliterated content
-			try (PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
-				insertStmt.setInt(1, pageId);
-				insertStmt.setString(2, content);
-				insertStmt.executeUpdate();
+			if (content == null) {
+				content = Transliteration.transliterate(arabicText);
+
+				conn.setAutoCommit(false);
+				try (PreparedStatement upsertStmt = conn.prepareStatement(TRANSLITERATION_UPSERT)) {
+					upsertStmt.setInt(1, pageId);
+					ContentCodec.bind(upsertStmt, 2, content);
+					upsertStmt.setString(5, contentHash);
+					upsertStmt.executeUpdate();
+				}
+				conn.commit();
 			}
 
-			// Commit transaction
-			conn.commit();
+			cacheTransliteration(pageId, contentHash, content);
 			return content;
 
 		} catch (Exception e) {
@@ -566,73 +506,250 @@ public class EditorDBDAO implements IEditorDBDAO {
 		}
 	}
 
-	private List<String> getAllExistingFilesContent(Connection conn) throws SQLException {
-		List<String> allFilesContent = new ArrayList<>();
-		String query = "SELECT f.fileId, GROUP_CONCAT(p.pageContent ORDER BY p.pageNumber SEPARATOR '') AS fileContent "
-				+ "FROM files f " + "JOIN pages p ON f.fileId = p.fileId " + "GROUP BY f.fileId";
+	@Override
+	public synchronized PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		try {
+			return analyticsStore.read(conn, pageId);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
 
-		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+	// Files stored before their term counts were kept are counted from their pages until they are saved again
+	@Override
+	protected synchronized Map<Integer, Map<String, Integer>> loadTermCounts() {
+		Map<Integer, Map<String, Integer>> termCounts = new HashMap<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT fileId, termCounts FROM filetermcounts")) {
 			while (rs.next()) {
-				allFilesContent.add(rs.getString("fileContent"));
+				termCounts.put(rs.getInt("fileId"), TFIDFCalculator.fromBytes(ByteBuffer.wrap(rs.getBytes("termCounts"))));
 			}
+			termCounts.putAll(countTerms("WHERE fileId NOT IN (SELECT fileId FROM filetermcounts)"));
+		} catch (SQLException e) {
+			LOGGER.error(e.getMessage());
+			throw new IllegalStateException("Cannot read the TF-IDF corpus", e);
 		}
-		return allFilesContent;
+		return termCounts;
 	}
 
+	// With analytics.chunkStore = database, chunk analytics are also kept in the chunkanalytics table
 	@Override
-	public synchronized Map<String, String> lemmatizeWords(String text) {
-		// TODO Auto-generated method stub
-		return Lemmatization.lemmatizeWords(PreProcessText.preprocessText(text));
+	protected ChunkAnalyticsStore.Tier createChunkAnalyticsTier() {
+		if (!"database".equalsIgnoreCase(EditorConfig.getProperty("analytics.chunkStore", "memory"))) {
+			return null;
+		}
+		return new ChunkAnalyticsStore.Tier() {
+			@Override
+			public PageAnalytics load(String chunkHash) throws Exception {
+				synchronized (EditorDBDAO.this) {
+					try (PreparedStatement stmt = conn.prepareStatement(
+							"SELECT analytics FROM chunkanalytics WHERE chunkHash = ? AND formatVersion = ?")) {
+						stmt.setString(1, chunkHash);
+						stmt.setInt(2, PageAnalyticsCodec.VERSION);
+						try (ResultSet rs = stmt.executeQuery()) {
+							return rs.next() ? PageAnalyticsCodec.decode(rs.getBytes("analytics")) : null;
+						}
+					}
+				}
+			}
+
+			@Override
+			public void store(String chunkHash, PageAnalytics analytics) throws Exception {
+				synchronized (EditorDBDAO.this) {
+					try (PreparedStatement stmt = conn.prepareStatement(
+							"INSERT INTO chunkanalytics (chunkHash, formatVersion, analytics) VALUES (?, ?, ?) "
+									+ "ON DUPLICATE KEY UPDATE formatVersion = VALUES(formatVersion), analytics = VALUES(analytics)")) {
+						stmt.setString(1, chunkHash);
+						stmt.setInt(2, PageAnalyticsCodec.VERSION);
+						stmt.setBytes(3, PageAnalyticsCodec.encode(analytics));
+						stmt.executeUpdate();
+					}
+				}
+			}
+		};
 	}
 
+	// Files without a signature row, saved since they were signed or imported before signatures
+	// were kept, are signed from their pages by the first lookup
 	@Override
-	public synchronized Map<String, List<String>> extractPOS(String text) {
-		// TODO Auto-generated method stub
-		return POSTagger.extractPOS(PreProcessText.preprocessText(text));
+	protected synchronized Map<Integer, int[]> loadSignatures() {
+		Map<Integer, int[]> signatures = new HashMap<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT fileId, signature FROM filesignatures")) {
+			while (rs.next()) {
+				signatures.put(rs.getInt("fileId"), MinHash.fromBytes(rs.getBytes("signature")));
+			}
+			try (Statement unsignedStmt = conn.createStatement(); ResultSet unsigned = unsignedStmt
+					.executeQuery("SELECT fileId FROM files WHERE fileId NOT IN (SELECT fileId FROM filesignatures)")) {
+				while (unsigned.next()) {
+					invalidateSignature(unsigned.getInt("fileId"));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return signatures;
 	}
 
 	@Override
-	public synchronized Map<String, String> extractRoots(String text) {
-		// TODO Auto-generated method stub
-		return RootExtraction.extractRoots(PreProcessText.preprocessText(text));
+	protected synchronized int[] storeSignature(int fileId) {
+		try {
+			int[] signature = MinHash.signature(readFileContent(fileId));
+			if (signature != null) {
+				conn.setAutoCommit(false);
+				try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO filesignatures (fileId, signature) VALUES (?, ?) "
+						+ "ON DUPLICATE KEY UPDATE signature = VALUES(signature)")) {
+					stmt.setInt(1, fileId);
+					stmt.setBytes(2, MinHash.toBytes(signature));
+					stmt.executeUpdate();
+				}
+				conn.commit();
+			}
+			return signature;
+		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				LOGGER.error(rollbackEx.getMessage());
+			}
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
 	}
 
-	@Override
-	public synchronized double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
-		TFIDFCalculator tfidf = new TFIDFCalculator();
-		for (String unSelectedDocContent : unSelectedDocsContent) {
-			tfidf.addDocumentToCorpus(unSelectedDocContent);
+	private String readFileContent(int fileId) throws SQLException {
+		StringBuilder content = new StringBuilder();
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT pageContent, contentCodec, compressedContent FROM pages WHERE fileId = ? ORDER BY pageNumber")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					content.append(ContentCodec.read(rs, "pageContent", "contentCodec", "compressedContent"));
+				}
+			}
 		}
-		return tfidf.calculateDocumentTfIdf(selectedDocContent);
+		return content.toString();
 	}
 
 	@Override
-	public synchronized Map<String, Double> performPMI(String content) {
-		// TODO Auto-generated method stub
-		PMICalculator pmi = new PMICalculator(content);
-		Map<String, Double> pmiScores = pmi.calculatePMIForAllBigrams();
-
-		return pmiScores;
+	protected synchronized List<TransliterationJob.PageText> getPagesAfter(int afterPageId, int limit)
+			throws SQLException {
+		List<TransliterationJob.PageText> pages = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT p.pageId, p.pageContent, p.contentCodec, p.compressedContent, t.contentHash FROM pages p "
+						+ "LEFT JOIN transliteratedpages t ON t.pageId = p.pageId WHERE p.pageId > ? ORDER BY p.pageId LIMIT ?")) {
+			stmt.setInt(1, afterPageId);
+			stmt.setInt(2, limit);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					pages.add(new TransliterationJob.PageText(rs.getInt("pageId"),
+							ContentCodec.read(rs, "pageContent", "contentCodec", "compressedContent"),
+							rs.getString("contentHash")));
+				}
+			}
+		}
+		return pages;
 	}
 
 	@Override
-	public synchronized Map<String, Double> performPKL(String content) {
-		// TODO Auto-generated method stub
-		PKLCalculator pkl = new PKLCalculator(content);
-		Map<String, Double> pklScores = pkl.calculatePKLForAllWords();
-		return pklScores;
+	protected synchronized void storeTransliterations(List<TransliterationJob.PageText> pages) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(TRANSLITERATION_UPSERT)) {
+			conn.setAutoCommit(false);
+			for (TransliterationJob.PageText page : pages) {
+				stmt.setInt(1, page.getPageId());
+				ContentCodec.bind(stmt, 2, page.getTransliteration());
+				stmt.setString(5, page.getContentHash());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+			conn.commit();
+		} catch (SQLException e) {
+			conn.rollback();
+			throw e;
+		}
 	}
 
 	@Override
-	public synchronized Map<String, String> stemWords(String text) {
-		// TODO Auto-generated method stub
-		return Stemmation.stemWords(PreProcessText.preprocessText(text));
+	protected synchronized void storeTFIDFScores(Map<Integer, Double> scores) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?")) {
+			conn.setAutoCommit(false);
+			for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+				stmt.setDouble(1, score.getValue());
+				stmt.setInt(2, score.getKey());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+			conn.commit();
+		} catch (SQLException e) {
+			conn.rollback();
+			throw e;
+		}
 	}
 
+	// Raises the AUTO_INCREMENT counters; existing rows keep their ids
 	@Override
-	public synchronized Map<String, String> segmentWords(String text) {
-		// TODO Auto-generated method stub
-		return WordSegmentation.extractSegments(PreProcessText.preprocessText(text));
+	public synchronized void startIdsAt(int firstFileId, int firstPageId) {
+		try {
+			raiseAutoIncrement("files", "fileId", firstFileId);
+			raiseAutoIncrement("pages", "pageId", firstPageId);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private void raiseAutoIncrement(String table, String idColumn, int firstId) throws SQLException {
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT MAX(" + idColumn + ") FROM " + table)) {
+			rs.next();
+			if (rs.getInt(1) < firstId) {
+				stmt.executeUpdate("ALTER TABLE " + table + " AUTO_INCREMENT = " + firstId);
+			}
+		}
+	}
+
+	// Term counts of the files whose pages match the condition, summed page by page
+	private Map<Integer, Map<String, Integer>> countTerms(String condition) throws SQLException {
+		Map<Integer, Map<String, Integer>> termCounts = new LinkedHashMap<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT fileId, pageContent, contentCodec, compressedContent FROM pages "
+						+ condition + " ORDER BY fileId, pageNumber")) {
+			while (rs.next()) {
+				addPageTermCounts(termCounts.computeIfAbsent(rs.getInt("fileId"), fileId -> new LinkedHashMap<>()),
+						ContentCodec.read(rs, "pageContent", "contentCodec", "compressedContent"), 1);
+			}
+		}
+		return termCounts;
+	}
+
+	// Applies the change in the saved pages' counts to the file's stored counts in the open
+	// transaction; a file without stored counts is counted from its pages
+	private Map<String, Integer> storeTermCounts(int fileId, Map<String, Integer> delta) throws SQLException, IOException {
+		Map<String, Integer> termCounts = null;
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT termCounts FROM filetermcounts WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					termCounts = TFIDFCalculator.fromBytes(ByteBuffer.wrap(rs.getBytes("termCounts")));
+				}
+			}
+		}
+		if (termCounts != null) {
+			TFIDFCalculator.addTermCounts(termCounts, delta, 1);
+		} else {
+			termCounts = countTerms("WHERE fileId = " + fileId).getOrDefault(fileId, new LinkedHashMap<>());
+		}
+		try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO filetermcounts (fileId, termCounts) VALUES (?, ?) "
+				+ "ON DUPLICATE KEY UPDATE termCounts = VALUES(termCounts)")) {
+			stmt.setInt(1, fileId);
+			stmt.setBytes(2, TFIDFCalculator.toBytes(termCounts));
+			stmt.executeUpdate();
+		}
+		return termCounts;
 	}
 
-}
\ No newline at end of file
+}
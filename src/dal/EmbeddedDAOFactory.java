@@ -0,0 +1,23 @@
+package dal;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+public class EmbeddedDAOFactory extends AbstractDAOEditorFactory {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String SCHEMA_SCRIPT = "/Database/EmbeddedEditorDBQuery.sql";
+
+	@Override
+	public IEditorDBDAO createEditorDAO() {
+		try {
+			SchemaInitializer.runScript(DatabaseConnection.getInstance().getConnection(), SCHEMA_SCRIPT);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return new EditorDBDAO();
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.PageAnalytics;
 
 public class FacadeDAO implements IFacadeDAO {
 
@@ -18,11 +19,26 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.createFileInDB(nameOfFile, content);
 	}
 
+	@Override
+	public boolean createFileInDB(String nameOfFile, String content, String hash) {
+		return mariaDB.createFileInDB(nameOfFile, content, hash);
+	}
+
 	@Override
 	public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
 		return mariaDB.updateFileInDB(id, fileName, pageNumber, content);
 	}
 
+	@Override
+	public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+		return mariaDB.autoSaveFileInDB(id, fileName, pageNumber, content);
+	}
+
+	@Override
+	public boolean isPageMissing(int fileId, int pageNumber) {
+		return mariaDB.isPageMissing(fileId, pageNumber);
+	}
+
 	@Override
 	public boolean deleteFileInDB(int id) {
 		return mariaDB.deleteFileInDB(id);
@@ -39,6 +55,11 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.transliterateInDB(pageId, arabicText);
 	}
 
+	@Override
+	public PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		return mariaDB.getPageAnalyticsFromDB(pageId);
+	}
+
 
 	@Override
 	public Map<String, String> lemmatizeWords(String text) {
@@ -64,6 +85,11 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.performTFIDF(unSelectedDocsContent, selectedDocContent);
 	}
 
+	@Override
+	public double performTFIDF(int fileId) {
+		return mariaDB.performTFIDF(fileId);
+	}
+
 	@Override
 	public Map<String, Double> performPMI(String content) {
 		// TODO Auto-generated method stub
@@ -88,6 +114,21 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.segmentWords(text);
 	}
 
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		return mariaDB.findNearDuplicates(fileId, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(String content, double minSimilarity) {
+		return mariaDB.findNearDuplicates(content, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findSimilarFiles(int fileId, int limit) {
+		return mariaDB.findSimilarFiles(fileId, limit);
+	}
+
 
 
 }
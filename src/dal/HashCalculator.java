@@ -1,28 +1,251 @@
 package dal;
 
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
+// File hashes. Text is encoded to UTF-8 through a small buffer while it is hashed, so hashing
+// never needs a byte copy of the whole text. hash.algorithm picks the algorithm: MD5 (default),
+// any other MessageDigest name such as SHA-256, or murmur3-128 for fast non-cryptographic
+// duplicate detection. Hashes of different algorithms are not comparable.
 public class HashCalculator {
-	  public static String calculateHash(String text) throws Exception {
-	        MessageDigest md = MessageDigest.getInstance("MD5");
-	        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
-	        byte[] hashBytes = md.digest(textBytes);
-	        String hexHash = bytesToHex(hashBytes);
-	        return hexHash;
-	    }
-
-	    private static String bytesToHex(byte[] bytes) {
-	        StringBuilder hexString = new StringBuilder();
-	        for (byte b : bytes) {
-	            int unsignedByte = b & 0xFF;
-	            String hex = Integer.toHexString(unsignedByte).toUpperCase();
-	            if (hex.length() == 1) {
-	                hexString.append('0');
-	            }
-	            hexString.append(hex);
-	        }
-	        return hexString.toString();
-	    }
+	public static final String MURMUR3_128 = "murmur3-128";
 
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	public static String calculateHash(String text) throws Exception {
+		return newHasher().update(text).hexDigest();
+	}
+
+	// Key for text whose derived data is cached (analytics, transliterations); always murmur3-128,
+	// whatever hash.algorithm says
+	public static String contentHash(String text) {
+		return contentHasher().update(text).hexDigest();
+	}
+
+	// For content keys that also cover settings hashed ahead of the text
+	public static Hasher contentHasher() {
+		return new Murmur3Hasher();
+	}
+
+	public static Hasher newHasher() throws NoSuchAlgorithmException {
+		return newHasher(EditorConfig.getProperty("hash.algorithm", "MD5"));
+	}
+
+	public static Hasher newHasher(String algorithm) throws NoSuchAlgorithmException {
+		if (algorithm.equalsIgnoreCase(MURMUR3_128)) {
+			return new Murmur3Hasher();
+		}
+		return new DigestHasher(MessageDigest.getInstance(algorithm));
+	}
+
+	public static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+			hex[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+		}
+		return new String(hex);
+	}
+
+	// Incremental hash; text may be fed in any number of pieces
+	public abstract static class Hasher {
+		private final byte[] buffer = new byte[8192];
+		private int buffered;
+		// High surrogate waiting for its pair from the next update
+		private char pendingHigh;
+
+		protected abstract void updateBytes(byte[] bytes, int offset, int length);
+
+		protected abstract byte[] finish();
+
+		public Hasher update(byte[] bytes, int offset, int length) {
+			flush();
+			updateBytes(bytes, offset, length);
+			return this;
+		}
+
+		// Same bytes as text.getBytes(UTF_8), including '?' for unpaired surrogates
+		public Hasher update(CharSequence text) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (pendingHigh != 0) {
+					char high = pendingHigh;
+					pendingHigh = 0;
+					if (Character.isLowSurrogate(c)) {
+						put4(Character.toCodePoint(high, c));
+						continue;
+					}
+					put1('?');
+				}
+				if (c < 0x80) {
+					put1(c);
+				} else if (c < 0x800) {
+					ensure(2);
+					buffer[buffered++] = (byte) (0xC0 | (c >> 6));
+					buffer[buffered++] = (byte) (0x80 | (c & 0x3F));
+				} else if (Character.isHighSurrogate(c)) {
+					pendingHigh = c;
+				} else if (Character.isLowSurrogate(c)) {
+					put1('?');
+				} else {
+					ensure(3);
+					buffer[buffered++] = (byte) (0xE0 | (c >> 12));
+					buffer[buffered++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+					buffer[buffered++] = (byte) (0x80 | (c & 0x3F));
+				}
+			}
+			return this;
+		}
+
+		public byte[] digest() {
+			if (pendingHigh != 0) {
+				pendingHigh = 0;
+				put1('?');
+			}
+			flush();
+			return finish();
+		}
+
+		public String hexDigest() {
+			return toHex(digest());
+		}
+
+		private void put1(int b) {
+			ensure(1);
+			buffer[buffered++] = (byte) b;
+		}
+
+		private void put4(int codePoint) {
+			ensure(4);
+			buffer[buffered++] = (byte) (0xF0 | (codePoint >> 18));
+			buffer[buffered++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+			buffer[buffered++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+			buffer[buffered++] = (byte) (0x80 | (codePoint & 0x3F));
+		}
+
+		private void ensure(int bytes) {
+			if (buffered + bytes > buffer.length) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			if (buffered > 0) {
+				updateBytes(buffer, 0, buffered);
+				buffered = 0;
+			}
+		}
+	}
+
+	private static class DigestHasher extends Hasher {
+		private final MessageDigest digest;
+
+		DigestHasher(MessageDigest digest) {
+			this.digest = digest;
+		}
+
+		@Override
+		protected void updateBytes(byte[] bytes, int offset, int length) {
+			digest.update(bytes, offset, length);
+		}
+
+		@Override
+		protected byte[] finish() {
+			return digest.digest();
+		}
+	}
+
+	// MurmurHash3 x64 128-bit, seed 0; the digest is h1 then h2, little-endian
+	private static class Murmur3Hasher extends Hasher {
+		private static final long C1 = 0x87c37b91114253d5L;
+		private static final long C2 = 0x4cf5ad432745937fL;
+
+		private long h1;
+		private long h2;
+		private long length;
+		private final byte[] block = new byte[16];
+		private int blockLength;
+
+		@Override
+		protected void updateBytes(byte[] bytes, int offset, int count) {
+			length += count;
+			int end = offset + count;
+			int position = offset;
+			if (blockLength > 0) {
+				while (blockLength < 16 && position < end) {
+					block[blockLength++] = bytes[position++];
+				}
+				if (blockLength < 16) {
+					return;
+				}
+				mix(getLong(block, 0), getLong(block, 8));
+				blockLength = 0;
+			}
+			while (end - position >= 16) {
+				mix(getLong(bytes, position), getLong(bytes, position + 8));
+				position += 16;
+			}
+			while (position < end) {
+				block[blockLength++] = bytes[position++];
+			}
+		}
+
+		@Override
+		protected byte[] finish() {
+			long k1 = 0;
+			long k2 = 0;
+			for (int i = blockLength - 1; i >= 8; i--) {
+				k2 = (k2 << 8) | (block[i] & 0xFFL);
+			}
+			for (int i = Math.min(blockLength, 8) - 1; i >= 0; i--) {
+				k1 = (k1 << 8) | (block[i] & 0xFFL);
+			}
+			if (blockLength > 8) {
+				h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+			}
+			if (blockLength > 0) {
+				h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+			}
+
+			h1 ^= length;
+			h2 ^= length;
+			h1 += h2;
+			h2 += h1;
+			h1 = fmix(h1);
+			h2 = fmix(h2);
+			h1 += h2;
+			h2 += h1;
+
+			byte[] digest = new byte[16];
+			for (int i = 0; i < 8; i++) {
+				digest[i] = (byte) (h1 >>> (8 * i));
+				digest[i + 8] = (byte) (h2 >>> (8 * i));
+			}
+			return digest;
+		}
+
+		private void mix(long k1, long k2) {
+			h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+			h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+			h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+			h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+		}
+
+		private static long fmix(long k) {
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			k ^= k >>> 33;
+			return k;
+		}
+
+		private static long getLong(byte[] bytes, int offset) {
+			long value = 0;
+			for (int i = 7; i >= 0; i--) {
+				value = (value << 8) | (bytes[offset + i] & 0xFFL);
+			}
+			return value;
+		}
+	}
 }
@@ -0,0 +1,22 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import dto.PageAnalytics;
+
+// Persistence of per-page analytics inside the caller's transaction. commit() and
+// rollback() are called after the surrounding transaction ends so caches can follow it.
+public interface IAnalyticsStore {
+	void insert(Connection conn, int pageId, PageAnalytics analytics) throws SQLException;
+
+	void replace(Connection conn, int pageId, PageAnalytics analytics) throws SQLException;
+
+	void delete(Connection conn, int pageId) throws SQLException;
+
+	PageAnalytics read(Connection conn, int pageId) throws SQLException;
+
+	void commit();
+
+	void rollback();
+}
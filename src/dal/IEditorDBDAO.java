@@ -4,18 +4,31 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.PageAnalytics;
 
 public interface IEditorDBDAO {
 	boolean createFileInDB(String nameOfFile, String content);
 
+	// For callers that hashed the content while reading it
+	boolean createFileInDB(String nameOfFile, String content, String hash);
+
 	boolean updateFileInDB(int id, String fileName, int pageNumber, String content);
 
+	// Stores the page as it is, without splitting or merging it: autosave sends the whole text
+	// area every time, so reflowing it would split the same text again on every autosave
+	boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content);
+
+	// True only when the store confirms the page does not exist; false while it cannot be reached
+	boolean isPageMissing(int fileId, int pageNumber);
+
 	boolean deleteFileInDB(int id);
 
 	List<Documents> getFilesFromDB();
 
 	String transliterateInDB(int pageId, String arabicText);
 
+	PageAnalytics getPageAnalyticsFromDB(int pageId);
+
 	Map<String, String> lemmatizeWords(String text);
 
 	Map<String, List<String>> extractPOS(String text);
@@ -24,6 +37,9 @@ public interface IEditorDBDAO {
 
 	double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent);
 
+	// TF-IDF score of a stored file against every other stored file
+	double performTFIDF(int fileId);
+
 	Map<String, Double> performPMI(String content);
 
 	Map<String, Double> performPKL(String content);
@@ -32,4 +48,12 @@ public interface IEditorDBDAO {
 
 	Map<String, String> segmentWords(String text);
 
+	// File ids whose MinHash similarity to the stored file or to the content is at least minSimilarity
+	Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity);
+
+	Map<Integer, Double> findNearDuplicates(String content, double minSimilarity);
+
+	// Up to limit other files by cosine similarity of their TF-IDF vectors, most similar first
+	Map<Integer, Double> findSimilarFiles(int fileId, int limit);
+
 }
@@ -0,0 +1,10 @@
+package dal;
+
+public class InMemoryDAOFactory extends AbstractDAOEditorFactory {
+
+	@Override
+	public IEditorDBDAO createEditorDAO() {
+		return new InMemoryEditorDAO();
+	}
+
+}
@@ -0,0 +1,367 @@
+package dal;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.DedupeReport;
+import dto.Documents;
+import dto.PageAnalytics;
+import dto.Pages;
+import dto.TransliteratedPage;
+import pl.EditorPO;
+
+// Keeps every table in concurrent maps. Used for benchmarks and for tests that
+// should not need a database server; nothing survives a restart.
+public class InMemoryEditorDAO extends AbstractEditorDAO {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	private final AtomicInteger fileSequence = new AtomicInteger();
+	private final AtomicInteger pageSequence = new AtomicInteger();
+	private final AtomicInteger transliterationSequence = new AtomicInteger();
+
+	private final Map<Integer, Documents> files = new ConcurrentHashMap<>();
+	private final Map<Integer, Pages> pages = new ConcurrentHashMap<>();
+	private final Map<Integer, TransliteratedPage> transliteratedPages = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, String>> pos = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, String>> lemmatization = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, String>> rootExtraction = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, String>> stemmation = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, String>> wordSegmentation = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, Double>> pkl = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, Double>> pmi = new ConcurrentHashMap<>();
+	private final Map<Integer, Double> tfidf = new ConcurrentHashMap<>();
+	private final Map<Integer, int[]> signatures = new ConcurrentHashMap<>();
+	private final Map<Integer, Map<String, Integer>> fileTermCounts = new ConcurrentHashMap<>();
+
+	@Override
+	public synchronized boolean createFileInDB(String nameOfFile, String content, String hash) {
+		try {
+			List<Pages> newPages = PaginationDAO.paginate(content);
+			double tfidfScore = scoreTFIDF(0, content);
+			checkIdRange(fileSequence.get() + 1, pageSequence.get() + newPages.size());
+
+			int fileId = fileSequence.incrementAndGet();
+			DedupeReport report = new DedupeReport(nameOfFile);
+			String now = timestamp();
+			files.put(fileId, new Documents(fileId, nameOfFile, hash, now, now, null));
+
+			for (Pages page : newPages) {
+				int pageId = pageSequence.incrementAndGet();
+				pages.put(pageId, new Pages(pageId, fileId, page.getPageNumber(), page.getPageContent()));
+				storeTransliteration(pageId, Transliteration.transliterate(page.getPageContent()));
+				storeAnalytics(pageId, analyzeChunk(page.getPageContent(), report));
+			}
+			tfidf.put(fileId, tfidfScore);
+			int[] signature = MinHash.signature(content);
+			if (signature != null) {
+				signatures.put(fileId, signature);
+				indexSignature(fileId, signature);
+			}
+			fileTermCounts.put(fileId, termCounts(newPages));
+			indexTFIDF(fileId, fileTermCounts.get(fileId));
+			finishImport(report);
+			return true;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	@Override
+	public boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, true);
+	}
+
+	@Override
+	public boolean autoSaveFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, false);
+	}
+
+	private synchronized boolean saveFile(int fileId, String fileName, int pageNumber, String content, boolean reflow) {
+		Documents file = files.get(fileId);
+		Pages page = findPage(fileId, pageNumber);
+		if (file == null || page == null) {
+			LOGGER.error("Page not found for the given fileId and pageNumber");
+			return false;
+		}
+
+		file.setName(fileName);
+		file.setLastModified(timestamp());
+		FilePages filePages = new FilePages(fileId);
+		(reflow ? PageReflow.plan(pageNumber, content, pagesOf(fileId).size(),
+				number -> findPage(fileId, number).getPageContent()) : PageReflow.keep(pageNumber, content))
+						.apply(filePages);
+		Map<String, Integer> termCounts = new LinkedHashMap<>(fileTermCounts.get(fileId));
+		TFIDFCalculator.addTermCounts(termCounts, filePages.termCountsDelta, 1);
+		fileTermCounts.put(fileId, termCounts);
+		indexTFIDF(fileId, termCounts);
+		signatures.remove(fileId);
+		invalidateSignature(fileId);
+		tfidf.put(fileId, scoreTFIDF(fileId, termCounts));
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isPageMissing(int fileId, int pageNumber) {
+		return findPage(fileId, pageNumber) == null;
+	}
+
+	@Override
+	public synchronized boolean deleteFileInDB(int id) {
+		if (files.remove(id) == null) {
+			return false;
+		}
+		// Same cascade as the foreign keys in the database schema
+		pages.values().removeIf(page -> {
+			if (page.getFileId() != id) {
+				return false;
+			}
+			removeAnalytics(page.getPageId());
+			return true;
+		});
+		tfidf.remove(id);
+		signatures.remove(id);
+		unindexSignature(id);
+		fileTermCounts.remove(id);
+		unindexTFIDF(id);
+		return true;
+	}
+
+	@Override
+	public List<Documents> getFilesFromDB() {
+		List<Documents> documents = new ArrayList<>();
+		Map<Integer, List<Pages>> pagesByFile = new HashMap<>();
+		for (Pages page : pages.values()) {
+			pagesByFile.computeIfAbsent(page.getFileId(), key -> new ArrayList<>()).add(
+					new Pages(page.getPageId(), page.getFileId(), page.getPageNumber(), page.getPageContent()));
+		}
+
+		for (Documents file : files.values()) {
+			List<Pages> filePages = pagesByFile.getOrDefault(file.getId(), new ArrayList<>());
+			filePages.sort(Comparator.comparingInt(Pages::getPageNumber));
+			documents.add(new Documents(file.getId(), file.getName(), file.getHash(), file.getLastModified(),
+					file.getDateCreated(), filePages));
+		}
+		documents.sort(Comparator.comparingInt(Documents::getId));
+		return documents;
+	}
+
+	@Override
+	public String transliterateInDB(int pageId, String arabicText) {
+		String contentHash = HashCalculator.contentHash(arabicText);
+		String cached = cachedTransliteration(pageId, contentHash);
+		if (cached != null) {
+			return cached;
+		}
+		try {
+			String content = Transliteration.transliterate(arabicText);
+			if (pages.containsKey(pageId)) {
+				storeTransliteration(pageId, content);
+				cacheTransliteration(pageId, contentHash, content);
+			}
+			return content;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		if (!pos.containsKey(pageId)) {
+			return null;
+		}
+		Map<String, List<String>> posTags = new HashMap<>();
+		for (Map.Entry<String, String> entry : pos.get(pageId).entrySet()) {
+			posTags.put(entry.getKey(), new ArrayList<>(Arrays.asList(entry.getValue().split("\\|"))));
+		}
+		return new PageAnalytics(posTags, new HashMap<>(lemmatization.get(pageId)),
+				new HashMap<>(rootExtraction.get(pageId)), new HashMap<>(stemmation.get(pageId)),
+				new HashMap<>(wordSegmentation.get(pageId)), new HashMap<>(pkl.get(pageId)),
+				new HashMap<>(pmi.get(pageId)));
+	}
+
+	public TransliteratedPage getTransliteratedPage(int pageId) {
+		return transliteratedPages.get(pageId);
+	}
+
+	public Double getTFIDFScore(int fileId) {
+		return tfidf.get(fileId);
+	}
+
+	private List<Pages> pagesOf(int fileId) {
+		List<Pages> filePages = new ArrayList<>();
+		for (Pages page : pages.values()) {
+			if (page.getFileId() == fileId) {
+				filePages.add(page);
+			}
+		}
+		return filePages;
+	}
+
+	private Pages findPage(int fileId, int pageNumber) {
+		for (Pages page : pages.values()) {
+			if (page.getFileId() == fileId && page.getPageNumber() == pageNumber) {
+				return page;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void startIdsAt(int firstFileId, int firstPageId) {
+		fileSequence.accumulateAndGet(firstFileId - 1, Math::max);
+		pageSequence.accumulateAndGet(firstPageId - 1, Math::max);
+	}
+
+	@Override
+	protected Map<Integer, Map<String, Integer>> loadTermCounts() {
+		return new HashMap<>(fileTermCounts);
+	}
+
+	@Override
+	protected Map<Integer, int[]> loadSignatures() {
+		return new HashMap<>(signatures);
+	}
+
+	@Override
+	protected synchronized int[] storeSignature(int fileId) {
+		if (!files.containsKey(fileId)) {
+			return null;
+		}
+		List<Pages> filePages = pagesOf(fileId);
+		filePages.sort(Comparator.comparingInt(Pages::getPageNumber));
+		StringBuilder content = new StringBuilder();
+		for (Pages page : filePages) {
+			content.append(page.getPageContent());
+		}
+		int[] signature = MinHash.signature(content.toString());
+		if (signature != null) {
+			signatures.put(fileId, signature);
+		}
+		return signature;
+	}
+
+	// Content hashes are not kept here, so the transliteration job rewrites every page
+	@Override
+	protected List<TransliterationJob.PageText> getPagesAfter(int afterPageId, int limit) {
+		List<TransliterationJob.PageText> chunk = new ArrayList<>();
+		pages.keySet().stream().filter(pageId -> pageId > afterPageId).sorted().limit(limit)
+				.forEach(pageId -> chunk.add(new TransliterationJob.PageText(pageId, pages.get(pageId).getPageContent(), null)));
+		return chunk;
+	}
+
+	@Override
+	protected void storeTransliterations(List<TransliterationJob.PageText> chunk) {
+		for (TransliterationJob.PageText page : chunk) {
+			storeTransliteration(page.getPageId(), page.getTransliteration());
+		}
+	}
+
+	// Files deleted since the scores were computed are skipped
+	@Override
+	protected void storeTFIDFScores(Map<Integer, Double> scores) {
+		for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+			tfidf.computeIfPresent(score.getKey(), (fileId, previous) -> score.getValue());
+		}
+	}
+
+	private void storeTransliteration(int pageId, String transliteratedText) {
+		transliteratedPages.put(pageId,
+				new TransliteratedPage(transliterationSequence.incrementAndGet(), pageId, transliteratedText));
+	}
+
+	private void storeAnalytics(int pageId, PageAnalytics analytics) {
+		Map<String, String> posRows = new HashMap<>();
+		for (Map.Entry<String, List<String>> entry : analytics.getPosTags().entrySet()) {
+			posRows.put(entry.getKey(), String.join("|", entry.getValue()));
+		}
+		pos.put(pageId, posRows);
+		lemmatization.put(pageId, analytics.getLemmas());
+		rootExtraction.put(pageId, analytics.getRoots());
+		stemmation.put(pageId, analytics.getStems());
+		wordSegmentation.put(pageId, analytics.getSegments());
+		pkl.put(pageId, analytics.getPklScores());
+		pmi.put(pageId, analytics.getPmiScores());
+	}
+
+	private void removeAnalytics(int pageId) {
+		transliteratedPages.remove(pageId);
+		pos.remove(pageId);
+		lemmatization.remove(pageId);
+		rootExtraction.remove(pageId);
+		stemmation.remove(pageId);
+		wordSegmentation.remove(pageId);
+		pkl.remove(pageId);
+		pmi.remove(pageId);
+	}
+
+	private static String timestamp() {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+	}
+
+	// Applies a page reflow to one file's pages
+	private class FilePages implements PageReflow.Target<RuntimeException> {
+		private final int fileId;
+		// Counts of the written pages minus those of the pages they replaced
+		private final Map<String, Integer> termCountsDelta = new HashMap<>();
+
+		FilePages(int fileId) {
+			this.fileId = fileId;
+		}
+
+		@Override
+		public void renumber(int afterPageNumber, int shift) {
+			for (Pages page : pagesOf(fileId)) {
+				if (page.getPageNumber() > afterPageNumber) {
+					page.setPageNumber(page.getPageNumber() + shift);
+				}
+			}
+		}
+
+		@Override
+		public void deletePages(int firstPageNumber, int lastPageNumber) {
+			for (Pages page : pagesOf(fileId)) {
+				if (page.getPageNumber() >= firstPageNumber && page.getPageNumber() <= lastPageNumber) {
+					addPageTermCounts(termCountsDelta, page.getPageContent(), -1);
+					pages.remove(page.getPageId());
+					removeAnalytics(page.getPageId());
+				}
+			}
+		}
+
+		@Override
+		public void updatePage(int pageNumber, String content) {
+			Pages page = findPage(fileId, pageNumber);
+			addPageTermCounts(termCountsDelta, page.getPageContent(), -1);
+			addPageTermCounts(termCountsDelta, content, 1);
+			page.setPageContent(content);
+			storeTransliteration(page.getPageId(), Transliteration.transliterate(content));
+			storeAnalytics(page.getPageId(), analyzeChunk(content, null));
+		}
+
+		@Override
+		public void insertPage(int pageNumber, String content) {
+			checkIdRange(fileId, pageSequence.get() + 1);
+			int pageId = pageSequence.incrementAndGet();
+			pages.put(pageId, new Pages(pageId, fileId, pageNumber, content));
+			addPageTermCounts(termCountsDelta, content, 1);
+			storeTransliteration(pageId, Transliteration.transliterate(content));
+			storeAnalytics(pageId, analyzeChunk(content, null));
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package dal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// Wraps a JDBC connection so every statement it hands out reports latency, rows affected
+// and batch size to QueryMetrics. Dynamic proxies keep it independent of the driver.
+public class InstrumentedConnection implements InvocationHandler {
+	private static final String STATEMENT_BATCH = "<statement batch>";
+
+	private final Connection connection;
+	private final QueryMetrics metrics;
+
+	private InstrumentedConnection(Connection connection, QueryMetrics metrics) {
+		this.connection = connection;
+		this.metrics = metrics;
+	}
+
+	public static Connection wrap(Connection connection, QueryMetrics metrics) {
+		if (connection == null || (Proxy.isProxyClass(connection.getClass())
+				&& Proxy.getInvocationHandler(connection) instanceof InstrumentedConnection)) {
+			return connection;
+		}
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new InstrumentedConnection(connection, metrics));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		Object result = invokeTarget(connection, method, args);
+		String name = method.getName();
+		if (name.equals("prepareStatement") && result instanceof PreparedStatement) {
+			return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					new StatementHandler((Statement) result, (String) args[0], metrics));
+		}
+		if (name.equals("createStatement") && result instanceof Statement) {
+			return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class },
+					new StatementHandler((Statement) result, null, metrics));
+		}
+		return result;
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static class StatementHandler implements InvocationHandler {
+		private final Statement statement;
+		private final String preparedSql;
+		private final QueryMetrics metrics;
+		private int pendingBatch;
+
+		StatementHandler(Statement statement, String preparedSql, QueryMetrics metrics) {
+			this.statement = statement;
+			this.preparedSql = preparedSql;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("addBatch")) {
+				pendingBatch++;
+				return invokeTarget(statement, method, args);
+			}
+			if (name.equals("clearBatch")) {
+				pendingBatch = 0;
+				return invokeTarget(statement, method, args);
+			}
+			if (!name.startsWith("execute")) {
+				return invokeTarget(statement, method, args);
+			}
+
+			String sql = preparedSql;
+			if (args != null && args.length > 0 && args[0] instanceof String) {
+				sql = (String) args[0];
+			} else if (sql == null) {
+				sql = STATEMENT_BATCH;
+			}
+			boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+			int batchSize = batch ? pendingBatch : -1;
+
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = invokeTarget(statement, method, args);
+			} finally {
+				if (batch) {
+					pendingBatch = 0;
+				}
+			}
+			long elapsed = System.nanoTime() - start;
+			metrics.record(sql, elapsed, rowsAffected(name, result), batchSize);
+			return result;
+		}
+
+		private long rowsAffected(String methodName, Object result) throws Exception {
+			if (result instanceof Integer) {
+				return (Integer) result;
+			}
+			if (result instanceof Long) {
+				return (Long) result;
+			}
+			if (result instanceof int[]) {
+				long rows = 0;
+				for (int count : (int[]) result) {
+					if (count > 0) {
+						rows += count;
+					}
+				}
+				return rows;
+			}
+			if (result instanceof long[]) {
+				long rows = 0;
+				for (long count : (long[]) result) {
+					if (count > 0) {
+						rows += count;
+					}
+				}
+				return rows;
+			}
+			if (methodName.equals("execute") && Boolean.FALSE.equals(result)) {
+				return statement.getUpdateCount();
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps strings to the integer ids of a lookup table (id, value UNIQUE), caching every id
+// it has seen. Ids created inside a transaction stay "pending" until commit() so a
+// rollback can evict them from the cache. Values longer than the column are stored as a
+// prefix followed by the hash of the whole value, so they still get an id of their own.
+public class InternTable {
+	public static final int MAX_LENGTH = 768;
+
+	private final String selectQuery;
+	private final String insertQuery;
+	private final int maxCachedValues;
+	private final Map<String, Integer> cache = new ConcurrentHashMap<>();
+	private final List<String> pending = new ArrayList<>();
+
+	public InternTable(String table, String idColumn, String valueColumn, int maxCachedValues) {
+		this.selectQuery = "SELECT " + idColumn + " FROM " + table + " WHERE " + valueColumn + " = ?";
+		this.insertQuery = "INSERT INTO " + table + " (" + valueColumn + ") VALUES (?)";
+		this.maxCachedValues = maxCachedValues;
+	}
+
+	// Returns null for null values, so optional columns stay NULL
+	public Integer idOf(Connection conn, String value) throws SQLException {
+		if (value == null) {
+			return null;
+		}
+		Integer id = cache.get(value);
+		if (id != null) {
+			return id;
+		}
+		String stored = storedForm(value);
+
+		id = select(conn, stored);
+		if (id == null) {
+			try (PreparedStatement stmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS)) {
+				stmt.setString(1, stored);
+				stmt.executeUpdate();
+				ResultSet rs = stmt.getGeneratedKeys();
+				rs.next();
+				id = rs.getInt(1);
+				synchronized (pending) {
+					pending.add(value);
+				}
+			} catch (SQLIntegrityConstraintViolationException e) {
+				// Another client inserted the same value first
+				id = select(conn, stored);
+				if (id == null) {
+					throw e;
+				}
+			}
+		}
+
+		if (cache.size() >= maxCachedValues) {
+			cache.clear();
+		}
+		cache.put(value, id);
+		return id;
+	}
+
+	// The value as written to the lookup table, and read back from it
+	public static String storedForm(String value) {
+		if (value.length() <= MAX_LENGTH) {
+			return value;
+		}
+		String hash = HashCalculator.contentHash(value);
+		return value.substring(0, MAX_LENGTH - hash.length() - 1) + "#" + hash;
+	}
+
+	public void commit() {
+		synchronized (pending) {
+			pending.clear();
+		}
+	}
+
+	public void rollback() {
+		synchronized (pending) {
+			for (String value : pending) {
+				cache.remove(value);
+			}
+			pending.clear();
+		}
+	}
+
+	public int cachedValues() {
+		return cache.size();
+	}
+
+	private Integer select(Connection conn, String value) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(selectQuery)) {
+			stmt.setString(1, value);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : null;
+			}
+		}
+	}
+}
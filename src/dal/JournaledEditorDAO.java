@@ -0,0 +1,571 @@
+package dal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.Documents;
+import dto.PageAnalytics;
+import dto.Pages;
+
+import pl.EditorPO;
+
+// Acknowledges page saves as soon as they are fsynced to a local journal; a background
+// flusher hands them to the wrapped DAO in batches. Repeated saves of the same page are
+// coalesced, reads overlay saves that are not flushed yet, and saves left in the journal by
+// a crash are replayed on start. A save the database rejects stays in the journal and is
+// retried with exponential backoff; it is only given up when the page no longer exists, and
+// the save failure listener is told. Saves of one file are written in the order they were
+// made, since a save may reflow the pages the later ones refer to by number.
+//
+// Record layout: [int payloadLength][int crc32(type + payload)][byte type][payload]
+public class JournaledEditorDAO implements IEditorDBDAO {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	private static final byte SAVE_RECORD = 1;
+	// Every save with a lower sequence number than the first long has been flushed or
+	// superseded; any further longs are later saves that were flushed too
+	private static final byte CHECKPOINT_RECORD = 2;
+	// Same payload as SAVE_RECORD, written without reflowing pages
+	private static final byte AUTOSAVE_RECORD = 3;
+	private static final int HEADER_SIZE = 9;
+
+	private final IEditorDBDAO delegate;
+	private final Path journalPath;
+	private final long flushIntervalMillis;
+	private final long maxBackoffMillis;
+	private final long maxJournalBytes;
+	private final Object lock = new Object();
+	// Held for a whole flush, so a save in flight on one thread cannot land after a newer save
+	// of the same page written by another
+	private final Object flushLock = new Object();
+	private final Map<String, PendingSave> pending = new LinkedHashMap<>();
+	private FileChannel journal;
+	private long nextSequence;
+	private ScheduledExecutorService flusher;
+	private volatile Consumer<String> saveFailureListener = LOGGER::error;
+
+	public JournaledEditorDAO(IEditorDBDAO delegate) {
+		this(delegate, Paths.get(EditorConfig.getProperty("db.journal.file", "./data/save-journal.log")),
+				EditorConfig.getLong("db.journal.flushInterval", 500), EditorConfig.getLong("db.journal.maxBackoff", 60000),
+				EditorConfig.getLong("db.journal.maxBytes", 1024 * 1024));
+	}
+
+	// A failed save is retried after flushIntervalMillis, doubling up to maxBackoffMillis
+	public JournaledEditorDAO(IEditorDBDAO delegate, Path journalPath, long flushIntervalMillis, long maxBackoffMillis,
+			long maxJournalBytes) {
+		this.delegate = delegate;
+		this.journalPath = journalPath;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+		this.maxJournalBytes = maxJournalBytes;
+		try {
+			if (journalPath.getParent() != null) {
+				Files.createDirectories(journalPath.getParent());
+			}
+			journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			recover();
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			throw new IllegalStateException("Cannot open save journal " + journalPath, e);
+		}
+
+		if (flushIntervalMillis > 0) {
+			flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "journal-flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// An explicit save may split or merge pages, and the editor reloads the layout right after
+	// it, so it is written to the database before returning; it stays journaled if that fails
+	@Override
+	public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
+		if (!journal(new PendingSave(0, id, fileName, pageNumber, content, true))) {
+			return delegate.updateFileInDB(id, fileName, pageNumber, content);
+		}
+		flush();
+		return true;
+	}
+
+	@Override
+	public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+		if (!journal(new PendingSave(0, id, fileName, pageNumber, content, false))) {
+			return delegate.autoSaveFileInDB(id, fileName, pageNumber, content);
+		}
+		return true;
+	}
+
+	private boolean journal(PendingSave save) {
+		synchronized (lock) {
+			try {
+				// An autosave replacing an explicit save that is not written yet still reflows
+				PendingSave replaced = pending.get(save.key());
+				save = save.withSequence(nextSequence++, save.reflow || (replaced != null && replaced.reflow));
+				append(save.recordType(), save.encode());
+				journal.force(false);
+				pending.remove(save.key());
+				pending.put(save.key(), save);
+				return true;
+			} catch (IOException e) {
+				e.printStackTrace();
+				LOGGER.error("Journal write failed, saving directly: " + e.getMessage());
+				return false;
+			}
+		}
+	}
+
+	// Told about saves that were given up, with a message for the user; logs by default
+	public void setSaveFailureListener(Consumer<String> saveFailureListener) {
+		this.saveFailureListener = saveFailureListener;
+	}
+
+	// Hands every pending save that is due to the wrapped DAO; called by the flusher and by
+	// explicit saves
+	public void flush() {
+		flush(false);
+	}
+
+	// On close every pending save gets a last attempt; saves still failing stay in the journal
+	private void flush(boolean all) {
+		synchronized (flushLock) {
+			flushBatch(all);
+		}
+	}
+
+	private void flushBatch(boolean all) {
+		long now = System.currentTimeMillis();
+		List<PendingSave> batch = new ArrayList<>();
+		synchronized (lock) {
+			batch.addAll(pending.values());
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		// Saves of one file are written in journal order: a save may reflow and renumber the
+		// file's pages, so once a save is waiting for its backoff or fails, the file's later
+		// saves wait with it
+		Set<Integer> waitingFiles = new HashSet<>();
+		Map<PendingSave, Boolean> results = new LinkedHashMap<>();
+		List<PendingSave> missing = new ArrayList<>();
+		for (PendingSave save : batch) {
+			if (waitingFiles.contains(save.fileId)) {
+				continue;
+			}
+			if (!all && save.retryAt > now) {
+				waitingFiles.add(save.fileId);
+				continue;
+			}
+			boolean saved;
+			try {
+				saved = save.reflow ? delegate.updateFileInDB(save.fileId, save.fileName, save.pageNumber, save.content)
+						: delegate.autoSaveFileInDB(save.fileId, save.fileName, save.pageNumber, save.content);
+				if (!saved && delegate.isPageMissing(save.fileId, save.pageNumber)) {
+					missing.add(save);
+				}
+			} catch (Exception e) {
+				LOGGER.error(e.getMessage());
+				saved = false;
+			}
+			if (!saved && !missing.contains(save)) {
+				waitingFiles.add(save.fileId);
+			}
+			results.put(save, saved);
+		}
+		if (results.isEmpty()) {
+			return;
+		}
+
+		List<String> failures = new ArrayList<>();
+		List<Long> completed = new ArrayList<>();
+		synchronized (lock) {
+			for (Map.Entry<PendingSave, Boolean> result : results.entrySet()) {
+				PendingSave save = result.getKey();
+				if (result.getValue() || missing.contains(save)) {
+					completed.add(save.sequence);
+				}
+				// A newer save of the same page stays pending
+				if (pending.get(save.key()) != save) {
+					continue;
+				}
+				if (result.getValue()) {
+					pending.remove(save.key());
+				} else if (missing.contains(save)) {
+					pending.remove(save.key());
+					failures.add("The save of page " + save.pageNumber + " of '" + save.fileName
+							+ "' was discarded because the page no longer exists.");
+				} else {
+					save.attempts++;
+					long backoff = Math.min(maxBackoffMillis, flushIntervalMillis << Math.min(save.attempts - 1, 20));
+					save.retryAt = now + backoff;
+					LOGGER.error("Save of file " + save.fileId + " page " + save.pageNumber + " failed "
+							+ save.attempts + " time(s); retrying in " + backoff + " ms");
+				}
+			}
+			try {
+				checkpoint(completed);
+			} catch (IOException e) {
+				e.printStackTrace();
+				LOGGER.error(e.getMessage());
+			}
+		}
+		for (String failure : failures) {
+			saveFailureListener.accept(failure);
+		}
+	}
+
+	public int getPendingCount() {
+		synchronized (lock) {
+			return pending.size();
+		}
+	}
+
+	public void close() {
+		if (flusher != null) {
+			flusher.shutdown();
+			try {
+				flusher.awaitTermination(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			flusher = null;
+		}
+		flush(true);
+		synchronized (lock) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				LOGGER.error(e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public boolean isPageMissing(int fileId, int pageNumber) {
+		synchronized (lock) {
+			if (pending.containsKey(PendingSave.key(fileId, pageNumber))) {
+				return false;
+			}
+		}
+		return delegate.isPageMissing(fileId, pageNumber);
+	}
+
+	@Override
+	public boolean createFileInDB(String nameOfFile, String content) {
+		return delegate.createFileInDB(nameOfFile, content);
+	}
+
+	@Override
+	public boolean createFileInDB(String nameOfFile, String content, String hash) {
+		return delegate.createFileInDB(nameOfFile, content, hash);
+	}
+
+	@Override
+	public boolean deleteFileInDB(int id) {
+		synchronized (lock) {
+			pending.values().removeIf(save -> save.fileId == id);
+		}
+		return delegate.deleteFileInDB(id);
+	}
+
+	// Pages with an unflushed save are returned with the saved content
+	@Override
+	public List<Documents> getFilesFromDB() {
+		List<Documents> documents = delegate.getFilesFromDB();
+		synchronized (lock) {
+			if (pending.isEmpty()) {
+				return documents;
+			}
+			for (Documents doc : documents) {
+				for (Pages page : doc.getPages()) {
+					PendingSave save = pending.get(PendingSave.key(doc.getId(), page.getPageNumber()));
+					if (save != null) {
+						page.setPageContent(save.content);
+						doc.setName(save.fileName);
+					}
+				}
+			}
+		}
+		return documents;
+	}
+
+	@Override
+	public String transliterateInDB(int pageId, String arabicText) {
+		return delegate.transliterateInDB(pageId, arabicText);
+	}
+
+	@Override
+	public PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		return delegate.getPageAnalyticsFromDB(pageId);
+	}
+
+	@Override
+	public Map<String, String> lemmatizeWords(String text) {
+		return delegate.lemmatizeWords(text);
+	}
+
+	@Override
+	public Map<String, List<String>> extractPOS(String text) {
+		return delegate.extractPOS(text);
+	}
+
+	@Override
+	public Map<String, String> extractRoots(String text) {
+		return delegate.extractRoots(text);
+	}
+
+	@Override
+	public double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
+		return delegate.performTFIDF(unSelectedDocsContent, selectedDocContent);
+	}
+
+	@Override
+	public double performTFIDF(int fileId) {
+		return delegate.performTFIDF(fileId);
+	}
+
+	@Override
+	public Map<String, Double> performPMI(String content) {
+		return delegate.performPMI(content);
+	}
+
+	@Override
+	public Map<String, Double> performPKL(String content) {
+		return delegate.performPKL(content);
+	}
+
+	@Override
+	public Map<String, String> stemWords(String text) {
+		return delegate.stemWords(text);
+	}
+
+	@Override
+	public Map<String, String> segmentWords(String text) {
+		return delegate.segmentWords(text);
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		return delegate.findNearDuplicates(fileId, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(String content, double minSimilarity) {
+		return delegate.findNearDuplicates(content, minSimilarity);
+	}
+
+	@Override
+	public Map<Integer, Double> findSimilarFiles(int fileId, int limit) {
+		return delegate.findSimilarFiles(fileId, limit);
+	}
+
+	// Empties the journal when nothing is pending, rewrites it when it grew too large and
+	// otherwise appends a checkpoint naming the saves written out of order, so replay skips
+	// them. Called with the lock held.
+	private void checkpoint(List<Long> completed) throws IOException {
+		if (pending.isEmpty()) {
+			journal.truncate(0);
+			journal.force(false);
+			return;
+		}
+		if (journal.size() > maxJournalBytes) {
+			rewriteJournal();
+			return;
+		}
+		long oldest = Long.MAX_VALUE;
+		for (PendingSave save : pending.values()) {
+			oldest = Math.min(oldest, save.sequence);
+		}
+		List<Long> newer = new ArrayList<>();
+		for (long sequence : completed) {
+			if (sequence > oldest) {
+				newer.add(sequence);
+			}
+		}
+		ByteBuffer payload = ByteBuffer.allocate(8 * (1 + newer.size())).putLong(oldest);
+		for (long sequence : newer) {
+			payload.putLong(sequence);
+		}
+		append(CHECKPOINT_RECORD, payload.array());
+		journal.force(false);
+	}
+
+	private void rewriteJournal() throws IOException {
+		Path rewritten = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(rewritten, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (PendingSave save : pending.values()) {
+				ByteBuffer record = record(save.recordType(), save.encode());
+				while (record.hasRemaining()) {
+					out.write(record);
+				}
+			}
+			out.force(false);
+		}
+		journal.close();
+		Files.move(rewritten, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	private void append(byte type, byte[] payload) throws IOException {
+		ByteBuffer record = record(type, payload);
+		long position = journal.size();
+		while (record.hasRemaining()) {
+			position += journal.write(record, position);
+		}
+	}
+
+	private static ByteBuffer record(byte type, byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(type);
+		crc.update(payload, 0, payload.length);
+		ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+		record.flip();
+		return record;
+	}
+
+	private void recover() throws IOException {
+		long size = journal.size();
+		ByteBuffer data = ByteBuffer.allocate((int) size);
+		while (data.hasRemaining() && journal.read(data, data.position()) > 0) {
+		}
+		data.flip();
+
+		List<PendingSave> saves = new ArrayList<>();
+		long checkpoint = 0;
+		Set<Long> completed = new HashSet<>();
+		while (data.remaining() >= HEADER_SIZE) {
+			int start = data.position();
+			int payloadLength = data.getInt();
+			int checksum = data.getInt();
+			byte type = data.get();
+			if (payloadLength < 0 || payloadLength > data.remaining()) {
+				data.position(start);
+				break;
+			}
+			byte[] payload = new byte[payloadLength];
+			data.get(payload);
+			CRC32 crc = new CRC32();
+			crc.update(type);
+			crc.update(payload, 0, payload.length);
+			if ((int) crc.getValue() != checksum) {
+				data.position(start);
+				break;
+			}
+
+			if (type == SAVE_RECORD || type == AUTOSAVE_RECORD) {
+				saves.add(PendingSave.decode(payload, type == SAVE_RECORD));
+			} else if (type == CHECKPOINT_RECORD) {
+				ByteBuffer sequences = ByteBuffer.wrap(payload);
+				checkpoint = sequences.getLong();
+				while (sequences.remaining() >= 8) {
+					completed.add(sequences.getLong());
+				}
+			}
+		}
+		if (data.position() < size) {
+			// A save that was never acknowledged; drop the torn tail
+			LOGGER.error("Discarding " + (size - data.position()) + " damaged bytes at the end of " + journalPath);
+			journal.truncate(data.position());
+		}
+
+		for (PendingSave save : saves) {
+			nextSequence = Math.max(nextSequence, save.sequence + 1);
+			if (save.sequence >= checkpoint && !completed.contains(save.sequence)) {
+				pending.remove(save.key());
+				pending.put(save.key(), save);
+			}
+		}
+		if (!pending.isEmpty()) {
+			LOGGER.info("Replaying " + pending.size() + " unflushed save(s) from " + journalPath);
+		}
+	}
+
+	private static class PendingSave {
+		final long sequence;
+		final int fileId;
+		final String fileName;
+		final int pageNumber;
+		final String content;
+		// False for autosaves, which are stored without reflowing pages
+		final boolean reflow;
+		int attempts;
+		// Not before this time, after a failed attempt
+		long retryAt;
+
+		PendingSave(long sequence, int fileId, String fileName, int pageNumber, String content, boolean reflow) {
+			this.sequence = sequence;
+			this.fileId = fileId;
+			this.fileName = fileName;
+			this.pageNumber = pageNumber;
+			this.content = content;
+			this.reflow = reflow;
+		}
+
+		PendingSave withSequence(long sequence, boolean reflow) {
+			return new PendingSave(sequence, fileId, fileName, pageNumber, content, reflow);
+		}
+
+		byte recordType() {
+			return reflow ? SAVE_RECORD : AUTOSAVE_RECORD;
+		}
+
+		String key() {
+			return key(fileId, pageNumber);
+		}
+
+		static String key(int fileId, int pageNumber) {
+			return fileId + ":" + pageNumber;
+		}
+
+		byte[] encode() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(sequence);
+			out.writeInt(fileId);
+			PageAnalyticsCodec.writeString(out, fileName);
+			out.writeInt(pageNumber);
+			PageAnalyticsCodec.writeString(out, content);
+			out.flush();
+			return bytes.toByteArray();
+		}
+
+		static PendingSave decode(byte[] payload, boolean reflow) {
+			ByteBuffer in = ByteBuffer.wrap(payload);
+			long sequence = in.getLong();
+			int fileId = in.getInt();
+			String fileName = PageAnalyticsCodec.readString(in);
+			int pageNumber = in.getInt();
+			return new PendingSave(sequence, fileId, fileName, pageNumber, PageAnalyticsCodec.readString(in), reflow);
+		}
+	}
+}
@@ -12,23 +12,27 @@ import pl.EditorPO;
 public class Lemmatization {
 
 	public static Map<String, String> lemmatizeWords(String text) {
+		return lemmatizeWords(TokenizedText.of(text));
+	}
+
+	public static Map<String, String> lemmatizeWords(TokenizedText text) {
 		final Logger logger = LogManager.getLogger(EditorPO.class);
 		Map<String, String> wordLemmaMap = new HashMap<>();
 
-		String[] words = text.split("\\s+");
+		String[] words = text.tokens();
 
 		try {
 			AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
 
 			if (analyzer != null) {
-				for (String word : words) {
-					String lemma = analyzer.processToken(word).getAllLemmasString();
-
-					if (lemma != null && !lemma.isEmpty()) {
-						wordLemmaMap.put(word, PreProcessText.preprocessText(lemma));
-					} else {
-						wordLemmaMap.put(word, "Not found");
-					}
+				String[] lemmaById = new String[text.vocabularySize()];
+				for (int id = 0; id < lemmaById.length; id++) {
+					String lemma = analyzer.processToken(text.word(id)).getAllLemmasString();
+					lemmaById[id] = lemma != null && !lemma.isEmpty() ? PreProcessText.preprocessText(lemma) : "Not found";
+				}
+				for (int token = 0; token < words.length; token++) {
+					int id = text.id(token);
+					wordLemmaMap.putIfAbsent(words[token], id < 0 ? "Not found" : lemmaById[id]);
 				}
 			} else {
 				System.err.println("Failed to initialize AlKhalil2Analyzer.");
@@ -0,0 +1,1009 @@
+package dal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.DedupeReport;
+import dto.Documents;
+import dto.PageAnalytics;
+import dto.Pages;
+import pl.EditorPO;
+
+// Append-only store for write-once, read-often corpora. Every change is appended to the
+// active segment file; an in-memory index maps ids to record offsets and reads go through
+// memory-mapped segment regions. Superseded records are dropped by background compaction.
+//
+// Record layout: [int payloadLength][int crc32(type + payload)][byte type][payload]
+public class LogStructuredEditorDAO extends AbstractEditorDAO {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	private static final byte FILE_RECORD = 1;
+	private static final byte PAGE_RECORD = 2;
+	private static final byte TRANSLITERATION_RECORD = 3;
+	private static final byte ANALYTICS_RECORD = 4;
+	private static final byte DELETE_RECORD = 5;
+	private static final byte PAGE_DELETE_RECORD = 6;
+	private static final byte SIGNATURE_RECORD = 7;
+	private static final byte TERM_COUNTS_RECORD = 8;
+	private static final int HEADER_SIZE = 9;
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private final Path directory;
+	private final long segmentSize;
+	private final double compactionThreshold;
+	private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+	private Segment active;
+	private ScheduledExecutorService compactor;
+
+	private final TreeMap<Integer, FileEntry> files = new TreeMap<>();
+	private final Map<Integer, PageEntry> pages = new HashMap<>();
+	private final Map<Integer, TreeMap<Integer, Integer>> pageIdsByFile = new HashMap<>();
+	private final Map<Integer, Location> transliterations = new HashMap<>();
+	private final Map<Integer, Location> analytics = new HashMap<>();
+	private final Map<Integer, Location> tombstones = new HashMap<>();
+	private final Map<Integer, Location> pageTombstones = new HashMap<>();
+	private final Map<Integer, Location> signatures = new HashMap<>();
+	private final Map<Integer, Location> termCounts = new HashMap<>();
+	private int lastFileId;
+	private int lastPageId;
+
+	public LogStructuredEditorDAO() {
+		this(Paths.get(EditorConfig.getProperty("db.log.dir", "./data/log-store")),
+				EditorConfig.getLong("db.log.segmentSize", 64L * 1024 * 1024),
+				Double.parseDouble(EditorConfig.getProperty("db.log.compactionThreshold", "0.5")),
+				EditorConfig.getLong("db.log.compactionInterval", 60));
+	}
+
+	public LogStructuredEditorDAO(Path directory, long segmentSize, double compactionThreshold,
+			long compactionIntervalSeconds) {
+		this.directory = directory;
+		this.segmentSize = Math.min(segmentSize, Integer.MAX_VALUE);
+		this.compactionThreshold = compactionThreshold;
+		try {
+			Files.createDirectories(directory);
+			recover();
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			throw new IllegalStateException("Cannot open log store in " + directory, e);
+		}
+
+		if (compactionIntervalSeconds > 0) {
+			compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "log-compaction");
+				thread.setDaemon(true);
+				return thread;
+			});
+			compactor.scheduleWithFixedDelay(this::compact, compactionIntervalSeconds, compactionIntervalSeconds,
+					TimeUnit.SECONDS);
+		}
+	}
+
+	@Override
+	public synchronized boolean createFileInDB(String nameOfFile, String content, String hash) {
+		try {
+			double tfidfScore = scoreTFIDF(0, content);
+			int fileId = lastFileId + 1;
+			DedupeReport report = new DedupeReport(nameOfFile);
+
+			// Pages go first and the file record last, so a crash mid-import leaves only
+			// orphan pages that recovery discards
+			List<Pages> newPages = PaginationDAO.paginate(content);
+			checkIdRange(fileId, lastPageId + newPages.size());
+			for (Pages page : newPages) {
+				int pageId = lastPageId + 1;
+				appendPage(pageId, fileId, page.getPageNumber(), page.getPageContent());
+				appendTransliteration(pageId, Transliteration.transliterate(page.getPageContent()));
+				appendAnalytics(pageId, analyzeChunk(page.getPageContent(), report));
+			}
+			int[] signature = MinHash.signature(content);
+			if (signature != null) {
+				appendSignature(fileId, signature);
+			}
+			Map<String, Integer> fileTermCounts = termCounts(newPages);
+			appendTermCounts(fileId, fileTermCounts);
+			String now = timestamp();
+			appendFile(new Documents(fileId, nameOfFile, hash, now, now, null), tfidfScore);
+			active.channel.force(false);
+			indexSignature(fileId, signature);
+			indexTFIDF(fileId, fileTermCounts);
+			finishImport(report);
+			return true;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			// The pages already written belong to no file, the same as after a crash mid-import
+			discardOrphans();
+			return false;
+		}
+	}
+
+	@Override
+	public boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, true);
+	}
+
+	@Override
+	public boolean autoSaveFileInDB(int fileId, String fileName, int pageNumber, String content) {
+		return saveFile(fileId, fileName, pageNumber, content, false);
+	}
+
+	private synchronized boolean saveFile(int fileId, String fileName, int pageNumber, String content, boolean reflow) {
+		FileEntry file = files.get(fileId);
+		TreeMap<Integer, Integer> pageIds = pageIdsByFile.get(fileId);
+		Integer pageId = (file == null || pageIds == null) ? null : pageIds.get(pageNumber);
+		if (pageId == null) {
+			LOGGER.error("Page not found for the given fileId and pageNumber");
+			return false;
+		}
+
+		try {
+			FilePages filePages = new FilePages(fileId);
+			Map<String, Integer> fileTermCounts = readTermCounts(fileId);
+			(reflow ? PageReflow.plan(pageNumber, content, pageIds.size(),
+					number -> readPageContent(pages.get(pageIds.get(number)))) : PageReflow.keep(pageNumber, content))
+							.apply(filePages);
+			TFIDFCalculator.addTermCounts(fileTermCounts, filePages.termCountsDelta, 1);
+			Documents metadata = file.metadata;
+			appendFile(new Documents(fileId, fileName, metadata.getHash(), timestamp(), metadata.getDateCreated(),
+					null), scoreTFIDF(fileId, fileTermCounts));
+			appendTermCounts(fileId, fileTermCounts);
+			if (signatures.containsKey(fileId)) {
+				appendSignatureTombstone(fileId);
+			}
+			active.channel.force(false);
+			indexTFIDF(fileId, fileTermCounts);
+			invalidateSignature(fileId);
+			return true;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	@Override
+	public synchronized boolean isPageMissing(int fileId, int pageNumber) {
+		TreeMap<Integer, Integer> pageIds = pageIdsByFile.get(fileId);
+		return !files.containsKey(fileId) || pageIds == null || !pageIds.containsKey(pageNumber);
+	}
+
+	@Override
+	public synchronized boolean deleteFileInDB(int id) {
+		if (!files.containsKey(id)) {
+			return false;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			new DataOutputStream(bytes).writeInt(id);
+			Location location = append(DELETE_RECORD, bytes.toByteArray());
+			applyDelete(id, location);
+			active.channel.force(false);
+			unindexSignature(id);
+			unindexTFIDF(id);
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	@Override
+	public synchronized List<Documents> getFilesFromDB() {
+		List<Documents> documents = new ArrayList<>();
+		try {
+			for (FileEntry file : files.values()) {
+				List<Pages> filePages = new ArrayList<>();
+				for (int pageId : pageIdsOf(file.metadata.getId())) {
+					PageEntry page = pages.get(pageId);
+					filePages.add(new Pages(pageId, file.metadata.getId(), page.pageNumber, readPageContent(page)));
+				}
+				Documents metadata = file.metadata;
+				documents.add(new Documents(metadata.getId(), metadata.getName(), metadata.getHash(),
+						metadata.getLastModified(), metadata.getDateCreated(), filePages));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return documents;
+	}
+
+	@Override
+	public synchronized String transliterateInDB(int pageId, String arabicText) {
+		String contentHash = HashCalculator.contentHash(arabicText);
+		String cached = cachedTransliteration(pageId, contentHash);
+		if (cached != null) {
+			return cached;
+		}
+		try {
+			String content = Transliteration.transliterate(arabicText);
+			if (pages.containsKey(pageId)) {
+				appendTransliteration(pageId, content);
+				active.channel.force(false);
+				cacheTransliteration(pageId, contentHash, content);
+			}
+			return content;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	public synchronized String getTransliteratedText(int pageId) {
+		Location location = transliterations.get(pageId);
+		if (location == null) {
+			return null;
+		}
+		try {
+			ByteBuffer record = read(location);
+			record.getInt();
+			return PageAnalyticsCodec.readString(record);
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public synchronized PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		Location location = analytics.get(pageId);
+		if (location == null) {
+			return null;
+		}
+		try {
+			ByteBuffer record = read(location);
+			record.getInt();
+			return PageAnalyticsCodec.decode(record);
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	public synchronized Double getTFIDFScore(int fileId) {
+		FileEntry file = files.get(fileId);
+		return file == null ? null : file.tfidfScore;
+	}
+
+	public synchronized int getSegmentCount() {
+		return segments.size();
+	}
+
+	// Rewrites the live records of every sealed segment whose dead share reached the
+	// threshold into the active segment, then removes the old segment file
+	public synchronized int compact() {
+		int compacted = 0;
+		try {
+			for (Segment segment : new ArrayList<>(segments.values())) {
+				if (segment == active || segment.size == 0
+						|| (double) segment.deadBytes / segment.size < compactionThreshold) {
+					continue;
+				}
+				relocate(segment, files.values().stream().map(file -> file.location).iterator());
+				relocate(segment, pages.values().stream().map(page -> page.location).iterator());
+				relocate(segment, transliterations.values().iterator());
+				relocate(segment, analytics.values().iterator());
+				relocate(segment, signatures.values().iterator());
+				relocate(segment, termCounts.values().iterator());
+				// Tombstones are carried forward so older segments can never resurrect a deleted file,
+				// and dropped once no older segment holds a record they hide
+				if (holdsAny(segment, tombstones) || holdsAny(segment, pageTombstones)) {
+					Set<Integer> olderFileIds = new HashSet<>();
+					Set<Integer> olderPageIds = new HashSet<>();
+					for (Segment older : segments.headMap(segment.id).values()) {
+						collectIds(older, olderFileIds, olderPageIds);
+					}
+					dropTombstones(segment, tombstones, olderFileIds, lastFileId);
+					dropTombstones(segment, pageTombstones, olderPageIds, lastPageId);
+				}
+				relocate(segment, tombstones.values().iterator());
+				relocate(segment, pageTombstones.values().iterator());
+				active.channel.force(false);
+
+				segments.remove(segment.id);
+				segment.close();
+				try {
+					Files.deleteIfExists(segment.path);
+				} catch (IOException e) {
+					// Mapped files cannot be deleted on every platform; the copies are newer, so replay stays correct
+					LOGGER.error("Could not delete compacted segment " + segment.path + ": " + e.getMessage());
+					segment.path.toFile().deleteOnExit();
+				}
+				compacted++;
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		if (compacted > 0) {
+			LOGGER.info("Compacted " + compacted + " log segment(s)");
+		}
+		return compacted;
+	}
+
+	public synchronized void close() {
+		if (compactor != null) {
+			compactor.shutdownNow();
+			compactor = null;
+		}
+		for (Segment segment : segments.values()) {
+			segment.close();
+		}
+	}
+
+	private void appendFile(Documents metadata, double tfidfScore) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(metadata.getId());
+		PageAnalyticsCodec.writeString(out, metadata.getName());
+		PageAnalyticsCodec.writeString(out, metadata.getHash());
+		PageAnalyticsCodec.writeString(out, metadata.getLastModified());
+		PageAnalyticsCodec.writeString(out, metadata.getDateCreated());
+		out.writeDouble(tfidfScore);
+		applyFile(metadata, tfidfScore, append(FILE_RECORD, bytes.toByteArray()));
+	}
+
+	private void appendPage(int pageId, int fileId, int pageNumber, String content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(pageId);
+		out.writeInt(fileId);
+		out.writeInt(pageNumber);
+		PageAnalyticsCodec.writeString(out, content);
+		applyPage(pageId, fileId, pageNumber, append(PAGE_RECORD, bytes.toByteArray()));
+	}
+
+	private void appendTransliteration(int pageId, String text) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(pageId);
+		PageAnalyticsCodec.writeString(out, text);
+		replace(transliterations, pageId, append(TRANSLITERATION_RECORD, bytes.toByteArray()));
+	}
+
+	private void appendAnalytics(int pageId, PageAnalytics pageAnalytics) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(pageId);
+		out.write(PageAnalyticsCodec.encode(pageAnalytics));
+		replace(analytics, pageId, append(ANALYTICS_RECORD, bytes.toByteArray()));
+	}
+
+	private void appendSignature(int fileId, int[] signature) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(fileId);
+		out.write(MinHash.toBytes(signature));
+		replace(signatures, fileId, append(SIGNATURE_RECORD, bytes.toByteArray()));
+	}
+
+	// A signature record without a signature: the file changed and is signed again from its pages
+	private void appendSignatureTombstone(int fileId) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeInt(fileId);
+		replace(signatures, fileId, append(SIGNATURE_RECORD, bytes.toByteArray()));
+	}
+
+	private void appendTermCounts(int fileId, Map<String, Integer> fileTermCounts) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(fileId);
+		out.write(TFIDFCalculator.toBytes(fileTermCounts));
+		replace(termCounts, fileId, append(TERM_COUNTS_RECORD, bytes.toByteArray()));
+	}
+
+	private Location append(byte type, byte[] payload) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(type);
+		crc.update(payload, 0, payload.length);
+
+		ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+		record.flip();
+		return appendRaw(record);
+	}
+
+	private Location appendRaw(ByteBuffer record) throws IOException {
+		int length = record.remaining();
+		if (active.size > 0 && active.size + length > segmentSize) {
+			active.channel.force(false);
+			active = openSegment(active.id + 1);
+		}
+		long offset = active.size;
+		while (record.hasRemaining()) {
+			active.channel.write(record, offset + (length - record.remaining()));
+		}
+		active.size += length;
+		return new Location(active, offset, length);
+	}
+
+	private void relocate(Segment segment, Iterator<Location> locations) throws IOException {
+		while (locations.hasNext()) {
+			Location location = locations.next();
+			if (location.segment != segment) {
+				continue;
+			}
+			ByteBuffer record = segment.map(location.offset + location.length).duplicate();
+			record.position((int) location.offset);
+			record.limit((int) (location.offset + location.length));
+			Location moved = appendRaw(record.slice());
+			location.segment = moved.segment;
+			location.offset = moved.offset;
+		}
+	}
+
+	private static boolean holdsAny(Segment segment, Map<Integer, Location> index) {
+		for (Location location : index.values()) {
+			if (location.segment == segment) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Ids of the file records, and of the page, transliteration and analytics records, in a sealed segment
+	private static void collectIds(Segment segment, Set<Integer> fileIds, Set<Integer> pageIds) throws IOException {
+		if (segment.size == 0) {
+			return;
+		}
+		ByteBuffer records = segment.map(segment.size);
+		long offset = 0;
+		while (offset + HEADER_SIZE + Integer.BYTES <= segment.size) {
+			int payloadLength = records.getInt((int) offset);
+			byte type = records.get((int) offset + HEADER_SIZE - 1);
+			int id = records.getInt((int) offset + HEADER_SIZE);
+			if (type == FILE_RECORD) {
+				fileIds.add(id);
+			} else if (type == PAGE_RECORD || type == TRANSLITERATION_RECORD || type == ANALYTICS_RECORD) {
+				pageIds.add(id);
+			}
+			offset += HEADER_SIZE + payloadLength;
+		}
+	}
+
+	// The tombstone of the highest id stays, so recovery never hands that id out again
+	private static void dropTombstones(Segment segment, Map<Integer, Location> index, Set<Integer> olderIds,
+			int lastId) {
+		index.entrySet().removeIf(entry -> entry.getValue().segment == segment && entry.getKey() != lastId
+				&& !olderIds.contains(entry.getKey()));
+	}
+
+	private void applyFile(Documents metadata, double tfidfScore, Location location) {
+		FileEntry file = files.get(metadata.getId());
+		if (file == null) {
+			file = new FileEntry();
+			files.put(metadata.getId(), file);
+		} else {
+			file.location.markDead();
+		}
+		file.metadata = metadata;
+		file.tfidfScore = tfidfScore;
+		file.location = location;
+		lastFileId = Math.max(lastFileId, metadata.getId());
+	}
+
+	private void applyPage(int pageId, int fileId, int pageNumber, Location location) {
+		PageEntry page = pages.get(pageId);
+		if (page != null) {
+			page.location.markDead();
+			// A renumbered page gives up its old number unless another page took it already
+			TreeMap<Integer, Integer> pageIds = pageIdsByFile.get(page.fileId);
+			if (page.pageNumber != pageNumber && pageIds != null
+					&& Integer.valueOf(pageId).equals(pageIds.get(page.pageNumber))) {
+				pageIds.remove(page.pageNumber);
+			}
+		}
+		pages.put(pageId, new PageEntry(fileId, pageNumber, location));
+		pageIdsByFile.computeIfAbsent(fileId, key -> new TreeMap<>()).put(pageNumber, pageId);
+		lastPageId = Math.max(lastPageId, pageId);
+		// Keeps the id of an unfinished import from being handed out again
+		lastFileId = Math.max(lastFileId, fileId);
+	}
+
+	private void applyDelete(int fileId, Location location) {
+		FileEntry file = files.remove(fileId);
+		if (file != null) {
+			file.location.markDead();
+		}
+		Iterator<Map.Entry<Integer, PageEntry>> iterator = pages.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Integer, PageEntry> entry = iterator.next();
+			if (entry.getValue().fileId == fileId) {
+				removePage(entry.getKey(), entry.getValue());
+				iterator.remove();
+			}
+		}
+		pageIdsByFile.remove(fileId);
+		Location signature = signatures.remove(fileId);
+		if (signature != null) {
+			signature.markDead();
+		}
+		Location counts = termCounts.remove(fileId);
+		if (counts != null) {
+			counts.markDead();
+		}
+		replace(tombstones, fileId, location);
+		lastFileId = Math.max(lastFileId, fileId);
+	}
+
+	private void applyPageDelete(int pageId, Location location) {
+		PageEntry page = pages.remove(pageId);
+		if (page != null) {
+			removePage(pageId, page);
+			TreeMap<Integer, Integer> pageIds = pageIdsByFile.get(page.fileId);
+			if (pageIds != null && Integer.valueOf(pageId).equals(pageIds.get(page.pageNumber))) {
+				pageIds.remove(page.pageNumber);
+			}
+		}
+		replace(pageTombstones, pageId, location);
+	}
+
+	private void removePage(int pageId, PageEntry page) {
+		page.location.markDead();
+		Location transliteration = transliterations.remove(pageId);
+		if (transliteration != null) {
+			transliteration.markDead();
+		}
+		Location pageAnalytics = analytics.remove(pageId);
+		if (pageAnalytics != null) {
+			pageAnalytics.markDead();
+		}
+	}
+
+	private static void replace(Map<Integer, Location> index, int id, Location location) {
+		Location previous = index.put(id, location);
+		if (previous != null) {
+			previous.markDead();
+		}
+	}
+
+	// Content hashes are not logged, so the transliteration job rewrites every page
+	@Override
+	protected synchronized List<TransliterationJob.PageText> getPagesAfter(int afterPageId, int limit)
+			throws IOException {
+		List<Integer> pageIds = new ArrayList<>();
+		for (int pageId : pages.keySet()) {
+			if (pageId > afterPageId) {
+				pageIds.add(pageId);
+			}
+		}
+		Collections.sort(pageIds);
+
+		List<TransliterationJob.PageText> chunk = new ArrayList<>();
+		for (int pageId : pageIds.subList(0, Math.min(limit, pageIds.size()))) {
+			chunk.add(new TransliterationJob.PageText(pageId, readPageContent(pages.get(pageId)), null));
+		}
+		return chunk;
+	}
+
+	// One fsync per chunk
+	@Override
+	protected synchronized void storeTransliterations(List<TransliterationJob.PageText> chunk) throws IOException {
+		for (TransliterationJob.PageText page : chunk) {
+			appendTransliteration(page.getPageId(), page.getTransliteration());
+		}
+		active.channel.force(false);
+	}
+
+	// The score is part of the file record, so each file gets a new record; one fsync per chunk
+	@Override
+	protected synchronized void storeTFIDFScores(Map<Integer, Double> scores) throws IOException {
+		for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+			FileEntry file = files.get(score.getKey());
+			if (file != null && file.tfidfScore != score.getValue()) {
+				appendFile(file.metadata, score.getValue());
+			}
+		}
+		active.channel.force(false);
+	}
+
+	private String readPageContent(PageEntry page) throws IOException {
+		ByteBuffer record = read(page.location);
+		record.position(record.position() + 12);
+		return PageAnalyticsCodec.readString(record);
+	}
+
+	// Returns the payload of a record as a view of the mapped segment
+	private ByteBuffer read(Location location) throws IOException {
+		ByteBuffer buffer = location.segment.map(location.offset + location.length).duplicate();
+		buffer.position((int) location.offset + HEADER_SIZE);
+		buffer.limit((int) (location.offset + location.length));
+		return buffer.slice();
+	}
+
+	@Override
+	public synchronized void startIdsAt(int firstFileId, int firstPageId) {
+		lastFileId = Math.max(lastFileId, firstFileId - 1);
+		lastPageId = Math.max(lastPageId, firstPageId - 1);
+	}
+
+	// Files written before term counts were logged are counted from their pages until they are saved again
+	@Override
+	protected synchronized Map<Integer, Map<String, Integer>> loadTermCounts() {
+		Map<Integer, Map<String, Integer>> loaded = new HashMap<>();
+		try {
+			for (int fileId : files.keySet()) {
+				Map<String, Integer> fileTermCounts = readTermCounts(fileId);
+				if (!fileTermCounts.isEmpty()) {
+					loaded.put(fileId, fileTermCounts);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.error(e.getMessage());
+			throw new UncheckedIOException(e);
+		}
+		return loaded;
+	}
+
+	// The logged term counts of a file, or counts from its pages when none were logged
+	private Map<String, Integer> readTermCounts(int fileId) throws IOException {
+		Location location = termCounts.get(fileId);
+		if (location != null) {
+			ByteBuffer record = read(location);
+			record.getInt();
+			return TFIDFCalculator.fromBytes(record);
+		}
+		Map<String, Integer> fileTermCounts = new LinkedHashMap<>();
+		for (int pageId : pageIdsOf(fileId)) {
+			addPageTermCounts(fileTermCounts, readPageContent(pages.get(pageId)), 1);
+		}
+		return fileTermCounts;
+	}
+
+	// Files without a logged signature, saved since they were signed or written before signatures
+	// were logged, are signed from their pages by the first lookup
+	@Override
+	protected synchronized Map<Integer, int[]> loadSignatures() {
+		Map<Integer, int[]> loaded = new HashMap<>();
+		try {
+			for (int fileId : files.keySet()) {
+				Location location = signatures.get(fileId);
+				ByteBuffer record = location == null ? null : read(location);
+				if (record != null && record.remaining() > 4) {
+					record.getInt();
+					byte[] bytes = new byte[record.remaining()];
+					record.get(bytes);
+					loaded.put(fileId, MinHash.fromBytes(bytes));
+				} else {
+					invalidateSignature(fileId);
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return loaded;
+	}
+
+	@Override
+	protected synchronized int[] storeSignature(int fileId) {
+		if (!files.containsKey(fileId)) {
+			return null;
+		}
+		try {
+			int[] signature = MinHash.signature(getFileContent(fileId));
+			if (signature != null) {
+				appendSignature(fileId, signature);
+				active.channel.force(false);
+			}
+			return signature;
+		} catch (IOException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	private String getFileContent(int fileId) throws IOException {
+		StringBuilder fileContent = new StringBuilder();
+		for (int pageId : pageIdsOf(fileId)) {
+			fileContent.append(readPageContent(pages.get(pageId)));
+		}
+		return fileContent.toString();
+	}
+
+	private Iterable<Integer> pageIdsOf(int fileId) {
+		TreeMap<Integer, Integer> pageIds = pageIdsByFile.get(fileId);
+		return pageIds == null ? new ArrayList<>() : pageIds.values();
+	}
+
+	private void recover() throws IOException {
+		List<Integer> ids = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				ids.add(Integer.parseInt(
+						name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+			}
+		}
+		ids.sort(null);
+
+		for (int id : ids) {
+			active = openSegment(id);
+			replay(active);
+		}
+		if (active == null) {
+			active = openSegment(1);
+		}
+
+		discardOrphans();
+		LOGGER.info("Opened log store " + directory + " with " + files.size() + " files in " + segments.size()
+				+ " segment(s)");
+	}
+
+	// Pages without a file record belong to an import that never finished
+	private void discardOrphans() {
+		Iterator<Map.Entry<Integer, PageEntry>> iterator = pages.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Integer, PageEntry> entry = iterator.next();
+			if (!files.containsKey(entry.getValue().fileId)) {
+				removePage(entry.getKey(), entry.getValue());
+				pageIdsByFile.remove(entry.getValue().fileId);
+				iterator.remove();
+			}
+		}
+		for (Map<Integer, Location> byFile : Arrays.asList(signatures, termCounts)) {
+			Iterator<Map.Entry<Integer, Location>> fileIterator = byFile.entrySet().iterator();
+			while (fileIterator.hasNext()) {
+				Map.Entry<Integer, Location> entry = fileIterator.next();
+				if (!files.containsKey(entry.getKey())) {
+					entry.getValue().markDead();
+					fileIterator.remove();
+				}
+			}
+		}
+	}
+
+	// Reads through the channel rather than a mapping, so a torn tail can be truncated before the
+	// segment is first mapped; Windows refuses to truncate a file with a live mapping
+	private void replay(Segment segment) throws IOException {
+		long offset = 0;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (offset + HEADER_SIZE <= segment.size) {
+			header.clear();
+			readFully(segment.channel, header, offset);
+			header.flip();
+			int payloadLength = header.getInt();
+			int checksum = header.getInt();
+			byte type = header.get();
+			long end = offset + HEADER_SIZE + payloadLength;
+			if (payloadLength < 0 || end > segment.size) {
+				break;
+			}
+
+			byte[] payload = new byte[payloadLength];
+			readFully(segment.channel, ByteBuffer.wrap(payload), offset + HEADER_SIZE);
+			CRC32 crc = new CRC32();
+			crc.update(type);
+			crc.update(payload, 0, payload.length);
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+
+			Location location = new Location(segment, offset, HEADER_SIZE + payloadLength);
+			ByteBuffer in = ByteBuffer.wrap(payload);
+			switch (type) {
+			case FILE_RECORD:
+				int fileId = in.getInt();
+				Documents metadata = new Documents(fileId, PageAnalyticsCodec.readString(in),
+						PageAnalyticsCodec.readString(in), PageAnalyticsCodec.readString(in),
+						PageAnalyticsCodec.readString(in), null);
+				applyFile(metadata, in.getDouble(), location);
+				break;
+			case PAGE_RECORD:
+				applyPage(in.getInt(), in.getInt(), in.getInt(), location);
+				break;
+			case TRANSLITERATION_RECORD:
+				replace(transliterations, in.getInt(), location);
+				break;
+			case ANALYTICS_RECORD:
+				replace(analytics, in.getInt(), location);
+				break;
+			case DELETE_RECORD:
+				applyDelete(in.getInt(), location);
+				break;
+			case PAGE_DELETE_RECORD:
+				applyPageDelete(in.getInt(), location);
+				break;
+			case SIGNATURE_RECORD:
+				replace(signatures, in.getInt(), location);
+				break;
+			case TERM_COUNTS_RECORD:
+				replace(termCounts, in.getInt(), location);
+				break;
+			default:
+				LOGGER.error("Unknown record type " + type + " in " + segment.path);
+			}
+			offset = end;
+		}
+
+		if (offset < segment.size) {
+			// Torn write at the tail of the log: drop it so new records start on a clean boundary
+			LOGGER.error("Truncating " + (segment.size - offset) + " damaged bytes from " + segment.path);
+			segment.channel.truncate(offset);
+			segment.size = offset;
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				throw new EOFException("Unexpected end of log segment");
+			}
+		}
+	}
+
+	private Segment openSegment(int id) throws IOException {
+		Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+		Segment segment = new Segment(id, path, FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE));
+		segments.put(id, segment);
+		return segment;
+	}
+
+	private static String timestamp() {
+		return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+	}
+
+	private static class Segment {
+		final int id;
+		final Path path;
+		final FileChannel channel;
+		long size;
+		long deadBytes;
+		private MappedByteBuffer mapped;
+
+		Segment(int id, Path path, FileChannel channel) throws IOException {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+			this.size = channel.size();
+		}
+
+		// The active segment grows after it is mapped, so remap when a read reaches past the mapping
+		MappedByteBuffer map(long end) throws IOException {
+			if (mapped == null || mapped.capacity() < end) {
+				mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			return mapped;
+		}
+
+		void unmap() {
+			mapped = null;
+		}
+
+		void close() {
+			unmap();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				LOGGER.error(e.getMessage());
+			}
+		}
+	}
+
+	private static class Location {
+		Segment segment;
+		long offset;
+		final int length;
+
+		Location(Segment segment, long offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		void markDead() {
+			segment.deadBytes += length;
+		}
+	}
+
+	private static class FileEntry {
+		Documents metadata;
+		double tfidfScore;
+		Location location;
+	}
+
+	private static class PageEntry {
+		final int fileId;
+		final int pageNumber;
+		final Location location;
+
+		PageEntry(int fileId, int pageNumber, Location location) {
+			this.fileId = fileId;
+			this.pageNumber = pageNumber;
+			this.location = location;
+		}
+	}
+
+	// Applies a page reflow to one file's pages; every change is a new record
+	private class FilePages implements PageReflow.Target<IOException> {
+		private final int fileId;
+		// Counts of the written pages minus those of the pages they replaced
+		private final Map<String, Integer> termCountsDelta = new HashMap<>();
+
+		FilePages(int fileId) {
+			this.fileId = fileId;
+		}
+
+		@Override
+		public void renumber(int afterPageNumber, int shift) throws IOException {
+			List<Integer> moved = new ArrayList<>(pageIdsByFile.get(fileId).tailMap(afterPageNumber, false).values());
+			for (int pageId : moved) {
+				PageEntry page = pages.get(pageId);
+				appendPage(pageId, fileId, page.pageNumber + shift, readPageContent(page));
+			}
+		}
+
+		@Override
+		public void deletePages(int firstPageNumber, int lastPageNumber) throws IOException {
+			List<Integer> deleted = new ArrayList<>(
+					pageIdsByFile.get(fileId).subMap(firstPageNumber, true, lastPageNumber, true).values());
+			for (int pageId : deleted) {
+				addPageTermCounts(termCountsDelta, readPageContent(pages.get(pageId)), -1);
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				new DataOutputStream(bytes).writeInt(pageId);
+				applyPageDelete(pageId, append(PAGE_DELETE_RECORD, bytes.toByteArray()));
+			}
+		}
+
+		@Override
+		public void updatePage(int pageNumber, String content) throws IOException {
+			int pageId = pageIdsByFile.get(fileId).get(pageNumber);
+			addPageTermCounts(termCountsDelta, readPageContent(pages.get(pageId)), -1);
+			addPageTermCounts(termCountsDelta, content, 1);
+			appendPage(pageId, fileId, pageNumber, content);
+			appendTransliteration(pageId, Transliteration.transliterate(content));
+			appendAnalytics(pageId, analyzeChunk(content, null));
+		}
+
+		@Override
+		public void insertPage(int pageNumber, String content) throws IOException {
+			int pageId = lastPageId + 1;
+			checkIdRange(fileId, pageId);
+			addPageTermCounts(termCountsDelta, content, 1);
+			appendPage(pageId, fileId, pageNumber, content);
+			appendTransliteration(pageId, Transliteration.transliterate(content));
+			appendAnalytics(pageId, analyzeChunk(content, null));
+		}
+	}
+}
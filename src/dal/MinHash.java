@@ -0,0 +1,86 @@
+package dal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+// MinHash signatures of a text's word shingles (runs of SHINGLE_WORDS preprocessed words).
+// The share of equal positions in two signatures estimates the Jaccard similarity of the
+// two shingle sets. The permutations come from a fixed seed, so stored signatures stay
+// comparable across runs.
+public class MinHash {
+	public static final int SIGNATURE_SIZE = 128;
+	public static final int SHINGLE_WORDS = 3;
+
+	private static final long[] MULTIPLIERS = new long[SIGNATURE_SIZE];
+	private static final long[] INCREMENTS = new long[SIGNATURE_SIZE];
+
+	static {
+		Random random = new Random(0x6d696e68L);
+		for (int i = 0; i < SIGNATURE_SIZE; i++) {
+			MULTIPLIERS[i] = random.nextLong() | 1;
+			INCREMENTS[i] = random.nextLong();
+		}
+	}
+
+	// Null when the text has no Arabic words to shingle
+	public static int[] signature(String content) {
+		String[] words = PreProcessText.preprocessText(content).trim().split("\\s+");
+		if (words.length == 0 || words[0].isEmpty()) {
+			return null;
+		}
+
+		int[] signature = new int[SIGNATURE_SIZE];
+		Arrays.fill(signature, Integer.MAX_VALUE);
+		int shingles = Math.max(1, words.length - SHINGLE_WORDS + 1);
+		for (int start = 0; start < shingles; start++) {
+			long shingle = 0;
+			for (int i = start; i < Math.min(words.length, start + SHINGLE_WORDS); i++) {
+				shingle = shingle * 0x100000001b3L + words[i].hashCode();
+			}
+			shingle = mix(shingle);
+			for (int i = 0; i < SIGNATURE_SIZE; i++) {
+				// Upper 31 bits of a random affine map of the shingle hash
+				int value = (int) ((MULTIPLIERS[i] * shingle + INCREMENTS[i]) >>> 33);
+				if (value < signature[i]) {
+					signature[i] = value;
+				}
+			}
+		}
+		return signature;
+	}
+
+	public static double similarity(int[] first, int[] second) {
+		if (first == null || second == null || first.length != second.length) {
+			return 0;
+		}
+		int equal = 0;
+		for (int i = 0; i < first.length; i++) {
+			if (first[i] == second[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / first.length;
+	}
+
+	public static byte[] toBytes(int[] signature) {
+		ByteBuffer bytes = ByteBuffer.allocate(signature.length * 4);
+		bytes.asIntBuffer().put(signature);
+		return bytes.array();
+	}
+
+	public static int[] fromBytes(byte[] bytes) {
+		int[] signature = new int[bytes.length / 4];
+		ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+		return signature;
+	}
+
+	private static long mix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+}
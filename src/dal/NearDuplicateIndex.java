@@ -0,0 +1,101 @@
+package dal;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// LSH index over MinHash signatures. Each signature is cut into BANDS bands of ROWS values;
+// files sharing any whole band are candidates, and only candidates are compared in full.
+// Files at similarity s become candidates with probability 1 - (1 - s^ROWS)^BANDS: about
+// 0.95 at s = 0.8, above 0.999 from s = 0.9 and about 0.001 at s = 0.3.
+public class NearDuplicateIndex {
+	public static final int BANDS = 16;
+	public static final int ROWS = MinHash.SIGNATURE_SIZE / BANDS;
+
+	private final Map<Integer, int[]> signatures = new HashMap<>();
+	private final List<Map<Long, List<Integer>>> buckets = new ArrayList<>();
+
+	public NearDuplicateIndex() {
+		for (int band = 0; band < BANDS; band++) {
+			buckets.add(new HashMap<>());
+		}
+	}
+
+	public synchronized void add(int fileId, int[] signature) {
+		if (signature == null || signature.length != MinHash.SIGNATURE_SIZE) {
+			return;
+		}
+		remove(fileId);
+		signatures.put(fileId, signature);
+		for (int band = 0; band < BANDS; band++) {
+			buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>()).add(fileId);
+		}
+	}
+
+	public synchronized void remove(int fileId) {
+		int[] signature = signatures.remove(fileId);
+		if (signature == null) {
+			return;
+		}
+		for (int band = 0; band < BANDS; band++) {
+			long key = bandKey(signature, band);
+			List<Integer> bucket = buckets.get(band).get(key);
+			bucket.remove(Integer.valueOf(fileId));
+			if (bucket.isEmpty()) {
+				buckets.get(band).remove(key);
+			}
+		}
+	}
+
+	public synchronized int[] getSignature(int fileId) {
+		return signatures.get(fileId);
+	}
+
+	public synchronized int size() {
+		return signatures.size();
+	}
+
+	// Files whose estimated similarity is at least minSimilarity, most similar first
+	public synchronized Map<Integer, Double> findSimilar(int[] signature, double minSimilarity, int excludedFileId) {
+		Map<Integer, Double> similar = new LinkedHashMap<>();
+		if (signature == null || signature.length != MinHash.SIGNATURE_SIZE) {
+			return similar;
+		}
+
+		Set<Integer> candidates = new HashSet<>();
+		for (int band = 0; band < BANDS; band++) {
+			List<Integer> bucket = buckets.get(band).get(bandKey(signature, band));
+			if (bucket != null) {
+				candidates.addAll(bucket);
+			}
+		}
+		candidates.remove(excludedFileId);
+
+		List<Map.Entry<Integer, Double>> matches = new ArrayList<>();
+		for (int candidate : candidates) {
+			double similarity = MinHash.similarity(signature, signatures.get(candidate));
+			if (similarity >= minSimilarity) {
+				matches.add(new AbstractMap.SimpleEntry<>(candidate, similarity));
+			}
+		}
+		matches.sort((a, b) -> a.getValue().equals(b.getValue()) ? Integer.compare(a.getKey(), b.getKey())
+				: Double.compare(b.getValue(), a.getValue()));
+		for (Map.Entry<Integer, Double> match : matches) {
+			similar.put(match.getKey(), match.getValue());
+		}
+		return similar;
+	}
+
+	private static long bandKey(int[] signature, int band) {
+		long key = band;
+		for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+			key = key * 0x9E3779B97F4A7C15L + signature[row];
+		}
+		return key;
+	}
+}
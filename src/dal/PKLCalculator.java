@@ -1,32 +1,24 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class PKLCalculator {
-    private String document;
-    private Map<String, Integer> wordFreq;
+    private TokenizedText text;
     private int totalWords;
 
     public PKLCalculator(String document) {
-        this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordFrequencies();
+        this(TokenizedText.of(document));
     }
 
-    private void computeWordFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
-
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
+    public PKLCalculator(TokenizedText text) {
+        this.text = text;
+        this.totalWords = text.words().length;
     }
 
     private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
+        int id = text.idOf(word);
+        return id < 0 ? 0 : (double) text.count(id) / totalWords;
     }
 
     public double calculatePKL(String v, String ul, String ur) {
@@ -43,7 +35,7 @@ public class PKLCalculator {
 
     public Map<String, Double> calculatePKLForAllWords() {
         Map<String, Double> pklScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
+        String[] words = text.words();
 
         for (int i = 1; i < words.length - 1; i++) {
             String ul = words[i - 1];
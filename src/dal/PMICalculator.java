@@ -1,69 +1,67 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+// Bigrams are counted by the vocabulary ids of their words; the "word1 word2" keys are only
+// built for the scores returned, once per distinct bigram
 public class PMICalculator {
-    private String document;
-    private Map<String, Integer> wordFreq;
-    private Map<String, Integer> bigramFreq;
+    private static final double LOG_2 = Math.log(2);
+
+    private TokenizedText text;
+    private BigramCounts bigramFreq;
     private int totalWords;
 
     public PMICalculator(String document) {
-        this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.bigramFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordAndBigramFrequencies();
+        this(TokenizedText.of(document));
     }
 
-    private void computeWordAndBigramFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
+    public PMICalculator(TokenizedText text) {
+        this.text = text;
+        this.totalWords = 0;
+        computeBigramFrequencies();
+    }
 
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
+    // Word frequencies come with the tokenized text
+    private void computeBigramFrequencies() {
+        int[] wordIds = text.wordIds();
+        totalWords = wordIds.length;
+        bigramFreq = new BigramCounts(Math.min(totalWords, text.vocabularySize() * 4));
 
-        for (int i = 0; i < words.length - 1; i++) {
-            String bigram = words[i] + " " + words[i + 1];
-            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
+        for (int i = 0; i < wordIds.length - 1; i++) {
+            bigramFreq.add(wordIds[i], wordIds[i + 1]);
         }
     }
 
-    private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
-    }
-
-    private double calculateBigramProbability(String word1, String word2) {
-        String bigram = word1 + " " + word2;
-        return (double) bigramFreq.getOrDefault(bigram, 0) / totalWords;
+    public double calculatePMI(String word1, String word2) {
+        int id1 = text.idOf(word1);
+        int id2 = text.idOf(word2);
+        if (id1 < 0 || id2 < 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return calculatePMI(id1, id2, bigramFreq.get(id1, id2));
     }
 
-    public double calculatePMI(String word1, String word2) {
-        double probWord1 = calculateWordProbability(word1);
-        double probWord2 = calculateWordProbability(word2);
-        double probBigram = calculateBigramProbability(word1, word2);
+    private double calculatePMI(int id1, int id2, int bigramCount) {
+        double probWord1 = (double) text.count(id1) / totalWords;
+        double probWord2 = (double) text.count(id2) / totalWords;
+        double probBigram = (double) bigramCount / totalWords;
 
         if (probWord1 == 0 || probWord2 == 0 || probBigram == 0) {
             return Double.NEGATIVE_INFINITY;
         }
 
-        return Math.log(probBigram / (probWord1 * probWord2)) / Math.log(2);
+        return Math.log(probBigram / (probWord1 * probWord2)) / LOG_2;
     }
 
+    // Bigrams in order of first occurrence
     public Map<String, Double> calculatePMIForAllBigrams() {
-        Map<String, Double> pmiScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
-
-        for (int i = 0; i < words.length - 1; i++) {
-            String word1 = words[i];
-            String word2 = words[i + 1];
-            String bigram = word1 + " " + word2;
+        Map<String, Double> pmiScores = new LinkedHashMap<>(bigramFreq.size() * 4 / 3 + 1);
 
-            double pmiScore = calculatePMI(word1, word2);
-            pmiScores.put(bigram, pmiScore);
+        for (int i = 0; i < bigramFreq.size(); i++) {
+            int id1 = bigramFreq.first(i);
+            int id2 = bigramFreq.second(i);
+            pmiScores.put(text.word(id1) + " " + text.word(id2), calculatePMI(id1, id2, bigramFreq.countAt(i)));
         }
 
         return pmiScores;
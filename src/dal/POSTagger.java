@@ -1,6 +1,7 @@
 package dal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,19 +15,25 @@ import pl.EditorPO;
 
 public class POSTagger {
     public static Map<String, List<String>> extractPOS(String text) {
+        return extractPOS(TokenizedText.of(text));
+    }
+
+    public static Map<String, List<String>> extractPOS(TokenizedText text) {
     	final Logger logger = LogManager.getLogger(EditorPO.class);
 
         Map<String, List<String>> wordPosMap = new HashMap<>();
 
-        String[] words = text.split("\\s+");
+        String[] words = text.tokens();
 
         try {
             AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
 
             if (analyzer != null) {
-                for (String word : words) {
+                // One analyzer call per normalized word; every spelling of it shares the tags
+                List<List<String>> tagsById = new ArrayList<>();
+                for (int id = 0; id < text.vocabularySize(); id++) {
                     List<String> posTags = new ArrayList<>();
-                    List<Result> results = analyzer.processToken(word).getAllResults();
+                    List<Result> results = analyzer.processToken(text.word(id)).getAllResults();
 
                     if (results != null && !results.isEmpty()) {
                         String[] splitWords = results.get(0).getPartOfSpeech().split("\\|");
@@ -38,7 +45,11 @@ public class POSTagger {
                         posTags.add("None"); 
                     }
 
-                    wordPosMap.put(word, posTags);
+                    tagsById.add(posTags);
+                }
+                for (int token = 0; token < words.length; token++) {
+                    int id = text.id(token);
+                    wordPosMap.putIfAbsent(words[token], id < 0 ? Collections.singletonList("None") : tagsById.get(id));
                 }
             } else {
                 System.err.println("Failed to initialize AlKhalil2Analyzer.");
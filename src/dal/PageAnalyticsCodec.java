@@ -0,0 +1,126 @@
+package dal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dto.PageAnalytics;
+
+// Compact binary form of PageAnalytics. The first byte is the format version so
+// stored blobs stay readable when the layout changes.
+public class PageAnalyticsCodec {
+	public static final byte VERSION = 1;
+
+	public static byte[] encode(PageAnalytics analytics) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(VERSION);
+
+		Map<String, List<String>> posTags = nullSafe(analytics.getPosTags());
+		out.writeInt(posTags.size());
+		for (Map.Entry<String, List<String>> entry : posTags.entrySet()) {
+			writeString(out, entry.getKey());
+			out.writeInt(entry.getValue().size());
+			for (String tag : entry.getValue()) {
+				writeString(out, tag);
+			}
+		}
+		writeStringMap(out, analytics.getLemmas());
+		writeStringMap(out, analytics.getRoots());
+		writeStringMap(out, analytics.getStems());
+		writeStringMap(out, analytics.getSegments());
+		writeScoreMap(out, analytics.getPklScores());
+		writeScoreMap(out, analytics.getPmiScores());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	public static PageAnalytics decode(byte[] blob) throws IOException {
+		return decode(ByteBuffer.wrap(blob));
+	}
+
+	// Reads from the buffer's current position, so memory-mapped records can be decoded without copying
+	public static PageAnalytics decode(ByteBuffer in) throws IOException {
+		byte version = in.get();
+		if (version != VERSION) {
+			throw new IOException("Unsupported page analytics format version " + version);
+		}
+
+		int posCount = in.getInt();
+		Map<String, List<String>> posTags = new HashMap<>();
+		for (int i = 0; i < posCount; i++) {
+			String word = readString(in);
+			int tagCount = in.getInt();
+			List<String> tags = new ArrayList<>(tagCount);
+			for (int j = 0; j < tagCount; j++) {
+				tags.add(readString(in));
+			}
+			posTags.put(word, tags);
+		}
+		Map<String, String> lemmas = readStringMap(in);
+		Map<String, String> roots = readStringMap(in);
+		Map<String, String> stems = readStringMap(in);
+		Map<String, String> segments = readStringMap(in);
+		Map<String, Double> pklScores = readScoreMap(in);
+		Map<String, Double> pmiScores = readScoreMap(in);
+		return new PageAnalytics(posTags, lemmas, roots, stems, segments, pklScores, pmiScores);
+	}
+
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+		map = nullSafe(map);
+		out.writeInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+	}
+
+	private static void writeScoreMap(DataOutputStream out, Map<String, Double> map) throws IOException {
+		map = nullSafe(map);
+		out.writeInt(map.size());
+		for (Map.Entry<String, Double> entry : map.entrySet()) {
+			writeString(out, entry.getKey());
+			out.writeDouble(entry.getValue());
+		}
+	}
+
+	private static Map<String, String> readStringMap(ByteBuffer in) {
+		int count = in.getInt();
+		Map<String, String> map = new HashMap<>();
+		for (int i = 0; i < count; i++) {
+			map.put(readString(in), readString(in));
+		}
+		return map;
+	}
+
+	private static Map<String, Double> readScoreMap(ByteBuffer in) {
+		int count = in.getInt();
+		Map<String, Double> map = new HashMap<>();
+		for (int i = 0; i < count; i++) {
+			map.put(readString(in), in.getDouble());
+		}
+		return map;
+	}
+
+	private static <K, V> Map<K, V> nullSafe(Map<K, V> map) {
+		return map == null ? new HashMap<>() : map;
+	}
+}
@@ -0,0 +1,20 @@
+package dal;
+
+import dto.PageAnalytics;
+
+public class PageAnalyzer {
+
+	// Runs every per-page analysis that is persisted alongside a page
+	public static PageAnalytics analyze(String pageContent) {
+		return analyze(TokenizedText.of(pageContent));
+	}
+
+	// The page is tokenized once and every analysis reads the same tokens
+	public static PageAnalytics analyze(TokenizedText page) {
+		return new PageAnalytics(POSTagger.extractPOS(page), Lemmatization.lemmatizeWords(page),
+				RootExtraction.extractRoots(page), Stemmation.stemWords(page),
+				WordSegmentation.extractSegments(page),
+				new PKLCalculator(page).calculatePKLForAllWords(),
+				new PMICalculator(page).calculatePMIForAllBigrams());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import dto.Pages;
+
+// Plans how a saved page is redistributed so pages stay within the configured size. An
+// overflowing page is split and the extra pages are inserted after it; an underfull page is
+// merged with its next (or, for the last page, previous) neighbour and the result split
+// again. Every other page keeps its content and is only renumbered, so a save reanalyzes at
+// most the pages listed here.
+public class PageReflow {
+
+	public interface PageReader<E extends Exception> {
+		String read(int pageNumber) throws E;
+	}
+
+	// Storage operations a backend provides; apply() calls them in a safe order
+	public interface Target<E extends Exception> {
+		// Adds shift to the number of every page after afterPageNumber
+		void renumber(int afterPageNumber, int shift) throws E;
+
+		void deletePages(int firstPageNumber, int lastPageNumber) throws E;
+
+		void updatePage(int pageNumber, String content) throws E;
+
+		void insertPage(int pageNumber, String content) throws E;
+	}
+
+	private final int firstPageNumber;
+	private final int replacedPages;
+	private final List<String> contents;
+	// Content of the replaced pages before the save; null for the saved page itself
+	private final List<String> previousContents;
+
+	private PageReflow(int firstPageNumber, List<String> previousContents, List<String> contents) {
+		this.firstPageNumber = firstPageNumber;
+		this.replacedPages = previousContents.size();
+		this.previousContents = previousContents;
+		this.contents = contents;
+	}
+
+	public static <E extends Exception> PageReflow plan(int pageNumber, String content, int pageCount,
+			PageReader<E> reader) throws E {
+		if (!EditorConfig.getBoolean("pagination.reflow", true)) {
+			return keep(pageNumber, content);
+		}
+
+		List<String> split = balanceTail(contentsOf(PaginationDAO.paginate(content)));
+		if (split.size() > 1) {
+			return new PageReflow(pageNumber, Collections.singletonList(null), split);
+		}
+
+		if (pageCount > 1 && PaginationDAO.isUnderfull(content)) {
+			List<String> previous = new ArrayList<>();
+			String merged;
+			int first;
+			if (pageNumber < pageCount) {
+				String next = reader.read(pageNumber + 1);
+				previous.add(null);
+				previous.add(next);
+				merged = content + next;
+				first = pageNumber;
+			} else {
+				String before = reader.read(pageNumber - 1);
+				previous.add(before);
+				previous.add(null);
+				merged = before + content;
+				first = pageNumber - 1;
+			}
+			return new PageReflow(first, previous, balanceTail(contentsOf(PaginationDAO.paginate(merged))));
+		}
+		return keep(pageNumber, content);
+	}
+
+	// Only replaces the saved page, whatever its size
+	public static PageReflow keep(int pageNumber, String content) {
+		return new PageReflow(pageNumber, Collections.singletonList(null), Collections.singletonList(content));
+	}
+
+	public <E extends Exception> void apply(Target<E> target) throws E {
+		int shift = getShift();
+		int lastReplaced = firstPageNumber + replacedPages - 1;
+		if (shift < 0) {
+			target.deletePages(lastReplaced + shift + 1, lastReplaced);
+			target.renumber(lastReplaced, shift);
+		} else if (shift > 0) {
+			target.renumber(lastReplaced, shift);
+		}
+
+		for (int i = 0; i < contents.size(); i++) {
+			if (i >= replacedPages) {
+				target.insertPage(firstPageNumber + i, contents.get(i));
+			} else if (!contents.get(i).equals(previousContents.get(i))) {
+				target.updatePage(firstPageNumber + i, contents.get(i));
+			}
+		}
+	}
+
+	public int getFirstPageNumber() {
+		return firstPageNumber;
+	}
+
+	public int getReplacedPages() {
+		return replacedPages;
+	}
+
+	public List<String> getContents() {
+		return contents;
+	}
+
+	// Change in the file's page count
+	public int getShift() {
+		return contents.size() - replacedPages;
+	}
+
+	// An underfull last page is evened out with the one before it instead of left behind
+	private static List<String> balanceTail(List<String> contents) {
+		int count = contents.size();
+		if (count < 2 || !PaginationDAO.isUnderfull(contents.get(count - 1))) {
+			return contents;
+		}
+		List<String> balanced = new ArrayList<>(contents.subList(0, count - 2));
+		balanced.addAll(contentsOf(PaginationDAO.paginateEvenly(contents.get(count - 2) + contents.get(count - 1), 2)));
+		return balanced;
+	}
+
+	private static List<String> contentsOf(List<Pages> pages) {
+		List<String> contents = new ArrayList<>(pages.size());
+		for (Pages page : pages) {
+			contents.add(page.getPageContent());
+		}
+		return contents;
+	}
+}
@@ -2,31 +2,202 @@ package dal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import dto.Pages;
 
+// Splits file content into pages in one pass. Each page is a single substring of the
+// content; pages never end inside a word unless the word is longer than half a page.
 public class PaginationDAO {
 
-	
-	static List<Pages> paginate(String fileContent){
-		int pageSize = 100;
-		int pageNumber = 1;
-		String pageContent = "";
+	public enum Unit {
+		CHARS, WORDS
+	}
+
+	public enum Boundary {
+		NONE, WORD, SENTENCE, CONTENT
+	}
+
+	// pagination.unit and pagination.boundary, read once; unknown values fall back to chars and word
+	private static final Unit UNIT = EditorConfig.getEnum("pagination.unit", Unit.CHARS);
+	private static final Boundary BOUNDARY = EditorConfig.getEnum("pagination.boundary", Boundary.WORD);
+
+	// Gear hash table for content-defined boundaries; fixed so boundaries are stable across runs
+	private static final long[] GEAR = new long[256];
+
+	static {
+		Random random = new Random(0x67656172L);
+		for (int i = 0; i < GEAR.length; i++) {
+			GEAR[i] = random.nextLong();
+		}
+	}
+
+	// pagination.size counts characters or words (pagination.unit); pagination.boundary
+	// decides where a character page may end
+	static List<Pages> paginate(String fileContent) {
+		return paginate(fileContent, pageSize(), UNIT, BOUNDARY);
+	}
+
+	// Below half the page size; such a page is merged with a neighbour when it is saved
+	static boolean isUnderfull(String content) {
+		int size = UNIT == Unit.WORDS ? countWords(content) : content.length();
+		return size < pageSize() / 2;
+	}
+
+	// Splits content into the given number of pages of about equal size
+	static List<Pages> paginateEvenly(String content, int pageCount) {
+		int size = UNIT == Unit.WORDS ? countWords(content) : content.length();
+		return paginate(content, Math.max(1, (size + pageCount - 1) / pageCount), UNIT, BOUNDARY);
+	}
+
+	private static int pageSize() {
+		return EditorConfig.getInt("pagination.size", 100);
+	}
+
+	private static int countWords(String text) {
+		int words = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+				words++;
+			}
+		}
+		return words;
+	}
+
+	public static List<Pages> paginate(String fileContent, int pageSize, Unit unit, Boundary boundary) {
 		List<Pages> pages = new ArrayList<Pages>();
-		if(fileContent==null || fileContent.isEmpty())
-		{
-			pages.add(new Pages(0, 0, pageNumber, pageContent.toString()));
+		if (fileContent == null || fileContent.isEmpty()) {
+			pages.add(new Pages(0, 0, 1, ""));
 			return pages;
 		}
-		for(int i = 0; i < fileContent.length(); i++)
-		{
-			pageContent += fileContent.charAt(i);
-			if (pageContent.length() == pageSize || i == fileContent.length() - 1){
-				pages.add(new Pages(0, 0, pageNumber, pageContent));
-				pageNumber++;
-				pageContent = "";
-			}
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+		}
+
+		int length = fileContent.length();
+		int start = 0;
+		int pageNumber = 1;
+		while (start < length) {
+			int end = unit == Unit.WORDS ? wordPageEnd(fileContent, start, pageSize, boundary)
+					: charPageEnd(fileContent, start, pageSize, boundary);
+			pages.add(new Pages(0, 0, pageNumber++, fileContent.substring(start, end)));
+			start = end;
 		}
 		return pages;
-	} 
+	}
+
+	private static int charPageEnd(String text, int start, int pageSize, Boundary boundary) {
+		int limit = start + pageSize;
+		if (limit >= text.length()) {
+			return text.length();
+		}
+		// Do not shrink a page below half its size to reach a boundary
+		int earliest = start + Math.max(1, pageSize / 2);
+		if (boundary == Boundary.CONTENT) {
+			return contentPageEnd(text, start, earliest, pageSize);
+		}
+		if (boundary == Boundary.SENTENCE) {
+			int end = lastSentenceEnd(text, earliest, limit);
+			if (end > 0) {
+				return end;
+			}
+		}
+		if (boundary != Boundary.NONE) {
+			for (int end = limit; end >= earliest; end--) {
+				if (Character.isWhitespace(text.charAt(end - 1)) && !Character.isWhitespace(text.charAt(end))) {
+					return end;
+				}
+			}
+		}
+		return safeCut(text, start, limit);
+	}
+
+	// Content-defined boundary: the first word start after a position, at least half a page in,
+	// where a gear hash of the previous 64 characters falls below a threshold. The threshold
+	// makes pages average about pageSize characters; pages are capped at twice that. Because
+	// the hash depends only on nearby text, a passage repeated in several files is cut at the
+	// same places in each, whatever precedes it.
+	private static int contentPageEnd(String text, int start, int earliest, int pageSize) {
+		int length = text.length();
+		int latest = start + pageSize * 2;
+		long threshold = (1L << 33) / pageSize;
+		long hash = 0;
+		boolean found = false;
+		for (int i = Math.max(0, earliest - 64); i < Math.min(length, latest); i++) {
+			char c = text.charAt(i);
+			hash = (hash << 1) + GEAR[(c ^ (c >>> 8)) & 0xFF];
+			if (i + 1 < earliest) {
+				continue;
+			}
+			if (!found && (hash >>> 32) < threshold) {
+				found = true;
+			}
+			if (found && i + 1 < length && Character.isWhitespace(c) && !Character.isWhitespace(text.charAt(i + 1))) {
+				return i + 1;
+			}
+		}
+		if (latest >= length) {
+			return length;
+		}
+		return charPageEnd(text, start, pageSize * 2, Boundary.WORD);
+	}
+
+	// Ends the page just before the first character of word pageSize + 1
+	private static int wordPageEnd(String text, int start, int pageSize, Boundary boundary) {
+		int length = text.length();
+		int words = 0;
+		int[] wordStarts = boundary == Boundary.SENTENCE ? new int[pageSize] : null;
+		for (int i = start; i < length; i++) {
+			if (!Character.isWhitespace(text.charAt(i)) && (i == start || Character.isWhitespace(text.charAt(i - 1)))) {
+				if (words == pageSize) {
+					if (wordStarts != null) {
+						int end = lastSentenceEnd(text, wordStarts[pageSize / 2], i);
+						if (end > 0) {
+							return end;
+						}
+					}
+					return i;
+				}
+				if (wordStarts != null) {
+					wordStarts[words] = i;
+				}
+				words++;
+			}
+		}
+		return length;
+	}
+
+	// Latest position in [earliest, limit] that follows whitespace after a sentence end or a line break
+	private static int lastSentenceEnd(String text, int earliest, int limit) {
+		for (int end = limit; end >= earliest && end > 1; end--) {
+			if (!Character.isWhitespace(text.charAt(end - 1)) || Character.isWhitespace(text.charAt(end))) {
+				continue;
+			}
+			int last = end - 1;
+			while (last > 0 && Character.isWhitespace(text.charAt(last))) {
+				if (text.charAt(last) == '\n') {
+					return end;
+				}
+				last--;
+			}
+			if (isSentenceTerminator(text.charAt(last))) {
+				return end;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isSentenceTerminator(char c) {
+		return c == '.' || c == '!' || c == '?' || c == '؟' || c == '۔' || c == '…' || c == '؛';
+	}
+
+	// A hard cut still keeps surrogate pairs and base letters with their diacritics together
+	private static int safeCut(String text, int start, int end) {
+		int cut = end;
+		while (cut > start + 1 && (Character.isLowSurrogate(text.charAt(cut))
+				|| Character.getType(text.charAt(cut)) == Character.NON_SPACING_MARK)) {
+			cut--;
+		}
+		return cut;
+	}
 }
@@ -22,9 +22,10 @@ public class PreProcessText {
 		return text.replaceAll("[^\\p{IsArabic}\\s]", "");
 	}
 
+	// One table-driven pass; equivalent to removeHarakat, removeNonArabicCharacters and toLowerCase
+	// (what survives is Arabic script and whitespace, which has no case). With text.normalization =
+	// orthographic, spelling variants are folded as well (see TextNormalizer.Profile)
 	public static String preprocessText(String text) {
-		text = removeHarakat(text);
-		text = removeNonArabicCharacters(text);
-		return text.toLowerCase();
+		return TextNormalizer.normalize(text);
 	}
 }
@@ -0,0 +1,154 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.QueryStatistics;
+import pl.EditorPO;
+
+public class QueryMetrics {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int SAMPLE_SIZE = 1024;
+	private static final int MAX_CACHED_TEMPLATES = 10000;
+	private static QueryMetrics INSTANCE;
+
+	private final ConcurrentHashMap<String, TemplateMetrics> templates = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, String> templateCache = new ConcurrentHashMap<>();
+	private ScheduledExecutorService scheduler;
+
+	public static synchronized QueryMetrics getInstance() {
+		if (INSTANCE == null) {
+			INSTANCE = new QueryMetrics();
+		}
+		return INSTANCE;
+	}
+
+	// batchSize is -1 for statements that were not executed through executeBatch
+	public void record(String sql, long elapsedNanos, long rowsAffected, int batchSize) {
+		String template = templateOf(sql);
+		templates.computeIfAbsent(template, key -> new TemplateMetrics()).record(elapsedNanos, rowsAffected, batchSize);
+	}
+
+	public List<QueryStatistics> getStatistics() {
+		List<QueryStatistics> statistics = new ArrayList<>();
+		for (Map.Entry<String, TemplateMetrics> entry : templates.entrySet()) {
+			statistics.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		statistics.sort(Comparator.comparingLong(QueryStatistics::getTotalNanos).reversed());
+		return statistics;
+	}
+
+	public QueryStatistics getStatistics(String sql) {
+		String template = templateOf(sql);
+		TemplateMetrics metrics = templates.get(template);
+		return metrics == null ? null : metrics.snapshot(template);
+	}
+
+	public void reset() {
+		templates.clear();
+	}
+
+	public void logSummary() {
+		List<QueryStatistics> statistics = getStatistics();
+		if (statistics.isEmpty()) {
+			return;
+		}
+		LOGGER.info("SQL summary (" + statistics.size() + " statements, ordered by total time):");
+		for (QueryStatistics stat : statistics) {
+			LOGGER.info("  " + stat);
+		}
+	}
+
+	public synchronized void startPeriodicSummary(long intervalSeconds) {
+		if (scheduler != null || intervalSeconds <= 0) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "sql-metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::logSummary, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	public synchronized void stopPeriodicSummary() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	private String templateOf(String sql) {
+		if (sql == null) {
+			return normalize(null);
+		}
+		String template = templateCache.get(sql);
+		if (template == null) {
+			if (templateCache.size() > MAX_CACHED_TEMPLATES) {
+				templateCache.clear();
+			}
+			template = normalize(sql);
+			templateCache.put(sql, template);
+		}
+		return template;
+	}
+
+	// Collapses literals and whitespace so statements built by concatenation share one template
+	static String normalize(String sql) {
+		if (sql == null) {
+			return "<unknown>";
+		}
+		return sql.replaceAll("'(?:[^']|'')*'", "?").replaceAll("\\b\\d+(\\.\\d+)?\\b", "?").replaceAll("\\s+", " ")
+				.trim();
+	}
+
+	private static class TemplateMetrics {
+		private final long[] samples = new long[SAMPLE_SIZE];
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+		private long rowsAffected;
+		private long batchCount;
+		private long batchedStatements;
+
+		synchronized void record(long elapsedNanos, long rows, int batchSize) {
+			samples[(int) (count % SAMPLE_SIZE)] = elapsedNanos;
+			count++;
+			totalNanos += elapsedNanos;
+			maxNanos = Math.max(maxNanos, elapsedNanos);
+			if (rows > 0) {
+				rowsAffected += rows;
+			}
+			if (batchSize >= 0) {
+				batchCount++;
+				batchedStatements += batchSize;
+			}
+		}
+
+		synchronized QueryStatistics snapshot(String template) {
+			int size = (int) Math.min(count, SAMPLE_SIZE);
+			long[] sorted = Arrays.copyOf(samples, size);
+			Arrays.sort(sorted);
+			return new QueryStatistics(template, count, totalNanos, percentile(sorted, 0.50), percentile(sorted, 0.95),
+					percentile(sorted, 0.99), maxNanos, rowsAffected, batchCount, batchedStatements);
+		}
+
+		private static long percentile(long[] sorted, double fraction) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(fraction * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+		}
+	}
+}
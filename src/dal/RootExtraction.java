@@ -13,23 +13,27 @@ public class RootExtraction {
 
 
     public static Map<String, String> extractRoots(String text) {
+        return extractRoots(TokenizedText.of(text));
+    }
+
+    public static Map<String, String> extractRoots(TokenizedText text) {
     	final Logger logger = LogManager.getLogger(EditorPO.class);
         Map<String, String> wordRootMap = new HashMap<>();
 
-        String[] words = text.split("\\s+");
+        String[] words = text.tokens();
 
         try {
             AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
 
             if (analyzer != null) {
-                for (String word : words) {
-                    String root = analyzer.processToken(word).getAllRootString(); // Get the root
-
-                    if (root != null && !root.isEmpty()) {
-                        wordRootMap.put(word, PreProcessText.preprocessText(root)); // Add word-root pair
-                    } else {
-                        wordRootMap.put(word, "Not found"); // Add "Not found" if no root is found
-                    }
+                String[] rootById = new String[text.vocabularySize()];
+                for (int id = 0; id < rootById.length; id++) {
+                    String root = analyzer.processToken(text.word(id)).getAllRootString();
+                    rootById[id] = root != null && !root.isEmpty() ? PreProcessText.preprocessText(root) : "Not found";
+                }
+                for (int token = 0; token < words.length; token++) {
+                    int id = text.id(token);
+                    wordRootMap.putIfAbsent(words[token], id < 0 ? "Not found" : rootById[id]);
                 }
             } else {
                 System.err.println("Failed to initialize AlKhalil2Analyzer.");
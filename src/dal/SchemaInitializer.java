@@ -0,0 +1,44 @@
+package dal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class SchemaInitializer {
+
+	// Runs a classpath SQL script statement by statement. Scripts are written to be
+	// idempotent (IF NOT EXISTS) so they can be applied on every start.
+	public static void runScript(Connection conn, String resource) throws IOException, SQLException {
+		InputStream input = SchemaInitializer.class.getResourceAsStream(resource);
+		if (input == null) {
+			throw new IOException("Schema script not found on classpath: " + resource);
+		}
+
+		StringBuilder script = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().startsWith("--")) {
+					script.append(line).append("\n");
+				}
+			}
+		}
+
+		boolean autoCommit = conn.getAutoCommit();
+		try (Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(true);
+			for (String sql : script.toString().split(";")) {
+				if (!sql.trim().isEmpty()) {
+					stmt.execute(sql.trim());
+				}
+			}
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package dal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Range routing: shard i owns file ids [i * rangeSize + 1, (i + 1) * rangeSize] and page ids
+// [i * pageRangeSize + 1, (i + 1) * pageRangeSize]. Ids come from each shard's own
+// AUTO_INCREMENT, started at the beginning of its ranges, so an existing single database
+// keeps its ids as shard 0 and shards can be appended later. A shard refuses writes that
+// would need ids past the end of its ranges.
+public class ShardRouter {
+	private final int shardCount;
+	private final int rangeSize;
+	private final int pageRangeSize;
+	private final AtomicInteger nextShard = new AtomicInteger();
+
+	public ShardRouter(int shardCount, int rangeSize) {
+		this(shardCount, rangeSize, rangeSize);
+	}
+
+	public ShardRouter(int shardCount, int rangeSize, int pageRangeSize) {
+		if (shardCount < 1 || rangeSize < 1 || pageRangeSize < 1 || (long) shardCount * rangeSize > Integer.MAX_VALUE
+				|| (long) shardCount * pageRangeSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid shard topology: " + shardCount + " shards of " + rangeSize
+					+ " file ids and " + pageRangeSize + " page ids");
+		}
+		this.shardCount = shardCount;
+		this.rangeSize = rangeSize;
+		this.pageRangeSize = pageRangeSize;
+	}
+
+	public int getShardCount() {
+		return shardCount;
+	}
+
+	public int firstIdOf(int shard) {
+		return shard * rangeSize + 1;
+	}
+
+	public int lastIdOf(int shard) {
+		return (shard + 1) * rangeSize;
+	}
+
+	public int firstPageIdOf(int shard) {
+		return shard * pageRangeSize + 1;
+	}
+
+	public int lastPageIdOf(int shard) {
+		return (shard + 1) * pageRangeSize;
+	}
+
+	// Shard owning a file id
+	public int shardOf(int id) {
+		return shardOf(id, rangeSize);
+	}
+
+	public int shardOfPage(int pageId) {
+		return shardOf(pageId, pageRangeSize);
+	}
+
+	// New files are spread round-robin
+	public int shardForNewFile() {
+		return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+	}
+
+	private int shardOf(int id, int size) {
+		int shard = (id - 1) / size;
+		if (id < 1 || shard >= shardCount) {
+			throw new IllegalArgumentException("Id " + id + " is outside every shard range");
+		}
+		return shard;
+	}
+}
@@ -0,0 +1,43 @@
+package dal;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+// Builds one EditorDBDAO per shard listed in config.properties:
+// db.shards = N and db.shard.<1..N>.url / .username / .password, plus the id ranges
+// db.shard.rangeSize (files) and db.shard.pageRangeSize (pages)
+public class ShardedDAOFactory extends AbstractDAOEditorFactory {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String EMBEDDED_SCHEMA_SCRIPT = "/Database/EmbeddedEditorDBQuery.sql";
+
+	@Override
+	public IEditorDBDAO createEditorDAO() {
+		int shardCount = EditorConfig.getInt("db.shards", 1);
+		List<AbstractEditorDAO> shards = new ArrayList<>();
+		for (int i = 1; i <= shardCount; i++) {
+			String prefix = "db.shard." + i + ".";
+			String url = EditorConfig.getProperty(prefix + "url", null);
+			try {
+				Connection conn = DatabaseConnection.connect(url, EditorConfig.getProperty(prefix + "username", null),
+						EditorConfig.getProperty(prefix + "password", ""));
+				if (url.startsWith("jdbc:h2:")) {
+					SchemaInitializer.runScript(conn, EMBEDDED_SCHEMA_SCRIPT);
+				}
+				shards.add(new EditorDBDAO(conn));
+			} catch (Exception e) {
+				e.printStackTrace();
+				LOGGER.error("Cannot open shard " + i + " (" + url + "): " + e.getMessage());
+				throw new IllegalStateException("Cannot open shard " + i, e);
+			}
+		}
+		int rangeSize = EditorConfig.getInt("db.shard.rangeSize", 100000000);
+		return new ShardedEditorDAO(shards, rangeSize, EditorConfig.getInt("db.shard.pageRangeSize", rangeSize));
+	}
+
+}
@@ -0,0 +1,254 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.Documents;
+import dto.PageAnalytics;
+import pl.EditorPO;
+
+// Spreads files over several stores by fileId (see ShardRouter). Single-file operations go
+// to the owning shard; cross-shard reads run on every shard in parallel and are merged.
+public class ShardedEditorDAO extends AbstractEditorDAO {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	private final List<AbstractEditorDAO> shards;
+	private final ShardRouter router;
+	private final ExecutorService pool;
+
+	public ShardedEditorDAO(List<AbstractEditorDAO> shards, int rangeSize) {
+		this(shards, rangeSize, rangeSize);
+	}
+
+	public ShardedEditorDAO(List<AbstractEditorDAO> shards, int rangeSize, int pageRangeSize) {
+		this.shards = new ArrayList<>(shards);
+		this.router = new ShardRouter(shards.size(), rangeSize, pageRangeSize);
+		this.pool = Executors.newFixedThreadPool(shards.size(), runnable -> {
+			Thread thread = new Thread(runnable, "shard-query");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		for (int i = 0; i < this.shards.size(); i++) {
+			AbstractEditorDAO shard = this.shards.get(i);
+			shard.startIdsAt(router.firstIdOf(i), router.firstPageIdOf(i));
+			shard.endIdsAt(router.lastIdOf(i), router.lastPageIdOf(i));
+			shard.shareTFIDFIndex(this);
+		}
+	}
+
+	@Override
+	public boolean createFileInDB(String nameOfFile, String content, String hash) {
+		return withTFIDFIndex(() -> {
+			// New files go round-robin; a shard whose id range is full passes the file to the next one
+			int first = router.shardForNewFile();
+			for (int i = 0; i < shards.size(); i++) {
+				AbstractEditorDAO shard = shards.get((first + i) % shards.size());
+				if (shard.createFileInDB(nameOfFile, content, hash)) {
+					return true;
+				}
+				if (!shard.isIdRangeFull()) {
+					return false;
+				}
+			}
+			return false;
+		});
+	}
+
+	@Override
+	public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
+		return withTFIDFIndex(() -> shardOf(id).updateFileInDB(id, fileName, pageNumber, content));
+	}
+
+	@Override
+	public boolean autoSaveFileInDB(int id, String fileName, int pageNumber, String content) {
+		return withTFIDFIndex(() -> shardOf(id).autoSaveFileInDB(id, fileName, pageNumber, content));
+	}
+
+	@Override
+	public boolean isPageMissing(int fileId, int pageNumber) {
+		try {
+			return shardOf(fileId).isPageMissing(fileId, pageNumber);
+		} catch (IllegalArgumentException e) {
+			return true;
+		}
+	}
+
+	@Override
+	public boolean deleteFileInDB(int id) {
+		try {
+			return shardOf(id).deleteFileInDB(id);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public List<Documents> getFilesFromDB() {
+		List<Documents> documents = new ArrayList<>();
+		for (List<Documents> shardDocuments : fanOut(IEditorDBDAO::getFilesFromDB)) {
+			documents.addAll(shardDocuments);
+		}
+		documents.sort(Comparator.comparingInt(Documents::getId));
+		return documents;
+	}
+
+	@Override
+	public String transliterateInDB(int pageId, String arabicText) {
+		return shardOfPage(pageId).transliterateInDB(pageId, arabicText);
+	}
+
+	@Override
+	public PageAnalytics getPageAnalyticsFromDB(int pageId) {
+		return shardOfPage(pageId).getPageAnalyticsFromDB(pageId);
+	}
+
+	@Override
+	protected Map<Integer, Map<String, Integer>> loadTermCounts() {
+		Map<Integer, Map<String, Integer>> termCounts = new HashMap<>();
+		for (Map<Integer, Map<String, Integer>> shardTermCounts : fanOut(AbstractEditorDAO::loadTermCounts)) {
+			termCounts.putAll(shardTermCounts);
+		}
+		return termCounts;
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(int fileId, double minSimilarity) {
+		int[] signature = shardOf(fileId).loadSignature(fileId);
+		return mergeBySimilarity(fanOut(shard -> shard.findNearDuplicates(signature, minSimilarity, fileId)));
+	}
+
+	@Override
+	public Map<Integer, Double> findNearDuplicates(String content, double minSimilarity) {
+		int[] signature = MinHash.signature(content);
+		return mergeBySimilarity(fanOut(shard -> shard.findNearDuplicates(signature, minSimilarity, -1)));
+	}
+
+	@Override
+	protected int[] storeSignature(int fileId) {
+		return shardOf(fileId).storeSignature(fileId);
+	}
+
+	@Override
+	protected Map<Integer, int[]> loadSignatures() {
+		Map<Integer, int[]> signatures = new HashMap<>();
+		for (Map<Integer, int[]> shardSignatures : fanOut(AbstractEditorDAO::loadSignatures)) {
+			signatures.putAll(shardSignatures);
+		}
+		return signatures;
+	}
+
+	// The shard ranges fix where ids start, so this only checks that they already start at or above the given ids
+	@Override
+	public void startIdsAt(int firstFileId, int firstPageId) {
+		if (firstFileId > router.firstIdOf(0) || firstPageId > router.firstPageIdOf(0)) {
+			throw new IllegalArgumentException("Shard id ranges start at file id " + router.firstIdOf(0) + ", page id "
+					+ router.firstPageIdOf(0) + " and cannot move to " + firstFileId + ", " + firstPageId);
+		}
+	}
+
+	public int getShardCount() {
+		return shards.size();
+	}
+
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	// Shard n owns a higher page id range than shard n-1, so walking the shards in order keeps id order
+	@Override
+	protected List<TransliterationJob.PageText> getPagesAfter(int afterPageId, int limit) throws Exception {
+		for (AbstractEditorDAO shard : shards) {
+			List<TransliterationJob.PageText> pages = shard.getPagesAfter(afterPageId, limit);
+			if (!pages.isEmpty()) {
+				return pages;
+			}
+		}
+		return new ArrayList<>();
+	}
+
+	// A chunk comes from one shard; see getPagesAfter
+	@Override
+	protected void storeTransliterations(List<TransliterationJob.PageText> pages) throws Exception {
+		shardOfPage(pages.get(0).getPageId()).storeTransliterations(pages);
+	}
+
+	@Override
+	protected void storeTFIDFScores(Map<Integer, Double> scores) throws Exception {
+		Map<AbstractEditorDAO, Map<Integer, Double>> byShard = new HashMap<>();
+		for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+			byShard.computeIfAbsent(shardOf(score.getKey()), shard -> new HashMap<>()).put(score.getKey(), score.getValue());
+		}
+		for (Map.Entry<AbstractEditorDAO, Map<Integer, Double>> shard : byShard.entrySet()) {
+			shard.getKey().storeTFIDFScores(shard.getValue());
+		}
+	}
+
+	private AbstractEditorDAO shardOf(int id) {
+		return shards.get(router.shardOf(id));
+	}
+
+	private AbstractEditorDAO shardOfPage(int pageId) {
+		return shards.get(router.shardOfPage(pageId));
+	}
+
+	// The shared TF-IDF index is built before a write is handed to a shard, since building it
+	// reads every shard and the writing shard holds its own lock
+	private boolean withTFIDFIndex(Callable<Boolean> write) {
+		try {
+			tfidfIndex();
+			return write.call();
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	private static Map<Integer, Double> mergeBySimilarity(List<Map<Integer, Double>> shardResults) {
+		List<Map.Entry<Integer, Double>> matches = new ArrayList<>();
+		for (Map<Integer, Double> shardResult : shardResults) {
+			matches.addAll(shardResult.entrySet());
+		}
+		matches.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+		Map<Integer, Double> merged = new LinkedHashMap<>();
+		for (Map.Entry<Integer, Double> match : matches) {
+			merged.put(match.getKey(), match.getValue());
+		}
+		return merged;
+	}
+
+	// Runs the call on every shard at once; results keep shard order
+	private <T> List<T> fanOut(Function<AbstractEditorDAO, T> call) {
+		List<Future<T>> futures = new ArrayList<>();
+		for (AbstractEditorDAO shard : shards) {
+			futures.add(pool.submit(() -> call.apply(shard)));
+		}
+		List<T> results = new ArrayList<>();
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while querying shards", e);
+		} catch (ExecutionException e) {
+			LOGGER.error("Shard query failed: " + e.getCause().getMessage());
+			throw new IllegalStateException("Shard query failed", e.getCause());
+		}
+		return results;
+	}
+}
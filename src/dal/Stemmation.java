@@ -12,24 +12,28 @@ import pl.EditorPO;
 public class Stemmation {
 
     public static Map<String, String> stemWords(String text) {
+        return stemWords(TokenizedText.of(text));
+    }
+
+    public static Map<String, String> stemWords(TokenizedText text) {
     	final Logger logger = LogManager.getLogger(EditorPO.class);
 
         Map<String, String> wordStemMap = new HashMap<>();
 
-        String[] words = text.split("\\s+");
+        String[] words = text.tokens();
 
         try {
             AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
 
             if (analyzer != null) {
-                for (String word : words) {
-                    String stem = analyzer.processToken(word).getAllStemString(); // Get the stem
-
-                    if (stem != null && !stem.isEmpty()) {
-                        wordStemMap.put(word, PreProcessText.preprocessText(stem)); // Add word-stem pair
-                    } else {
-                        wordStemMap.put(word, "Not found"); // Add "Not found" if no stem is found
-                    }
+                String[] stemById = new String[text.vocabularySize()];
+                for (int id = 0; id < stemById.length; id++) {
+                    String stem = analyzer.processToken(text.word(id)).getAllStemString();
+                    stemById[id] = stem != null && !stem.isEmpty() ? PreProcessText.preprocessText(stem) : "Not found";
+                }
+                for (int token = 0; token < words.length; token++) {
+                    int id = text.id(token);
+                    wordStemMap.putIfAbsent(words[token], id < 0 ? "Not found" : stemById[id]);
                 }
             } else {
                 System.err.println("Failed to initialize AlKhalil2Analyzer.");
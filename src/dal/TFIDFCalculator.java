@@ -1,71 +1,440 @@
 package dal;
 
-import java.util.ArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+// TF-IDF index over a long-lived corpus. Words are interned to term ids, every document is
+// kept as its term counts, and each term has a posting list of the documents containing it,
+// updated as documents are added, replaced and removed. Scoring a text only looks up its own
+// words, and similarity queries only walk the postings of the query document's terms.
+// Term ids are not reused after the last document containing a term is removed.
 public class TFIDFCalculator {
+	// File ids start at 1 and unnamed documents count down from -1
+	private static final int NO_DOCUMENT = 0;
+	// Documents scored by one fork/join task before it stops splitting
+	private static final int DOCUMENTS_PER_TASK = 64;
 
-	private List<String> corpus = new ArrayList<>();
+	private final Map<String, Integer> termIds = new HashMap<>();
+	// Documents containing each term, by term id
+	private Postings[] postings = new Postings[64];
+	private final Map<Integer, Document> documents = new HashMap<>();
+	// Postings refer to documents by a dense slot rather than their id, so query scores fit an array
+	private int[] slotDocIds = new int[64];
+	private int[] freeSlots = new int[16];
+	private int freeSlotCount;
+	private int slotCount;
+	// Vector lengths by slot; weights depend on every document frequency, so any change invalidates them
+	private double[] norms = new double[0];
+	private boolean normsCurrent;
+	// Documents added without an id get negative ones
+	private int nextUnnamedId = -1;
 
 	public void addDocumentToCorpus(String document) {
-		corpus.add(PreProcessText.preprocessText(document));
+		addDocumentToCorpus(TokenizedText.of(document));
+	}
+
+	public synchronized void addDocumentToCorpus(TokenizedText document) {
+		addDocument(nextUnnamedId--, document);
+	}
+
+	public void addDocument(int docId, String document) {
+		addDocument(docId, TokenizedText.of(document));
+	}
+
+	public synchronized void addDocument(int docId, TokenizedText document) {
+		TermCounts counts = new TermCounts(document.vocabularySize());
+		for (int id = 0; id < document.vocabularySize(); id++) {
+			counts.add(intern(document.word(id)), document.count(id));
+		}
+		add(docId, counts);
+	}
+
+	// Adds a document from term counts stored earlier, see termCounts()
+	public synchronized void addDocument(int docId, Map<String, Integer> termCounts) {
+		TermCounts counts = new TermCounts(termCounts.size());
+		for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+			counts.add(intern(entry.getKey()), entry.getValue());
+		}
+		add(docId, counts);
+	}
+
+	// Replaces the document, or adds it when it is not indexed yet
+	public synchronized void updateDocument(int docId, TokenizedText document) {
+		removeDocument(docId);
+		addDocument(docId, document);
+	}
+
+	public synchronized void updateDocument(int docId, Map<String, Integer> termCounts) {
+		removeDocument(docId);
+		addDocument(docId, termCounts);
+	}
+
+	public synchronized boolean removeDocument(int docId) {
+		Document document = documents.remove(docId);
+		if (document == null) {
+			return false;
+		}
+		TermCounts counts = document.counts;
+		for (int slot = 0; slot < counts.slots(); slot++) {
+			int term = counts.keyAt(slot);
+			if (term >= 0) {
+				postings[term].remove(document.slot);
+			}
+		}
+		if (freeSlotCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+		}
+		freeSlots[freeSlotCount++] = document.slot;
+		normsCurrent = false;
+		return true;
+	}
+
+	public synchronized boolean containsDocument(int docId) {
+		return documents.containsKey(docId);
+	}
+
+	public synchronized int size() {
+		return documents.size();
 	}
 
 	public double calculateDocumentTfIdf(String document) {
-		String preprocessedDoc = PreProcessText.preprocessText(document);
-		String[] words = preprocessedDoc.split("\\s+");
-		List<String> wordList = Arrays.asList(words);
+		return calculateDocumentTfIdf(TokenizedText.of(document));
+	}
+
+	public double calculateDocumentTfIdf(TokenizedText document) {
+		return calculateDocumentTfIdf(document, NO_DOCUMENT);
+	}
+
+	// Scores the text against every indexed document except excludedDocId, e.g. the stored
+	// version of the file the text belongs to
+	public synchronized double calculateDocumentTfIdf(TokenizedText document, int excludedDocId) {
+		int totalWords = document.words().length;
+		if (totalWords == 0) {
+			return 0.0;
+		}
+		Document excluded = documents.get(excludedDocId);
+		int totalDocs = documents.size() - (excluded == null ? 0 : 1);
+
+		double totalTfIdf = 0.0;
+		for (int id = 0; id < document.vocabularySize(); id++) {
+			double tfValue = (double) document.count(id) / totalWords;
+			Integer term = termIds.get(document.word(id));
+			int frequency = 0;
+			if (term != null) {
+				frequency = postings[term].size - (excluded != null && excluded.counts.get(term) > 0 ? 1 : 0);
+			}
+			double idfValue = frequency == 0 ? Math.log(totalDocs + 1) : Math.log((double) totalDocs / (1 + frequency));
+			totalTfIdf += tfValue * idfValue;
+		}
+
+		return totalTfIdf / totalWords;
+	}
+
+	// Scores a document from its term counts, see termCounts(), as calculateDocumentTfIdf(text,
+	// excludedDocId) scores its text
+	public synchronized double calculateDocumentTfIdf(Map<String, Integer> termCounts, int excludedDocId) {
+		long totalWords = 0;
+		for (int count : termCounts.values()) {
+			totalWords += count;
+		}
+		if (totalWords == 0) {
+			return 0.0;
+		}
+		Document excluded = documents.get(excludedDocId);
+		int totalDocs = documents.size() - (excluded == null ? 0 : 1);
+
+		double totalTfIdf = 0.0;
+		for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+			double tfValue = (double) entry.getValue() / totalWords;
+			Integer term = termIds.get(entry.getKey());
+			int frequency = 0;
+			if (term != null) {
+				frequency = postings[term].size - (excluded != null && excluded.counts.get(term) > 0 ? 1 : 0);
+			}
+			double idfValue = frequency == 0 ? Math.log(totalDocs + 1) : Math.log((double) totalDocs / (1 + frequency));
+			totalTfIdf += tfValue * idfValue;
+		}
+
+		return totalTfIdf / totalWords;
+	}
+
+	// Scores an indexed document against every other indexed document, as
+	// calculateDocumentTfIdf(text, docId) scores its text; 0 when it is not indexed
+	public synchronized double calculateDocumentTfIdf(int docId) {
+		Document document = documents.get(docId);
+		return document == null ? 0.0 : score(document);
+	}
+
+	// Scores of every indexed document against all the others, by id. Document frequencies are
+	// already kept in the postings, so this is one pass over each document's counts, split
+	// across the pool; the index is locked for the duration so the scores share one corpus.
+	public synchronized Map<Integer, Double> calculateAllTfIdf(ForkJoinPool pool) {
+		Document[] all = documents.values().toArray(new Document[0]);
+		double[] scores = new double[all.length];
+		pool.invoke(new ScoreTask(all, scores, 0, all.length));
+
+		Map<Integer, Double> scoresById = new HashMap<>(all.length * 2);
+		for (int i = 0; i < all.length; i++) {
+			scoresById.put(slotDocIds[all[i].slot], scores[i]);
+		}
+		return scoresById;
+	}
+
+	// Up to limit other documents by cosine similarity of their TF-IDF vectors, most similar
+	// first. Weights are count * log((N + 1) / (df + 1)), so terms found in every document
+	// carry no weight and their postings are skipped.
+	public synchronized Map<Integer, Double> findSimilar(int docId, int limit) {
+		Map<Integer, Double> similar = new LinkedHashMap<>();
+		Document query = documents.get(docId);
+		if (query == null || limit <= 0) {
+			return similar;
+		}
+		updateNorms();
+		double queryNorm = norms[query.slot];
+		if (queryNorm == 0) {
+			return similar;
+		}
+
+		double[] scores = new double[slotCount];
+		TermCounts counts = query.counts;
+		for (int slot = 0; slot < counts.slots(); slot++) {
+			int term = counts.keyAt(slot);
+			double idf = term < 0 ? 0 : idf(term);
+			if (idf == 0) {
+				continue;
+			}
+			double queryWeight = counts.countAt(slot) * idf * idf;
+			Postings list = postings[term];
+			for (int i = 0; i < list.size; i++) {
+				scores[list.slots[i]] += queryWeight * list.counts[i];
+			}
+		}
+		scores[query.slot] = 0;
+
+		PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(scores[a], scores[b]));
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (scores[slot] == 0) {
+				continue;
+			}
+			scores[slot] /= queryNorm * norms[slot];
+			if (best.size() < limit || scores[slot] > scores[best.peek()]) {
+				best.add(slot);
+				if (best.size() > limit) {
+					best.poll();
+				}
+			}
+		}
+		Integer[] ranked = best.toArray(new Integer[0]);
+		Arrays.sort(ranked, (a, b) -> Double.compare(scores[b], scores[a]));
+		for (int slot : ranked) {
+			similar.put(slotDocIds[slot], scores[slot]);
+		}
+		return similar;
+	}
 
-		Map<String, Double> tf = calculateTermFrequency(wordList);
-		Map<String, Double> idf = calculateInverseDocumentFrequency();
+	// Counts of the text's normalized words, the form documents are stored in
+	public static Map<String, Integer> termCounts(TokenizedText document) {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for (int id = 0; id < document.vocabularySize(); id++) {
+			counts.put(document.word(id), document.count(id));
+		}
+		return counts;
+	}
+
+	// Adds sign times counts to termCounts and drops terms whose count reaches zero
+	public static void addTermCounts(Map<String, Integer> termCounts, Map<String, Integer> counts, int sign) {
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			int count = termCounts.getOrDefault(entry.getKey(), 0) + sign * entry.getValue();
+			if (count == 0) {
+				termCounts.remove(entry.getKey());
+			} else {
+				termCounts.put(entry.getKey(), count);
+			}
+		}
+	}
+
+	public static byte[] toBytes(Map<String, Integer> termCounts) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(termCounts.size());
+		for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+			PageAnalyticsCodec.writeString(out, entry.getKey());
+			out.writeInt(entry.getValue());
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	// Reads from the buffer's current position
+	public static Map<String, Integer> fromBytes(ByteBuffer in) {
+		int size = in.getInt();
+		Map<String, Integer> termCounts = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			String term = PageAnalyticsCodec.readString(in);
+			termCounts.put(term, in.getInt());
+		}
+		return termCounts;
+	}
+
+	private void add(int docId, TermCounts counts) {
+		if (documents.containsKey(docId)) {
+			throw new IllegalArgumentException("Document " + docId + " is already indexed");
+		}
+		int documentSlot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++;
+		if (documentSlot == slotDocIds.length) {
+			slotDocIds = Arrays.copyOf(slotDocIds, documentSlot * 2);
+		}
+		slotDocIds[documentSlot] = docId;
+		for (int slot = 0; slot < counts.slots(); slot++) {
+			int term = counts.keyAt(slot);
+			if (term >= 0) {
+				postings[term].add(documentSlot, counts.countAt(slot));
+			}
+		}
+		documents.put(docId, new Document(documentSlot, counts));
+		normsCurrent = false;
+	}
+
+	// Same formula as calculateDocumentTfIdf(text, excludedDocId) with the document excluded
+	private double score(Document document) {
+		TermCounts counts = document.counts;
+		long totalWords = 0;
+		for (int slot = 0; slot < counts.slots(); slot++) {
+			if (counts.keyAt(slot) >= 0) {
+				totalWords += counts.countAt(slot);
+			}
+		}
+		if (totalWords == 0) {
+			return 0.0;
+		}
+		int totalDocs = documents.size() - 1;
 
 		double totalTfIdf = 0.0;
-		for (String word : tf.keySet()) {
-			double tfValue = tf.get(word);
-			double idfValue = idf.getOrDefault(word, Math.log(corpus.size() + 1));
+		for (int slot = 0; slot < counts.slots(); slot++) {
+			int term = counts.keyAt(slot);
+			if (term < 0) {
+				continue;
+			}
+			double tfValue = (double) counts.countAt(slot) / totalWords;
+			int frequency = postings[term].size - 1;
+			double idfValue = frequency == 0 ? Math.log(totalDocs + 1) : Math.log((double) totalDocs / (1 + frequency));
 			totalTfIdf += tfValue * idfValue;
 		}
 
-		return totalTfIdf / wordList.size();
+		return totalTfIdf / totalWords;
 	}
 
-	private Map<String, Double> calculateTermFrequency(List<String> wordList) {
-		Map<String, Double> tf = new HashMap<>();
-		double totalWords = wordList.size();
+	private double idf(int term) {
+		return Math.log((documents.size() + 1.0) / (postings[term].size + 1.0));
+	}
 
-		for (String word : wordList) {
-			tf.put(word, tf.getOrDefault(word, 0.0) + 1);
+	// One pass over every posting; only needed after the corpus changed
+	private void updateNorms() {
+		if (normsCurrent) {
+			return;
+		}
+		double[] squares = new double[slotCount];
+		for (int term = 0; term < termIds.size(); term++) {
+			double idf = idf(term);
+			Postings list = postings[term];
+			for (int i = 0; i < list.size; i++) {
+				double weight = list.counts[i] * idf;
+				squares[list.slots[i]] += weight * weight;
+			}
+		}
+		for (int slot = 0; slot < slotCount; slot++) {
+			squares[slot] = Math.sqrt(squares[slot]);
 		}
+		norms = squares;
+		normsCurrent = true;
+	}
 
-		for (String word : tf.keySet()) {
-			tf.put(word, tf.get(word) / totalWords);
+	private int intern(String word) {
+		Integer term = termIds.get(word);
+		if (term == null) {
+			term = termIds.size();
+			termIds.put(word, term);
+			if (term == postings.length) {
+				postings = Arrays.copyOf(postings, term * 2);
+			}
+			postings[term] = new Postings();
 		}
+		return term;
+	}
 
-		return tf;
+	private static class Document {
+		private final int slot;
+		private final TermCounts counts;
+
+		private Document(int slot, TermCounts counts) {
+			this.slot = slot;
+			this.counts = counts;
+		}
 	}
 
-	private Map<String, Double> calculateInverseDocumentFrequency() {
-		Map<String, Double> idf = new HashMap<>();
-		int totalDocs = corpus.size();
+	// Only reads the index; calculateAllTfIdf holds its lock while the tasks run
+	private class ScoreTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Document[] batch;
+		private final double[] scores;
+		private final int from;
+		private final int to;
+
+		private ScoreTask(Document[] batch, double[] scores, int from, int to) {
+			this.batch = batch;
+			this.scores = scores;
+			this.from = from;
+			this.to = to;
+		}
 
-		for (String doc : corpus) {
-			Set<String> uniqueWords = Arrays.stream(doc.split("\\s+")).collect(Collectors.toSet());
-			for (String word : uniqueWords) {
-				idf.put(word, idf.getOrDefault(word, 0.0) + 1);
+		@Override
+		protected void compute() {
+			if (to - from > DOCUMENTS_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ScoreTask(batch, scores, from, middle), new ScoreTask(batch, scores, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				scores[i] = score(batch[i]);
 			}
 		}
+	}
+
+	// Slots of the documents containing a term and the term's count in each, in no order
+	private static class Postings {
+		private int[] slots = new int[4];
+		private int[] counts = new int[4];
+		private int size;
 
-		for (String word : idf.keySet()) {
-			idf.put(word, Math.log((double) totalDocs / (1 + idf.get(word))));
+		private void add(int slot, int count) {
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+				counts = Arrays.copyOf(counts, size * 2);
+			}
+			slots[size] = slot;
+			counts[size++] = count;
 		}
 
-		return idf;
+		private void remove(int slot) {
+			for (int i = 0; i < size; i++) {
+				if (slots[i] == slot) {
+					size--;
+					slots[i] = slots[size];
+					counts[i] = counts[size];
+					return;
+				}
+			}
+		}
 	}
 
 //    public static void main(String[] args) {
@@ -0,0 +1,140 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+// Recomputes the stored TF-IDF score of every file. A score depends on the document frequency
+// of every term, so each import or save leaves the stored scores of the other files stale.
+// Document frequencies come from the store's TF-IDF index, built in one pass over the stored
+// term counts if it is not built yet; every file is then scored against the others in parallel
+// on a fork/join pool and the scores are written back in one batch per chunk.
+//
+// Run headless with: java dal.TFIDFJob, or periodically from the editor with tfidf.job.interval
+public class TFIDFJob {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	public static class Progress {
+		private final long filesScored;
+		private final long filesWritten;
+		private final long elapsedMillis;
+
+		Progress(long filesScored, long filesWritten, long elapsedMillis) {
+			this.filesScored = filesScored;
+			this.filesWritten = filesWritten;
+			this.elapsedMillis = elapsedMillis;
+		}
+
+		public long getFilesScored() {
+			return filesScored;
+		}
+
+		public long getFilesWritten() {
+			return filesWritten;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		@Override
+		public String toString() {
+			return filesScored + " files scored, " + filesWritten + " scores written in " + elapsedMillis + " ms";
+		}
+	}
+
+	private final AbstractEditorDAO dao;
+	private final int chunkSize;
+	private final int threads;
+	private Consumer<Progress> progressListener = progress -> LOGGER.info("TF-IDF: " + progress);
+
+	// Settings from tfidf.job.chunkSize and .threads
+	public TFIDFJob(AbstractEditorDAO dao) {
+		this(dao, EditorConfig.getInt("tfidf.job.chunkSize", 500), EditorConfig.getInt("tfidf.job.threads", 0));
+	}
+
+	// threads 0 means one per processor
+	public TFIDFJob(AbstractEditorDAO dao, int chunkSize, int threads) {
+		this.dao = dao;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	// Called after every chunk; logs by default
+	public void setProgressListener(Consumer<Progress> progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	// Returns the final progress, or null when writing failed. Scores written by earlier chunks
+	// stay written, and a file saved while the job runs may keep the job's slightly older score
+	// until the next run.
+	public Progress run() {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.currentTimeMillis();
+		long written = 0;
+		try {
+			Map<Integer, Double> scores = dao.tfidfIndex().calculateAllTfIdf(pool);
+			List<Integer> fileIds = new ArrayList<>(scores.keySet());
+			Collections.sort(fileIds);
+
+			for (int from = 0; from < fileIds.size(); from += chunkSize) {
+				Map<Integer, Double> chunk = new HashMap<>();
+				for (int fileId : fileIds.subList(from, Math.min(from + chunkSize, fileIds.size()))) {
+					chunk.put(fileId, scores.get(fileId));
+				}
+				dao.storeTFIDFScores(chunk);
+				written += chunk.size();
+				progressListener.accept(new Progress(scores.size(), written, System.currentTimeMillis() - start));
+			}
+			return new Progress(scores.size(), written, System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error("TF-IDF job stopped after " + written + " scores: " + e.getMessage());
+			return null;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// Runs the job every tfidf.job.interval minutes on a daemon thread; returns null when the
+	// interval is 0 (the default)
+	public static ScheduledExecutorService schedule(AbstractEditorDAO dao) {
+		long intervalMinutes = EditorConfig.getLong("tfidf.job.interval", 0);
+		if (intervalMinutes <= 0) {
+			return null;
+		}
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "tfidf-job");
+			thread.setDaemon(true);
+			return thread;
+		});
+		TFIDFJob job = new TFIDFJob(dao);
+		scheduler.scheduleWithFixedDelay(job::run, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+		return scheduler;
+	}
+
+	public static void main(String[] args) {
+		IEditorDBDAO editorDAO = AbstractDAOEditorFactory.getInstance().createEditorDAO();
+		if (!(editorDAO instanceof AbstractEditorDAO)) {
+			LOGGER.error("db.type " + EditorConfig.getProperty("db.type", "") + " does not support the TF-IDF job");
+			System.exit(1);
+		}
+		Progress progress = new TFIDFJob((AbstractEditorDAO) editorDAO).run();
+		if (editorDAO instanceof LogStructuredEditorDAO) {
+			((LogStructuredEditorDAO) editorDAO).close();
+		}
+		System.exit(progress == null ? 1 : 0);
+	}
+}
@@ -0,0 +1,88 @@
+package dal;
+
+// Counts by non-negative int key (an interned term id) in open-addressed primitive arrays, so
+// counting never boxes. Slots are probed linearly; a key is stored as key + 1 so that 0 marks
+// a free slot. Iterate with slots(), keyAt() and countAt().
+public final class TermCounts {
+	private int[] keys;
+	private int[] counts;
+	private int size;
+
+	public TermCounts() {
+		this(8);
+	}
+
+	public TermCounts(int expectedKeys) {
+		int capacity = 8;
+		while (capacity < expectedKeys * 2) {
+			capacity <<= 1;
+		}
+		keys = new int[capacity];
+		counts = new int[capacity];
+	}
+
+	public int get(int key) {
+		int slot = find(key);
+		return keys[slot] == 0 ? 0 : counts[slot];
+	}
+
+	// Adds delta to the key's count and returns the new count
+	public int add(int key, int delta) {
+		int slot = find(key);
+		if (keys[slot] == 0) {
+			keys[slot] = key + 1;
+			if (++size * 2 > keys.length) {
+				counts[slot] = delta;
+				grow();
+				return delta;
+			}
+		}
+		return counts[slot] += delta;
+	}
+
+	// Number of keys
+	public int size() {
+		return size;
+	}
+
+	public int slots() {
+		return keys.length;
+	}
+
+	// Key in the slot, or -1 when the slot is free
+	public int keyAt(int slot) {
+		return keys[slot] - 1;
+	}
+
+	public int countAt(int slot) {
+		return counts[slot];
+	}
+
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int slot = mix(key) & mask;
+		while (keys[slot] != 0 && keys[slot] != key + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] != 0) {
+				int target = find(oldKeys[slot] - 1);
+				keys[target] = oldKeys[slot];
+				counts[target] = oldCounts[slot];
+			}
+		}
+	}
+
+	private static int mix(int key) {
+		int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
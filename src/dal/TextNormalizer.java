@@ -0,0 +1,252 @@
+package dal;
+
+import java.util.Arrays;
+
+// Single-pass form of the PreProcessText pipeline: harakat and every character that is
+// neither Arabic script nor whitespace are dropped. Characters are classified through a
+// lookup table built once. tokenize() writes the normalized text into a reusable buffer and
+// reports words as spans of it, so no String is created per word.
+//
+// The ORTHOGRAPHIC profile also folds spelling variants into one form, so they share one
+// key in analytics, frequency tables and caches. The stored text is never changed.
+public class TextNormalizer {
+	private static final String HARAKAT = "ًٌٍَُِّْ";
+
+	private static final byte DROP = 0;
+	private static final byte KEEP = 1;
+	// The whitespace the previous regex kept: \s without UNICODE_CHARACTER_CLASS
+	private static final byte SPACE = 2;
+	// Kept when it starts a surrogate pair of an Arabic supplementary character
+	private static final byte HIGH_SURROGATE = 3;
+
+	public enum Profile {
+		// Harakat and non-Arabic characters removed; what PreProcessText always did
+		BASIC,
+		// Also: hamza and madda forms of alef become bare alef, teh marbuta becomes heh,
+		// alef maksura becomes yeh; tatweel, Quranic marks and the remaining diacritics are dropped
+		ORTHOGRAPHIC;
+
+		private final byte[] classes = new byte[Character.MAX_VALUE + 1];
+		private final char[] forms = new char[Character.MAX_VALUE + 1];
+
+		// text.normalization in config.properties: basic (default) or orthographic; read once
+		private static final Profile CONFIGURED = EditorConfig.getEnum("text.normalization", BASIC);
+
+		public static Profile configured() {
+			return CONFIGURED;
+		}
+	}
+
+	// Variant -> folded form, in pairs
+	private static final String FOLDS = "أاإاآاٱاٲاٳاٵاةهىيیيۀه";
+	// Dropped by ORTHOGRAPHIC besides HARAKAT: tatweel, superscript alef and the other Arabic marks
+	private static final char[][] MARK_RANGES = { { 'ـ', 'ـ' }, { '\u0610', '\u061A' }, { '\u064B', '\u065F' },
+			{ '\u0670', '\u0670' }, { '\u06D6', '\u06DC' }, { '\u06DF', '\u06E8' }, { '\u06EA', '\u06ED' },
+			{ '\u08D3', '\u08FF' } };
+
+	static {
+		for (Profile profile : Profile.values()) {
+			byte[] classes = profile.classes;
+			for (int c = 0; c <= Character.MAX_VALUE; c++) {
+				profile.forms[c] = (char) c;
+				if (c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r') {
+					classes[c] = SPACE;
+				} else if (Character.isHighSurrogate((char) c)) {
+					classes[c] = HIGH_SURROGATE;
+				} else if (Character.UnicodeScript.of(c) == Character.UnicodeScript.ARABIC) {
+					classes[c] = KEEP;
+				}
+			}
+			for (int i = 0; i < HARAKAT.length(); i++) {
+				classes[HARAKAT.charAt(i)] = DROP;
+			}
+		}
+
+		Profile orthographic = Profile.ORTHOGRAPHIC;
+		for (char[] range : MARK_RANGES) {
+			for (char c = range[0]; c <= range[1]; c++) {
+				orthographic.classes[c] = DROP;
+			}
+		}
+		for (int i = 0; i < FOLDS.length(); i += 2) {
+			orthographic.forms[FOLDS.charAt(i)] = FOLDS.charAt(i + 1);
+		}
+	}
+
+	// Normalizes with the configured profile
+	public static String normalize(String text) {
+		return normalize(text, Profile.configured());
+	}
+
+	// With BASIC, the same result as PreProcessText's removeHarakat, removeNonArabicCharacters and toLowerCase
+	public static String normalize(String text, Profile profile) {
+		byte[] classes = profile.classes;
+		char[] forms = profile.forms;
+		char[] normalized = new char[text.length()];
+		int length = 0;
+		boolean changed = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			byte type = classes[c];
+			if (type == KEEP || type == SPACE) {
+				char form = forms[c];
+				changed |= form != c;
+				normalized[length++] = form;
+			} else if (type == HIGH_SURROGATE && isArabicPair(text, i)) {
+				normalized[length++] = c;
+				normalized[length++] = text.charAt(++i);
+			}
+		}
+		return length == text.length() && !changed ? text : new String(normalized, 0, length);
+	}
+
+	public static Tokens tokenize(CharSequence text, Tokens tokens) {
+		return tokenize(text, tokens, Profile.configured());
+	}
+
+	// Normalizes text into tokens and returns it; the spans match normalize(text).split("\\s+")
+	// without the empty first element a leading space produces
+	public static Tokens tokenize(CharSequence text, Tokens tokens, Profile profile) {
+		byte[] classes = profile.classes;
+		char[] forms = profile.forms;
+		tokens.clear(text.length());
+		char[] chars = tokens.chars;
+		int length = 0;
+		int tokenStart = -1;
+		int wordStart = -1;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			byte type = classes[c];
+			if (type == SPACE) {
+				if (tokenStart >= 0) {
+					tokens.add(tokenStart, length - tokenStart, wordStart);
+					tokenStart = -1;
+				}
+				wordStart = -1;
+				chars[length++] = c;
+				continue;
+			}
+			if (wordStart < 0) {
+				wordStart = i;
+			}
+			if (type == KEEP || (type == HIGH_SURROGATE && isArabicPair(text, i))) {
+				if (tokenStart < 0) {
+					tokenStart = length;
+				}
+				if (type == HIGH_SURROGATE) {
+					chars[length++] = c;
+					chars[length++] = text.charAt(++i);
+				} else {
+					chars[length++] = forms[c];
+				}
+			}
+		}
+		if (tokenStart >= 0) {
+			tokens.add(tokenStart, length - tokenStart, wordStart);
+		}
+		tokens.length = length;
+		return tokens;
+	}
+
+	// The whitespace split("\\s+") breaks on
+	static boolean isSpace(char c) {
+		return Profile.BASIC.classes[c] == SPACE;
+	}
+
+	private static boolean isArabicPair(CharSequence text, int index) {
+		if (index + 1 >= text.length() || !Character.isLowSurrogate(text.charAt(index + 1))) {
+			return false;
+		}
+		int codePoint = Character.toCodePoint(text.charAt(index), text.charAt(index + 1));
+		return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.ARABIC;
+	}
+
+	// Reusable output of tokenize(): the normalized text and the offset and length of each word
+	public static class Tokens {
+		private char[] chars = new char[256];
+		private int length;
+		private int[] starts = new int[64];
+		private int[] lengths = new int[64];
+		private int[] sourceStarts = new int[64];
+		private int count;
+
+		public int count() {
+			return count;
+		}
+
+		// Normalized text; only the first textLength() chars are valid
+		public char[] chars() {
+			return chars;
+		}
+
+		public int textLength() {
+			return length;
+		}
+
+		public int start(int token) {
+			return starts[token];
+		}
+
+		public int length(int token) {
+			return lengths[token];
+		}
+
+		// Offset in the tokenized text of the whitespace-separated word the token was normalized from
+		public int sourceStart(int token) {
+			return sourceStarts[token];
+		}
+
+		public String token(int token) {
+			return new String(chars, starts[token], lengths[token]);
+		}
+
+		public boolean tokenEquals(int token, CharSequence word) {
+			int tokenLength = lengths[token];
+			if (word.length() != tokenLength) {
+				return false;
+			}
+			int start = starts[token];
+			for (int i = 0; i < tokenLength; i++) {
+				if (chars[start + i] != word.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// Equal to token(token).hashCode()
+		public int tokenHash(int token) {
+			int hash = 0;
+			int end = starts[token] + lengths[token];
+			for (int i = starts[token]; i < end; i++) {
+				hash = 31 * hash + chars[i];
+			}
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return new String(chars, 0, length);
+		}
+
+		private void clear(int capacity) {
+			if (chars.length < capacity) {
+				chars = new char[Math.max(capacity, chars.length * 2)];
+			}
+			length = 0;
+			count = 0;
+		}
+
+		private void add(int start, int tokenLength, int sourceStart) {
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				lengths = Arrays.copyOf(lengths, count * 2);
+				sourceStarts = Arrays.copyOf(sourceStarts, count * 2);
+			}
+			starts[count] = start;
+			lengths[count] = tokenLength;
+			sourceStarts[count] = sourceStart;
+			count++;
+		}
+	}
+}
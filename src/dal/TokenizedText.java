@@ -0,0 +1,204 @@
+package dal;
+
+import java.util.Arrays;
+
+// A page split into words once and shared by every analysis of it. Tokens are the
+// whitespace-separated words as written; each also has its normalized form and an id into
+// the page's vocabulary of normalized words (-1 when nothing Arabic is left of it).
+// Display keeps using the tokens; the normalization profile only decides which spellings
+// share a vocabulary id.
+//
+// The page is normalized by TextNormalizer.tokenize and words are looked up by their span of
+// the normalized text in an open-addressed table, so a String is created once per distinct
+// normalized word rather than per token. Tokens as written are cut from the text on request.
+public final class TokenizedText {
+	private final String text;
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] ids;
+	private String[] vocabulary;
+	private int vocabularySize;
+	// Vocabulary id + 1 by hash slot; 0 marks a free slot
+	private int[] table;
+	private int[] hashes;
+	private final int[] wordIds;
+	private int[] counts;
+	private String[] tokens;
+	private String[] words;
+
+	private TokenizedText(String text, TextNormalizer.Profile profile) {
+		this.text = text;
+		int[] tokenStarts = new int[16];
+		int[] tokenEnds = new int[16];
+		int tokenCount = 0;
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean space = i == text.length() || TextNormalizer.isSpace(text.charAt(i));
+			if (space && start >= 0) {
+				if (tokenCount == tokenStarts.length) {
+					tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+					tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+				}
+				tokenStarts[tokenCount] = start;
+				tokenEnds[tokenCount++] = i;
+				start = -1;
+			} else if (!space && start < 0) {
+				start = i;
+			}
+		}
+		this.starts = Arrays.copyOf(tokenStarts, tokenCount);
+		this.ends = Arrays.copyOf(tokenEnds, tokenCount);
+
+		TextNormalizer.Tokens spans = TextNormalizer.tokenize(text, new TextNormalizer.Tokens(), profile);
+		this.ids = new int[tokenCount];
+		this.wordIds = new int[spans.count()];
+		this.vocabulary = new String[16];
+		this.hashes = new int[16];
+		this.counts = new int[16];
+		this.table = new int[32];
+		// Every span comes from one token, in order; tokens without a span have no Arabic letters
+		int span = 0;
+		for (int i = 0; i < tokenCount; i++) {
+			if (span < spans.count() && spans.sourceStart(span) == starts[i]) {
+				int id = intern(spans, span);
+				counts[id]++;
+				ids[i] = id;
+				wordIds[span++] = id;
+			} else {
+				ids[i] = -1;
+			}
+		}
+	}
+
+	private int intern(TextNormalizer.Tokens spans, int span) {
+		int hash = spans.tokenHash(span);
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (hashes[id] == hash && spans.tokenEquals(span, vocabulary[id])) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (vocabularySize == vocabulary.length) {
+			vocabulary = Arrays.copyOf(vocabulary, vocabularySize * 2);
+			hashes = Arrays.copyOf(hashes, vocabularySize * 2);
+			counts = Arrays.copyOf(counts, vocabularySize * 2);
+		}
+		int id = vocabularySize++;
+		vocabulary[id] = spans.token(span);
+		hashes[id] = hash;
+		table[slot] = id + 1;
+		if (vocabularySize * 2 > table.length) {
+			grow();
+		}
+		return id;
+	}
+
+	private void grow() {
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for (int id = 0; id < vocabularySize; id++) {
+			int slot = mix(hashes[id]) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+	}
+
+	private static int mix(int hash) {
+		int mixed = hash * 0x9E3779B9;
+		return mixed ^ (mixed >>> 16);
+	}
+
+	// Normalized with the configured profile
+	public static TokenizedText of(String text) {
+		return of(text, TextNormalizer.Profile.configured());
+	}
+
+	public static TokenizedText of(String text, TextNormalizer.Profile profile) {
+		return new TokenizedText(text == null ? "" : text, profile);
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	// Words as written, in order
+	public synchronized String[] tokens() {
+		if (tokens == null) {
+			tokens = new String[starts.length];
+			for (int i = 0; i < starts.length; i++) {
+				tokens[i] = token(i);
+			}
+		}
+		return tokens;
+	}
+
+	public int tokenCount() {
+		return starts.length;
+	}
+
+	public String token(int token) {
+		return text.substring(starts[token], ends[token]);
+	}
+
+	// Offset of the token in getText()
+	public int start(int token) {
+		return starts[token];
+	}
+
+	public String normalized(int token) {
+		return ids[token] < 0 ? "" : vocabulary[ids[token]];
+	}
+
+	public int id(int token) {
+		return ids[token];
+	}
+
+	// Normalized words in order, skipping tokens with nothing left after normalization;
+	// the words split() finds in PreProcessText.preprocessText(getText())
+	public synchronized String[] words() {
+		if (words == null) {
+			words = new String[wordIds.length];
+			for (int i = 0; i < wordIds.length; i++) {
+				words[i] = vocabulary[wordIds[i]];
+			}
+		}
+		return words;
+	}
+
+	// Vocabulary id of each of words()
+	public int[] wordIds() {
+		return wordIds;
+	}
+
+	public int vocabularySize() {
+		return vocabularySize;
+	}
+
+	// Normalized word of a vocabulary id; ids follow first occurrence
+	public String word(int id) {
+		return vocabulary[id];
+	}
+
+	// Vocabulary id of a normalized word, or -1 when the page does not contain it
+	public int idOf(String word) {
+		int hash = word.hashCode();
+		int mask = table.length - 1;
+		for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int id = table[slot] - 1;
+			if (hashes[id] == hash && vocabulary[id].equals(word)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	// Occurrences of a vocabulary id in words()
+	public int count(int id) {
+		return counts[id];
+	}
+}
@@ -1,85 +1,120 @@
 package dal;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// Romanizes Arabic text through lookup tables indexed by the character's offset in the Arabic
+// block, one for the first letter of a word (capitalized) and one for the rest. Characters
+// without a romanization are dropped, runs of spaces become one and the result is trimmed.
+// Text is read and written in buffers, so a whole document never has to be held in memory.
 public class Transliteration {
 
+    private static final char BLOCK_START = '\u0600';
+    private static final int BLOCK_SIZE = 256;
+    private static final int BUFFER_SIZE = 8192;
+    // The longest romanization is two letters, plus the space that may precede a word
+    private static final int MAX_OUTPUT_PER_CHAR = 3;
 
-    private static final Map<Character, String> transliterationMap = new HashMap<>();
+    private static final char[][] lowerCase = new char[BLOCK_SIZE][];
+    private static final char[][] capitalized = new char[BLOCK_SIZE][];
 
     static {
-        transliterationMap.put('ا', "a");
-        transliterationMap.put('آ', "aa");
-        transliterationMap.put('ب', "b");
-        transliterationMap.put('ت', "t");
-        transliterationMap.put('ث', "th");
-        transliterationMap.put('ج', "j"); 
-        transliterationMap.put('ح', "H"); 
-        transliterationMap.put('خ', "kh");
-        transliterationMap.put('د', "d");
-        transliterationMap.put('ذ', "dh");
-        transliterationMap.put('ر', "r");
-        transliterationMap.put('ز', "z");
-        transliterationMap.put('س', "s");
-        transliterationMap.put('ش', "sh");
-        transliterationMap.put('ص', "S"); 
-        transliterationMap.put('ض', "D"); 
-        transliterationMap.put('ط', "T"); 
-        transliterationMap.put('ظ', "DH"); 
-        transliterationMap.put('ع', "3"); 
-        transliterationMap.put('غ', "gh");
-        transliterationMap.put('ف', "f");
-        transliterationMap.put('ق', "q");
-        transliterationMap.put('ك', "k");
-        transliterationMap.put('ل', "l");
-        transliterationMap.put('م', "m");
-        transliterationMap.put('ن', "n");
-        transliterationMap.put('ه', "h");
-        transliterationMap.put('و', "w"); 
-        transliterationMap.put('ي', "y"); 
-        transliterationMap.put('ء', "'");
+        put('ا', "a");
+        put('آ', "aa");
+        put('ب', "b");
+        put('ت', "t");
+        put('ث', "th");
+        put('ج', "j");
+        put('ح', "H");
+        put('خ', "kh");
+        put('د', "d");
+        put('ذ', "dh");
+        put('ر', "r");
+        put('ز', "z");
+        put('س', "s");
+        put('ش', "sh");
+        put('ص', "S");
+        put('ض', "D");
+        put('ط', "T");
+        put('ظ', "DH");
+        put('ع', "3");
+        put('غ', "gh");
+        put('ف', "f");
+        put('ق', "q");
+        put('ك', "k");
+        put('ل', "l");
+        put('م', "m");
+        put('ن', "n");
+        put('ه', "h");
+        put('و', "w");
+        put('ي', "y");
+        put('ء', "'");
         // Adding vowels for pronunciation
-        transliterationMap.put('َ', "a");
-        transliterationMap.put('ُ', "u");
-        transliterationMap.put('ِ', "i");
+        put('َ', "a");
+        put('ُ', "u");
+        put('ِ', "i");
     }
 
+    private static void put(char arabic, String roman) {
+        lowerCase[arabic - BLOCK_START] = roman.toCharArray();
+        capitalized[arabic - BLOCK_START] = (Character.toUpperCase(roman.charAt(0)) + roman.substring(1)).toCharArray();
+    }
 
     public static String transliterate(String arabicText) {
-        StringBuilder romanText = new StringBuilder();
-        boolean lastCharWasSpace = false;
+        StringWriter romanText = new StringWriter(arabicText.length());
+        try {
+            transliterate(new StringReader(arabicText), romanText);
+        } catch (IOException e) {
+            // Strings are read and written in memory
+            throw new UncheckedIOException(e);
+        }
+        return romanText.toString();
+    }
 
-        for (char ch : arabicText.toCharArray()) {
-            if (ch == ' ') {
-                if (!lastCharWasSpace) {
-                    romanText.append(" ");
-                    lastCharWasSpace = true;
+    // Writes the romanization of everything read; does not close either side
+    public static void transliterate(Reader arabicText, Writer romanText) throws IOException {
+        char[] input = new char[BUFFER_SIZE];
+        char[] output = new char[BUFFER_SIZE * MAX_OUTPUT_PER_CHAR];
+        // Whether the current word has produced output, and whether a space is owed before the next one
+        boolean inWord = false;
+        boolean spacePending = false;
+
+        int read;
+        while ((read = arabicText.read(input)) != -1) {
+            int length = 0;
+            for (int i = 0; i < read; i++) {
+                char ch = input[i];
+                if (ch == ' ') {
+                    spacePending |= inWord;
+                    inWord = false;
+                    continue;
                 }
-                continue;
-            }
-
-            if (!transliterationMap.containsKey(ch))
-                continue;
-
-            String romanEquivalent = transliterationMap.get(ch);
-            romanText.append(romanEquivalent);
-            lastCharWasSpace = false;
-        }
 
-        // Formatting words and capitalizing each word's first letter
-        String[] words = romanText.toString().split(" ");
-        StringBuilder formattedText = new StringBuilder();
+                int index = ch - BLOCK_START;
+                if (index < 0 || index >= BLOCK_SIZE || lowerCase[index] == null) {
+                    continue;
+                }
 
-        for (String word : words) {
-            if (word.isEmpty())
-                continue;
-            formattedText.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1)).append(" ");
+                char[] roman;
+                if (inWord) {
+                    roman = lowerCase[index];
+                } else {
+                    if (spacePending) {
+                        output[length++] = ' ';
+                        spacePending = false;
+                    }
+                    roman = capitalized[index];
+                    inWord = true;
+                }
+                for (char letter : roman) {
+                    output[length++] = letter;
+                }
+            }
+            romanText.write(output, 0, length);
         }
-
-        return formattedText.toString().trim();
     }
 }
-
-
-
@@ -0,0 +1,205 @@
+package dal;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+// Rebuilds stored transliterations for the whole corpus. Pages are read in id order, one chunk
+// at a time (keyset pagination, so every chunk is an index range scan), transliterated in
+// parallel on a fork/join pool and written back in one batch per chunk. Pages whose stored
+// transliteration was made from their current text are skipped unless every page is rebuilt.
+//
+// Run headless with: java dal.TransliterationJob [--all]
+public class TransliterationJob {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	// Pages transliterated by one fork/join task before it stops splitting
+	private static final int PAGES_PER_TASK = 16;
+
+	// A page read by the job: its text, the hash of the text its stored transliteration was made
+	// from (null when there is none or the backend does not keep it), and the new transliteration
+	public static class PageText {
+		private final int pageId;
+		private final String content;
+		private final String storedHash;
+		private String contentHash;
+		private String transliteration;
+
+		public PageText(int pageId, String content, String storedHash) {
+			this.pageId = pageId;
+			this.content = content;
+			this.storedHash = storedHash;
+		}
+
+		public int getPageId() {
+			return pageId;
+		}
+
+		public String getContent() {
+			return content;
+		}
+
+		public String getContentHash() {
+			return contentHash;
+		}
+
+		public String getTransliteration() {
+			return transliteration;
+		}
+	}
+
+	public static class Progress {
+		private final long pagesScanned;
+		private final long pagesWritten;
+		private final long elapsedMillis;
+
+		Progress(long pagesScanned, long pagesWritten, long elapsedMillis) {
+			this.pagesScanned = pagesScanned;
+			this.pagesWritten = pagesWritten;
+			this.elapsedMillis = elapsedMillis;
+		}
+
+		public long getPagesScanned() {
+			return pagesScanned;
+		}
+
+		public long getPagesWritten() {
+			return pagesWritten;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		@Override
+		public String toString() {
+			return pagesScanned + " pages scanned, " + pagesWritten + " transliterations written in "
+					+ elapsedMillis + " ms";
+		}
+	}
+
+	private final AbstractEditorDAO dao;
+	private final int chunkSize;
+	private final int threads;
+	private final int maxPagesPerSecond;
+	private final boolean all;
+	private Consumer<Progress> progressListener = progress -> LOGGER.info("Transliteration: " + progress);
+
+	// Settings from transliteration.job.chunkSize, .threads and .maxPagesPerSecond
+	public TransliterationJob(AbstractEditorDAO dao, boolean all) {
+		this(dao, EditorConfig.getInt("transliteration.job.chunkSize", 500),
+				EditorConfig.getInt("transliteration.job.threads", 0),
+				EditorConfig.getInt("transliteration.job.maxPagesPerSecond", 0), all);
+	}
+
+	// threads 0 means one per processor, maxPagesPerSecond 0 means unthrottled
+	public TransliterationJob(AbstractEditorDAO dao, int chunkSize, int threads, int maxPagesPerSecond, boolean all) {
+		this.dao = dao;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.maxPagesPerSecond = Math.max(0, maxPagesPerSecond);
+		this.all = all;
+	}
+
+	// Called after every chunk; logs by default
+	public void setProgressListener(Consumer<Progress> progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	// Returns the final progress, or null when reading or writing failed; pages written by
+	// earlier chunks stay written, so a failed run can simply be started again
+	public Progress run() {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.currentTimeMillis();
+		long scanned = 0;
+		long written = 0;
+		int afterPageId = 0;
+		try {
+			while (true) {
+				List<PageText> chunk = dao.getPagesAfter(afterPageId, chunkSize);
+				if (chunk.isEmpty()) {
+					break;
+				}
+				afterPageId = chunk.get(chunk.size() - 1).getPageId();
+				scanned += chunk.size();
+
+				pool.invoke(new TransliterateTask(chunk, 0, chunk.size()));
+				chunk.removeIf(page -> page.transliteration == null);
+				if (!chunk.isEmpty()) {
+					dao.storeTransliterations(chunk);
+					written += chunk.size();
+				}
+
+				progressListener.accept(new Progress(scanned, written, System.currentTimeMillis() - start));
+				throttle(start, scanned);
+			}
+			return new Progress(scanned, written, System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error("Transliteration job stopped after page " + afterPageId + ": " + e.getMessage());
+			return null;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// Sleeps until the pages scanned so far fit within maxPagesPerSecond
+	private void throttle(long start, long scanned) throws InterruptedException {
+		if (maxPagesPerSecond > 0) {
+			long due = start + scanned * 1000 / maxPagesPerSecond;
+			long wait = due - System.currentTimeMillis();
+			if (wait > 0) {
+				Thread.sleep(wait);
+			}
+		}
+	}
+
+	private class TransliterateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<PageText> pages;
+		private final int from;
+		private final int to;
+
+		TransliterateTask(List<PageText> pages, int from, int to) {
+			this.pages = pages;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > PAGES_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new TransliterateTask(pages, from, middle), new TransliterateTask(pages, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				PageText page = pages.get(i);
+				page.contentHash = HashCalculator.contentHash(page.content);
+				if (all || !page.contentHash.equals(page.storedHash)) {
+					page.transliteration = Transliteration.transliterate(page.content);
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		IEditorDBDAO editorDAO = AbstractDAOEditorFactory.getInstance().createEditorDAO();
+		if (!(editorDAO instanceof AbstractEditorDAO)) {
+			LOGGER.error("db.type " + EditorConfig.getProperty("db.type", "") + " does not support the transliteration job");
+			System.exit(1);
+		}
+		boolean all = args.length > 0 && args[0].equals("--all");
+		Progress progress = new TransliterationJob((AbstractEditorDAO) editorDAO, all).run();
+		if (editorDAO instanceof LogStructuredEditorDAO) {
+			((LogStructuredEditorDAO) editorDAO).close();
+		}
+		System.exit(progress == null ? 1 : 0);
+	}
+}
@@ -0,0 +1,210 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dto.PageAnalytics;
+
+// Writes per-page analytics as rows that reference interned ids: words go to vocabulary,
+// lemma/root/stem values to their own lookup tables.
+public class VocabularyAnalyticsStore implements IAnalyticsStore {
+	private static final String[] ANALYTICS_TABLES = { "pos", "lemmatization", "rootextraction", "stemmation",
+			"wordsegementation", "pkl", "pmi" };
+
+	private final InternTable vocabulary;
+	private final InternTable lemmas;
+	private final InternTable roots;
+	private final InternTable stems;
+
+	public VocabularyAnalyticsStore() {
+		int cacheSize = EditorConfig.getInt("db.vocabulary.cacheSize", 500000);
+		vocabulary = new InternTable("vocabulary", "wordId", "word", cacheSize);
+		lemmas = new InternTable("lemmas", "lemmaId", "lemma", cacheSize);
+		roots = new InternTable("roots", "rootId", "root", cacheSize);
+		stems = new InternTable("stems", "stemId", "stem", cacheSize);
+	}
+
+	@Override
+	public void insert(Connection conn, int pageId, PageAnalytics analytics) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO pos (pageId, wordId, pos) VALUES (?, ?, ?)")) {
+			for (Map.Entry<String, List<String>> entry : analytics.getPosTags().entrySet()) {
+				stmt.setInt(1, pageId);
+				stmt.setInt(2, vocabulary.idOf(conn, entry.getKey()));
+				stmt.setString(3, String.join("|", entry.getValue()));
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+
+		insertLookups(conn, "INSERT INTO lemmatization (pageId, wordId, lemmaId) VALUES (?, ?, ?)", pageId,
+				analytics.getLemmas(), lemmas);
+		insertLookups(conn, "INSERT INTO rootextraction (pageId, wordId, rootId) VALUES (?, ?, ?)", pageId,
+				analytics.getRoots(), roots);
+		insertLookups(conn, "INSERT INTO stemmation (pageId, wordId, stemId) VALUES (?, ?, ?)", pageId,
+				analytics.getStems(), stems);
+
+		try (PreparedStatement stmt = conn
+				.prepareStatement("INSERT INTO wordsegementation (pageId, wordId, segment) VALUES (?, ?, ?)")) {
+			for (Map.Entry<String, String> entry : analytics.getSegments().entrySet()) {
+				stmt.setInt(1, pageId);
+				stmt.setInt(2, vocabulary.idOf(conn, entry.getKey()));
+				stmt.setString(3, entry.getValue());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+
+		try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO pkl (pageId, wordId, pklScore) VALUES (?, ?, ?)")) {
+			for (Map.Entry<String, Double> entry : analytics.getPklScores().entrySet()) {
+				stmt.setInt(1, pageId);
+				stmt.setInt(2, vocabulary.idOf(conn, entry.getKey()));
+				stmt.setDouble(3, entry.getValue());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+
+		// PMI keys are "first second" bigrams, stored as two word ids
+		try (PreparedStatement stmt = conn
+				.prepareStatement("INSERT INTO pmi (pageId, wordId, nextWordId, pmiScore) VALUES (?, ?, ?, ?)")) {
+			for (Map.Entry<String, Double> entry : analytics.getPmiScores().entrySet()) {
+				String[] bigram = entry.getKey().split(" ", 2);
+				stmt.setInt(1, pageId);
+				stmt.setInt(2, vocabulary.idOf(conn, bigram[0]));
+				stmt.setInt(3, vocabulary.idOf(conn, bigram.length > 1 ? bigram[1] : ""));
+				stmt.setDouble(4, entry.getValue());
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	@Override
+	public void delete(Connection conn, int pageId) throws SQLException {
+		for (String table : ANALYTICS_TABLES) {
+			try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE pageId = ?")) {
+				stmt.setInt(1, pageId);
+				stmt.executeUpdate();
+			}
+		}
+	}
+
+	@Override
+	public void replace(Connection conn, int pageId, PageAnalytics analytics) throws SQLException {
+		delete(conn, pageId);
+		insert(conn, pageId, analytics);
+	}
+
+	@Override
+	public PageAnalytics read(Connection conn, int pageId) throws SQLException {
+		Map<String, List<String>> posTags = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT v.word, a.pos FROM pos a JOIN vocabulary v ON v.wordId = a.wordId WHERE a.pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					String tags = rs.getString(2);
+					posTags.put(rs.getString(1),
+							tags == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(tags.split("\\|"))));
+				}
+			}
+		}
+
+		Map<String, String> lemmaMap = readLookups(conn, pageId, "lemmatization", "lemmas", "lemmaId", "lemma");
+		Map<String, String> rootMap = readLookups(conn, pageId, "rootextraction", "roots", "rootId", "root");
+		Map<String, String> stemMap = readLookups(conn, pageId, "stemmation", "stems", "stemId", "stem");
+
+		Map<String, String> segments = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT v.word, a.segment FROM wordsegementation a JOIN vocabulary v ON v.wordId = a.wordId WHERE a.pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					segments.put(rs.getString(1), rs.getString(2));
+				}
+			}
+		}
+
+		Map<String, Double> pklScores = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement(
+				"SELECT v.word, a.pklScore FROM pkl a JOIN vocabulary v ON v.wordId = a.wordId WHERE a.pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					pklScores.put(rs.getString(1), rs.getDouble(2));
+				}
+			}
+		}
+
+		Map<String, Double> pmiScores = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT v.word, n.word, a.pmiScore FROM pmi a "
+				+ "JOIN vocabulary v ON v.wordId = a.wordId JOIN vocabulary n ON n.wordId = a.nextWordId WHERE a.pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					pmiScores.put(rs.getString(1) + " " + rs.getString(2), rs.getDouble(3));
+				}
+			}
+		}
+		return new PageAnalytics(posTags, lemmaMap, rootMap, stemMap, segments, pklScores, pmiScores);
+	}
+
+	// Call after the surrounding transaction commits or rolls back
+	@Override
+	public void commit() {
+		vocabulary.commit();
+		lemmas.commit();
+		roots.commit();
+		stems.commit();
+	}
+
+	@Override
+	public void rollback() {
+		vocabulary.rollback();
+		lemmas.rollback();
+		roots.rollback();
+		stems.rollback();
+	}
+
+	private void insertLookups(Connection conn, String query, int pageId, Map<String, String> values,
+			InternTable lookup) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			for (Map.Entry<String, String> entry : values.entrySet()) {
+				stmt.setInt(1, pageId);
+				stmt.setInt(2, vocabulary.idOf(conn, entry.getKey()));
+				Integer valueId = lookup.idOf(conn, entry.getValue());
+				if (valueId == null) {
+					stmt.setNull(3, Types.INTEGER);
+				} else {
+					stmt.setInt(3, valueId);
+				}
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	private Map<String, String> readLookups(Connection conn, int pageId, String table, String lookupTable,
+			String idColumn, String valueColumn) throws SQLException {
+		Map<String, String> values = new HashMap<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT v.word, l." + valueColumn + " FROM " + table
+				+ " a JOIN vocabulary v ON v.wordId = a.wordId LEFT JOIN " + lookupTable + " l ON l." + idColumn
+				+ " = a." + idColumn + " WHERE a.pageId = ?")) {
+			stmt.setInt(1, pageId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					values.put(rs.getString(1), rs.getString(2));
+				}
+			}
+		}
+		return values;
+	}
+}
@@ -14,19 +14,25 @@ import pl.EditorPO;
 public class WordSegmentation {
 
 	public static Map<String, String> extractSegments(String text) {
+		return extractSegments(TokenizedText.of(text));
+	}
+
+	public static Map<String, String> extractSegments(TokenizedText text) {
 
 		Map<String, String> wordSegmentMap = new LinkedHashMap<>();
 		final Logger logger = LogManager.getLogger(EditorPO.class);
 
-		String[] words = text.split("\\s+");
+		String[] words = text.tokens();
 
 		try {
 
 			AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
 
 			if (analyzer != null) {
-				for (String word : words) {
-
+				// Segmented once per vocabulary word, from its normalized form
+				String[] segmentsById = new String[text.vocabularySize()];
+				for (int id = 0; id < segmentsById.length; id++) {
+					String word = text.word(id);
 					List<Result> results = analyzer.processToken(word).getAllResults();
 
 					if (results != null && !results.isEmpty()) {
@@ -46,12 +52,16 @@ public class WordSegmentation {
 							segmentBuilder.append("-").append(suffix);
 						}
 
-						wordSegmentMap.put(word, segmentBuilder.toString());
+						segmentsById[id] = segmentBuilder.toString();
 					} else {
 
-						wordSegmentMap.put(word, "None");
+						segmentsById[id] = "None";
 					}
 				}
+				for (int token = 0; token < words.length; token++) {
+					int id = text.id(token);
+					wordSegmentMap.putIfAbsent(words[token], id < 0 ? "None" : segmentsById[id]);
+				}
 			} else {
 				System.err.println("Failed to initialize AlKhalil2Analyzer.");
 				logger.error("Failed to initialize AlKhalil2Analyzer.");
@@ -0,0 +1,54 @@
+package dto;
+
+// How many page chunks of one import reused analytics stored for identical text
+public class DedupeReport {
+	private String fileName;
+	private int chunks;
+	private int reusedChunks;
+	private long characters;
+	private long reusedCharacters;
+
+	public DedupeReport(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public void addChunk(int length, boolean reused) {
+		chunks++;
+		characters += length;
+		if (reused) {
+			reusedChunks++;
+			reusedCharacters += length;
+		}
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public int getReusedChunks() {
+		return reusedChunks;
+	}
+
+	public long getCharacters() {
+		return characters;
+	}
+
+	public long getReusedCharacters() {
+		return reusedCharacters;
+	}
+
+	// Share of the file's characters whose analytics were reused
+	public double getRatio() {
+		return characters == 0 ? 0 : (double) reusedCharacters / characters;
+	}
+
+	@Override
+	public String toString() {
+		return fileName + ": " + reusedChunks + " of " + chunks + " chunks reused, "
+				+ String.format("%.1f", getRatio() * 100) + "% of " + characters + " characters";
+	}
+}
@@ -0,0 +1,82 @@
+package dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class PageAnalytics {
+	private Map<String, List<String>> posTags;
+	private Map<String, String> lemmas;
+	private Map<String, String> roots;
+	private Map<String, String> stems;
+	private Map<String, String> segments;
+	private Map<String, Double> pklScores;
+	private Map<String, Double> pmiScores;
+
+	public PageAnalytics(Map<String, List<String>> posTags, Map<String, String> lemmas, Map<String, String> roots,
+			Map<String, String> stems, Map<String, String> segments, Map<String, Double> pklScores,
+			Map<String, Double> pmiScores) {
+		this.posTags = posTags;
+		this.lemmas = lemmas;
+		this.roots = roots;
+		this.stems = stems;
+		this.segments = segments;
+		this.pklScores = pklScores;
+		this.pmiScores = pmiScores;
+	}
+
+	public Map<String, List<String>> getPosTags() {
+		return posTags;
+	}
+
+	public Map<String, String> getLemmas() {
+		return lemmas;
+	}
+
+	public Map<String, String> getRoots() {
+		return roots;
+	}
+
+	public Map<String, String> getStems() {
+		return stems;
+	}
+
+	public Map<String, String> getSegments() {
+		return segments;
+	}
+
+	public Map<String, Double> getPklScores() {
+		return pklScores;
+	}
+
+	public Map<String, Double> getPmiScores() {
+		return pmiScores;
+	}
+
+	public void setPosTags(Map<String, List<String>> posTags) {
+		this.posTags = posTags;
+	}
+
+	public void setLemmas(Map<String, String> lemmas) {
+		this.lemmas = lemmas;
+	}
+
+	public void setRoots(Map<String, String> roots) {
+		this.roots = roots;
+	}
+
+	public void setStems(Map<String, String> stems) {
+		this.stems = stems;
+	}
+
+	public void setSegments(Map<String, String> segments) {
+		this.segments = segments;
+	}
+
+	public void setPklScores(Map<String, Double> pklScores) {
+		this.pklScores = pklScores;
+	}
+
+	public void setPmiScores(Map<String, Double> pmiScores) {
+		this.pmiScores = pmiScores;
+	}
+}
@@ -0,0 +1,79 @@
+package dto;
+
+public class QueryStatistics {
+	private String sqlTemplate;
+	private long count;
+	private long totalNanos;
+	private long p50Nanos;
+	private long p95Nanos;
+	private long p99Nanos;
+	private long maxNanos;
+	private long rowsAffected;
+	private long batchCount;
+	private long batchedStatements;
+
+	public QueryStatistics(String sqlTemplate, long count, long totalNanos, long p50Nanos, long p95Nanos,
+			long p99Nanos, long maxNanos, long rowsAffected, long batchCount, long batchedStatements) {
+		this.sqlTemplate = sqlTemplate;
+		this.count = count;
+		this.totalNanos = totalNanos;
+		this.p50Nanos = p50Nanos;
+		this.p95Nanos = p95Nanos;
+		this.p99Nanos = p99Nanos;
+		this.maxNanos = maxNanos;
+		this.rowsAffected = rowsAffected;
+		this.batchCount = batchCount;
+		this.batchedStatements = batchedStatements;
+	}
+
+	public String getSqlTemplate() {
+		return sqlTemplate;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP95Nanos() {
+		return p95Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public long getRowsAffected() {
+		return rowsAffected;
+	}
+
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	public long getBatchedStatements() {
+		return batchedStatements;
+	}
+
+	public double getAverageBatchSize() {
+		return batchCount == 0 ? 0 : (double) batchedStatements / batchCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d total=%.1fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms rows=%d batches=%d avgBatch=%.1f | %s",
+				count, totalNanos / 1e6, p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6, rowsAffected,
+				batchCount, getAverageBatchSize(), sqlTemplate);
+	}
+}
@@ -12,7 +12,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.rmi.RemoteException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,8 +21,10 @@ import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTable;
@@ -33,11 +34,13 @@ import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.text.PlainDocument;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import bll.IEditorBO;
+import bll.PieceTable;
 import dto.Documents;
 import dto.Pages;
 
@@ -45,11 +48,13 @@ public class EditorPO extends JFrame {
 
 	private static final long serialVersionUID = 1L;
 	private static final Logger logger = LogManager.getLogger(EditorPO.class);
+	private static final int SIMILAR_FILES_LIMIT = 10;
 	private IEditorBO businessObj;
 	private DefaultTableModel tableModel;
 	private JPanel mainPanel, editPanel, transliterationPanel;
 	private JTable fileTable;
 	private JTextArea contentTextArea, transliteratedTextArea;
+	private PieceTable contentText;
 	private JButton nextButton, previousButton;
 	private JLabel pageCountLabel;
 	private JLabel savingStatusLabel;
@@ -69,7 +74,7 @@ public class EditorPO extends JFrame {
 	private boolean autoSaveRunning = false;
 	private Thread tfidfThread;
 	private int selectedDocFileId;
-	private Documents selectedDoc;
+	private String selectedDocName;
 	private double tfidfScore = 0;
 	private Thread pklThread;
 	private Map<String, Double> pklResults = new HashMap<>();
@@ -209,29 +214,8 @@ public class EditorPO extends JFrame {
 						@Override
 						public void run() {
 							selectedDocFileId = (int) tableModel.getValueAt(selectedRow, 0);
-							selectedDoc = null;
-							selectedDoc = businessObj.getFile(selectedDocFileId);
-							pages = selectedDoc.getPages();
-							String selectedDocContent = null;
-							for (int i = 0; i < pages.size(); i++) {
-								selectedDocContent = pages.get(i).getPageContent();
-							}
-
-							List<String> unselectedDocsContent = new ArrayList<String>();
-							for (int row = 0; row < fileTable.getRowCount(); row++) {
-								int unselectedDocFileId = (int) tableModel.getValueAt(row, 0);
-								if (unselectedDocFileId != selectedDocFileId) {
-									Documents unselectedDoc = null;
-									unselectedDoc = businessObj.getFile(unselectedDocFileId);
-									pages = unselectedDoc.getPages();
-									String unselectedDocContent = null;
-									for (int i = 0; i < pages.size(); i++) {
-										unselectedDocContent = pages.get(i).getPageContent();
-									}
-									unselectedDocsContent.add(unselectedDocContent);
-								}
-							}
-							tfidfScore = businessObj.performTFIDF(unselectedDocsContent, selectedDocContent);
+							selectedDocName = (String) tableModel.getValueAt(selectedRow, 1);
+							tfidfScore = businessObj.performTFIDF(selectedDocFileId);
 						}
 
 					});
@@ -244,6 +228,30 @@ public class EditorPO extends JFrame {
 			}
 		});
 
+		JPopupMenu fileMenu = new JPopupMenu();
+		JMenuItem similarFilesItem = new JMenuItem("Find Similar Files");
+		similarFilesItem.addActionListener(e -> showSimilarFiles());
+		fileMenu.add(similarFilesItem);
+		fileTable.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent event) {
+				showFileMenu(event);
+			}
+
+			@Override
+			public void mouseReleased(MouseEvent event) {
+				showFileMenu(event);
+			}
+
+			private void showFileMenu(MouseEvent event) {
+				int row = fileTable.rowAtPoint(event.getPoint());
+				if (event.isPopupTrigger() && row != -1) {
+					fileTable.setRowSelectionInterval(row, row);
+					fileMenu.show(fileTable, event.getX(), event.getY());
+				}
+			}
+		});
+
 		importFileButton.addActionListener(e -> {
 			importThread = new Thread(new Runnable() {
 
@@ -294,13 +302,16 @@ public class EditorPO extends JFrame {
 		});
 
 		tfidfButton.addActionListener(e -> {
-			JOptionPane.showMessageDialog(null, "TF-IDF Score for '" + selectedDoc.getName() + "' is: " + tfidfScore);
-			logger.info("TF-IDF Score for '" + selectedDoc.getName() + "' is: " + tfidfScore);
+			JOptionPane.showMessageDialog(null, "TF-IDF Score for '" + selectedDocName + "' is: " + tfidfScore);
+			logger.info("TF-IDF Score for '" + selectedDocName + "' is: " + tfidfScore);
 		});
 	}
 
 	private void setupEditPanel() {
-		contentTextArea = new JTextArea(10, 40);
+		// Piece table content keeps edits and the statistics below cheap for large pages
+		PieceTableContent content = new PieceTableContent();
+		contentText = content.getPieceTable();
+		contentTextArea = new JTextArea(new PlainDocument(content), null, 10, 40);
 		contentTextArea.setLineWrap(true);
 		contentTextArea.setWrapStyleWord(true);
 		contentTextArea.setEditable(true);
@@ -615,38 +626,29 @@ public class EditorPO extends JFrame {
 		transliterationPanel.add(buttonPanel, BorderLayout.SOUTH);
 	}
 	
-	private double calculateAvgWordLength(String content) {
-	    if (content == null || content.isEmpty()) {
-	        return 0;
-	    }
-
-	    String[] words = content.split("\\s+");
-	    int totalLength = 0;
-	    int wordCount = 0;
-
-	    for (String word : words) {
-	        if (!word.isEmpty()) {
-	            totalLength += word.length();
-	            wordCount++;
-	        }
-	    }
-
-	    return wordCount == 0 ? 0 : (double) totalLength / wordCount;
+	// The statistics read the counts the piece table maintains instead of copying the text
+	private double calculateAvgWordLength(PieceTable text) {
+		PieceTable.Snapshot snapshot = text.snapshot();
+		int wordCount = snapshot.getWordCount();
+		return wordCount == 0 ? 0 : (double) snapshot.getWordCharacterCount() / wordCount;
 	}
 	
-	private int calculateWordCount(String text) {
-	    if (text == null || text.trim().isEmpty()) {
-	        return 0;
-	    }
-	    return text.trim().split("\\s+").length;
+	private int calculateWordCount(PieceTable text) {
+		return text.getWordCount();
 	}
 	
-	private int calculateLineCount(String content) {
-		if (content == null || content.isEmpty()) {
-	        return 0;
-	    }
-	    String[] lines = content.split("\r?\n");
-	    return lines.length;
+	// Trailing line breaks do not start a new line
+	private int calculateLineCount(PieceTable text) {
+		PieceTable.Snapshot snapshot = text.snapshot();
+		int end = snapshot.length();
+		int trailingNewlines = 0;
+		while (end > 0 && (snapshot.charAt(end - 1) == '\n' || snapshot.charAt(end - 1) == '\r')) {
+			if (snapshot.charAt(end - 1) == '\n') {
+				trailingNewlines++;
+			}
+			end--;
+		}
+		return end == 0 ? 0 : snapshot.getNewlineCount() - trailingNewlines + 1;
 	}
 
 	private void openEditPanel(int fileId) {
@@ -692,8 +694,7 @@ public class EditorPO extends JFrame {
 	            while (totalLineCountRunning) {
 	                try {
 	                    Thread.sleep(500); 
-	                    String content = contentTextArea.getText();
-	                    int lineCount = calculateLineCount(content);
+	                    int lineCount = calculateLineCount(contentText);
 
 	                    SwingUtilities.invokeLater(() -> {
 	                        totalLineCountLabel.setText("Lines: " + lineCount);
@@ -714,8 +715,7 @@ public class EditorPO extends JFrame {
 				while (wordCountRunning) {
 		            try {
 		                Thread.sleep(500); 
-		                String content = contentTextArea.getText();
-		                int wordCount = calculateWordCount(content);		                
+		                int wordCount = calculateWordCount(contentText);		                
 		                SwingUtilities.invokeLater(() -> {
 		                    wordCountLabel.setText("Words: " + wordCount);
 		                });
@@ -733,8 +733,7 @@ public class EditorPO extends JFrame {
 	            while (avgWordLengthRunning) {
 	                try {
 	                    Thread.sleep(500);
-	                    String content = contentTextArea.getText();
-	                    double avgWordLength = calculateAvgWordLength(content);
+	                    double avgWordLength = calculateAvgWordLength(contentText);
 	                    SwingUtilities.invokeLater(() -> {
 	                        avgWordLengthLabel.setText("(Avg Word Length: " + (int)avgWordLength+")");
 	                    });
@@ -830,6 +829,32 @@ public class EditorPO extends JFrame {
 		}
 	}
 
+	private void showSimilarFiles() {
+		int selectedRow = fileTable.getSelectedRow();
+		if (selectedRow == -1) {
+			return;
+		}
+		int fileId = (int) tableModel.getValueAt(selectedRow, 0);
+		String fileName = (String) tableModel.getValueAt(selectedRow, 1);
+		Map<Integer, String> fileNames = new HashMap<>();
+		for (int row = 0; row < tableModel.getRowCount(); row++) {
+			fileNames.put((Integer) tableModel.getValueAt(row, 0), (String) tableModel.getValueAt(row, 1));
+		}
+
+		new Thread(() -> {
+			Map<Integer, Double> similarFiles = businessObj.findSimilarFiles(fileId, SIMILAR_FILES_LIMIT);
+			StringBuilder message = new StringBuilder();
+			for (Map.Entry<Integer, Double> similarFile : similarFiles.entrySet()) {
+				message.append(fileNames.getOrDefault(similarFile.getKey(), "File " + similarFile.getKey()))
+						.append(String.format(" (%.3f)", similarFile.getValue())).append("\n");
+			}
+			SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+					similarFiles.isEmpty() ? "No files similar to '" + fileName + "' were found."
+							: "Files similar to '" + fileName + "':\n" + message));
+			logger.info("Found " + similarFiles.size() + " files similar to '" + fileName + "'");
+		}).start();
+	}
+
 	private void deleteSelectedFiles(ActionEvent e) {
 		if (confirmAction("Do you want to delete the selected file?")) {
 			int selectedRow = fileTable.getSelectedRow();
@@ -879,7 +904,8 @@ public class EditorPO extends JFrame {
 				content = "";
 			}
 
-			boolean updated = businessObj.updateFile(fileId, fileName, currentPage, content);
+			// Pages are only split or merged on an explicit Save, which reloads them
+			boolean updated = businessObj.autoSaveFile(fileId, fileName, currentPage, content);
 			if (updated) {
 				savingStatusLabel.setVisible(true);
 				Thread.sleep(5000);
@@ -941,9 +967,11 @@ public class EditorPO extends JFrame {
 		}
 	}
 
+	// The saved page may have been merged into the one before it
 	private void refreshFilePage(int fileId, int currPage) {
 		openEditPanel(fileId);
-		loadPage(currPage);
+		currentPage = Math.max(1, Math.min(currPage, totalPageCount));
+		loadPage(currentPage);
 	}
 
 	private void refreshFileList() {
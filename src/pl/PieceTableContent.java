@@ -0,0 +1,158 @@
+package pl;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+
+import bll.PieceTable;
+
+// Swing document content backed by a PieceTable, used as new PlainDocument(new PieceTableContent()).
+// Like javax.swing.text.GapContent it ends with an implied newline, and getChars hands out the
+// piece buffers directly when the requested range lies within one piece.
+public class PieceTableContent implements AbstractDocument.Content {
+	private final PieceTable text = new PieceTable();
+	// Positions sorted by offset; entries whose Position is no longer referenced are purged
+	private final List<Mark> marks = new ArrayList<>();
+	private final ReferenceQueue<MarkPosition> released = new ReferenceQueue<>();
+
+	public PieceTable getPieceTable() {
+		return text;
+	}
+
+	@Override
+	public synchronized Position createPosition(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length()) {
+			throw new BadLocationException("Invalid position", offset);
+		}
+		purgeReleasedMarks();
+		MarkPosition position = new MarkPosition(offset);
+		Mark mark = new Mark(position, released);
+		position.mark = mark;
+		marks.add(firstMarkAt(offset), mark);
+		return position;
+	}
+
+	@Override
+	public int length() {
+		return text.length() + 1;
+	}
+
+	@Override
+	public synchronized UndoableEdit insertString(int where, String str) throws BadLocationException {
+		if (where < 0 || where > text.length()) {
+			throw new BadLocationException("Invalid insert", where);
+		}
+		text.insert(where, str);
+		// A position at 0 stays at the start of the document
+		for (int i = firstMarkAt(where == 0 ? 1 : where); i < marks.size(); i++) {
+			marks.get(i).offset += str.length();
+		}
+		return null;
+	}
+
+	@Override
+	public synchronized UndoableEdit remove(int where, int nitems) throws BadLocationException {
+		if (where < 0 || nitems < 0 || where + nitems > text.length()) {
+			throw new BadLocationException("Invalid remove", where + nitems);
+		}
+		text.delete(where, nitems);
+		for (int i = firstMarkAt(where); i < marks.size(); i++) {
+			Mark mark = marks.get(i);
+			mark.offset = mark.offset <= where + nitems ? where : mark.offset - nitems;
+		}
+		return null;
+	}
+
+	@Override
+	public String getString(int where, int len) throws BadLocationException {
+		Segment segment = new Segment();
+		getChars(where, len, segment);
+		return new String(segment.array, segment.offset, segment.count);
+	}
+
+	@Override
+	public synchronized void getChars(int where, int len, Segment txt) throws BadLocationException {
+		if (where < 0 || len < 0 || where + len > length()) {
+			throw new BadLocationException("Invalid location", where + len);
+		}
+		// The implied trailing newline is not stored in the table
+		boolean trailingNewline = where + len > text.length();
+		int stored = trailingNewline ? len - 1 : len;
+
+		if (!trailingNewline && stored > 0) {
+			int[] chunks = { 0 };
+			text.forEachChunk(where, stored, (buffer, start, chunkLength) -> {
+				if (chunks[0]++ == 0 && (chunkLength == stored || txt.isPartialReturn())) {
+					txt.array = buffer;
+					txt.offset = start;
+					txt.count = chunkLength;
+				}
+			});
+			if (chunks[0] == 1 || txt.isPartialReturn()) {
+				return;
+			}
+		}
+
+		char[] copy = new char[len];
+		text.getChars(where, stored, copy, 0);
+		if (trailingNewline) {
+			copy[len - 1] = '\n';
+		}
+		txt.array = copy;
+		txt.offset = 0;
+		txt.count = len;
+	}
+
+	private int firstMarkAt(int offset) {
+		int low = 0;
+		int high = marks.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (marks.get(middle).offset < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private void purgeReleasedMarks() {
+		if (released.poll() == null) {
+			return;
+		}
+		while (released.poll() != null) {
+		}
+		marks.removeIf(mark -> mark.get() == null);
+	}
+
+	private static final class Mark extends WeakReference<MarkPosition> {
+		int offset;
+
+		Mark(MarkPosition position, ReferenceQueue<MarkPosition> queue) {
+			super(position, queue);
+			this.offset = position.initialOffset;
+		}
+	}
+
+	private static final class MarkPosition implements Position {
+		final int initialOffset;
+		Mark mark;
+
+		MarkPosition(int offset) {
+			this.initialOffset = offset;
+		}
+
+		@Override
+		public int getOffset() {
+			return mark.offset;
+		}
+	}
+}